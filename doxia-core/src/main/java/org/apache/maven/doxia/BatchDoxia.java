@@ -0,0 +1,78 @@
+package org.apache.maven.doxia;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.doxia.sink.SinkFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link Doxia} which also renders whole sets of documents.
+ * <p>
+ *   The default Doxia component implements it, callers check for it with <code>instanceof</code>.
+ * </p>
+ *
+ * @since 1.8
+ */
+public interface BatchDoxia
+    extends Doxia
+{
+    /**
+     * Renders several documents concurrently. Every job is parsed with its own parser and written to its own sink,
+     * a failing job is recorded in the returned result and does not stop the other jobs.
+     *
+     * @param jobs the documents to render, not null.
+     * @param executor the executor running the jobs, for instance a <code>ForkJoinPool</code> or an executor
+     * starting a (virtual) thread per task. It is owned by the caller, who is responsible for shutting it down.
+     * @param maxInFlight the maximum number of jobs submitted to the executor and not yet finished. This bounds
+     * the memory held by documents being rendered, whatever the queueing policy of the executor is. Must be positive.
+     * @return the summary of the rendering, never null.
+     * @throws java.lang.InterruptedException if the current thread is interrupted while submitting jobs or waiting
+     * for them to finish.
+     * @since 1.8
+     */
+    RenderingResult render( Collection<RenderingJob> jobs, Executor executor, int maxInFlight )
+        throws InterruptedException;
+
+    /**
+     * Creates a rendering job for every source document of every known parser module,
+     * i.e. for every file with one of the {@link org.apache.maven.doxia.parser.module.ParserModule#getExtensions()}
+     * found in <code>&lt;siteDirectory&gt;/&lt;</code>{@link
+     * org.apache.maven.doxia.parser.module.ParserModule#getSourceDirectory()}<code>&gt;</code>.
+     * The output of a document keeps its path relative to the module source directory, with the
+     * extension replaced by <code>outputExtension</code>.
+     *
+     * @param siteDirectory the directory containing the module source directories, not null.
+     * @param inputEncoding the encoding of the source documents, not null.
+     * @param sinkFactory the factory to create the output sinks, not null.
+     * @param outputDirectory the output directory, not null.
+     * @param outputExtension the extension of the output files without leading dot, eg <code>html</code>.
+     * @return the rendering jobs, never null.
+     * @throws java.io.IOException if the source directories could not be scanned.
+     * @since 1.8
+     */
+    List<RenderingJob> createRenderingJobs( File siteDirectory, String inputEncoding, SinkFactory sinkFactory,
+                                            File outputDirectory, String outputExtension )
+        throws IOException;
+}
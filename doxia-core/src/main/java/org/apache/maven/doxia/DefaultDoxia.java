@@ -24,13 +24,30 @@ import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.parser.Parser;
 import org.apache.maven.doxia.parser.manager.ParserManager;
 import org.apache.maven.doxia.parser.manager.ParserNotFoundException;
+import org.apache.maven.doxia.parser.module.ParserModule;
+import org.apache.maven.doxia.parser.module.ParserModuleManager;
 import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkFactory;
 
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.ReaderFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
 /**
  * Simple implementation of the Doxia interface:
@@ -43,11 +60,14 @@ import java.io.Reader;
 @Component( role = Doxia.class )
 public class DefaultDoxia
     extends AbstractLogEnabled
-    implements Doxia
+    implements BatchDoxia
 {
     @Requirement
     private ParserManager parserManager;
 
+    @Requirement
+    private ParserModuleManager parserModuleManager;
+
     // ----------------------------------------------------------------------
     // This remains because the sinks are not threadsafe which they probably
     // should be. In some places a constructor is used to initialize a sink
@@ -71,4 +91,192 @@ public class DefaultDoxia
     {
         return parserManager.getParser( parserId );
     }
+
+    /** {@inheritDoc} */
+    public RenderingResult render( Collection<RenderingJob> jobs, Executor executor, int maxInFlight )
+        throws InterruptedException
+    {
+        if ( maxInFlight < 1 )
+        {
+            throw new IllegalArgumentException( "maxInFlight must be positive: " + maxInFlight );
+        }
+
+        final RenderingResult result = new RenderingResult( jobs.size() );
+        final Semaphore inFlight = new Semaphore( maxInFlight );
+        final CountDownLatch finished = new CountDownLatch( jobs.size() );
+
+        enableLogging( jobs );
+
+        for ( final RenderingJob job : jobs )
+        {
+            inFlight.acquire();
+
+            Runnable task = new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        render( job );
+                        result.addSuccess( job );
+                    }
+                    catch ( Exception e )
+                    {
+                        result.addFailure( job, e );
+                    }
+                    catch ( Error e )
+                    {
+                        result.addFailure( job, e );
+                        throw e;
+                    }
+                    finally
+                    {
+                        inFlight.release();
+                        finished.countDown();
+                    }
+                }
+            };
+
+            try
+            {
+                executor.execute( task );
+            }
+            catch ( RejectedExecutionException e )
+            {
+                result.addFailure( job, e );
+                inFlight.release();
+                finished.countDown();
+            }
+        }
+
+        finished.await();
+        result.done();
+
+        if ( getLogger() != null && getLogger().isDebugEnabled() )
+        {
+            getLogger().debug( result.toString() );
+        }
+
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    public List<RenderingJob> createRenderingJobs( File siteDirectory, String inputEncoding, SinkFactory sinkFactory,
+                                                   File outputDirectory, String outputExtension )
+        throws IOException
+    {
+        List<RenderingJob> jobs = new ArrayList<RenderingJob>();
+
+        for ( ParserModule module : parserModuleManager.getParserModules() )
+        {
+            File moduleDirectory = new File( siteDirectory, module.getSourceDirectory() );
+
+            if ( !moduleDirectory.isDirectory() )
+            {
+                continue;
+            }
+
+            for ( String extension : module.getExtensions() )
+            {
+                List<String> names = FileUtils.getFileNames( moduleDirectory, "**/*." + extension, null, false );
+
+                for ( String name : names )
+                {
+                    File source = new File( moduleDirectory, name );
+                    String parent = new File( name ).getParent();
+                    File jobOutputDirectory =
+                        ( parent == null ) ? outputDirectory : new File( outputDirectory, parent );
+                    String outputName =
+                        source.getName().substring( 0, source.getName().length() - extension.length() )
+                            + outputExtension;
+
+                    jobs.add( new RenderingJob( source, inputEncoding, module.getParserId(), sinkFactory,
+                                                jobOutputDirectory, outputName ) );
+                }
+            }
+        }
+
+        return jobs;
+    }
+
+    /**
+     * Sets the logger of the parsers of the given jobs once, before the jobs share them between threads.
+     *
+     * @param jobs the jobs to render, not null.
+     */
+    private void enableLogging( Collection<RenderingJob> jobs )
+    {
+        Set<String> parserIds = new HashSet<String>();
+
+        for ( RenderingJob job : jobs )
+        {
+            if ( parserIds.add( job.getParserId() ) )
+            {
+                try
+                {
+                    parserManager.getParser( job.getParserId() ).enableLogging(
+                        new PlexusLoggerWrapper( getLogger() ) );
+                }
+                catch ( ParserNotFoundException e )
+                {
+                    // reported as the failure of the job
+                }
+            }
+        }
+    }
+
+    /**
+     * Renders a single job, the sink and the source reader are closed in any case.
+     *
+     * @param job the job to render, not null.
+     * @throws ParserNotFoundException if no parser could be found for the job.
+     * @throws ParseException if the source document could not be parsed.
+     * @throws IOException if the source could not be read or the sink could not be created.
+     */
+    private void render( RenderingJob job )
+        throws ParserNotFoundException, ParseException, IOException
+    {
+        Parser parser = parserManager.getParser( job.getParserId() );
+
+        Reader reader = null;
+        Sink sink = null;
+        try
+        {
+            reader = ReaderFactory.newReader( job.getSource(), job.getInputEncoding() );
+
+            SinkFactory sinkFactory = job.getSinkFactory();
+            if ( job.getOutputEncoding() == null )
+            {
+                sink = sinkFactory.createSink( job.getOutputDirectory(), job.getOutputName() );
+            }
+            else
+            {
+                sink = sinkFactory.createSink( job.getOutputDirectory(), job.getOutputName(),
+                                               job.getOutputEncoding() );
+            }
+
+            parser.parse( reader, sink, job.getSource().getName() );
+        }
+        finally
+        {
+            try
+            {
+                if ( sink != null )
+                {
+                    try
+                    {
+                        sink.flush();
+                    }
+                    finally
+                    {
+                        sink.close();
+                    }
+                }
+            }
+            finally
+            {
+                IOUtil.close( reader );
+            }
+        }
+    }
 }
@@ -0,0 +1,163 @@
+package org.apache.maven.doxia;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+import org.apache.maven.doxia.sink.SinkFactory;
+
+/**
+ * A single document to render by {@link BatchDoxia#render(java.util.Collection, java.util.concurrent.Executor, int)}:
+ * a source file, the id of the parser to read it, and the <code>SinkFactory</code> and location of the output.
+ *
+ * @version $Id$
+ * @since 1.8
+ */
+public class RenderingJob
+{
+    /** The source document. */
+    private final File source;
+
+    /** The encoding of the source document. */
+    private final String inputEncoding;
+
+    /** The id of the parser for the source document. */
+    private final String parserId;
+
+    /** The factory to create the output sink. */
+    private final SinkFactory sinkFactory;
+
+    /** The output directory. */
+    private final File outputDirectory;
+
+    /** The output file name. */
+    private final String outputName;
+
+    /** The output encoding, may be null. */
+    private final String outputEncoding;
+
+    /**
+     * Constructor for a job using the default output encoding of the <code>SinkFactory</code>.
+     *
+     * @param source the source document, not null.
+     * @param inputEncoding the encoding of the source document, not null.
+     * @param parserId the parser id, not null.
+     * @param sinkFactory the factory for the output sink, not null.
+     * @param outputDirectory the output directory, not null.
+     * @param outputName the output file name, not null.
+     */
+    public RenderingJob( File source, String inputEncoding, String parserId, SinkFactory sinkFactory,
+                         File outputDirectory, String outputName )
+    {
+        this( source, inputEncoding, parserId, sinkFactory, outputDirectory, outputName, null );
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param source the source document, not null.
+     * @param inputEncoding the encoding of the source document, not null.
+     * @param parserId the parser id, not null.
+     * @param sinkFactory the factory for the output sink, not null.
+     * @param outputDirectory the output directory, not null.
+     * @param outputName the output file name, not null.
+     * @param outputEncoding the output encoding, or null to use the default encoding of the sink factory.
+     */
+    public RenderingJob( File source, String inputEncoding, String parserId, SinkFactory sinkFactory,
+                         File outputDirectory, String outputName, String outputEncoding )
+    {
+        if ( source == null || inputEncoding == null || parserId == null || sinkFactory == null
+            || outputDirectory == null || outputName == null )
+        {
+            throw new IllegalArgumentException( "Only the output encoding of a rendering job can be null." );
+        }
+
+        this.source = source;
+        this.inputEncoding = inputEncoding;
+        this.parserId = parserId;
+        this.sinkFactory = sinkFactory;
+        this.outputDirectory = outputDirectory;
+        this.outputName = outputName;
+        this.outputEncoding = outputEncoding;
+    }
+
+    /**
+     * @return the source document.
+     */
+    public File getSource()
+    {
+        return source;
+    }
+
+    /**
+     * @return the encoding of the source document.
+     */
+    public String getInputEncoding()
+    {
+        return inputEncoding;
+    }
+
+    /**
+     * @return the id of the parser for the source document.
+     */
+    public String getParserId()
+    {
+        return parserId;
+    }
+
+    /**
+     * @return the factory to create the output sink.
+     */
+    public SinkFactory getSinkFactory()
+    {
+        return sinkFactory;
+    }
+
+    /**
+     * @return the output directory.
+     */
+    public File getOutputDirectory()
+    {
+        return outputDirectory;
+    }
+
+    /**
+     * @return the output file name, relative to the output directory.
+     */
+    public String getOutputName()
+    {
+        return outputName;
+    }
+
+    /**
+     * @return the output encoding, or null if the default encoding of the sink factory is used.
+     */
+    public String getOutputEncoding()
+    {
+        return outputEncoding;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString()
+    {
+        return source.getPath() + " (" + parserId + ") -> " + new File( outputDirectory, outputName ).getPath();
+    }
+}
@@ -0,0 +1,148 @@
+package org.apache.maven.doxia;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The summary of a batch rendering with
+ * {@link BatchDoxia#render(java.util.Collection, java.util.concurrent.Executor, int)}.
+ * A failing job does not stop the others, its exception or error is collected here instead.
+ *
+ * <p>Instances are updated concurrently by the rendering threads, all methods are synchronized.</p>
+ *
+ * @version $Id$
+ * @since 1.8
+ */
+public class RenderingResult
+{
+    /** The number of submitted jobs. */
+    private final int jobCount;
+
+    /** The number of successfully rendered jobs. */
+    private int successCount;
+
+    /** The failed jobs, in order of failure. */
+    private final Map<RenderingJob, Throwable> failures = new LinkedHashMap<RenderingJob, Throwable>();
+
+    /** The start time in milliseconds. */
+    private final long startTime;
+
+    /** The rendering time in milliseconds, or -1 if still running. */
+    private long elapsedTime = -1;
+
+    /**
+     * Constructor.
+     *
+     * @param jobCount the number of jobs to render.
+     */
+    public RenderingResult( int jobCount )
+    {
+        this.jobCount = jobCount;
+        this.startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Records a successfully rendered job.
+     *
+     * @param job the job, not null.
+     */
+    public synchronized void addSuccess( RenderingJob job )
+    {
+        successCount++;
+    }
+
+    /**
+     * Records a failed job.
+     *
+     * @param job the job, not null.
+     * @param cause the reason of the failure, not null.
+     */
+    public synchronized void addFailure( RenderingJob job, Throwable cause )
+    {
+        failures.put( job, cause );
+    }
+
+    /**
+     * Marks the end of the rendering.
+     */
+    public synchronized void done()
+    {
+        elapsedTime = System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * @return the number of submitted jobs.
+     */
+    public int getJobCount()
+    {
+        return jobCount;
+    }
+
+    /**
+     * @return the number of successfully rendered jobs.
+     */
+    public synchronized int getSuccessCount()
+    {
+        return successCount;
+    }
+
+    /**
+     * @return the number of failed jobs.
+     */
+    public synchronized int getFailureCount()
+    {
+        return failures.size();
+    }
+
+    /**
+     * @return the failed jobs with their failure cause, never null.
+     */
+    public synchronized Map<RenderingJob, Throwable> getFailures()
+    {
+        return Collections.unmodifiableMap( new LinkedHashMap<RenderingJob, Throwable>( failures ) );
+    }
+
+    /**
+     * @return true if all jobs were rendered without failure.
+     */
+    public synchronized boolean isSuccessful()
+    {
+        return failures.isEmpty() && successCount == jobCount;
+    }
+
+    /**
+     * @return the rendering time in milliseconds, or -1 if the rendering is not finished.
+     */
+    public synchronized long getElapsedTime()
+    {
+        return elapsedTime;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized String toString()
+    {
+        return "Rendered " + successCount + " of " + jobCount + " documents (" + failures.size() + " failed) in "
+            + elapsedTime + " ms";
+    }
+}
@@ -276,10 +276,14 @@ public class IndexingSink
 
     /**
      * Removes the IndexEntry at the top of this stack.
+     * The root entry is never removed, even for a section without title.
      */
     public void pop()
     {
-        stack.pop();
+        if ( stack.size() > 1 )
+        {
+            stack.pop();
+        }
     }
 
     /**
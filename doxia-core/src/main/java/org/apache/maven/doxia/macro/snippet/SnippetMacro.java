@@ -32,8 +32,8 @@ import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A macro that prints out the content of a file or a URL.
@@ -47,7 +47,7 @@ public class SnippetMacro
     /**
      * Holds the cache.
      */
-    private static Map<String, String> cache = new HashMap<String, String>();
+    private static Map<String, String> cache = new ConcurrentHashMap<String, String>();
 
     private static final int HOUR = 60;
 
@@ -59,7 +59,7 @@ public class SnippetMacro
     /**
      * Holds the time cache.
      */
-    private static Map<String, Long> timeCached = new HashMap<String, Long>();
+    private static Map<String, Long> timeCached = new ConcurrentHashMap<String, Long>();
 
     /**
      * Debug.
@@ -274,7 +274,9 @@ public class SnippetMacro
     {
         String globalId = globalSnippetId( url, id );
 
-        return timeCached.containsKey( globalId ) ? timeCached.get( globalId ).longValue() : 0;
+        Long time = timeCached.get( globalId );
+
+        return ( time != null ) ? time.longValue() : 0;
     }
 
     /**
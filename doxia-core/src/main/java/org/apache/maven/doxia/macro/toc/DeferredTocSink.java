@@ -0,0 +1,334 @@
+package org.apache.maven.doxia.macro.toc;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.doxia.index.IndexEntry;
+import org.apache.maven.doxia.index.IndexingSink;
+import org.apache.maven.doxia.logging.Log;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+import org.apache.maven.doxia.sink.impl.RecordingSink;
+import org.apache.maven.doxia.sink.impl.SinkWrapper;
+
+/**
+ * A sink wrapper that builds the document index while the document is being parsed, so that
+ * <code>toc</code> macros don't need to parse the whole source a second time.
+ *
+ * <p>When a TOC is requested with {@link #addTocHook(TocHook)}, a hook is added at the current position
+ * (like {@link org.apache.maven.doxia.sink.impl.RandomAccessSink#addSinkHook()}) and the following events
+ * are kept in memory. The hooks are filled with the complete index and the kept events are written
+ * to the wrapped sink by {@link #resolve()}, which is called at the end of the body and on close. A flush in between
+ * is kept with the other events: the index is not complete before the end of the document.</p>
+ *
+ * @since 1.8
+ */
+public class DeferredTocSink
+    extends SinkWrapper
+{
+    /** The sink that receives the final document. */
+    private final Sink target;
+
+    /** The root of the index collected so far. */
+    private final IndexEntry index;
+
+    /** Collects the index entries. */
+    private final IndexingSink indexingSink;
+
+    /** The hooks waiting for the end of the document, in document order. */
+    private final List<TocHook> hooks = new ArrayList<TocHook>();
+
+    /** The events that follow each hook, same size as <code>hooks</code>. */
+    private final List<RecordingSink> buffers = new ArrayList<RecordingSink>();
+
+    /**
+     * Constructs a DeferredTocSink.
+     *
+     * @param sink the sink to write the document to, not null.
+     */
+    public DeferredTocSink( Sink sink )
+    {
+        super( sink );
+
+        this.target = sink;
+        this.index = new IndexEntry( "index" );
+        this.indexingSink = new IndexingSink( index );
+    }
+
+    /**
+     * @return the index of the sections that have been seen so far.
+     */
+    public IndexEntry getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * Adds a TOC at the current position. The hook is called back with the complete index
+     * when the document is {@link #resolve() resolved}.
+     *
+     * @param hook writes the TOC, not null.
+     */
+    public void addTocHook( TocHook hook )
+    {
+        RecordingSink buffer = new RecordingSink();
+
+        hooks.add( hook );
+        buffers.add( buffer );
+
+        setWrappedSink( buffer );
+    }
+
+    /**
+     * Writes the pending TOCs followed by the events that were kept since each of them.
+     * Subsequent events go directly to the wrapped sink.
+     */
+    public void resolve()
+    {
+        if ( hooks.isEmpty() )
+        {
+            return;
+        }
+
+        setWrappedSink( target );
+
+        for ( int i = 0; i < hooks.size(); i++ )
+        {
+            hooks.get( i ).writeToc( target, index );
+            buffers.get( i ).getEventLog().replay( target );
+        }
+
+        hooks.clear();
+        buffers.clear();
+    }
+
+    // ----------------------------------------------------------------------
+    // Sink Overrides
+    // ----------------------------------------------------------------------
+
+    @Override
+    public void body_()
+    {
+        resolve();
+        super.body_();
+    }
+
+    @Override
+    public void enableLogging( Log log )
+    {
+        target.enableLogging( log );
+    }
+
+    @Override
+    public void close()
+    {
+        resolve();
+        super.close();
+    }
+
+    @Override
+    public void title()
+    {
+        indexingSink.title();
+        super.title();
+    }
+
+    @Override
+    public void title( SinkEventAttributes attributes )
+    {
+        indexingSink.title( attributes );
+        super.title( attributes );
+    }
+
+    @Override
+    public void title_()
+    {
+        indexingSink.title_();
+        super.title_();
+    }
+
+    @Override
+    public void section_( int level )
+    {
+        indexingSink.section_( level );
+        super.section_( level );
+    }
+
+    @Override
+    public void sectionTitle( int level, SinkEventAttributes attributes )
+    {
+        indexingSink.sectionTitle( level, attributes );
+        super.sectionTitle( level, attributes );
+    }
+
+    @Override
+    public void sectionTitle_( int level )
+    {
+        indexingSink.sectionTitle_( level );
+        super.sectionTitle_( level );
+    }
+
+    @Override
+    public void section1_()
+    {
+        indexingSink.section1_();
+        super.section1_();
+    }
+
+    @Override
+    public void sectionTitle1()
+    {
+        indexingSink.sectionTitle1();
+        super.sectionTitle1();
+    }
+
+    @Override
+    public void sectionTitle1_()
+    {
+        indexingSink.sectionTitle1_();
+        super.sectionTitle1_();
+    }
+
+    @Override
+    public void section2_()
+    {
+        indexingSink.section2_();
+        super.section2_();
+    }
+
+    @Override
+    public void sectionTitle2()
+    {
+        indexingSink.sectionTitle2();
+        super.sectionTitle2();
+    }
+
+    @Override
+    public void sectionTitle2_()
+    {
+        indexingSink.sectionTitle2_();
+        super.sectionTitle2_();
+    }
+
+    @Override
+    public void section3_()
+    {
+        indexingSink.section3_();
+        super.section3_();
+    }
+
+    @Override
+    public void sectionTitle3()
+    {
+        indexingSink.sectionTitle3();
+        super.sectionTitle3();
+    }
+
+    @Override
+    public void sectionTitle3_()
+    {
+        indexingSink.sectionTitle3_();
+        super.sectionTitle3_();
+    }
+
+    @Override
+    public void section4_()
+    {
+        indexingSink.section4_();
+        super.section4_();
+    }
+
+    @Override
+    public void sectionTitle4()
+    {
+        indexingSink.sectionTitle4();
+        super.sectionTitle4();
+    }
+
+    @Override
+    public void sectionTitle4_()
+    {
+        indexingSink.sectionTitle4_();
+        super.sectionTitle4_();
+    }
+
+    @Override
+    public void section5_()
+    {
+        indexingSink.section5_();
+        super.section5_();
+    }
+
+    @Override
+    public void sectionTitle5()
+    {
+        indexingSink.sectionTitle5();
+        super.sectionTitle5();
+    }
+
+    @Override
+    public void sectionTitle5_()
+    {
+        indexingSink.sectionTitle5_();
+        super.sectionTitle5_();
+    }
+
+    @Override
+    public void text( String text )
+    {
+        indexingSink.text( text );
+        super.text( text );
+    }
+
+    @Override
+    public void text( String text, SinkEventAttributes attributes )
+    {
+        indexingSink.text( text, attributes );
+        super.text( text, attributes );
+    }
+
+    @Override
+    public void text( CharSequence text )
+    {
+        indexingSink.text( text );
+        super.text( text );
+    }
+
+    @Override
+    public void text( char[] text, int offset, int length )
+    {
+        indexingSink.text( text, offset, length );
+        super.text( text, offset, length );
+    }
+
+    /**
+     * Writes a TOC once the index of the whole document is known.
+     */
+    public interface TocHook
+    {
+        /**
+         * @param sink the sink to write the TOC to.
+         * @param index the root of the document index.
+         */
+        void writeToc( Sink sink, IndexEntry index );
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.maven.doxia.util.HtmlTools;
 import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.parser.Parser;
 import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
 
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.util.StringUtils;
@@ -81,15 +82,6 @@ import org.codehaus.plexus.util.StringUtils;
 public class TocMacro
     extends AbstractMacro
 {
-    /** The section to display. */
-    private int section;
-
-    /** Start depth. */
-    private int fromDepth;
-
-    /** End depth. */
-    private int toDepth;
-
     /** The default end depth. */
     private static final int DEFAULT_DEPTH = 5;
 
@@ -97,18 +89,34 @@ public class TocMacro
     public void execute( Sink sink, MacroRequest request )
         throws MacroExecutionException
     {
-        String source = request.getSourceContent();
-        Parser parser = request.getParser();
-
-        section = getInt( request, "section", 0 );
-        fromDepth = getInt( request, "fromDepth", 0 );
-        toDepth = getInt( request, "toDepth", DEFAULT_DEPTH );
+        final int section = getInt( request, "section", 0 );
+        final int fromDepth = getInt( request, "fromDepth", 0 );
+        final int toDepth = getInt( request, "toDepth", DEFAULT_DEPTH );
 
         if ( fromDepth > toDepth )
         {
             return;
         }
 
+        final SinkEventAttributes attributes = getAttributesFromMap( request.getParameters() );
+
+        if ( sink instanceof DeferredTocSink )
+        {
+            // the index is collected while the document is parsed, write the TOC once it is complete
+            ( (DeferredTocSink) sink ).addTocHook( new DeferredTocSink.TocHook()
+            {
+                public void writeToc( Sink tocSink, IndexEntry index )
+                {
+                    TocMacro.this.writeToc( tocSink, index, attributes, section, fromDepth, toDepth );
+                }
+            } );
+
+            return;
+        }
+
+        String source = request.getSourceContent();
+        Parser parser = request.getParser();
+
         IndexEntry index = new IndexEntry( "index" );
         IndexingSink tocSink = new IndexingSink( index );
 
@@ -121,9 +129,23 @@ public class TocMacro
             throw new MacroExecutionException( "ParseException: " + e.getMessage(), e );
         }
 
+        writeToc( sink, index, attributes, section, fromDepth, toDepth );
+    }
+
+    /**
+     * @param sink The sink to write to.
+     * @param index The document index.
+     * @param attributes The attributes of the TOC list.
+     * @param section The section to write, or 0 for all sections.
+     * @param fromDepth Start depth.
+     * @param toDepth End depth.
+     */
+    private void writeToc( Sink sink, IndexEntry index, SinkEventAttributes attributes, int section, int fromDepth,
+                           int toDepth )
+    {
         if ( index.getChildEntries().size() > 0 )
         {
-            sink.list( getAttributesFromMap( request.getParameters() ) );
+            sink.list( attributes );
 
             int i = 1;
 
@@ -131,7 +153,7 @@ public class TocMacro
             {
                 if ( ( i == section ) || ( section == 0 ) )
                 {
-                    writeSubSectionN( sink, sectionIndex, 1 );
+                    writeSubSectionN( sink, sectionIndex, 1, fromDepth, toDepth );
                 }
 
                 i++;
@@ -145,8 +167,10 @@ public class TocMacro
      * @param sink The sink to write to.
      * @param sectionIndex The section index.
      * @param n The toc depth.
+     * @param fromDepth Start depth.
+     * @param toDepth End depth.
      */
-    private void writeSubSectionN( Sink sink, IndexEntry sectionIndex, int n )
+    private void writeSubSectionN( Sink sink, IndexEntry sectionIndex, int n, int fromDepth, int toDepth )
     {
         if ( fromDepth <= n )
         {
@@ -177,7 +201,7 @@ public class TocMacro
                     }
                     else
                     {
-                        writeSubSectionN( sink, subsectionIndex, n + 1 );
+                        writeSubSectionN( sink, subsectionIndex, n + 1, fromDepth, toDepth );
                     }
                 }
 
@@ -25,7 +25,9 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 
+import java.util.Collections;
 import java.util.Properties;
+import java.util.concurrent.Executor;
 
 import org.apache.maven.doxia.logging.Log;
 import org.apache.maven.doxia.logging.SystemStreamLog;
@@ -34,7 +36,9 @@ import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
 import org.apache.maven.doxia.macro.manager.MacroManager;
 import org.apache.maven.doxia.macro.manager.MacroNotFoundException;
+import org.apache.maven.doxia.macro.toc.DeferredTocSink;
 import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.ConcurrentFanOutSink;
 import org.codehaus.plexus.component.annotations.Requirement;
 
 /**
@@ -46,11 +50,14 @@ import org.codehaus.plexus.component.annotations.Requirement;
  * @since 1.0
  */
 public abstract class AbstractParser
-    implements Parser
+    implements Parser, Cloneable
 {
     /** Indicates that a second parsing is required. */
     private boolean secondParsing = false;
 
+    /** Indicates that this instance is the per-document context of a parser component. */
+    private boolean parseContext = false;
+
     @Requirement
     private MacroManager macroManager;
 
@@ -62,6 +69,9 @@ public abstract class AbstractParser
      */
     private boolean emitComments = true;
 
+    /** Runs the sink of each parse, or null to run it on the parsing thread. */
+    private Executor pipelineExecutor;
+
     private static final String DOXIA_VERSION;
 
     static
@@ -115,6 +125,36 @@ public abstract class AbstractParser
         return emitComments;
     }
 
+    /**
+     * Enables pipelined parsing: the parser runs on the calling thread while the sink runs in a task of the given
+     * executor, the events being handed over through a bounded ring of recycled chunks. Tokenizing the source and
+     * writing the output then overlap, which pays off for very large documents.
+     * <code>parse()</code> returns once the sink has received all events.
+     * XML parsers also validate the source in a task of this executor, if validation is enabled.
+     * <p>
+     * The executor may be bounded, and may be shared with the thread calling <code>parse()</code>, for instance the
+     * executor given to {@link org.apache.maven.doxia.BatchDoxia#render(java.util.Collection, Executor, int)}: the
+     * parsing thread never waits for a task that has not started, it runs such tasks by itself instead. The overlap
+     * is then lost, but the parse does not deadlock.
+     * </p>
+     *
+     * @param executor the executor to run the sinks, or null to run them on the parsing thread (the default).
+     * @since 1.8
+     */
+    public void setPipelineExecutor( Executor executor )
+    {
+        this.pipelineExecutor = executor;
+    }
+
+    /**
+     * @return the executor running the sinks, or null if parsing is not pipelined.
+     * @since 1.8
+     */
+    public Executor getPipelineExecutor()
+    {
+        return pipelineExecutor;
+    }
+
     /**
      * Execute a macro on the given sink.
      *
@@ -246,6 +286,137 @@ public abstract class AbstractParser
         // nop
     }
 
+    /**
+     * Creates the context of a single parse.
+     *
+     * <p>Parsers are singleton components, but most of them keep the state of the document being parsed
+     * in instance fields. To allow one component instance to be used by several threads at once, every
+     * <code>parse()</code> call is delegated to a shallow copy of the component which is reset with
+     * {@link #init()} before use. The configuration (macro manager, logger, flags) is shared with the
+     * component, so subclasses have to (re)allocate any mutable per-document object in <code>init()</code>.</p>
+     *
+     * @return a new parser instance holding the state of one parse, never null.
+     * @see #isParseContext()
+     * @since 1.8
+     */
+    protected AbstractParser newParseContext()
+    {
+        AbstractParser context;
+        try
+        {
+            context = (AbstractParser) clone();
+        }
+        catch ( CloneNotSupportedException e )
+        {
+            // cannot happen, AbstractParser implements Cloneable
+            throw new IllegalStateException( "Unable to create parse context: " + e.getMessage() );
+        }
+
+        context.parseContext = true;
+        context.init();
+
+        return context;
+    }
+
+    /**
+     * Parses the given source in a new {@link #newParseContext() parse context}. If a
+     * {@link #setPipelineExecutor(Executor) pipeline executor} is set, the sink runs in a task of that executor.
+     *
+     * @param source not null reader that provides the source document.
+     * @param sink a sink that consumes the Doxia events.
+     * @param reference the reference of the source, may be null.
+     * @throws ParseException if the source could not be parsed.
+     * @since 1.8
+     */
+    protected void parseInNewContext( Reader source, Sink sink, String reference )
+        throws ParseException
+    {
+        AbstractParser context = newParseContext();
+
+        ConcurrentFanOutSink pipeline = null;
+        Sink target = sink;
+        if ( pipelineExecutor != null )
+        {
+            pipeline = new ConcurrentFanOutSink( Collections.singletonList( sink ), pipelineExecutor );
+            target = pipeline;
+        }
+
+        boolean parsed = false;
+        try
+        {
+            context.parse( source, target, reference );
+            parsed = true;
+        }
+        finally
+        {
+            if ( pipeline != null )
+            {
+                finishPipeline( pipeline, parsed );
+            }
+        }
+    }
+
+    /**
+     * Gives a {@link DeferredTocSink} for a source which contains a <code>toc</code> macro, so that the macro is
+     * filled from the index collected during the parse instead of parsing the source again. The source is only
+     * searched for the given macro starts: a toc macro written otherwise still works, by parsing the source again.
+     * The returned sink has to be {@link DeferredTocSink#resolve() resolved} after the parse.
+     *
+     * @param sink the sink to receive the document, not null.
+     * @param source the whole source document, not null.
+     * @param tocMacros the ways a toc macro starts in the syntax of the source, eg <code>%{toc</code> in APT.
+     * @return a DeferredTocSink wrapping the sink, or null if the source has no toc macro or if this is a second
+     * parsing.
+     * @since 1.8
+     */
+    protected DeferredTocSink newDeferredTocSink( Sink sink, String source, String... tocMacros )
+    {
+        if ( isSecondParsing() )
+        {
+            return null;
+        }
+
+        for ( String tocMacro : tocMacros )
+        {
+            if ( source.contains( tocMacro ) )
+            {
+                return new DeferredTocSink( sink );
+            }
+        }
+
+        return null;
+    }
+
+    private void finishPipeline( ConcurrentFanOutSink pipeline, boolean parsed )
+    {
+        try
+        {
+            pipeline.finish();
+        }
+        catch ( RuntimeException e )
+        {
+            if ( parsed )
+            {
+                throw e;
+            }
+            // the parse failure is more relevant
+            getLog().debug( "Sink failed after a parse error: " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Indicates if this instance is the context of a single parse, i.e. if it was created by
+     * {@link #newParseContext()}. Public <code>parse()</code> methods that change the parser state
+     * should delegate to a new context if this returns <code>false</code>.
+     *
+     * @return true if this instance holds the state of a single parse.
+     * @since 1.8
+     */
+    protected boolean isParseContext()
+    {
+        return parseContext;
+    }
+
     /**
      * The current Doxia version.
      *
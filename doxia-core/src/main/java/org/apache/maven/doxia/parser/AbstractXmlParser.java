@@ -19,43 +19,36 @@ package org.apache.maven.doxia.parser;
  * under the License.
  */
 
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.Reader;
-import java.io.StringReader;
-import java.net.URL;
-import java.util.Hashtable;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
-import org.apache.http.HttpStatus;
-import org.apache.http.client.ClientProtocolException;
-import org.apache.http.client.HttpRequestRetryHandler;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
-import org.apache.http.util.EntityUtils;
-
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.markup.XmlMarkup;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
+import org.apache.maven.doxia.sink.impl.SinkUtils;
 import org.apache.maven.doxia.util.HtmlTools;
+import org.apache.maven.doxia.util.ValidatingReader;
 import org.apache.maven.doxia.util.XmlValidator;
 
-import org.codehaus.plexus.util.FileUtils;
-import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.StringUtils;
+import org.codehaus.plexus.util.xml.pull.EntityReplacementMap;
 import org.codehaus.plexus.util.xml.pull.MXParser;
 import org.codehaus.plexus.util.xml.pull.XmlPullParser;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
@@ -93,6 +86,44 @@ public abstract class AbstractXmlParser
     private static final Pattern PATTERN_ENTITY_2 =
         Pattern.compile( ENTITY_START + "(\\s)+([^>|^\\s]+)(\\s)+\"(\\s)*(&(#x?[0-9a-fA-F]{1,5};)*)(\\s)*\"(\\s)*>" );
 
+    /**
+     * External parameter entity, i.e. an entity set included by a DTD:
+     * "<!ENTITY % HTMLlat1 PUBLIC \"-//W3C//ENTITIES Latin 1 for XHTML//EN\" \"xhtml-lat1.ent\">".
+     * The system identifier is the last group.
+     */
+    private static final Pattern PATTERN_PARAMETER_ENTITY = Pattern.compile( ENTITY_START
+        + "\\s+%\\s+[^\\s>]+\\s+(?:SYSTEM|PUBLIC\\s+(?:\"[^\"]*\"|'[^']*'))\\s+(?:\"([^\"]*)\"|'([^']*)')" );
+
+    /**
+     * External identifier of a doctype: "html PUBLIC \"-//W3C//DTD XHTML 1.0 Transitional//EN\" \"xhtml1.dtd\"".
+     * The system identifier is the last group.
+     */
+    private static final Pattern PATTERN_DOCTYPE_SYSTEM_ID = Pattern.compile(
+        "^\\s*[^\\s\\[>]+\\s+(?:SYSTEM|PUBLIC\\s+(?:\"[^\"]*\"|'[^']*'))\\s+(?:\"([^\"]*)\"|'([^']*)')" );
+
+    /** The encoding of the external DTDs. */
+    private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+    /**
+     * The entities declared by an external DTD and the entity sets it includes, built once per systemId of the DTD.
+     */
+    private static final ConcurrentMap<String, Map<String, String>> DTD_ENTITIES =
+        new ConcurrentHashMap<String, Map<String, String>>();
+
+    /** The maximum number of idle pull parsers kept per component, i.e. the expected number of concurrent parses. */
+    private static final int MAX_IDLE_PARSERS = Math.max( 4, Runtime.getRuntime().availableProcessors() );
+
+    /** The maximum size in chars of the buffers of an idle pull parser, the buffers of a pull parser only grow. */
+    private static final int MAX_IDLE_BUFFER = 64 * 1024;
+
+    /**
+     * The idle pull parsers of this component, shared with its parse contexts. A parser is only reused once its
+     * document has been parsed, so concurrent and nested parses get their own instance. The pool goes away with the
+     * component, rather than being held by every thread which once parsed a document.
+     */
+    private final Queue<PooledXmlPullParser> idleParsers =
+        new ArrayBlockingQueue<PooledXmlPullParser>( MAX_IDLE_PARSERS );
+
     private boolean ignorableWhitespace;
 
     private boolean collapsibleWhitespace;
@@ -103,37 +134,40 @@ public abstract class AbstractXmlParser
 
     private boolean validate = false;
 
+    /** The start and length of the text characters of the pull parser. */
+    private int[] textRange;
+
     /** {@inheritDoc} */
     public void parse( Reader source, Sink sink )
         throws ParseException
     {
+        if ( !isParseContext() )
+        {
+            parseInNewContext( source, sink, null );
+            return;
+        }
+
         init();
 
         Reader src = source;
+        ValidatingReader validatingReader = null;
 
-        // 1 first parsing if validation is required
+        // 1 validate while parsing if validation is required, the result is only known once the sink has the events
         if ( isValidate() )
         {
-            String content;
-            try
-            {
-                content = IOUtil.toString( new BufferedReader( src ) );
-            }
-            catch ( IOException e )
-            {
-                throw new ParseException( "Error reading the model: " + e.getMessage(), e );
-            }
-
-            new XmlValidator( getLog() ).validate( content );
-
-            src = new StringReader( content );
+            XmlValidator validator = new XmlValidator( getLog() );
+            validatingReader = getPipelineExecutor() != null
+                ? validator.newValidatingReader( src, getPipelineExecutor() )
+                : validator.newValidatingReader( src );
+            src = validatingReader;
         }
 
         // 2 second parsing to process
+        EntityReplacementMap entityMap = getEntityReplacementMap();
+        PooledXmlPullParser parser = acquireParser( entityMap );
         try
         {
-            XmlPullParser parser = new MXParser();
-
+            // resets the parser, only the entities of the entity map are kept
             parser.setInput( src );
             
             // allow parser initialization, e.g. for additional entities in XHTML
@@ -143,6 +177,11 @@ public abstract class AbstractXmlParser
             sink.enableLogging( getLog() );
 
             parseXml( parser, sink );
+
+            if ( validatingReader != null )
+            {
+                validatingReader.await();
+            }
         }
         catch ( XmlPullParserException ex )
         {
@@ -153,13 +192,39 @@ public abstract class AbstractXmlParser
         {
             throw new ParseException( "Macro execution failed: " + ex.getMessage(), ex );
         }
+        finally
+        {
+            if ( validatingReader != null )
+            {
+                validatingReader.cancel();
+            }
+
+            releaseParser( parser );
+        }
 
         setSecondParsing( false );
         init();
     }
     
     /**
-     * Initializes the parser with custom entities or other options.
+     * Gives the entities which are known without a DTD. They are installed in one step into the pull parser when
+     * its input is set, so this is much cheaper than defining them in {@link #initXmlParser(XmlPullParser)}.
+     * The map is not modified by the parser, so it should be built once and shared by all parser instances.
+     * The pull parsers are pooled per parser component, and a pooled parser is only reused for the same entity map:
+     * the entities of the map survive the reset of a pooled parser, whereas the ones defined in
+     * {@link #initXmlParser(XmlPullParser)} have to be defined for each document.
+     *
+     * @return the entities to install into the pull parser, or null if none.
+     * @since 1.8
+     */
+    protected EntityReplacementMap getEntityReplacementMap()
+    {
+        return null;
+    }
+
+    /**
+     * Initializes the parser with custom entities or other options. This is called for each document, as the pull
+     * parsers are reused and reset before each document.
      *
      * @param parser A parser, not null.
      * @throws org.codehaus.plexus.util.xml.pull.XmlPullParserException if there's a problem initializing the parser
@@ -189,6 +254,16 @@ public abstract class AbstractXmlParser
         return XML_TYPE;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected void init()
+    {
+        super.init();
+
+        this.entities = null;
+        this.textRange = new int[2];
+    }
+
     /**
      * Converts the attributes of the current start tag of the given parser to a SinkEventAttributeSet.
      *
@@ -215,6 +290,53 @@ public abstract class AbstractXmlParser
         return atts;
     }
 
+    /**
+     * Gives an idle pull parser of this component for the given entity map, or a new one. Its buffers are kept
+     * from the previous documents, and its state is reset when its input is set.
+     *
+     * @param entityMap the entities known without a DTD, may be null.
+     * @return a pull parser, not null.
+     */
+    private PooledXmlPullParser acquireParser( EntityReplacementMap entityMap )
+    {
+        PooledXmlPullParser parser;
+        while ( ( parser = idleParsers.poll() ) != null )
+        {
+            // a parser built for another entity map is dropped
+            if ( parser.getEntityMap() == entityMap )
+            {
+                return parser;
+            }
+        }
+
+        return new PooledXmlPullParser( entityMap );
+    }
+
+    /**
+     * Gives back a pull parser once its document has been parsed.
+     *
+     * @param parser the pull parser, not null.
+     */
+    private void releaseParser( PooledXmlPullParser parser )
+    {
+        try
+        {
+            // do not hold on to the source
+            parser.setInput( null );
+        }
+        catch ( XmlPullParserException e )
+        {
+            // not reusable
+            return;
+        }
+
+        // do not keep the buffers grown by a large document, nor more parsers than the pool holds
+        if ( !parser.isOversized( MAX_IDLE_BUFFER ) )
+        {
+            idleParsers.offer( parser );
+        }
+    }
+
     /**
      * Parse the model from the XmlPullParser into the given sink.
      *
@@ -223,7 +345,7 @@ public abstract class AbstractXmlParser
      * @throws org.codehaus.plexus.util.xml.pull.XmlPullParserException if there's a problem parsing the model
      * @throws org.apache.maven.doxia.macro.MacroExecutionException if there's a problem executing a macro
      */
-    private void parseXml( XmlPullParser parser, Sink sink )
+    private void parseXml( PooledXmlPullParser parser, Sink sink )
         throws XmlPullParserException, MacroExecutionException
     {
         int eventType = parser.getEventType();
@@ -240,16 +362,7 @@ public abstract class AbstractXmlParser
             }
             else if ( eventType == XmlPullParser.TEXT )
             {
-                String text = getText( parser );
-
-                if ( isIgnorableWhitespace() )
-                {
-                    if ( text.trim().length() != 0 )
-                    {
-                        handleText( parser, sink );
-                    }
-                }
-                else
+                if ( !isIgnorableWhitespace() || !isWhitespace( parser ) )
                 {
                     handleText( parser, sink );
                 }
@@ -276,12 +389,11 @@ public abstract class AbstractXmlParser
             }
             else if ( eventType == XmlPullParser.DOCDECL )
             {
-                addLocalEntities( parser, parser.getText() );
+                String docdecl = parser.getText();
 
-                for ( byte[] res : CachedFileEntityResolver.ENTITY_CACHE.values() )
-                {
-                    addDTDEntities( parser, new String( res ) );
-                }
+                addLocalEntities( parser, docdecl );
+
+                addDTDEntities( parser, docdecl );
             }
 
             try
@@ -330,18 +442,65 @@ public abstract class AbstractXmlParser
     protected void handleText( XmlPullParser parser, Sink sink )
         throws XmlPullParserException
     {
-        String text = getText( parser );
-
         /*
          * NOTE: Don't do any whitespace trimming here. Whitespace normalization has already been performed by the
          * parser so any whitespace that makes it here is significant.
          */
-        if ( StringUtils.isNotEmpty( text ) )
+        emitText( parser, sink );
+    }
+
+    /**
+     * Emits the text of the current event of the given parser into the sink, if not empty. Unless whitespace has to
+     * be trimmed or collapsed, the text is given straight from the characters of the parser, without a String.
+     *
+     * @param parser A parser, not null.
+     * @param sink the sink to receive the text. Not null.
+     * @see #getText(XmlPullParser)
+     * @since 1.8
+     */
+    protected void emitText( XmlPullParser parser, Sink sink )
+    {
+        if ( isTrimmableWhitespace() || isCollapsibleWhitespace() )
         {
-            sink.text( text );
+            String text = getText( parser );
+
+            if ( StringUtils.isNotEmpty( text ) )
+            {
+                sink.text( text );
+            }
+            return;
+        }
+
+        char[] chars = parser.getTextCharacters( textRange );
+
+        if ( textRange[1] > 0 )
+        {
+            SinkUtils.text( sink, chars, textRange[0], textRange[1] );
         }
     }
 
+    /**
+     * Tells if the text of the current event of the given parser is only whitespace, as defined by
+     * {@link String#trim()}, without materializing it as a String.
+     *
+     * @param parser A parser, not null.
+     * @return true if the text is empty or contains only whitespace.
+     */
+    private boolean isWhitespace( XmlPullParser parser )
+    {
+        char[] chars = parser.getTextCharacters( textRange );
+
+        for ( int i = textRange[0], end = textRange[0] + textRange[1]; i < end; i++ )
+        {
+            if ( chars[i] > ' ' )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     /**
      * Handles CDATA sections.
      *
@@ -584,6 +743,13 @@ public abstract class AbstractXmlParser
 
     /**
      * Specify a flag to validate or not the XML content.
+     * <p>
+     * Since 1.8, the content is not read and validated before it is parsed anymore: it is validated while it is
+     * parsed, in a task of the {@link #setPipelineExecutor(java.util.concurrent.Executor) pipeline executor} if one
+     * is set, or else on the calling thread once the parsing has ended. An invalid content is still reported by a
+     * {@link ParseException}, but only after the sink has received the events of the document, so the output of
+     * the sink should then be discarded.
+     * </p>
      *
      * @param validate the validate to set
      * @see #parse(Reader, Sink)
@@ -599,27 +765,180 @@ public abstract class AbstractXmlParser
     // ----------------------------------------------------------------------
 
     /**
-     * Add an entity given by <code>entityName</code> and <code>entityValue</code> to {@link #entities}.
-     * <br/>
-     * By default, we exclude the default XML entities: &#38;amp;, &#38;lt;, &#38;gt;, &#38;quot; and &#38;apos;.
+     * Add the given entities to the parser and to {@link #entities}.
      *
      * @param parser not null
-     * @param entityName not null
-     * @param entityValue not null
+     * @param dtdEntities not null, the entity values by entity name
      * @throws XmlPullParserException if any
      * @see {@link XmlPullParser#defineEntityReplacementText(String, String)}
      */
-    private void addEntity( XmlPullParser parser, String entityName, String entityValue )
+    private void addEntities( XmlPullParser parser, Map<String, String> dtdEntities )
         throws XmlPullParserException
     {
-        if ( entityName.endsWith( "amp" ) || entityName.endsWith( "lt" ) || entityName.endsWith( "gt" )
-            || entityName.endsWith( "quot" ) || entityName.endsWith( "apos" ) )
+        if ( dtdEntities.isEmpty() )
         {
             return;
         }
 
-        parser.defineEntityReplacementText( entityName, entityValue );
-        getLocalEntities().put( entityName, entityValue );
+        Map<String, String> localEntities = getLocalEntities();
+        for ( Map.Entry<String, String> entity : dtdEntities.entrySet() )
+        {
+            parser.defineEntityReplacementText( entity.getKey(), entity.getValue() );
+        }
+        localEntities.putAll( dtdEntities );
+    }
+
+    /**
+     * Installs the entities of the external DTD referenced by the given doctype, if it is known, into the parser
+     * and into {@link #entities}. The DTD is looked up in {@link CachedFileEntityResolver#ENTITY_CACHE} and, when
+     * validating, resolved as the validator would do.
+     *
+     * @param parser not null
+     * @param docdecl not null, the text of the doctype declaration
+     * @throws XmlPullParserException if any
+     */
+    private void addDTDEntities( XmlPullParser parser, String docdecl )
+        throws XmlPullParserException
+    {
+        Matcher matcher = PATTERN_DOCTYPE_SYSTEM_ID.matcher( docdecl );
+        if ( !matcher.find() )
+        {
+            return;
+        }
+
+        Map<String, String> dtdEntities = getDTDEntities( getSystemId( matcher ) );
+        if ( dtdEntities != null )
+        {
+            addEntities( parser, dtdEntities );
+        }
+    }
+
+    /**
+     * Returns the entities declared in an external DTD and in the entity sets it includes. They are only built the
+     * first time, unless a part of the DTD could not be found.
+     *
+     * @param systemId not null, the systemId of the DTD
+     * @return the unmodifiable entity values by entity name, or null if the DTD is not known
+     */
+    private Map<String, String> getDTDEntities( String systemId )
+    {
+        Map<String, String> dtdEntities = DTD_ENTITIES.get( systemId );
+        if ( dtdEntities == null )
+        {
+            Map<String, String> values = new LinkedHashMap<String, String>();
+            Boolean complete = collectDTDEntities( systemId, values, new HashSet<String>() );
+            if ( complete == null )
+            {
+                return null;
+            }
+
+            dtdEntities = Collections.unmodifiableMap( values );
+            if ( complete )
+            {
+                Map<String, String> cached = DTD_ENTITIES.putIfAbsent( systemId, dtdEntities );
+                if ( cached != null )
+                {
+                    dtdEntities = cached;
+                }
+            }
+        }
+        return dtdEntities;
+    }
+
+    /**
+     * Collects the entities declared in an external DTD, then the ones of the entity sets it includes.
+     *
+     * @param systemId not null, the systemId of the DTD
+     * @param values not null, receives the entity values by entity name
+     * @param visited not null, the systemIds already collected
+     * @return true if all the parts of the DTD were found, false if only some were, null if the DTD was not found
+     */
+    private Boolean collectDTDEntities( String systemId, Map<String, String> values, Set<String> visited )
+    {
+        if ( !visited.add( systemId ) )
+        {
+            return Boolean.TRUE;
+        }
+
+        byte[] content = getEntityContent( systemId );
+        if ( content == null )
+        {
+            return null;
+        }
+
+        String text = new String( content, UTF_8 );
+        values.putAll( parseEntities( text ) );
+
+        boolean complete = true;
+        Matcher matcher = PATTERN_PARAMETER_ENTITY.matcher( text );
+        while ( matcher.find() )
+        {
+            String included = resolveSystemId( systemId, getSystemId( matcher ) );
+            complete &= included != null && collectDTDEntities( included, values, visited ) == Boolean.TRUE;
+        }
+        return complete;
+    }
+
+    /**
+     * Gives the content of an external entity. When validating, an entity which is not cached yet is resolved, as
+     * the validator will need it anyway.
+     *
+     * @param systemId not null
+     * @return the content, or null if not known
+     */
+    private byte[] getEntityContent( String systemId )
+    {
+        byte[] content = CachedFileEntityResolver.ENTITY_CACHE.get( systemId );
+        if ( content == null && isValidate() )
+        {
+            try
+            {
+                new CachedFileEntityResolver().resolveEntity( null, systemId );
+                content = CachedFileEntityResolver.ENTITY_CACHE.get( systemId );
+            }
+            catch ( SAXException e )
+            {
+                getLog().debug( "Could not resolve the DTD " + systemId + ": " + e.getMessage() );
+            }
+            catch ( IOException e )
+            {
+                getLog().debug( "Could not resolve the DTD " + systemId + ": " + e.getMessage() );
+            }
+        }
+        return content;
+    }
+
+    /**
+     * @param matcher a matcher of {@link #PATTERN_DOCTYPE_SYSTEM_ID} or {@link #PATTERN_PARAMETER_ENTITY} which
+     * just found a match
+     * @return the system identifier, double or single quoted
+     */
+    private static String getSystemId( Matcher matcher )
+    {
+        return matcher.group( 1 ) != null ? matcher.group( 1 ) : matcher.group( 2 );
+    }
+
+    /**
+     * Resolves the systemId of an entity set against the one of the DTD including it, as an XML parser does.
+     *
+     * @param base not null, the systemId of the DTD
+     * @param systemId not null, the systemId of the entity set, maybe relative
+     * @return the absolute systemId, or null if it is invalid
+     */
+    private static String resolveSystemId( String base, String systemId )
+    {
+        try
+        {
+            return new URI( base ).resolve( new URI( systemId ) ).toString();
+        }
+        catch ( URISyntaxException e )
+        {
+            return null;
+        }
+        catch ( IllegalArgumentException e )
+        {
+            return null;
+        }
     }
 
     /**
@@ -646,13 +965,13 @@ public abstract class AbstractXmlParser
             int end = text.lastIndexOf( ']' );
             if ( start != -1 && end != -1 )
             {
-                addDTDEntities( parser, text.substring( start + 1, end ) );
+                addEntities( parser, parseEntities( text.substring( start + 1, end ) ) );
             }
         }
     }
 
     /**
-     * Handle entities defined in external doctypes as the following:
+     * Parses the entities defined in a doctype or in an external DTD as the following:
      * <pre>
      * &lt;!DOCTYPE foo [
      *   &lt;!-- These are the entity sets for ISO Latin 1 characters for the XHTML --&gt;
@@ -661,70 +980,140 @@ public abstract class AbstractXmlParser
      *   %HTMLlat1;
      * ]&gt;
      * </pre>
+     * By default, we exclude the default XML entities: &#38;amp;, &#38;lt;, &#38;gt;, &#38;quot; and &#38;apos;.
      *
-     * @param parser not null
      * @param text not null
-     * @throws XmlPullParserException if any
+     * @return the entity values by entity name, in document order
      */
-    private void addDTDEntities( XmlPullParser parser, String text )
-        throws XmlPullParserException
+    private static Map<String, String> parseEntities( String text )
     {
-        int entitiesCount = StringUtils.countMatches( text, ENTITY_START );
-        if ( entitiesCount > 0 )
+        Map<String, String> parsed = new LinkedHashMap<String, String>();
+
+        Matcher matcher1 = PATTERN_ENTITY_1.matcher( text );
+        Matcher matcher2 = PATTERN_ENTITY_2.matcher( text );
+
+        // each declaration is matched on its own, up to the start of the next one
+        int start = text.indexOf( ENTITY_START );
+        while ( start != -1 )
         {
-            final String txt = StringUtils.replace( text, ENTITY_START, "\n" + ENTITY_START );
-            BufferedReader reader = new BufferedReader( new StringReader( txt ) );
-            String line;
-            String tmpLine = "";
-            try
+            int next = text.indexOf( ENTITY_START, start + ENTITY_START.length() );
+            int end = ( next == -1 ) ? text.length() : next;
+
+            Matcher matcher = matcher1.region( start, end );
+            if ( !matcher.find() )
             {
-                Matcher matcher;
-                while ( ( line = reader.readLine() ) != null )
+                matcher = matcher2.region( start, end );
+                if ( !matcher.find() )
                 {
-                    tmpLine += "\n" + line;
-                    matcher = PATTERN_ENTITY_1.matcher( tmpLine );
-                    if ( matcher.find() && matcher.groupCount() == 7 )
-                    {
-                        String entityName = matcher.group( 2 );
-                        String entityValue = matcher.group( 5 );
-
-                        addEntity( parser, entityName, entityValue );
-                        tmpLine = "";
-                    }
-                    else
-                    {
-                        matcher = PATTERN_ENTITY_2.matcher( tmpLine );
-                        if ( matcher.find() && matcher.groupCount() == 8 )
-                        {
-                            String entityName = matcher.group( 2 );
-                            String entityValue = matcher.group( 5 );
-
-                            addEntity( parser, entityName, entityValue );
-                            tmpLine = "";
-                        }
-                    }
+                    matcher = null;
                 }
             }
-            catch ( IOException e )
+
+            if ( matcher != null )
             {
-                // nop
+                String entityName = matcher.group( 2 );
+                if ( !( entityName.endsWith( "amp" ) || entityName.endsWith( "lt" ) || entityName.endsWith( "gt" )
+                    || entityName.endsWith( "quot" ) || entityName.endsWith( "apos" ) ) )
+                {
+                    parsed.put( entityName, matcher.group( 5 ) );
+                }
             }
-            finally
+
+            start = next;
+        }
+
+        return parsed;
+    }
+
+    /**
+     * A pull parser which can be reset for another document.
+     */
+    private static class PooledXmlPullParser
+        extends MXParser
+    {
+        private final EntityReplacementMap entityMap;
+
+        PooledXmlPullParser( EntityReplacementMap entityMap )
+        {
+            super( entityMap );
+            this.entityMap = entityMap;
+        }
+
+        EntityReplacementMap getEntityMap()
+        {
+            return entityMap;
+        }
+
+        /**
+         * @param maxSize the maximum size in chars.
+         * @return true if the input or text buffer has grown beyond the given size.
+         */
+        boolean isOversized( int maxSize )
+        {
+            return buf.length > maxSize || pc.length > maxSize;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void reset()
+        {
+            super.reset();
+
+            // a supplementary character reference replaces the one char buffer by a two chars buffer, which would
+            // otherwise be returned with a stale char for the next predefined entity reference
+            if ( charRefOneCharBuf != null && charRefOneCharBuf.length != 1 )
             {
-                IOUtil.close( reader );
+                charRefOneCharBuf = new char[1];
             }
         }
     }
 
     /**
      * Implementation of the callback mechanism <code>EntityResolver</code>.
-     * Using a mechanism of cached files in temp dir to improve performance when using the <code>XMLReader</code>.
+     * Entities are kept in memory once loaded. By default, they are looked up in the
+     * {@link CatalogEntityLoader#DEFAULT_CATALOG catalog} bundled with Doxia, then in the
+     * {@link #getCacheDirectory() cache directory}, and finally fetched from their system identifier.
      */
     public static class CachedFileEntityResolver
         implements EntityResolver
     {
         /** Map with systemId as key and the content of systemId as byte[]. */
-        protected static final Map<String, byte[]> ENTITY_CACHE = new Hashtable<String, byte[]>();
+        protected static final Map<String, byte[]> ENTITY_CACHE = new ConcurrentHashMap<String, byte[]>();
+
+        /**
+         * The system property giving the directory of the default disk cache when the class is loaded, an empty
+         * value disabling the disk cache.
+         *
+         * @since 1.8
+         */
+        public static final String CACHE_DIRECTORY_PROPERTY = "doxia.entityCacheDirectory";
+
+        /** The directory of the default disk cache, or null if disabled. */
+        private static File cacheDirectory = getDefaultCacheDirectory();
+
+        /** Lazily created, see {@link #getDefaultLoaders()}. */
+        private static EntityLoader[] defaultLoaders;
+
+        private final EntityLoader[] loaders;
+
+        /**
+         * Constructs a CachedFileEntityResolver with the default loaders.
+         */
+        public CachedFileEntityResolver()
+        {
+            this( getDefaultLoaders() );
+        }
+
+        /**
+         * Constructs a CachedFileEntityResolver.
+         *
+         * @param loaders the loaders to try in order for the entities which are not in memory yet.
+         * @since 1.8
+         */
+        public CachedFileEntityResolver( EntityLoader... loaders )
+        {
+            this.loaders = loaders.clone();
+        }
 
         /** {@inheritDoc} */
         public InputSource resolveEntity( String publicId, String systemId )
@@ -734,40 +1123,18 @@ public abstract class AbstractXmlParser
             // already cached?
             if ( res == null )
             {
-                String systemName = FileUtils.getFile( systemId ).getName();
-                File temp = new File( System.getProperty( "java.io.tmpdir" ), systemName );
-                // maybe already as a temp file?
-                if ( !temp.exists() )
+                for ( EntityLoader loader : loaders )
                 {
-                    // is systemId a file or an url?
-                    if ( systemId.toLowerCase( Locale.ENGLISH ).startsWith( "file" ) )
-                    {
-                        // Doxia XSDs are included in the jars, so try to find the resource systemName from
-                        // the classpath...
-                        String resource = "/" + systemName;
-                        URL url = getClass().getResource( resource );
-                        if ( url != null )
-                        {
-                            res = toByteArray( url );
-                        }
-                        else
-                        {
-                            throw new SAXException( "Could not find the SYSTEM entity: " + systemId
-                            + " because '" + resource + "' is not available of the classpath." );
-                        }
-                    }
-                    else
+                    res = loader.load( publicId, systemId );
+                    if ( res != null )
                     {
-                        res = toByteArray( new URL( systemId ) );
+                        break;
                     }
-
-                    // write systemId as temp file
-                    copy( res, temp );
                 }
-                else
+
+                if ( res == null )
                 {
-                    // TODO How to refresh Doxia XSDs from temp dir?
-                    res = toByteArray( temp.toURI().toURL() );
+                    throw new SAXException( "Could not find the SYSTEM entity: " + systemId );
                 }
 
                 ENTITY_CACHE.put( systemId, res );
@@ -781,119 +1148,52 @@ public abstract class AbstractXmlParser
         }
 
         /**
-         * If url is not an http/https urls, call {@link IOUtil#toByteArray(java.io.InputStream)} to get the url
-         * content.
-         * Otherwise, use HttpClient to get the http content.
-         * Wrap all internal exceptions to throw SAXException.
+         * Gets the directory where the default resolvers keep the entities fetched from their system identifier.
+         * It is <code>.doxia/entities</code> in the user home, which is private to the user unlike
+         * <code>java.io.tmpdir</code>, unless the {@link #CACHE_DIRECTORY_PROPERTY} system property gives another one.
          *
-         * @param url not null
-         * @return return an array of byte
-         * @throws SAXException if any
+         * @return the cache directory, or null if the entities are not cached on disk.
+         * @since 1.8
          */
-        private static byte[] toByteArray( URL url )
-            throws SAXException
+        public static synchronized File getCacheDirectory()
         {
-            if ( !( url.getProtocol().equalsIgnoreCase( "http" ) || url.getProtocol().equalsIgnoreCase( "https" ) ) )
-            {
-                InputStream is = null;
-                try
-                {
-                    is = url.openStream();
-                    if ( is == null )
-                    {
-                        throw new SAXException( "Cannot open stream from the url: " + url.toString() );
-                    }
-                    return IOUtil.toByteArray( is );
-                }
-                catch ( IOException e )
-                {
-                    throw new SAXException( "IOException: " + e.getMessage(), e );
-                }
-                finally
-                {
-                    IOUtil.close( is );
-                }
-            }
-
-            // it is an HTTP url, using HttpClient...
-            DefaultHttpClient client = new DefaultHttpClient();
-            HttpGet method = new HttpGet( url.toString() );
-            // Set a user-agent that doesn't contain the word "java", otherwise it will be blocked by the W3C
-            // The default user-agent is "Apache-HttpClient/4.0.2 (java 1.5)"
-            method.setHeader( "user-agent", "Apache-Doxia/" + doxiaVersion() );
-
-            HttpRequestRetryHandler retryHandler = new DefaultHttpRequestRetryHandler( 3, false );
-            client.setHttpRequestRetryHandler( retryHandler );
-
-            HttpEntity entity = null;
-            try
-            {
-                HttpResponse response = client.execute( method );
-                int statusCode = response.getStatusLine().getStatusCode();
-                if ( statusCode != HttpStatus.SC_OK )
-                {
-                    throw new IOException( "The status code when accessing the URL '" + url.toString() + "' was "
-                        + statusCode + ", which is not allowed. The server gave this reason for the failure '"
-                        + response.getStatusLine().getReasonPhrase() + "'." );
-                }
-
-                entity = response.getEntity();
-                return EntityUtils.toByteArray( entity );
-            }
-            catch ( ClientProtocolException e )
-            {
-                throw new SAXException( "ClientProtocolException: Fatal protocol violation: " + e.getMessage(), e );
-            }
-            catch ( IOException e )
-            {
-                throw new SAXException( "IOException: Fatal transport error: " + e.getMessage(), e );
-            }
-            finally
-            {
-                if ( entity != null )
-                {
-                    try
-                    {
-                        entity.consumeContent();
-                    }
-                    catch ( IOException e )
-                    {
-                        // Ignore
-                    }
-                }
-            }
+            return cacheDirectory;
         }
 
         /**
-         * Wrap {@link IOUtil#copy(byte[], OutputStream)} to throw SAXException.
+         * Sets the directory where the default resolvers keep the entities fetched from their system identifier,
+         * for the resolvers constructed afterwards.
          *
-         * @param res not null array of byte
-         * @param f the file where to write the bytes
-         * @throws SAXException if any
-         * @see {@link IOUtil#copy(byte[], OutputStream)}
+         * @param directory the cache directory, or null to not cache the entities on disk.
+         * @since 1.8
          */
-        private void copy( byte[] res, File f )
-            throws SAXException
+        public static synchronized void setCacheDirectory( File directory )
         {
-            if ( f.isDirectory() )
-            {
-                throw new SAXException( "'" + f.getAbsolutePath() + "' is a directory, can not write it." );
-            }
+            cacheDirectory = directory;
+            defaultLoaders = null;
+        }
 
-            OutputStream os = null;
-            try
-            {
-                os = new FileOutputStream( f );
-                IOUtil.copy( res, os );
-            }
-            catch ( IOException e )
+        private static File getDefaultCacheDirectory()
+        {
+            String directory = System.getProperty( CACHE_DIRECTORY_PROPERTY );
+            if ( directory == null )
             {
-                throw new SAXException( "IOException: " + e.getMessage(), e );
+                return new File( new File( System.getProperty( "user.home" ), ".doxia" ), "entities" );
             }
-            finally
+
+            return directory.trim().length() == 0 ? null : new File( directory );
+        }
+
+        private static synchronized EntityLoader[] getDefaultLoaders()
+        {
+            if ( defaultLoaders == null )
             {
-                IOUtil.close( os );
+                EntityLoader urlLoader = new UrlEntityLoader();
+                defaultLoaders = new EntityLoader[] { new CatalogEntityLoader(),
+                    cacheDirectory == null ? urlLoader : new DiskCacheEntityLoader( cacheDirectory, urlLoader ) };
             }
+
+            return defaultLoaders;
         }
     }
 }
@@ -0,0 +1,225 @@
+package org.apache.maven.doxia.parser;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.codehaus.plexus.util.IOUtil;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Loads entities from the classpath, as mapped by an
+ * <a href="https://www.oasis-open.org/committees/download.php/14809/xml-catalogs.html">OASIS XML catalog</a>.
+ * Only <code>system</code> and <code>public</code> entries are supported, and their <code>uri</code> is a
+ * classpath resource relative to the catalog. The <code>prefer</code> attribute of the catalog, <code>public</code>
+ * by default, tells the order of the lookup: with <code>public</code>, public entries are looked up before system
+ * entries, with <code>system</code>, public entries are only looked up for an entity without system identifier.
+ * <p>
+ * The default catalog, bundled with doxia-core, maps the XHTML 1.0 DTDs and entity sets and the XSDs of the
+ * Doxia modules, so that parsing and validating documents does not need network access.
+ * </p>
+ *
+ * @since 1.8
+ */
+public class CatalogEntityLoader
+    implements EntityLoader
+{
+    /** The classpath resource of the default catalog. */
+    public static final String DEFAULT_CATALOG = "org/apache/maven/doxia/catalog/catalog.xml";
+
+    private final ClassLoader classLoader;
+
+    private final Map<String, String> systemEntries = new HashMap<String, String>();
+
+    private final Map<String, String> publicEntries = new HashMap<String, String>();
+
+    /** Whether the catalog prefers public identifiers, see the class documentation. */
+    private boolean preferPublic = true;
+
+    /**
+     * Constructs a CatalogEntityLoader for the {@link #DEFAULT_CATALOG}.
+     */
+    public CatalogEntityLoader()
+    {
+        this( DEFAULT_CATALOG, CatalogEntityLoader.class.getClassLoader() );
+    }
+
+    /**
+     * Constructs a CatalogEntityLoader.
+     *
+     * @param catalog the classpath resource of the catalog, not null.
+     * @param classLoader the class loader to load the catalog and the entities from, not null.
+     * @throws IllegalArgumentException if the catalog cannot be read.
+     */
+    public CatalogEntityLoader( String catalog, ClassLoader classLoader )
+    {
+        this.classLoader = classLoader;
+
+        URL url = classLoader.getResource( catalog );
+        if ( url == null )
+        {
+            throw new IllegalArgumentException( "Catalog not found in classpath: " + catalog );
+        }
+
+        String base = catalog.substring( 0, catalog.lastIndexOf( '/' ) + 1 );
+        InputStream in = null;
+        try
+        {
+            in = url.openStream();
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware( true );
+            factory.newSAXParser().parse( in, new CatalogHandler( base ) );
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalArgumentException( "Unable to read catalog " + catalog + ": " + e.getMessage(), e );
+        }
+        catch ( SAXException e )
+        {
+            throw new IllegalArgumentException( "Unable to read catalog " + catalog + ": " + e.getMessage(), e );
+        }
+        catch ( ParserConfigurationException e )
+        {
+            throw new IllegalArgumentException( "Unable to read catalog " + catalog + ": " + e.getMessage(), e );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public byte[] load( String publicId, String systemId )
+        throws IOException
+    {
+        String resource = null;
+        if ( publicId != null && ( preferPublic || systemId == null ) )
+        {
+            resource = publicEntries.get( publicId );
+        }
+        if ( resource == null && systemId != null )
+        {
+            resource = systemEntries.get( systemId );
+        }
+        if ( resource == null )
+        {
+            return null;
+        }
+
+        InputStream in = classLoader.getResourceAsStream( resource );
+        if ( in == null )
+        {
+            // e.g. the XSD of a Doxia module which is not in the classpath
+            return null;
+        }
+
+        try
+        {
+            return IOUtil.toByteArray( in );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    /**
+     * Resolves a relative path against a base directory, both using '/' as separator.
+     *
+     * @param base the base directory, ending with '/'.
+     * @param path the relative path.
+     * @return the normalized path.
+     */
+    static String resolve( String base, String path )
+    {
+        StringBuilder resolved = new StringBuilder( base );
+        for ( String segment : path.split( "/" ) )
+        {
+            if ( "..".equals( segment ) )
+            {
+                // remove the last directory
+                int end = resolved.length() - 1;
+                int start = ( end > 0 ) ? resolved.lastIndexOf( "/", end - 1 ) + 1 : 0;
+                resolved.setLength( start );
+            }
+            else if ( segment.length() > 0 && !".".equals( segment ) )
+            {
+                resolved.append( segment ).append( '/' );
+            }
+        }
+
+        // remove the trailing '/' of the last segment
+        if ( resolved.length() > 0 )
+        {
+            resolved.setLength( resolved.length() - 1 );
+        }
+
+        return resolved.toString();
+    }
+
+    /**
+     * Collects the catalog entries.
+     */
+    private class CatalogHandler
+        extends DefaultHandler
+    {
+        private final String base;
+
+        CatalogHandler( String base )
+        {
+            this.base = base;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void startElement( String uri, String localName, String qName, Attributes attributes )
+        {
+            if ( "catalog".equals( localName ) && attributes.getValue( "prefer" ) != null )
+            {
+                preferPublic = !"system".equals( attributes.getValue( "prefer" ) );
+                return;
+            }
+
+            String resource = attributes.getValue( "uri" );
+            if ( resource == null )
+            {
+                return;
+            }
+
+            if ( "system".equals( localName ) && attributes.getValue( "systemId" ) != null )
+            {
+                systemEntries.put( attributes.getValue( "systemId" ), resolve( base, resource ) );
+            }
+            else if ( "public".equals( localName ) && attributes.getValue( "publicId" ) != null )
+            {
+                publicEntries.put( attributes.getValue( "publicId" ), resolve( base, resource ) );
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package org.apache.maven.doxia.parser;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Caches the entities of another loader in a directory, where they are stored under the SHA-256 digest of their
+ * content:
+ * <ul>
+ * <li><code>&lt;digest of the systemId&gt;.ref</code> contains the digest of the content of the entity,</li>
+ * <li><code>&lt;digest of the content&gt;</code> contains the content.</li>
+ * </ul>
+ * Files are written to a temporary file first and then renamed, so readers never see a partial file, and the
+ * content is checked against its digest when it is read: a corrupt entry is loaded again.
+ * Failing to write to the cache is not an error, the entity is just not cached.
+ * <p>
+ * A reference file which does not contain a digest is ignored, so its content never designates a file outside
+ * the cache directory, and only files named after the digest of the loaded content are ever replaced. The cache
+ * directory is created readable and writable by its owner only: it should be private to the user, since anyone
+ * who can write to it decides the content of the cached entities.
+ * </p>
+ *
+ * @since 1.8
+ */
+public class DiskCacheEntityLoader
+    implements EntityLoader
+{
+    private static final String REF_SUFFIX = ".ref";
+
+    /** The name of a content file: a lower case hex SHA-256 digest. */
+    private static final Pattern DIGEST = Pattern.compile( "[0-9a-f]{64}" );
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final File directory;
+
+    private final EntityLoader delegate;
+
+    /**
+     * Constructs a DiskCacheEntityLoader.
+     *
+     * @param directory the cache directory, created if needed.
+     * @param delegate the loader of the entities that are not in the cache, not null.
+     */
+    public DiskCacheEntityLoader( File directory, EntityLoader delegate )
+    {
+        this.directory = directory;
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the cache directory.
+     */
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    /** {@inheritDoc} */
+    public byte[] load( String publicId, String systemId )
+        throws IOException
+    {
+        File ref = new File( directory, digest( systemId.getBytes( "UTF-8" ) ) + REF_SUFFIX );
+
+        byte[] content = read( ref );
+        if ( content != null )
+        {
+            return content;
+        }
+
+        content = delegate.load( publicId, systemId );
+        if ( content != null )
+        {
+            write( ref, content );
+        }
+
+        return content;
+    }
+
+    /**
+     * @param ref the reference file of an entity.
+     * @return the cached content, or null if it is not cached or corrupt.
+     */
+    private byte[] read( File ref )
+    {
+        if ( !ref.isFile() )
+        {
+            return null;
+        }
+
+        try
+        {
+            String digest = new String( readFile( ref ), "UTF-8" ).trim();
+            if ( DIGEST.matcher( digest ).matches() )
+            {
+                File file = new File( directory, digest );
+                if ( file.isFile() )
+                {
+                    byte[] content = readFile( file );
+                    if ( digest.equals( digest( content ) ) )
+                    {
+                        return content;
+                    }
+                    // corrupt, replaced once loaded again
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            // load it again
+        }
+
+        ref.delete();
+        return null;
+    }
+
+    private void write( File ref, byte[] content )
+    {
+        try
+        {
+            if ( !directory.isDirectory() )
+            {
+                if ( !directory.mkdirs() && !directory.isDirectory() )
+                {
+                    return;
+                }
+                restrictToOwner( directory );
+            }
+
+            String digest = digest( content );
+            File file = new File( directory, digest );
+            if ( !file.isFile() || !digest.equals( digest( readFile( file ) ) ) )
+            {
+                writeFile( file, content );
+            }
+            writeFile( ref, digest.getBytes( "UTF-8" ) );
+        }
+        catch ( IOException e )
+        {
+            // not cached
+        }
+    }
+
+    private static void restrictToOwner( File dir )
+    {
+        dir.setReadable( false, false );
+        dir.setReadable( true, true );
+        dir.setWritable( false, false );
+        dir.setWritable( true, true );
+        dir.setExecutable( false, false );
+        dir.setExecutable( true, true );
+    }
+
+    private static byte[] readFile( File file )
+        throws IOException
+    {
+        InputStream in = null;
+        try
+        {
+            in = new FileInputStream( file );
+            return IOUtil.toByteArray( in );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    /**
+     * Writes a file atomically: the content is written to a temporary file in the same directory, which is then
+     * renamed.
+     */
+    private void writeFile( File file, byte[] content )
+        throws IOException
+    {
+        File temp = File.createTempFile( file.getName(), ".tmp", directory );
+        OutputStream out = null;
+        try
+        {
+            out = new FileOutputStream( temp );
+            out.write( content );
+            out.close();
+            out = null;
+
+            if ( !temp.renameTo( file ) )
+            {
+                // some platforms do not replace existing files
+                file.delete();
+                if ( !temp.renameTo( file ) )
+                {
+                    throw new IOException( "Unable to rename " + temp + " to " + file );
+                }
+            }
+        }
+        finally
+        {
+            IOUtil.close( out );
+            temp.delete();
+        }
+    }
+
+    /**
+     * @param content not null.
+     * @return the SHA-256 digest of the content, as lower case hex.
+     */
+    private static String digest( byte[] content )
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance( "SHA-256" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException( e );
+        }
+
+        byte[] bytes = digest.digest( content );
+        char[] hex = new char[bytes.length * 2];
+        for ( int i = 0; i < bytes.length; i++ )
+        {
+            hex[2 * i] = HEX[( bytes[i] >> 4 ) & 0xF];
+            hex[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String( hex );
+    }
+}
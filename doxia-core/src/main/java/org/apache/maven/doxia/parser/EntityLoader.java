@@ -0,0 +1,42 @@
+package org.apache.maven.doxia.parser;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+
+/**
+ * Loads the content of external XML entities, i.e. DTDs, entity sets and XSDs, for the
+ * {@link AbstractXmlParser.CachedFileEntityResolver}.
+ *
+ * @since 1.8
+ */
+public interface EntityLoader
+{
+    /**
+     * Loads an entity.
+     *
+     * @param publicId the public identifier of the entity, may be null.
+     * @param systemId the system identifier of the entity, not null.
+     * @return the content of the entity, or <code>null</code> if this loader does not know it.
+     * @throws IOException if the entity is known but could not be loaded.
+     */
+    byte[] load( String publicId, String systemId )
+        throws IOException;
+}
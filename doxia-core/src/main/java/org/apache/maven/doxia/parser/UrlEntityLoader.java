@@ -0,0 +1,183 @@
+package org.apache.maven.doxia.parser;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Locale;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.util.EntityUtils;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Loads entities from their system identifier:
+ * <ul>
+ * <li>http and https URLs are fetched with an HTTP client that is shared by all loaders, so connections are
+ * reused,</li>
+ * <li>for <code>file</code> URLs, the Doxia XSDs are included in the jars, so the file name is looked up at the root
+ * of the classpath,</li>
+ * <li>other URLs are opened directly.</li>
+ * </ul>
+ *
+ * @since 1.8
+ */
+public class UrlEntityLoader
+    implements EntityLoader
+{
+    /** The connect and read timeout, in milliseconds. */
+    private static final int TIMEOUT = 30000;
+
+    /** Lazily created, see {@link #getHttpClient()}. */
+    private static DefaultHttpClient httpClient;
+
+    /** {@inheritDoc} */
+    public byte[] load( String publicId, String systemId )
+        throws IOException
+    {
+        // is systemId a file or an url?
+        if ( systemId.toLowerCase( Locale.ENGLISH ).startsWith( "file" ) )
+        {
+            String resource = "/" + FileUtils.getFile( systemId ).getName();
+            URL url = getClass().getResource( resource );
+            if ( url == null )
+            {
+                throw new IOException( "Could not find the SYSTEM entity: " + systemId
+                    + " because '" + resource + "' is not available of the classpath." );
+            }
+            return toByteArray( url );
+        }
+
+        return toByteArray( new URL( systemId ) );
+    }
+
+    /**
+     * If url is not an http/https urls, call {@link IOUtil#toByteArray(java.io.InputStream)} to get the url
+     * content.
+     * Otherwise, use HttpClient to get the http content.
+     *
+     * @param url not null
+     * @return return an array of byte
+     * @throws IOException if any
+     */
+    private static byte[] toByteArray( URL url )
+        throws IOException
+    {
+        if ( !( url.getProtocol().equalsIgnoreCase( "http" ) || url.getProtocol().equalsIgnoreCase( "https" ) ) )
+        {
+            InputStream is = null;
+            try
+            {
+                is = url.openStream();
+                if ( is == null )
+                {
+                    throw new IOException( "Cannot open stream from the url: " + url.toString() );
+                }
+                return IOUtil.toByteArray( is );
+            }
+            finally
+            {
+                IOUtil.close( is );
+            }
+        }
+
+        // it is an HTTP url, using HttpClient...
+        HttpGet method = new HttpGet( url.toString() );
+        // Set a user-agent that doesn't contain the word "java", otherwise it will be blocked by the W3C
+        // The default user-agent is "Apache-HttpClient/4.0.2 (java 1.5)"
+        method.setHeader( "user-agent", "Apache-Doxia/" + AbstractParser.doxiaVersion() );
+
+        HttpEntity entity = null;
+        try
+        {
+            HttpResponse response = getHttpClient().execute( method );
+            entity = response.getEntity();
+
+            int statusCode = response.getStatusLine().getStatusCode();
+            if ( statusCode != HttpStatus.SC_OK )
+            {
+                throw new IOException( "The status code when accessing the URL '" + url.toString() + "' was "
+                    + statusCode + ", which is not allowed. The server gave this reason for the failure '"
+                    + response.getStatusLine().getReasonPhrase() + "'." );
+            }
+
+            return EntityUtils.toByteArray( entity );
+        }
+        catch ( ClientProtocolException e )
+        {
+            IOException ioe = new IOException( "Fatal protocol violation: " + e.getMessage() );
+            ioe.initCause( e );
+            throw ioe;
+        }
+        finally
+        {
+            if ( entity != null )
+            {
+                try
+                {
+                    // releases the connection
+                    entity.consumeContent();
+                }
+                catch ( IOException e )
+                {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the HTTP client shared by all loaders, with a thread-safe connection pool.
+     */
+    private static synchronized DefaultHttpClient getHttpClient()
+    {
+        if ( httpClient == null )
+        {
+            HttpParams params = new BasicHttpParams();
+            HttpConnectionParams.setConnectionTimeout( params, TIMEOUT );
+            HttpConnectionParams.setSoTimeout( params, TIMEOUT );
+
+            SchemeRegistry schemeRegistry = new SchemeRegistry();
+            schemeRegistry.register( new Scheme( "http", PlainSocketFactory.getSocketFactory(), 80 ) );
+            schemeRegistry.register( new Scheme( "https", SSLSocketFactory.getSocketFactory(), 443 ) );
+
+            httpClient = new DefaultHttpClient( new ThreadSafeClientConnManager( params, schemeRegistry ), params );
+            httpClient.setHttpRequestRetryHandler( new DefaultHttpRequestRetryHandler( 3, false ) );
+        }
+
+        return httpClient;
+    }
+}
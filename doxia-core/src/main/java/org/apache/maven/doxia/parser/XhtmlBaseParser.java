@@ -20,6 +20,7 @@ package org.apache.maven.doxia.parser;
  */
 
 import java.io.Reader;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -35,6 +36,7 @@ import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
 import org.apache.maven.doxia.util.DoxiaUtils;
 
 import org.codehaus.plexus.util.StringUtils;
+import org.codehaus.plexus.util.xml.pull.EntityReplacementMap;
 import org.codehaus.plexus.util.xml.pull.XmlPullParser;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 
@@ -50,6 +52,405 @@ public class XhtmlBaseParser
     extends AbstractXmlParser
         implements HtmlMarkup
 {
+    /**
+     * The XHTML (HTML 4.0) entities, so that they can be recognized and resolved without additional DTD.
+     * The table is built once and installed in one step into each pull parser, see
+     * {@link #getEntityReplacementMap()}.
+     */
+    private static final EntityReplacementMap XHTML_ENTITIES = new EntityReplacementMap( new String[][] {
+        // the entities taken from org.apache.maven.doxia.document.io.xpp3.DocumentXpp3Reader,
+        // which is generated automatically
+
+        // ----------------------------------------------------------------------
+        // Latin 1 entities
+        // ----------------------------------------------------------------------
+
+        { "nbsp", "\u00a0" },
+        { "iexcl", "\u00a1" },
+        { "cent", "\u00a2" },
+        { "pound", "\u00a3" },
+        { "curren", "\u00a4" },
+        { "yen", "\u00a5" },
+        { "brvbar", "\u00a6" },
+        { "sect", "\u00a7" },
+        { "uml", "\u00a8" },
+        { "copy", "\u00a9" },
+        { "ordf", "\u00aa" },
+        { "laquo", "\u00ab" },
+        { "not", "\u00ac" },
+        { "shy", "\u00ad" },
+        { "reg", "\u00ae" },
+        { "macr", "\u00af" },
+        { "deg", "\u00b0" },
+        { "plusmn", "\u00b1" },
+        { "sup2", "\u00b2" },
+        { "sup3", "\u00b3" },
+        { "acute", "\u00b4" },
+        { "micro", "\u00b5" },
+        { "para", "\u00b6" },
+        { "middot", "\u00b7" },
+        { "cedil", "\u00b8" },
+        { "sup1", "\u00b9" },
+        { "ordm", "\u00ba" },
+        { "raquo", "\u00bb" },
+        { "frac14", "\u00bc" },
+        { "frac12", "\u00bd" },
+        { "frac34", "\u00be" },
+        { "iquest", "\u00bf" },
+        { "Agrave", "\u00c0" },
+        { "Aacute", "\u00c1" },
+        { "Acirc", "\u00c2" },
+        { "Atilde", "\u00c3" },
+        { "Auml", "\u00c4" },
+        { "Aring", "\u00c5" },
+        { "AElig", "\u00c6" },
+        { "Ccedil", "\u00c7" },
+        { "Egrave", "\u00c8" },
+        { "Eacute", "\u00c9" },
+        { "Ecirc", "\u00ca" },
+        { "Euml", "\u00cb" },
+        { "Igrave", "\u00cc" },
+        { "Iacute", "\u00cd" },
+        { "Icirc", "\u00ce" },
+        { "Iuml", "\u00cf" },
+        { "ETH", "\u00d0" },
+        { "Ntilde", "\u00d1" },
+        { "Ograve", "\u00d2" },
+        { "Oacute", "\u00d3" },
+        { "Ocirc", "\u00d4" },
+        { "Otilde", "\u00d5" },
+        { "Ouml", "\u00d6" },
+        { "times", "\u00d7" },
+        { "Oslash", "\u00d8" },
+        { "Ugrave", "\u00d9" },
+        { "Uacute", "\u00da" },
+        { "Ucirc", "\u00db" },
+        { "Uuml", "\u00dc" },
+        { "Yacute", "\u00dd" },
+        { "THORN", "\u00de" },
+        { "szlig", "\u00df" },
+        { "agrave", "\u00e0" },
+        { "aacute", "\u00e1" },
+        { "acirc", "\u00e2" },
+        { "atilde", "\u00e3" },
+        { "auml", "\u00e4" },
+        { "aring", "\u00e5" },
+        { "aelig", "\u00e6" },
+        { "ccedil", "\u00e7" },
+        { "egrave", "\u00e8" },
+        { "eacute", "\u00e9" },
+        { "ecirc", "\u00ea" },
+        { "euml", "\u00eb" },
+        { "igrave", "\u00ec" },
+        { "iacute", "\u00ed" },
+        { "icirc", "\u00ee" },
+        { "iuml", "\u00ef" },
+        { "eth", "\u00f0" },
+        { "ntilde", "\u00f1" },
+        { "ograve", "\u00f2" },
+        { "oacute", "\u00f3" },
+        { "ocirc", "\u00f4" },
+        { "otilde", "\u00f5" },
+        { "ouml", "\u00f6" },
+        { "divide", "\u00f7" },
+        { "oslash", "\u00f8" },
+        { "ugrave", "\u00f9" },
+        { "uacute", "\u00fa" },
+        { "ucirc", "\u00fb" },
+        { "uuml", "\u00fc" },
+        { "yacute", "\u00fd" },
+        { "thorn", "\u00fe" },
+        { "yuml", "\u00ff" },
+
+        // ----------------------------------------------------------------------
+        // Special entities
+        // ----------------------------------------------------------------------
+
+        { "OElig", "\u0152" },
+        { "oelig", "\u0153" },
+        { "Scaron", "\u0160" },
+        { "scaron", "\u0161" },
+        { "Yuml", "\u0178" },
+        { "circ", "\u02c6" },
+        { "tilde", "\u02dc" },
+        { "ensp", "\u2002" },
+        { "emsp", "\u2003" },
+        { "thinsp", "\u2009" },
+        { "zwnj", "\u200c" },
+        { "zwj", "\u200d" },
+        { "lrm", "\u200e" },
+        { "rlm", "\u200f" },
+        { "ndash", "\u2013" },
+        { "mdash", "\u2014" },
+        { "lsquo", "\u2018" },
+        { "rsquo", "\u2019" },
+        { "sbquo", "\u201a" },
+        { "ldquo", "\u201c" },
+        { "rdquo", "\u201d" },
+        { "bdquo", "\u201e" },
+        { "dagger", "\u2020" },
+        { "Dagger", "\u2021" },
+        { "permil", "\u2030" },
+        { "lsaquo", "\u2039" },
+        { "rsaquo", "\u203a" },
+        { "euro", "\u20ac" },
+
+        // ----------------------------------------------------------------------
+        // Symbol entities
+        // ----------------------------------------------------------------------
+
+        { "fnof", "\u0192" },
+        { "Alpha", "\u0391" },
+        { "Beta", "\u0392" },
+        { "Gamma", "\u0393" },
+        { "Delta", "\u0394" },
+        { "Epsilon", "\u0395" },
+        { "Zeta", "\u0396" },
+        { "Eta", "\u0397" },
+        { "Theta", "\u0398" },
+        { "Iota", "\u0399" },
+        { "Kappa", "\u039a" },
+        { "Lambda", "\u039b" },
+        { "Mu", "\u039c" },
+        { "Nu", "\u039d" },
+        { "Xi", "\u039e" },
+        { "Omicron", "\u039f" },
+        { "Pi", "\u03a0" },
+        { "Rho", "\u03a1" },
+        { "Sigma", "\u03a3" },
+        { "Tau", "\u03a4" },
+        { "Upsilon", "\u03a5" },
+        { "Phi", "\u03a6" },
+        { "Chi", "\u03a7" },
+        { "Psi", "\u03a8" },
+        { "Omega", "\u03a9" },
+        { "alpha", "\u03b1" },
+        { "beta", "\u03b2" },
+        { "gamma", "\u03b3" },
+        { "delta", "\u03b4" },
+        { "epsilon", "\u03b5" },
+        { "zeta", "\u03b6" },
+        { "eta", "\u03b7" },
+        { "theta", "\u03b8" },
+        { "iota", "\u03b9" },
+        { "kappa", "\u03ba" },
+        { "lambda", "\u03bb" },
+        { "mu", "\u03bc" },
+        { "nu", "\u03bd" },
+        { "xi", "\u03be" },
+        { "omicron", "\u03bf" },
+        { "pi", "\u03c0" },
+        { "rho", "\u03c1" },
+        { "sigmaf", "\u03c2" },
+        { "sigma", "\u03c3" },
+        { "tau", "\u03c4" },
+        { "upsilon", "\u03c5" },
+        { "phi", "\u03c6" },
+        { "chi", "\u03c7" },
+        { "psi", "\u03c8" },
+        { "omega", "\u03c9" },
+        { "thetasym", "\u03d1" },
+        { "upsih", "\u03d2" },
+        { "piv", "\u03d6" },
+        { "bull", "\u2022" },
+        { "hellip", "\u2026" },
+        { "prime", "\u2032" },
+        { "Prime", "\u2033" },
+        { "oline", "\u203e" },
+        { "frasl", "\u2044" },
+        { "weierp", "\u2118" },
+        { "image", "\u2111" },
+        { "real", "\u211c" },
+        { "trade", "\u2122" },
+        { "alefsym", "\u2135" },
+        { "larr", "\u2190" },
+        { "uarr", "\u2191" },
+        { "rarr", "\u2192" },
+        { "darr", "\u2193" },
+        { "harr", "\u2194" },
+        { "crarr", "\u21b5" },
+        { "lArr", "\u21d0" },
+        { "uArr", "\u21d1" },
+        { "rArr", "\u21d2" },
+        { "dArr", "\u21d3" },
+        { "hArr", "\u21d4" },
+        { "forall", "\u2200" },
+        { "part", "\u2202" },
+        { "exist", "\u2203" },
+        { "empty", "\u2205" },
+        { "nabla", "\u2207" },
+        { "isin", "\u2208" },
+        { "notin", "\u2209" },
+        { "ni", "\u220b" },
+        { "prod", "\u220f" },
+        { "sum", "\u2211" },
+        { "minus", "\u2212" },
+        { "lowast", "\u2217" },
+        { "radic", "\u221a" },
+        { "prop", "\u221d" },
+        { "infin", "\u221e" },
+        { "ang", "\u2220" },
+        { "and", "\u2227" },
+        { "or", "\u2228" },
+        { "cap", "\u2229" },
+        { "cup", "\u222a" },
+        { "int", "\u222b" },
+        { "there4", "\u2234" },
+        { "sim", "\u223c" },
+        { "cong", "\u2245" },
+        { "asymp", "\u2248" },
+        { "ne", "\u2260" },
+        { "equiv", "\u2261" },
+        { "le", "\u2264" },
+        { "ge", "\u2265" },
+        { "sub", "\u2282" },
+        { "sup", "\u2283" },
+        { "nsub", "\u2284" },
+        { "sube", "\u2286" },
+        { "supe", "\u2287" },
+        { "oplus", "\u2295" },
+        { "otimes", "\u2297" },
+        { "perp", "\u22a5" },
+        { "sdot", "\u22c5" },
+        { "lceil", "\u2308" },
+        { "rceil", "\u2309" },
+        { "lfloor", "\u230a" },
+        { "rfloor", "\u230b" },
+        { "lang", "\u2329" },
+        { "rang", "\u232a" },
+        { "loz", "\u25ca" },
+        { "spades", "\u2660" },
+        { "clubs", "\u2663" },
+        { "hearts", "\u2665" },
+        { "diams", "\u2666" }
+    } );
+
+    /** The id of the tags which are not in the {@link #getTagTable() tag table}. */
+    protected static final int ID_UNKNOWN = 0;
+
+    /** Tag id of &lt;h2&gt;. */
+    protected static final int ID_H2 = 1;
+
+    /** Tag id of &lt;h3&gt;. */
+    protected static final int ID_H3 = 2;
+
+    /** Tag id of &lt;h4&gt;. */
+    protected static final int ID_H4 = 3;
+
+    /** Tag id of &lt;h5&gt;. */
+    protected static final int ID_H5 = 4;
+
+    /** Tag id of &lt;h6&gt;. */
+    protected static final int ID_H6 = 5;
+
+    /** Tag id of &lt;u&gt;. */
+    protected static final int ID_U = 6;
+
+    /** Tag id of &lt;s&gt;. */
+    protected static final int ID_S = 7;
+
+    /** Tag id of &lt;strike&gt;. */
+    protected static final int ID_STRIKE = 8;
+
+    /** Tag id of &lt;del&gt;. */
+    protected static final int ID_DEL = 9;
+
+    /** Tag id of &lt;sub&gt;. */
+    protected static final int ID_SUB = 10;
+
+    /** Tag id of &lt;sup&gt;. */
+    protected static final int ID_SUP = 11;
+
+    /** Tag id of &lt;p&gt;. */
+    protected static final int ID_P = 12;
+
+    /** Tag id of &lt;div&gt;. */
+    protected static final int ID_DIV = 13;
+
+    /** Tag id of &lt;pre&gt;. */
+    protected static final int ID_PRE = 14;
+
+    /** Tag id of &lt;ul&gt;. */
+    protected static final int ID_UL = 15;
+
+    /** Tag id of &lt;ol&gt;. */
+    protected static final int ID_OL = 16;
+
+    /** Tag id of &lt;li&gt;. */
+    protected static final int ID_LI = 17;
+
+    /** Tag id of &lt;dl&gt;. */
+    protected static final int ID_DL = 18;
+
+    /** Tag id of &lt;dt&gt;. */
+    protected static final int ID_DT = 19;
+
+    /** Tag id of &lt;dd&gt;. */
+    protected static final int ID_DD = 20;
+
+    /** Tag id of &lt;b&gt;. */
+    protected static final int ID_B = 21;
+
+    /** Tag id of &lt;strong&gt;. */
+    protected static final int ID_STRONG = 22;
+
+    /** Tag id of &lt;i&gt;. */
+    protected static final int ID_I = 23;
+
+    /** Tag id of &lt;em&gt;. */
+    protected static final int ID_EM = 24;
+
+    /** Tag id of &lt;code&gt;. */
+    protected static final int ID_CODE = 25;
+
+    /** Tag id of &lt;samp&gt;. */
+    protected static final int ID_SAMP = 26;
+
+    /** Tag id of &lt;tt&gt;. */
+    protected static final int ID_TT = 27;
+
+    /** Tag id of &lt;a&gt;. */
+    protected static final int ID_A = 28;
+
+    /** Tag id of &lt;table&gt;. */
+    protected static final int ID_TABLE = 29;
+
+    /** Tag id of &lt;tr&gt;. */
+    protected static final int ID_TR = 30;
+
+    /** Tag id of &lt;th&gt;. */
+    protected static final int ID_TH = 31;
+
+    /** Tag id of &lt;td&gt;. */
+    protected static final int ID_TD = 32;
+
+    /** Tag id of &lt;caption&gt;. */
+    protected static final int ID_CAPTION = 33;
+
+    /** Tag id of &lt;br&gt;. */
+    protected static final int ID_BR = 34;
+
+    /** Tag id of &lt;hr&gt;. */
+    protected static final int ID_HR = 35;
+
+    /** Tag id of &lt;img&gt;. */
+    protected static final int ID_IMG = 36;
+
+    /** Tag id of &lt;script&gt;. */
+    protected static final int ID_SCRIPT = 37;
+
+    /** Tag id of &lt;style&gt;. */
+    protected static final int ID_STYLE = 38;
+
+    /**
+     * The number of tag ids used by this class: subclasses number the tags they add to the
+     * {@link #newTagTable() tag table} from this value.
+     */
+    protected static final int ID_COUNT = 39;
+
+    /** The tags handled by {@link #baseStartTag(XmlPullParser, Sink)} and {@link #baseEndTag(XmlPullParser, Sink)}. */
+    private static final Map<String, Integer> TAGS = Collections.unmodifiableMap( newTagTable() );
+
     /**
      * True if a &lt;script&gt;&lt;/script&gt; or &lt;style&gt;&lt;/style&gt; block is read. CDATA sections within are
      * handled as rawText.
@@ -78,17 +479,29 @@ public class XhtmlBaseParser
     boolean hasDefinitionListItem = false;
 
     /** Decoration properties, eg for texts. */
-    private final SinkEventAttributeSet decoration = new SinkEventAttributeSet();
+    private SinkEventAttributeSet decoration = new SinkEventAttributeSet();
 
     /** Map of warn messages with a String as key to describe the error type and a Set as value.
      * Using to reduce warn messages. */
     private Map<String, Set<String>> warnMessages;
 
+    /** The last tag name resolved by {@link #getTagId(XmlPullParser)}, compared by identity. */
+    private String lastTagName;
+
+    /** The id of {@link #lastTagName}. */
+    private int lastTagId;
+
     /** {@inheritDoc} */
     @Override
     public void parse( Reader source, Sink sink )
         throws ParseException
     {
+        if ( !isParseContext() )
+        {
+            parseInNewContext( source, sink, null );
+            return;
+        }
+
         init();
 
         try
@@ -111,276 +524,97 @@ public class XhtmlBaseParser
      * without additional DTD.
      */
     @Override
-    protected void initXmlParser( XmlPullParser parser )
-        throws XmlPullParserException
+    protected EntityReplacementMap getEntityReplacementMap()
     {
-        super.initXmlParser( parser );
-
-        // the entities taken from org.apache.maven.doxia.document.io.xpp3.DocumentXpp3Reader,
-        // which is generated automatically
-
-        // ----------------------------------------------------------------------
-        // Latin 1 entities
-        // ----------------------------------------------------------------------
+        return XHTML_ENTITIES;
+    }
 
-        parser.defineEntityReplacementText( "nbsp", "\u00a0" );
-        parser.defineEntityReplacementText( "iexcl", "\u00a1" );
-        parser.defineEntityReplacementText( "cent", "\u00a2" );
-        parser.defineEntityReplacementText( "pound", "\u00a3" );
-        parser.defineEntityReplacementText( "curren", "\u00a4" );
-        parser.defineEntityReplacementText( "yen", "\u00a5" );
-        parser.defineEntityReplacementText( "brvbar", "\u00a6" );
-        parser.defineEntityReplacementText( "sect", "\u00a7" );
-        parser.defineEntityReplacementText( "uml", "\u00a8" );
-        parser.defineEntityReplacementText( "copy", "\u00a9" );
-        parser.defineEntityReplacementText( "ordf", "\u00aa" );
-        parser.defineEntityReplacementText( "laquo", "\u00ab" );
-        parser.defineEntityReplacementText( "not", "\u00ac" );
-        parser.defineEntityReplacementText( "shy", "\u00ad" );
-        parser.defineEntityReplacementText( "reg", "\u00ae" );
-        parser.defineEntityReplacementText( "macr", "\u00af" );
-        parser.defineEntityReplacementText( "deg", "\u00b0" );
-        parser.defineEntityReplacementText( "plusmn", "\u00b1" );
-        parser.defineEntityReplacementText( "sup2", "\u00b2" );
-        parser.defineEntityReplacementText( "sup3", "\u00b3" );
-        parser.defineEntityReplacementText( "acute", "\u00b4" );
-        parser.defineEntityReplacementText( "micro", "\u00b5" );
-        parser.defineEntityReplacementText( "para", "\u00b6" );
-        parser.defineEntityReplacementText( "middot", "\u00b7" );
-        parser.defineEntityReplacementText( "cedil", "\u00b8" );
-        parser.defineEntityReplacementText( "sup1", "\u00b9" );
-        parser.defineEntityReplacementText( "ordm", "\u00ba" );
-        parser.defineEntityReplacementText( "raquo", "\u00bb" );
-        parser.defineEntityReplacementText( "frac14", "\u00bc" );
-        parser.defineEntityReplacementText( "frac12", "\u00bd" );
-        parser.defineEntityReplacementText( "frac34", "\u00be" );
-        parser.defineEntityReplacementText( "iquest", "\u00bf" );
-        parser.defineEntityReplacementText( "Agrave", "\u00c0" );
-        parser.defineEntityReplacementText( "Aacute", "\u00c1" );
-        parser.defineEntityReplacementText( "Acirc", "\u00c2" );
-        parser.defineEntityReplacementText( "Atilde", "\u00c3" );
-        parser.defineEntityReplacementText( "Auml", "\u00c4" );
-        parser.defineEntityReplacementText( "Aring", "\u00c5" );
-        parser.defineEntityReplacementText( "AElig", "\u00c6" );
-        parser.defineEntityReplacementText( "Ccedil", "\u00c7" );
-        parser.defineEntityReplacementText( "Egrave", "\u00c8" );
-        parser.defineEntityReplacementText( "Eacute", "\u00c9" );
-        parser.defineEntityReplacementText( "Ecirc", "\u00ca" );
-        parser.defineEntityReplacementText( "Euml", "\u00cb" );
-        parser.defineEntityReplacementText( "Igrave", "\u00cc" );
-        parser.defineEntityReplacementText( "Iacute", "\u00cd" );
-        parser.defineEntityReplacementText( "Icirc", "\u00ce" );
-        parser.defineEntityReplacementText( "Iuml", "\u00cf" );
-        parser.defineEntityReplacementText( "ETH", "\u00d0" );
-        parser.defineEntityReplacementText( "Ntilde", "\u00d1" );
-        parser.defineEntityReplacementText( "Ograve", "\u00d2" );
-        parser.defineEntityReplacementText( "Oacute", "\u00d3" );
-        parser.defineEntityReplacementText( "Ocirc", "\u00d4" );
-        parser.defineEntityReplacementText( "Otilde", "\u00d5" );
-        parser.defineEntityReplacementText( "Ouml", "\u00d6" );
-        parser.defineEntityReplacementText( "times", "\u00d7" );
-        parser.defineEntityReplacementText( "Oslash", "\u00d8" );
-        parser.defineEntityReplacementText( "Ugrave", "\u00d9" );
-        parser.defineEntityReplacementText( "Uacute", "\u00da" );
-        parser.defineEntityReplacementText( "Ucirc", "\u00db" );
-        parser.defineEntityReplacementText( "Uuml", "\u00dc" );
-        parser.defineEntityReplacementText( "Yacute", "\u00dd" );
-        parser.defineEntityReplacementText( "THORN", "\u00de" );
-        parser.defineEntityReplacementText( "szlig", "\u00df" );
-        parser.defineEntityReplacementText( "agrave", "\u00e0" );
-        parser.defineEntityReplacementText( "aacute", "\u00e1" );
-        parser.defineEntityReplacementText( "acirc", "\u00e2" );
-        parser.defineEntityReplacementText( "atilde", "\u00e3" );
-        parser.defineEntityReplacementText( "auml", "\u00e4" );
-        parser.defineEntityReplacementText( "aring", "\u00e5" );
-        parser.defineEntityReplacementText( "aelig", "\u00e6" );
-        parser.defineEntityReplacementText( "ccedil", "\u00e7" );
-        parser.defineEntityReplacementText( "egrave", "\u00e8" );
-        parser.defineEntityReplacementText( "eacute", "\u00e9" );
-        parser.defineEntityReplacementText( "ecirc", "\u00ea" );
-        parser.defineEntityReplacementText( "euml", "\u00eb" );
-        parser.defineEntityReplacementText( "igrave", "\u00ec" );
-        parser.defineEntityReplacementText( "iacute", "\u00ed" );
-        parser.defineEntityReplacementText( "icirc", "\u00ee" );
-        parser.defineEntityReplacementText( "iuml", "\u00ef" );
-        parser.defineEntityReplacementText( "eth", "\u00f0" );
-        parser.defineEntityReplacementText( "ntilde", "\u00f1" );
-        parser.defineEntityReplacementText( "ograve", "\u00f2" );
-        parser.defineEntityReplacementText( "oacute", "\u00f3" );
-        parser.defineEntityReplacementText( "ocirc", "\u00f4" );
-        parser.defineEntityReplacementText( "otilde", "\u00f5" );
-        parser.defineEntityReplacementText( "ouml", "\u00f6" );
-        parser.defineEntityReplacementText( "divide", "\u00f7" );
-        parser.defineEntityReplacementText( "oslash", "\u00f8" );
-        parser.defineEntityReplacementText( "ugrave", "\u00f9" );
-        parser.defineEntityReplacementText( "uacute", "\u00fa" );
-        parser.defineEntityReplacementText( "ucirc", "\u00fb" );
-        parser.defineEntityReplacementText( "uuml", "\u00fc" );
-        parser.defineEntityReplacementText( "yacute", "\u00fd" );
-        parser.defineEntityReplacementText( "thorn", "\u00fe" );
-        parser.defineEntityReplacementText( "yuml", "\u00ff" );
+    /**
+     * Creates a new table with the tags handled by this class. Subclasses add their own tags, numbered from
+     * {@link #ID_COUNT}, keep the table in a constant and return it from {@link #getTagTable()}.
+     *
+     * @return a new modifiable map with tag names as keys and tag ids as values.
+     * @since 1.8
+     */
+    protected static Map<String, Integer> newTagTable()
+    {
+        Map<String, Integer> tags = new HashMap<String, Integer>();
+
+        tags.put( HtmlMarkup.H2.toString(), ID_H2 );
+        tags.put( HtmlMarkup.H3.toString(), ID_H3 );
+        tags.put( HtmlMarkup.H4.toString(), ID_H4 );
+        tags.put( HtmlMarkup.H5.toString(), ID_H5 );
+        tags.put( HtmlMarkup.H6.toString(), ID_H6 );
+        tags.put( HtmlMarkup.U.toString(), ID_U );
+        tags.put( HtmlMarkup.S.toString(), ID_S );
+        tags.put( HtmlMarkup.STRIKE.toString(), ID_STRIKE );
+        tags.put( "del", ID_DEL );
+        tags.put( HtmlMarkup.SUB.toString(), ID_SUB );
+        tags.put( HtmlMarkup.SUP.toString(), ID_SUP );
+        tags.put( HtmlMarkup.P.toString(), ID_P );
+        tags.put( HtmlMarkup.DIV.toString(), ID_DIV );
+        tags.put( HtmlMarkup.PRE.toString(), ID_PRE );
+        tags.put( HtmlMarkup.UL.toString(), ID_UL );
+        tags.put( HtmlMarkup.OL.toString(), ID_OL );
+        tags.put( HtmlMarkup.LI.toString(), ID_LI );
+        tags.put( HtmlMarkup.DL.toString(), ID_DL );
+        tags.put( HtmlMarkup.DT.toString(), ID_DT );
+        tags.put( HtmlMarkup.DD.toString(), ID_DD );
+        tags.put( HtmlMarkup.B.toString(), ID_B );
+        tags.put( HtmlMarkup.STRONG.toString(), ID_STRONG );
+        tags.put( HtmlMarkup.I.toString(), ID_I );
+        tags.put( HtmlMarkup.EM.toString(), ID_EM );
+        tags.put( HtmlMarkup.CODE.toString(), ID_CODE );
+        tags.put( HtmlMarkup.SAMP.toString(), ID_SAMP );
+        tags.put( HtmlMarkup.TT.toString(), ID_TT );
+        tags.put( HtmlMarkup.A.toString(), ID_A );
+        tags.put( HtmlMarkup.TABLE.toString(), ID_TABLE );
+        tags.put( HtmlMarkup.TR.toString(), ID_TR );
+        tags.put( HtmlMarkup.TH.toString(), ID_TH );
+        tags.put( HtmlMarkup.TD.toString(), ID_TD );
+        tags.put( HtmlMarkup.CAPTION.toString(), ID_CAPTION );
+        tags.put( HtmlMarkup.BR.toString(), ID_BR );
+        tags.put( HtmlMarkup.HR.toString(), ID_HR );
+        tags.put( HtmlMarkup.IMG.toString(), ID_IMG );
+        tags.put( HtmlMarkup.SCRIPT.toString(), ID_SCRIPT );
+        tags.put( HtmlMarkup.STYLE.toString(), ID_STYLE );
+
+        return tags;
+    }
 
-        // ----------------------------------------------------------------------
-        // Special entities
-        // ----------------------------------------------------------------------
+    /**
+     * Gives the tags known by this parser. Subclasses which handle more tags override this method, see
+     * {@link #newTagTable()}.
+     *
+     * @return an unmodifiable map with tag names as keys and tag ids as values, not null.
+     * @since 1.8
+     */
+    protected Map<String, Integer> getTagTable()
+    {
+        return TAGS;
+    }
 
-        parser.defineEntityReplacementText( "OElig", "\u0152" );
-        parser.defineEntityReplacementText( "oelig", "\u0153" );
-        parser.defineEntityReplacementText( "Scaron", "\u0160" );
-        parser.defineEntityReplacementText( "scaron", "\u0161" );
-        parser.defineEntityReplacementText( "Yuml", "\u0178" );
-        parser.defineEntityReplacementText( "circ", "\u02c6" );
-        parser.defineEntityReplacementText( "tilde", "\u02dc" );
-        parser.defineEntityReplacementText( "ensp", "\u2002" );
-        parser.defineEntityReplacementText( "emsp", "\u2003" );
-        parser.defineEntityReplacementText( "thinsp", "\u2009" );
-        parser.defineEntityReplacementText( "zwnj", "\u200c" );
-        parser.defineEntityReplacementText( "zwj", "\u200d" );
-        parser.defineEntityReplacementText( "lrm", "\u200e" );
-        parser.defineEntityReplacementText( "rlm", "\u200f" );
-        parser.defineEntityReplacementText( "ndash", "\u2013" );
-        parser.defineEntityReplacementText( "mdash", "\u2014" );
-        parser.defineEntityReplacementText( "lsquo", "\u2018" );
-        parser.defineEntityReplacementText( "rsquo", "\u2019" );
-        parser.defineEntityReplacementText( "sbquo", "\u201a" );
-        parser.defineEntityReplacementText( "ldquo", "\u201c" );
-        parser.defineEntityReplacementText( "rdquo", "\u201d" );
-        parser.defineEntityReplacementText( "bdquo", "\u201e" );
-        parser.defineEntityReplacementText( "dagger", "\u2020" );
-        parser.defineEntityReplacementText( "Dagger", "\u2021" );
-        parser.defineEntityReplacementText( "permil", "\u2030" );
-        parser.defineEntityReplacementText( "lsaquo", "\u2039" );
-        parser.defineEntityReplacementText( "rsaquo", "\u203a" );
-        parser.defineEntityReplacementText( "euro", "\u20ac" );
+    /**
+     * Resolves the name of the current start or end tag into its id. The name is only looked up once per event,
+     * so handlers may call this method repeatedly.
+     *
+     * @param parser A parser, positioned on a start or end tag.
+     * @return the id of the tag in the {@link #getTagTable() tag table}, or {@link #ID_UNKNOWN}.
+     * @since 1.8
+     */
+    protected int getTagId( XmlPullParser parser )
+    {
+        String name = parser.getName();
 
-        // ----------------------------------------------------------------------
-        // Symbol entities
-        // ----------------------------------------------------------------------
+        // the pull parser returns the same instance for all the calls during an event
+        if ( name != lastTagName )
+        {
+            Integer id = getTagTable().get( name );
+            lastTagId = ( id == null ) ? ID_UNKNOWN : id.intValue();
+            lastTagName = name;
+        }
 
-        parser.defineEntityReplacementText( "fnof", "\u0192" );
-        parser.defineEntityReplacementText( "Alpha", "\u0391" );
-        parser.defineEntityReplacementText( "Beta", "\u0392" );
-        parser.defineEntityReplacementText( "Gamma", "\u0393" );
-        parser.defineEntityReplacementText( "Delta", "\u0394" );
-        parser.defineEntityReplacementText( "Epsilon", "\u0395" );
-        parser.defineEntityReplacementText( "Zeta", "\u0396" );
-        parser.defineEntityReplacementText( "Eta", "\u0397" );
-        parser.defineEntityReplacementText( "Theta", "\u0398" );
-        parser.defineEntityReplacementText( "Iota", "\u0399" );
-        parser.defineEntityReplacementText( "Kappa", "\u039a" );
-        parser.defineEntityReplacementText( "Lambda", "\u039b" );
-        parser.defineEntityReplacementText( "Mu", "\u039c" );
-        parser.defineEntityReplacementText( "Nu", "\u039d" );
-        parser.defineEntityReplacementText( "Xi", "\u039e" );
-        parser.defineEntityReplacementText( "Omicron", "\u039f" );
-        parser.defineEntityReplacementText( "Pi", "\u03a0" );
-        parser.defineEntityReplacementText( "Rho", "\u03a1" );
-        parser.defineEntityReplacementText( "Sigma", "\u03a3" );
-        parser.defineEntityReplacementText( "Tau", "\u03a4" );
-        parser.defineEntityReplacementText( "Upsilon", "\u03a5" );
-        parser.defineEntityReplacementText( "Phi", "\u03a6" );
-        parser.defineEntityReplacementText( "Chi", "\u03a7" );
-        parser.defineEntityReplacementText( "Psi", "\u03a8" );
-        parser.defineEntityReplacementText( "Omega", "\u03a9" );
-        parser.defineEntityReplacementText( "alpha", "\u03b1" );
-        parser.defineEntityReplacementText( "beta", "\u03b2" );
-        parser.defineEntityReplacementText( "gamma", "\u03b3" );
-        parser.defineEntityReplacementText( "delta", "\u03b4" );
-        parser.defineEntityReplacementText( "epsilon", "\u03b5" );
-        parser.defineEntityReplacementText( "zeta", "\u03b6" );
-        parser.defineEntityReplacementText( "eta", "\u03b7" );
-        parser.defineEntityReplacementText( "theta", "\u03b8" );
-        parser.defineEntityReplacementText( "iota", "\u03b9" );
-        parser.defineEntityReplacementText( "kappa", "\u03ba" );
-        parser.defineEntityReplacementText( "lambda", "\u03bb" );
-        parser.defineEntityReplacementText( "mu", "\u03bc" );
-        parser.defineEntityReplacementText( "nu", "\u03bd" );
-        parser.defineEntityReplacementText( "xi", "\u03be" );
-        parser.defineEntityReplacementText( "omicron", "\u03bf" );
-        parser.defineEntityReplacementText( "pi", "\u03c0" );
-        parser.defineEntityReplacementText( "rho", "\u03c1" );
-        parser.defineEntityReplacementText( "sigmaf", "\u03c2" );
-        parser.defineEntityReplacementText( "sigma", "\u03c3" );
-        parser.defineEntityReplacementText( "tau", "\u03c4" );
-        parser.defineEntityReplacementText( "upsilon", "\u03c5" );
-        parser.defineEntityReplacementText( "phi", "\u03c6" );
-        parser.defineEntityReplacementText( "chi", "\u03c7" );
-        parser.defineEntityReplacementText( "psi", "\u03c8" );
-        parser.defineEntityReplacementText( "omega", "\u03c9" );
-        parser.defineEntityReplacementText( "thetasym", "\u03d1" );
-        parser.defineEntityReplacementText( "upsih", "\u03d2" );
-        parser.defineEntityReplacementText( "piv", "\u03d6" );
-        parser.defineEntityReplacementText( "bull", "\u2022" );
-        parser.defineEntityReplacementText( "hellip", "\u2026" );
-        parser.defineEntityReplacementText( "prime", "\u2032" );
-        parser.defineEntityReplacementText( "Prime", "\u2033" );
-        parser.defineEntityReplacementText( "oline", "\u203e" );
-        parser.defineEntityReplacementText( "frasl", "\u2044" );
-        parser.defineEntityReplacementText( "weierp", "\u2118" );
-        parser.defineEntityReplacementText( "image", "\u2111" );
-        parser.defineEntityReplacementText( "real", "\u211c" );
-        parser.defineEntityReplacementText( "trade", "\u2122" );
-        parser.defineEntityReplacementText( "alefsym", "\u2135" );
-        parser.defineEntityReplacementText( "larr", "\u2190" );
-        parser.defineEntityReplacementText( "uarr", "\u2191" );
-        parser.defineEntityReplacementText( "rarr", "\u2192" );
-        parser.defineEntityReplacementText( "darr", "\u2193" );
-        parser.defineEntityReplacementText( "harr", "\u2194" );
-        parser.defineEntityReplacementText( "crarr", "\u21b5" );
-        parser.defineEntityReplacementText( "lArr", "\u21d0" );
-        parser.defineEntityReplacementText( "uArr", "\u21d1" );
-        parser.defineEntityReplacementText( "rArr", "\u21d2" );
-        parser.defineEntityReplacementText( "dArr", "\u21d3" );
-        parser.defineEntityReplacementText( "hArr", "\u21d4" );
-        parser.defineEntityReplacementText( "forall", "\u2200" );
-        parser.defineEntityReplacementText( "part", "\u2202" );
-        parser.defineEntityReplacementText( "exist", "\u2203" );
-        parser.defineEntityReplacementText( "empty", "\u2205" );
-        parser.defineEntityReplacementText( "nabla", "\u2207" );
-        parser.defineEntityReplacementText( "isin", "\u2208" );
-        parser.defineEntityReplacementText( "notin", "\u2209" );
-        parser.defineEntityReplacementText( "ni", "\u220b" );
-        parser.defineEntityReplacementText( "prod", "\u220f" );
-        parser.defineEntityReplacementText( "sum", "\u2211" );
-        parser.defineEntityReplacementText( "minus", "\u2212" );
-        parser.defineEntityReplacementText( "lowast", "\u2217" );
-        parser.defineEntityReplacementText( "radic", "\u221a" );
-        parser.defineEntityReplacementText( "prop", "\u221d" );
-        parser.defineEntityReplacementText( "infin", "\u221e" );
-        parser.defineEntityReplacementText( "ang", "\u2220" );
-        parser.defineEntityReplacementText( "and", "\u2227" );
-        parser.defineEntityReplacementText( "or", "\u2228" );
-        parser.defineEntityReplacementText( "cap", "\u2229" );
-        parser.defineEntityReplacementText( "cup", "\u222a" );
-        parser.defineEntityReplacementText( "int", "\u222b" );
-        parser.defineEntityReplacementText( "there4", "\u2234" );
-        parser.defineEntityReplacementText( "sim", "\u223c" );
-        parser.defineEntityReplacementText( "cong", "\u2245" );
-        parser.defineEntityReplacementText( "asymp", "\u2248" );
-        parser.defineEntityReplacementText( "ne", "\u2260" );
-        parser.defineEntityReplacementText( "equiv", "\u2261" );
-        parser.defineEntityReplacementText( "le", "\u2264" );
-        parser.defineEntityReplacementText( "ge", "\u2265" );
-        parser.defineEntityReplacementText( "sub", "\u2282" );
-        parser.defineEntityReplacementText( "sup", "\u2283" );
-        parser.defineEntityReplacementText( "nsub", "\u2284" );
-        parser.defineEntityReplacementText( "sube", "\u2286" );
-        parser.defineEntityReplacementText( "supe", "\u2287" );
-        parser.defineEntityReplacementText( "oplus", "\u2295" );
-        parser.defineEntityReplacementText( "otimes", "\u2297" );
-        parser.defineEntityReplacementText( "perp", "\u22a5" );
-        parser.defineEntityReplacementText( "sdot", "\u22c5" );
-        parser.defineEntityReplacementText( "lceil", "\u2308" );
-        parser.defineEntityReplacementText( "rceil", "\u2309" );
-        parser.defineEntityReplacementText( "lfloor", "\u230a" );
-        parser.defineEntityReplacementText( "rfloor", "\u230b" );
-        parser.defineEntityReplacementText( "lang", "\u2329" );
-        parser.defineEntityReplacementText( "rang", "\u232a" );
-        parser.defineEntityReplacementText( "loz", "\u25ca" );
-        parser.defineEntityReplacementText( "spades", "\u2660" );
-        parser.defineEntityReplacementText( "clubs", "\u2663" );
-        parser.defineEntityReplacementText( "hearts", "\u2665" );
-        parser.defineEntityReplacementText( "diams", "\u2666" );
+        return lastTagId;
     }
 
     /**
@@ -410,152 +644,123 @@ public class XhtmlBaseParser
 
         SinkEventAttributeSet attribs = getAttributesFromParser( parser );
 
-        if ( parser.getName().equals( HtmlMarkup.H2.toString() ) )
-        {
-            handleSectionStart( sink, Sink.SECTION_LEVEL_1, attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.H3.toString() ) )
-        {
-            handleSectionStart( sink, Sink.SECTION_LEVEL_2, attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.H4.toString() ) )
-        {
-            handleSectionStart( sink, Sink.SECTION_LEVEL_3, attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.H5.toString() ) )
-        {
-            handleSectionStart( sink, Sink.SECTION_LEVEL_4, attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.H6.toString() ) )
-        {
-            handleSectionStart( sink, Sink.SECTION_LEVEL_5, attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.U.toString() ) )
-        {
-            decoration.addAttribute( SinkEventAttributes.DECORATION, "underline" );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.S.toString() )
-                || parser.getName().equals( HtmlMarkup.STRIKE.toString() )
-                || parser.getName().equals( "del" ) )
-        {
-            decoration.addAttribute( SinkEventAttributes.DECORATION, "line-through" );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.SUB.toString() ) )
-        {
-            decoration.addAttribute( SinkEventAttributes.VALIGN, "sub" );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.SUP.toString() ) )
-        {
-            decoration.addAttribute( SinkEventAttributes.VALIGN, "sup" );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.P.toString() ) )
-        {
-            handlePStart( sink, attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.DIV.toString() ) )
-        {
-            visited = handleDivStart( parser, attribs, sink );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.PRE.toString() ) )
-        {
-            handlePreStart( attribs, sink );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.UL.toString() ) )
-        {
-            sink.list( attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.OL.toString() ) )
-        {
-            handleOLStart( parser, sink, attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.LI.toString() ) )
-        {
-            handleLIStart( sink, attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.DL.toString() ) )
-        {
-            sink.definitionList( attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.DT.toString() ) )
-        {
-            if ( hasDefinitionListItem )
-            {
-                // close previous listItem
-                sink.definitionListItem_();
-            }
-            sink.definitionListItem( attribs );
-            hasDefinitionListItem = true;
-            sink.definedTerm( attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.DD.toString() ) )
-        {
-            if ( !hasDefinitionListItem )
-            {
+        switch ( getTagId( parser ) )
+        {
+            case ID_H2:
+                handleSectionStart( sink, Sink.SECTION_LEVEL_1, attribs );
+                break;
+            case ID_H3:
+                handleSectionStart( sink, Sink.SECTION_LEVEL_2, attribs );
+                break;
+            case ID_H4:
+                handleSectionStart( sink, Sink.SECTION_LEVEL_3, attribs );
+                break;
+            case ID_H5:
+                handleSectionStart( sink, Sink.SECTION_LEVEL_4, attribs );
+                break;
+            case ID_H6:
+                handleSectionStart( sink, Sink.SECTION_LEVEL_5, attribs );
+                break;
+            case ID_U:
+                decoration.addAttribute( SinkEventAttributes.DECORATION, "underline" );
+                break;
+            case ID_S:
+            case ID_STRIKE:
+            case ID_DEL:
+                decoration.addAttribute( SinkEventAttributes.DECORATION, "line-through" );
+                break;
+            case ID_SUB:
+                decoration.addAttribute( SinkEventAttributes.VALIGN, "sub" );
+                break;
+            case ID_SUP:
+                decoration.addAttribute( SinkEventAttributes.VALIGN, "sup" );
+                break;
+            case ID_P:
+                handlePStart( sink, attribs );
+                break;
+            case ID_DIV:
+                visited = handleDivStart( parser, attribs, sink );
+                break;
+            case ID_PRE:
+                handlePreStart( attribs, sink );
+                break;
+            case ID_UL:
+                sink.list( attribs );
+                break;
+            case ID_OL:
+                handleOLStart( parser, sink, attribs );
+                break;
+            case ID_LI:
+                handleLIStart( sink, attribs );
+                break;
+            case ID_DL:
+                sink.definitionList( attribs );
+                break;
+            case ID_DT:
+                if ( hasDefinitionListItem )
+                {
+                    // close previous listItem
+                    sink.definitionListItem_();
+                }
                 sink.definitionListItem( attribs );
-            }
-            sink.definition( attribs );
-        }
-        else if ( ( parser.getName().equals( HtmlMarkup.B.toString() ) )
-                || ( parser.getName().equals( HtmlMarkup.STRONG.toString() ) ) )
-        {
-            sink.bold();
-        }
-        else if ( ( parser.getName().equals( HtmlMarkup.I.toString() ) )
-                || ( parser.getName().equals( HtmlMarkup.EM.toString() ) ) )
-        {
-            handleFigureCaptionStart( sink, attribs );
-        }
-        else if ( ( parser.getName().equals( HtmlMarkup.CODE.toString() ) )
-                || ( parser.getName().equals( HtmlMarkup.SAMP.toString() ) )
-                || ( parser.getName().equals( HtmlMarkup.TT.toString() ) ) )
-        {
-            sink.monospaced();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.A.toString() ) )
-        {
-            handleAStart( parser, sink, attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.TABLE.toString() ) )
-        {
-            handleTableStart( sink, attribs, parser );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.TR.toString() ) )
-        {
-            sink.tableRow( attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.TH.toString() ) )
-        {
-            sink.tableHeaderCell( attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.TD.toString() ) )
-        {
-            sink.tableCell( attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.CAPTION.toString() ) )
-        {
-            sink.tableCaption( attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.BR.toString() ) )
-        {
-            sink.lineBreak( attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.HR.toString() ) )
-        {
-            sink.horizontalRule( attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.IMG.toString() ) )
-        {
-            handleImgStart( parser, sink, attribs );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.SCRIPT.toString() )
-            || parser.getName().equals( HtmlMarkup.STYLE.toString() ) )
-        {
-            handleUnknown( parser, sink, TAG_TYPE_START );
-            scriptBlock = true;
-        }
-        else
-        {
-            visited = false;
+                hasDefinitionListItem = true;
+                sink.definedTerm( attribs );
+                break;
+            case ID_DD:
+                if ( !hasDefinitionListItem )
+                {
+                    sink.definitionListItem( attribs );
+                }
+                sink.definition( attribs );
+                break;
+            case ID_B:
+            case ID_STRONG:
+                sink.bold();
+                break;
+            case ID_I:
+            case ID_EM:
+                handleFigureCaptionStart( sink, attribs );
+                break;
+            case ID_CODE:
+            case ID_SAMP:
+            case ID_TT:
+                sink.monospaced();
+                break;
+            case ID_A:
+                handleAStart( parser, sink, attribs );
+                break;
+            case ID_TABLE:
+                handleTableStart( sink, attribs, parser );
+                break;
+            case ID_TR:
+                sink.tableRow( attribs );
+                break;
+            case ID_TH:
+                sink.tableHeaderCell( attribs );
+                break;
+            case ID_TD:
+                sink.tableCell( attribs );
+                break;
+            case ID_CAPTION:
+                sink.tableCaption( attribs );
+                break;
+            case ID_BR:
+                sink.lineBreak( attribs );
+                break;
+            case ID_HR:
+                sink.horizontalRule( attribs );
+                break;
+            case ID_IMG:
+                handleImgStart( parser, sink, attribs );
+                break;
+            case ID_SCRIPT:
+            case ID_STYLE:
+                handleUnknown( parser, sink, TAG_TYPE_START );
+                scriptBlock = true;
+                break;
+            default:
+                visited = false;
+                break;
         }
 
         return visited;
@@ -577,152 +782,128 @@ public class XhtmlBaseParser
     {
         boolean visited = true;
 
-        if ( parser.getName().equals( HtmlMarkup.P.toString() ) )
+        switch ( getTagId( parser ) )
         {
-            if ( !inFigure )
-            {
-                sink.paragraph_();
-            }
-        }
-        else if ( parser.getName().equals( HtmlMarkup.U.toString() )
-                || parser.getName().equals( HtmlMarkup.S.toString() )
-                || parser.getName().equals( HtmlMarkup.STRIKE.toString() )
-                || parser.getName().equals( "del" ) )
-        {
-            decoration.removeAttribute( SinkEventAttributes.DECORATION );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.SUB.toString() )
-                || parser.getName().equals( HtmlMarkup.SUP.toString() ) )
-        {
-            decoration.removeAttribute( SinkEventAttributes.VALIGN );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.DIV.toString() ) )
-        {
-            if ( inFigure )
-            {
-                sink.figure_();
-                this.inFigure = false;
-            }
-            else
-            {
-                visited = false;
-            }
-        }
-        else if ( parser.getName().equals( HtmlMarkup.PRE.toString() ) )
-        {
-            verbatim_();
-
-            sink.verbatim_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.UL.toString() ) )
-        {
-            sink.list_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.OL.toString() ) )
-        {
-            sink.numberedList_();
-            orderedListDepth--;
-        }
-        else if ( parser.getName().equals( HtmlMarkup.LI.toString() ) )
-        {
-            handleListItemEnd( sink );
-        }
-        else if ( parser.getName().equals( HtmlMarkup.DL.toString() ) )
-        {
-            if ( hasDefinitionListItem )
-            {
+            case ID_P:
+                if ( !inFigure )
+                {
+                    sink.paragraph_();
+                }
+                break;
+            case ID_U:
+            case ID_S:
+            case ID_STRIKE:
+            case ID_DEL:
+                decoration.removeAttribute( SinkEventAttributes.DECORATION );
+                break;
+            case ID_SUB:
+            case ID_SUP:
+                decoration.removeAttribute( SinkEventAttributes.VALIGN );
+                break;
+            case ID_DIV:
+                if ( inFigure )
+                {
+                    sink.figure_();
+                    this.inFigure = false;
+                }
+                else
+                {
+                    visited = false;
+                }
+                break;
+            case ID_PRE:
+                verbatim_();
+
+                sink.verbatim_();
+                break;
+            case ID_UL:
+                sink.list_();
+                break;
+            case ID_OL:
+                sink.numberedList_();
+                orderedListDepth--;
+                break;
+            case ID_LI:
+                handleListItemEnd( sink );
+                break;
+            case ID_DL:
+                if ( hasDefinitionListItem )
+                {
+                    sink.definitionListItem_();
+                    hasDefinitionListItem = false;
+                }
+                sink.definitionList_();
+                break;
+            case ID_DT:
+                sink.definedTerm_();
+                break;
+            case ID_DD:
+                sink.definition_();
                 sink.definitionListItem_();
                 hasDefinitionListItem = false;
-            }
-            sink.definitionList_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.DT.toString() ) )
-        {
-            sink.definedTerm_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.DD.toString() ) )
-        {
-            sink.definition_();
-            sink.definitionListItem_();
-            hasDefinitionListItem = false;
-        }
-        else if ( ( parser.getName().equals( HtmlMarkup.B.toString() ) )
-                || ( parser.getName().equals( HtmlMarkup.STRONG.toString() ) ) )
-        {
-            sink.bold_();
-        }
-        else if ( ( parser.getName().equals( HtmlMarkup.I.toString() ) )
-                || ( parser.getName().equals( HtmlMarkup.EM.toString() ) ) )
-        {
-            handleFigureCaptionEnd( sink );
-        }
-        else if ( ( parser.getName().equals( HtmlMarkup.CODE.toString() ) )
-                || ( parser.getName().equals( HtmlMarkup.SAMP.toString() ) )
-                || ( parser.getName().equals( HtmlMarkup.TT.toString() ) ) )
-        {
-            sink.monospaced_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.A.toString() ) )
-        {
-            handleAEnd( sink );
-        }
-
-        // ----------------------------------------------------------------------
-        // Tables
-        // ----------------------------------------------------------------------
-
-        else if ( parser.getName().equals( HtmlMarkup.TABLE.toString() ) )
-        {
-            sink.tableRows_();
-
-            sink.table_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.TR.toString() ) )
-        {
-            sink.tableRow_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.TH.toString() ) )
-        {
-            sink.tableHeaderCell_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.TD.toString() ) )
-        {
-            sink.tableCell_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.CAPTION.toString() ) )
-        {
-            sink.tableCaption_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.H2.toString() ) )
-        {
-            sink.sectionTitle1_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.H3.toString() ) )
-        {
-            sink.sectionTitle2_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.H4.toString() ) )
-        {
-            sink.sectionTitle3_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.H5.toString() ) )
-        {
-            sink.sectionTitle4_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.H6.toString() ) )
-        {
-            sink.sectionTitle5_();
-        }
-        else if ( parser.getName().equals( HtmlMarkup.SCRIPT.toString() )
-            || parser.getName().equals( HtmlMarkup.STYLE.toString() ) )
-        {
-            handleUnknown( parser, sink, TAG_TYPE_END );
-
-            scriptBlock = false;
-        }
-        else
-        {
-            visited = false;
+                break;
+            case ID_B:
+            case ID_STRONG:
+                sink.bold_();
+                break;
+            case ID_I:
+            case ID_EM:
+                handleFigureCaptionEnd( sink );
+                break;
+            case ID_CODE:
+            case ID_SAMP:
+            case ID_TT:
+                sink.monospaced_();
+                break;
+            case ID_A:
+                handleAEnd( sink );
+                break;
+
+            // ----------------------------------------------------------------------
+            // Tables
+            // ----------------------------------------------------------------------
+
+            case ID_TABLE:
+                sink.tableRows_();
+
+                sink.table_();
+                break;
+            case ID_TR:
+                sink.tableRow_();
+                break;
+            case ID_TH:
+                sink.tableHeaderCell_();
+                break;
+            case ID_TD:
+                sink.tableCell_();
+                break;
+            case ID_CAPTION:
+                sink.tableCaption_();
+                break;
+            case ID_H2:
+                sink.sectionTitle1_();
+                break;
+            case ID_H3:
+                sink.sectionTitle2_();
+                break;
+            case ID_H4:
+                sink.sectionTitle3_();
+                break;
+            case ID_H5:
+                sink.sectionTitle4_();
+                break;
+            case ID_H6:
+                sink.sectionTitle5_();
+                break;
+            case ID_SCRIPT:
+            case ID_STYLE:
+                handleUnknown( parser, sink, TAG_TYPE_END );
+
+                scriptBlock = false;
+                break;
+            default:
+                visited = false;
+                break;
         }
 
         return visited;
@@ -770,15 +951,26 @@ public class XhtmlBaseParser
     protected void handleText( XmlPullParser parser, Sink sink )
         throws XmlPullParserException
     {
-        String text = getText( parser );
-
         /*
          * NOTE: Don't do any whitespace trimming here. Whitespace normalization has already been performed by the
          * parser so any whitespace that makes it here is significant.
          *
          * NOTE: text within script tags is ignored, scripting code should be embedded in CDATA.
          */
-        if ( StringUtils.isNotEmpty( text ) && !isScriptBlock() )
+        if ( isScriptBlock() )
+        {
+            return;
+        }
+
+        if ( decoration.getAttributeCount() == 0 )
+        {
+            emitText( parser, sink );
+            return;
+        }
+
+        String text = getText( parser );
+
+        if ( StringUtils.isNotEmpty( text ) )
         {
             sink.text( text, decoration );
         }
@@ -1020,10 +1212,9 @@ public class XhtmlBaseParser
         this.sectionLevel = 0;
         this.inVerbatim = false;
         this.inFigure = false;
-        while ( this.decoration.getAttributeNames().hasMoreElements() )
-        {
-            this.decoration.removeAttribute( this.decoration.getAttributeNames().nextElement() );
-        }
+        this.hasDefinitionListItem = false;
+        // each parse context needs its own instance, a clone shares it with the component
+        this.decoration = new SinkEventAttributeSet();
         this.warnMessages = null;
     }
 
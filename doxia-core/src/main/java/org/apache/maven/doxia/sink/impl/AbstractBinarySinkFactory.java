@@ -23,9 +23,12 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 
+import org.apache.maven.doxia.sink.ChannelSinkFactory;
 import org.apache.maven.doxia.sink.Sink;
-import org.apache.maven.doxia.sink.SinkFactory;
 import org.codehaus.plexus.util.WriterFactory;
 
 /**
@@ -36,7 +39,7 @@ import org.codehaus.plexus.util.WriterFactory;
  * @since 1.1
  */
 public abstract class AbstractBinarySinkFactory
-    implements SinkFactory
+    implements ChannelSinkFactory
 {
     /** {@inheritDoc} */
     public Sink createSink( File outputDir, String outputName )
@@ -77,4 +80,15 @@ public abstract class AbstractBinarySinkFactory
     {
         return createSink( out, WriterFactory.UTF_8 );
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 1.8
+     */
+    public Sink createSink( WritableByteChannel channel, Charset charset )
+        throws IOException
+    {
+        return createSink( Channels.newOutputStream( channel ), charset.name() );
+    }
 }
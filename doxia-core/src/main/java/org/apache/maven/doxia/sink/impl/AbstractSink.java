@@ -22,7 +22,7 @@ package org.apache.maven.doxia.sink.impl;
 import org.apache.maven.doxia.logging.Log;
 import org.apache.maven.doxia.logging.SystemStreamLog;
 import org.apache.maven.doxia.markup.Markup;
-import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.CharacterSink;
 
 /**
  * An abstract base class that defines some convenience methods for sinks.
@@ -33,7 +33,7 @@ import org.apache.maven.doxia.sink.Sink;
  * @since 1.1
  */
 public abstract class AbstractSink
-    implements Sink, Markup
+    implements CharacterSink, Markup
 {
     private Log logger;
 
@@ -59,6 +59,30 @@ public abstract class AbstractSink
         return logger;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Forwards a copy of the text to {@link #text(String)}, sinks which can do without the copy override it.
+     *
+     * @since 1.8
+     */
+    public void text( CharSequence text )
+    {
+        text( text == null ? null : text.toString() );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Forwards a copy of the text to {@link #text(String)}, sinks which can do without the copy override it.
+     *
+     * @since 1.8
+     */
+    public void text( char[] text, int offset, int length )
+    {
+        text( new String( text, offset, length ) );
+    }
+
     /**
      * Parses the given String and replaces all occurrences of
      * '\n', '\r' and '\r\n' with the system EOL. All Sinks should
@@ -67,7 +91,7 @@ public abstract class AbstractSink
      * @param text the text to scan.
      *      May be null in which case null is returned.
      *
-     * @return a String that contains only System EOLs.
+     * @return a String that contains only System EOLs, the given String if it has no other line terminator.
      */
      protected static String unifyEOLs( String text )
      {
@@ -76,6 +100,12 @@ public abstract class AbstractSink
             return null;
         }
 
+        if ( isUnified( text ) )
+        {
+            // nothing to unify, typically a tag
+            return text;
+        }
+
         int length = text.length();
 
         StringBuilder buffer = new StringBuilder( length );
@@ -104,6 +134,26 @@ public abstract class AbstractSink
         return buffer.toString();
     }
 
+    private static boolean isUnified( String text )
+    {
+        for ( int i = 0, length = text.length(); i < length; i++ )
+        {
+            char c = text.charAt( i );
+
+            if ( c == '\r' || c == '\n' )
+            {
+                if ( !text.startsWith( EOL, i ) )
+                {
+                    return false;
+                }
+
+                i += EOL.length() - 1;
+            }
+        }
+
+        return true;
+    }
+
      /**
       * This is called in {@link #head()} or in {@link #close()}, and can be used
       * to set the sink into a clear state so it can be re-used.
@@ -20,18 +20,25 @@ package org.apache.maven.doxia.sink.impl;
  */
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.concurrent.Executor;
 
+import org.apache.maven.doxia.sink.ChannelSinkFactory;
 import org.apache.maven.doxia.sink.Sink;
-import org.apache.maven.doxia.sink.SinkFactory;
 import org.codehaus.plexus.util.WriterFactory;
 
 /**
  * An abstract <code>SinkFactory</code> for Text markup syntax. <code>UTF-8</code> is used
- * when no encoding is specified.
+ * when no encoding is specified. Files are written through a <code>FileChannel</code>.
  *
  * @author Hervé Boutemy
  * @author Benjamin Bentmann
@@ -39,8 +46,11 @@ import org.codehaus.plexus.util.WriterFactory;
  * @since 1.1
  */
 public abstract class AbstractTextSinkFactory
-    implements SinkFactory
+    implements ChannelSinkFactory
 {
+    /** Writes the files in tasks, or null to write them on the rendering thread. */
+    private Executor writeBehindExecutor;
+
     /**
      * Create a text Sink for a given encoding.
      *
@@ -50,6 +60,33 @@ public abstract class AbstractTextSinkFactory
      */
     protected abstract Sink createSink( Writer writer, String encoding );
 
+    /**
+     * Enables write-behind output for the files created by this factory: the rendering thread fills bounded
+     * buffers which are written to the file by tasks of the given executor, so it does not wait for a slow file
+     * system like a network share. The rendering thread only blocks when several buffers of a file wait to be
+     * written. Flushing and closing a sink wait until its output is written, and report any error of the tasks.
+     * The executor may be shared by all the sinks, a small fixed thread pool is enough. It may also run the rendering
+     * itself, for instance the executor given to
+     * {@link org.apache.maven.doxia.BatchDoxia#render(java.util.Collection, Executor, int)}: a rendering thread never
+     * waits for a write task which has not started, it writes the buffers by itself instead.
+     *
+     * @param executor the executor writing the files, or null to write them on the rendering thread (the default).
+     * @since 1.8
+     */
+    public void setWriteBehindExecutor( Executor executor )
+    {
+        this.writeBehindExecutor = executor;
+    }
+
+    /**
+     * @return the executor writing the files, or null if the files are written on the rendering thread.
+     * @since 1.8
+     */
+    public Executor getWriteBehindExecutor()
+    {
+        return writeBehindExecutor;
+    }
+
     /** {@inheritDoc} */
     public Sink createSink( File outputDir, String outputName )
         throws IOException
@@ -78,9 +115,14 @@ public abstract class AbstractTextSinkFactory
             }
         }
 
-        Writer writer = WriterFactory.newWriter( new File( outputDir, outputName ), encoding );
+        Charset charset = toCharset( encoding );
+        WritableByteChannel channel = new FileOutputStream( new File( outputDir, outputName ) ).getChannel();
+        if ( writeBehindExecutor != null )
+        {
+            channel = new WriteBehindChannel( channel, writeBehindExecutor );
+        }
 
-        return createSink( writer, encoding );
+        return createSink( new ChannelWriter( channel, charset ), encoding );
     }
 
     /** {@inheritDoc} */
@@ -96,4 +138,34 @@ public abstract class AbstractTextSinkFactory
     {
         return createSink( new OutputStreamWriter( out, encoding ), encoding );
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The characters are encoded with a single encoder into a pooled direct buffer.
+     *
+     * @since 1.8
+     */
+    public Sink createSink( WritableByteChannel channel, Charset charset )
+        throws IOException
+    {
+        return createSink( new ChannelWriter( channel, charset ), charset.name() );
+    }
+
+    private static Charset toCharset( String encoding )
+        throws UnsupportedEncodingException
+    {
+        try
+        {
+            return Charset.forName( encoding );
+        }
+        catch ( IllegalCharsetNameException e )
+        {
+            throw new UnsupportedEncodingException( encoding );
+        }
+        catch ( UnsupportedCharsetException e )
+        {
+            throw new UnsupportedEncodingException( encoding );
+        }
+    }
 }
@@ -19,6 +19,9 @@ package org.apache.maven.doxia.sink.impl;
  * under the License.
  */
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.swing.text.MutableAttributeSet;
 import javax.swing.text.html.HTML.Tag;
 
@@ -35,6 +38,23 @@ public abstract class AbstractXmlSink
     extends SinkAdapter
     implements XmlMarkup
 {
+    /** Index of the tag markup without attributes, see {@link #getTagMarkup(Tag)}. */
+    private static final int START_TAG = 0;
+
+    /** Index of the simple tag markup without attributes. */
+    private static final int SIMPLE_TAG = 1;
+
+    /** Offset of the start and simple tag markups preceded by an EOL. */
+    private static final int NEWLINE = 2;
+
+    /** Index of the start of a tag, to be followed by attributes. */
+    private static final int TAG_OPENING = 4;
+
+    /** Index of the end tag markup. */
+    private static final int END_TAG = 5;
+
+    private static final int MARKUP_LENGTH = 6;
+
     /** Default namespace prepended to all tags */
     private String nameSpace;
 
@@ -42,6 +62,12 @@ public abstract class AbstractXmlSink
 
     private boolean insertNewline = true;
 
+    /** The markup of the tags written so far, in the current namespace, see {@link #getTagMarkup(Tag)}. */
+    private final Map<Tag, String[]> tagMarkup = new HashMap<Tag, String[]>();
+
+    /** Used to write the tags with attributes. */
+    private final StringBuilder tagBuffer = new StringBuilder();
+
     public void setInsertNewline( boolean insertNewline )
     {
         this.insertNewline = insertNewline;
@@ -56,6 +82,7 @@ public abstract class AbstractXmlSink
     public void setNameSpace( String ns )
     {
         this.nameSpace = ns;
+        this.tagMarkup.clear();
     }
 
     /**
@@ -115,24 +142,28 @@ public abstract class AbstractXmlSink
             throw new IllegalArgumentException( "A tag is required" );
         }
 
-        StringBuilder sb = new StringBuilder();
+        boolean newline = insertNewline && t.isBlock() && !firstTag;
+        firstTag = false;
+
+        String[] markup = getTagMarkup( t );
 
-        if ( insertNewline && t.isBlock() && !firstTag )
+        if ( att == null || att.getAttributeCount() == 0 )
         {
-            sb.append( EOL );
+            write( markup[( newline ? NEWLINE : 0 ) + ( isSimpleTag ? SIMPLE_TAG : START_TAG )] );
+            return;
         }
-        firstTag = false;
 
-        sb.append( LESS_THAN );
+        StringBuilder sb = tagBuffer;
+        sb.setLength( 0 );
 
-        if ( nameSpace != null )
+        if ( newline )
         {
-            sb.append( nameSpace ).append( ':' );
+            sb.append( EOL );
         }
 
-        sb.append( t.toString() );
+        sb.append( markup[TAG_OPENING] );
 
-        sb.append( SinkUtils.getAttributeString( att ) );
+        SinkUtils.appendAttributeString( sb, att );
 
         if ( isSimpleTag )
         {
@@ -166,19 +197,40 @@ public abstract class AbstractXmlSink
             throw new IllegalArgumentException( "A tag is required" );
         }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append( LESS_THAN );
-        sb.append( SLASH );
+        write( getTagMarkup( t )[END_TAG] );
+    }
 
-        if ( nameSpace != null )
+    /**
+     * Gives the markup of a tag in the current namespace. It is computed once per tag, so attribute-less tags are
+     * written without building a String.
+     *
+     * @param t a non null tag.
+     * @return the markup of the tag, indexed by {@link #TAG_OPENING}, {@link #START_TAG}, {@link #SIMPLE_TAG},
+     * {@link #END_TAG}, and {@link #NEWLINE} for the start and simple tags preceded by an EOL.
+     */
+    private String[] getTagMarkup( Tag t )
+    {
+        String[] markup = tagMarkup.get( t );
+
+        if ( markup == null )
         {
-            sb.append( nameSpace ).append( ':' );
-        }
+            String name = ( nameSpace != null ) ? nameSpace + ':' + t.toString() : t.toString();
+            String opening = LESS_THAN + name;
+            String start = opening + GREATER_THAN;
+            String simple = opening + SPACE + SLASH + GREATER_THAN;
 
-        sb.append( t.toString() );
-        sb.append( GREATER_THAN );
+            markup = new String[MARKUP_LENGTH];
+            markup[TAG_OPENING] = opening;
+            markup[START_TAG] = start;
+            markup[SIMPLE_TAG] = simple;
+            markup[NEWLINE + START_TAG] = EOL + start;
+            markup[NEWLINE + SIMPLE_TAG] = EOL + simple;
+            markup[END_TAG] = String.valueOf( LESS_THAN ) + SLASH + name + GREATER_THAN;
 
-        write( sb.toString() );
+            tagMarkup.put( t, markup );
+        }
+
+        return markup;
     }
 
     /**
@@ -0,0 +1,293 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A writer which encodes its characters into a channel, like an <code>OutputStreamWriter</code> over
+ * <code>Channels.newOutputStream()</code> but with a single encoder and a direct buffer taken from a pool shared by
+ * all the writers, so no intermediate byte array is copied. With an ASCII compatible charset like
+ * <code>UTF-8</code>, runs of ASCII characters are put in the buffer without the encoder.
+ * <p>
+ * The characters are buffered until the writer is flushed or closed, flushing the writer also flushes a
+ * {@link Flushable} channel. Closing the writer gives its buffer back to the pool and closes the channel.
+ * Malformed and unmappable characters are replaced. This class is not thread-safe.
+ * </p>
+ *
+ * @since 1.8
+ */
+final class ChannelWriter
+    extends Writer
+{
+    /** The size of the direct buffers. */
+    static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final int MAX_POOLED_BUFFERS = 16;
+
+    private static final Queue<ByteBuffer> POOL = new ConcurrentLinkedQueue<ByteBuffer>();
+
+    private static final AtomicInteger POOL_SIZE = new AtomicInteger();
+
+    private final WritableByteChannel channel;
+
+    private final CharsetEncoder encoder;
+
+    /** True if the ASCII characters are encoded as themselves on a single byte. */
+    private final boolean asciiFastPath;
+
+    private ByteBuffer buffer;
+
+    /** Used to write Strings and single characters. */
+    private final char[] chars = new char[1024];
+
+    /** A high surrogate at the end of a write, waiting for the low surrogate of the next one. */
+    private char pendingSurrogate;
+
+    private boolean hasPendingSurrogate;
+
+    /**
+     * Creates a writer into the given channel.
+     *
+     * @param channel the not-null channel of the encoded characters.
+     * @param charset the not-null charset of the encoded characters.
+     */
+    ChannelWriter( WritableByteChannel channel, Charset charset )
+    {
+        this.channel = channel;
+        this.encoder = charset.newEncoder().onMalformedInput( CodingErrorAction.REPLACE )
+                                           .onUnmappableCharacter( CodingErrorAction.REPLACE );
+        String name = charset.name();
+        this.asciiFastPath = "UTF-8".equals( name ) || "US-ASCII".equals( name ) || "ISO-8859-1".equals( name );
+        this.buffer = acquire();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write( int c )
+        throws IOException
+    {
+        chars[0] = (char) c;
+        write( chars, 0, 1 );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write( char[] text, int offset, int length )
+        throws IOException
+    {
+        ensureOpen();
+
+        int end = offset + length;
+        int i = offset;
+
+        while ( i < end )
+        {
+            if ( hasPendingSurrogate )
+            {
+                // complete the surrogate pair split over two writes or runs
+                hasPendingSurrogate = false;
+                encode( CharBuffer.wrap( new char[] { pendingSurrogate, text[i] } ), false );
+                i++;
+                continue;
+            }
+
+            if ( !asciiFastPath )
+            {
+                encode( CharBuffer.wrap( text, i, end - i ), false );
+                break;
+            }
+
+            int limit = Math.min( end, i + buffer.remaining() );
+            while ( i < limit && text[i] < 0x80 )
+            {
+                buffer.put( (byte) text[i] );
+                i++;
+            }
+
+            if ( i == end )
+            {
+                break;
+            }
+
+            if ( i == limit && text[i] < 0x80 )
+            {
+                drain();
+                continue;
+            }
+
+            int start = i;
+            while ( i < end && text[i] >= 0x80 )
+            {
+                i++;
+            }
+            encode( CharBuffer.wrap( text, start, i - start ), false );
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write( String text, int offset, int length )
+        throws IOException
+    {
+        int end = offset + length;
+        for ( int i = offset; i < end; i += chars.length )
+        {
+            int count = Math.min( chars.length, end - i );
+            text.getChars( i, i + count, chars, 0 );
+            write( chars, 0, count );
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush()
+        throws IOException
+    {
+        ensureOpen();
+        drain();
+
+        if ( channel instanceof Flushable )
+        {
+            ( (Flushable) channel ).flush();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close()
+        throws IOException
+    {
+        if ( buffer == null )
+        {
+            return;
+        }
+
+        try
+        {
+            if ( hasPendingSurrogate )
+            {
+                hasPendingSurrogate = false;
+                encode( CharBuffer.wrap( new char[] { pendingSurrogate } ), true );
+            }
+            else
+            {
+                encode( CharBuffer.allocate( 0 ), true );
+            }
+
+            while ( encoder.flush( buffer ).isOverflow() )
+            {
+                drain();
+            }
+            drain();
+        }
+        finally
+        {
+            release( buffer );
+            buffer = null;
+            channel.close();
+        }
+    }
+
+    private void encode( CharBuffer in, boolean endOfInput )
+        throws IOException
+    {
+        while ( true )
+        {
+            CoderResult result = encoder.encode( in, buffer, endOfInput );
+            if ( result.isOverflow() )
+            {
+                drain();
+            }
+            else if ( result.isUnderflow() )
+            {
+                break;
+            }
+            else
+            {
+                result.throwException();
+            }
+        }
+
+        if ( in.hasRemaining() )
+        {
+            // only a high surrogate is left over by the encoder
+            pendingSurrogate = in.get();
+            hasPendingSurrogate = true;
+        }
+    }
+
+    private void drain()
+        throws IOException
+    {
+        buffer.flip();
+        while ( buffer.hasRemaining() )
+        {
+            channel.write( buffer );
+        }
+        buffer.clear();
+    }
+
+    private void ensureOpen()
+        throws IOException
+    {
+        if ( buffer == null )
+        {
+            throw new IOException( "Writer closed" );
+        }
+    }
+
+    private static ByteBuffer acquire()
+    {
+        ByteBuffer buffer = POOL.poll();
+        if ( buffer == null )
+        {
+            return ByteBuffer.allocateDirect( BUFFER_SIZE );
+        }
+
+        POOL_SIZE.decrementAndGet();
+        return buffer;
+    }
+
+    private static void release( ByteBuffer buffer )
+    {
+        buffer.clear();
+        if ( POOL_SIZE.incrementAndGet() <= MAX_POOLED_BUFFERS )
+        {
+            POOL.offer( buffer );
+        }
+        else
+        {
+            POOL_SIZE.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.maven.doxia.logging.Log;
+import org.apache.maven.doxia.sink.Sink;
+
+/**
+ * A sink that forwards every event to a list of sinks, each of them running in tasks of an executor.
+ * <p>
+ * The events are recorded in chunks, which are handed to the sinks through a ring of preallocated chunks whose
+ * buffers are recycled, so a slow output format does not hold back the parser nor the other formats until the
+ * ring is full. A task is only submitted for a sink when chunks are waiting for it, and it ends once it has caught
+ * up, so no thread is held nor spinning while the parser is busy. Each sink is only called by one thread at a time,
+ * including when it is closed.
+ * </p>
+ * <p>
+ * The executor does not need to run the tasks right away, nor all of them at the same time: when the ring is full,
+ * or when the events are finished, the producing thread runs the tasks that have not started yet by itself. A
+ * bounded executor, even one shared with the producer or with a single thread, therefore does not deadlock, it only
+ * makes the sinks run on the producing thread.
+ * </p>
+ * <p>
+ * {@link #close()} waits until all sinks have received all events and have been closed, and rethrows the
+ * first exception thrown by one of them. {@link #finish()} does the same without closing the sinks. One of them
+ * must always be called, or the last events may never be sent.
+ * </p>
+ *
+ * @since 1.8
+ */
+public class ConcurrentFanOutSink
+    extends RecordingSink
+{
+    /** The default number of chunks that can wait for each sink. */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /** The number of events per chunk. */
+    private static final int CHUNK_SIZE = 256;
+
+    /** The initial buffer size of a chunk, a few ints per event. */
+    private static final int CHUNK_CAPACITY = 4 * CHUNK_SIZE;
+
+    /** The events have not ended yet. */
+    private static final int OPEN = 0;
+
+    /** The events have ended, the sinks are left open. */
+    private static final int END = 1;
+
+    /** The events have ended, and the sinks are closed. */
+    private static final int CLOSE = 2;
+
+    /** A sink task is neither submitted nor running. */
+    private static final int IDLE = 0;
+
+    /** A sink task is submitted to the executor, but not started. */
+    private static final int SCHEDULED = 1;
+
+    /** A sink task is running. */
+    private static final int RUNNING = 2;
+
+    private final Executor executor;
+
+    private final List<Consumer> consumers;
+
+    /** The chunks, chunk <code>n</code> being at index <code>n % ring.length</code>. */
+    private final SinkEventLog.Chunk[] ring;
+
+    /** The number of published chunks. */
+    private volatile long published;
+
+    /** Whether the events have ended, and how. */
+    private volatile int ending = OPEN;
+
+    /** The producer thread, while it waits for the sinks. */
+    private volatile Thread waiter;
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    /**
+     * Constructs a ConcurrentFanOutSink with a {@link #DEFAULT_CAPACITY}.
+     *
+     * @param sinks the sinks to forward the events to, not null.
+     * @param executor runs the sink tasks, it may be bounded and shared with the producer.
+     */
+    public ConcurrentFanOutSink( List<Sink> sinks, Executor executor )
+    {
+        this( sinks, executor, DEFAULT_CAPACITY );
+    }
+
+    /**
+     * Constructs a ConcurrentFanOutSink.
+     *
+     * @param sinks the sinks to forward the events to, not null.
+     * @param executor runs the sink tasks, it may be bounded and shared with the producer.
+     * @param capacity the number of chunks of events that can wait for the sinks before the producer waits.
+     */
+    public ConcurrentFanOutSink( List<Sink> sinks, Executor executor, int capacity )
+    {
+        if ( capacity < 1 )
+        {
+            throw new IllegalArgumentException( "The capacity must be positive: " + capacity );
+        }
+
+        this.executor = executor;
+        this.consumers = new ArrayList<Consumer>( sinks.size() );
+        for ( Sink sink : sinks )
+        {
+            consumers.add( new Consumer( sink ) );
+        }
+
+        this.ring = new SinkEventLog.Chunk[capacity];
+        for ( int i = 0; i < capacity; i++ )
+        {
+            ring[i] = new SinkEventLog.Chunk( CHUNK_CAPACITY );
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void enableLogging( Log log )
+    {
+        super.enableLogging( log );
+
+        for ( Consumer consumer : consumers )
+        {
+            consumer.sink.enableLogging( log );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Hands the pending events to the sinks, which flush once they have written them.
+     */
+    @Override
+    public void flush()
+    {
+        super.flush();
+        publish();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Waits until all sinks have written all events and have been closed.
+     *
+     * @throws IllegalStateException if one of the sinks failed or if the current thread is interrupted.
+     */
+    @Override
+    public void close()
+    {
+        finish( CLOSE );
+    }
+
+    /**
+     * Waits until all sinks have written all events, without closing them. No events may be sent afterwards.
+     *
+     * @throws IllegalStateException if one of the sinks failed or if the current thread is interrupted.
+     */
+    public void finish()
+    {
+        finish( END );
+    }
+
+    private void finish( int end )
+    {
+        if ( ending != OPEN )
+        {
+            return;
+        }
+
+        publish();
+        ending = end;
+        schedule();
+        await( true );
+
+        Throwable t = failure.get();
+        if ( t instanceof RuntimeException )
+        {
+            throw (RuntimeException) t;
+        }
+        if ( t instanceof Error )
+        {
+            throw (Error) t;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void eventRecorded()
+    {
+        if ( size() >= CHUNK_SIZE )
+        {
+            publish();
+        }
+    }
+
+    private void publish()
+    {
+        if ( size() > 0 )
+        {
+            // the next chunk is free once all sinks have replayed the chunk it held before
+            await( false );
+            drainTo( ring[(int) ( published % ring.length )] );
+            published++;
+            schedule();
+        }
+    }
+
+    /**
+     * Submits a task for every sink that has none yet.
+     */
+    private void schedule()
+    {
+        for ( Consumer consumer : consumers )
+        {
+            if ( consumer.state.compareAndSet( IDLE, SCHEDULED ) )
+            {
+                try
+                {
+                    executor.execute( consumer );
+                }
+                catch ( RejectedExecutionException e )
+                {
+                    consumer.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until every sink has either room for one more chunk or, if <code>end</code> is true, has ended. The
+     * tasks that have not started yet are run by the current thread rather than waiting for the executor.
+     */
+    private void await( boolean end )
+    {
+        waiter = Thread.currentThread();
+        try
+        {
+            for ( Consumer consumer : consumers )
+            {
+                while ( end ? !consumer.ended : published - consumer.consumed >= ring.length )
+                {
+                    if ( !consumer.tryDrain() )
+                    {
+                        LockSupport.park( this );
+
+                        if ( Thread.interrupted() )
+                        {
+                            Thread.currentThread().interrupt();
+                            throw new IllegalStateException( "Interrupted while waiting for the sinks" );
+                        }
+                    }
+                }
+            }
+        }
+        finally
+        {
+            waiter = null;
+        }
+    }
+
+    private void wakeUp()
+    {
+        Thread thread = waiter;
+        if ( thread != null )
+        {
+            LockSupport.unpark( thread );
+        }
+    }
+
+    private void fail( Throwable t )
+    {
+        failure.compareAndSet( null, t );
+    }
+
+    /**
+     * Replays the waiting chunks of events into one sink.
+     */
+    private class Consumer
+        implements Runnable
+    {
+        private final Sink sink;
+
+        private final AtomicInteger state = new AtomicInteger( IDLE );
+
+        /** The number of chunks replayed into the sink. */
+        private volatile long consumed;
+
+        /** Whether the sink has received the end of the events. */
+        private volatile boolean ended;
+
+        /** Whether the sink has failed, only accessed by the running task. */
+        private boolean failed;
+
+        Consumer( Sink sink )
+        {
+            this.sink = sink;
+        }
+
+        /** {@inheritDoc} */
+        public void run()
+        {
+            if ( state.compareAndSet( SCHEDULED, RUNNING ) )
+            {
+                drain();
+            }
+        }
+
+        /**
+         * Runs this task in the current thread, unless it is already running in another one.
+         *
+         * @return false if the task is running in another thread.
+         */
+        boolean tryDrain()
+        {
+            int current = state.get();
+            if ( current != RUNNING && state.compareAndSet( current, RUNNING ) )
+            {
+                drain();
+                return true;
+            }
+            return false;
+        }
+
+        private void drain()
+        {
+            do
+            {
+                long next;
+                while ( ( next = consumed ) < published )
+                {
+                    replay( ring[(int) ( next % ring.length )] );
+                    consumed = next + 1;
+                    wakeUp();
+                }
+
+                // the end is only read after the last chunk, as it is set once all chunks are published
+                int end = ending;
+                if ( end != OPEN && !ended && consumed == published )
+                {
+                    if ( end == CLOSE && !failed )
+                    {
+                        try
+                        {
+                            sink.close();
+                        }
+                        catch ( RuntimeException e )
+                        {
+                            fail( e );
+                        }
+                        catch ( Error e )
+                        {
+                            fail( e );
+                        }
+                    }
+                    ended = true;
+                    wakeUp();
+                }
+
+                state.set( IDLE );
+            }
+            while ( ( consumed < published || ( ending != OPEN && !ended ) ) && state.compareAndSet( IDLE, RUNNING ) );
+        }
+
+        private void replay( SinkEventLog.Chunk chunk )
+        {
+            // after a failure, keep consuming the chunks so the producer never waits for this sink
+            if ( !failed )
+            {
+                try
+                {
+                    chunk.replay( sink );
+                }
+                catch ( RuntimeException e )
+                {
+                    fail( e );
+                    failed = true;
+                }
+                catch ( Error e )
+                {
+                    fail( e );
+                    failed = true;
+                }
+            }
+        }
+    }
+}
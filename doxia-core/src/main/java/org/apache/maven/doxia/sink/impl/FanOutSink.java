@@ -0,0 +1,1256 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.doxia.logging.Log;
+import org.apache.maven.doxia.sink.CharacterSink;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+
+/**
+ * A sink that forwards every event to a list of sinks, in order.
+ * <p>
+ * Unlike a {@link PipelineSink} proxy, events are forwarded with plain method calls, without reflection or
+ * boxing of the arguments.
+ * </p>
+ *
+ * @since 1.8
+ */
+public class FanOutSink
+    implements CharacterSink
+{
+    private Sink[] sinks;
+
+    /**
+     * Constructs a FanOutSink.
+     *
+     * @param sinks the sinks to forward the events to, not null.
+     */
+    public FanOutSink( Sink... sinks )
+    {
+        this.sinks = sinks.clone();
+    }
+
+    /**
+     * Constructs a FanOutSink.
+     *
+     * @param sinks the sinks to forward the events to, not null. Later changes to the list are not reflected.
+     */
+    public FanOutSink( List<Sink> sinks )
+    {
+        this.sinks = sinks.toArray( new Sink[sinks.size()] );
+    }
+
+    /**
+     * Adds a sink to forward the events to.
+     *
+     * @param sink the Sink to add.
+     */
+    public void addSink( Sink sink )
+    {
+        Sink[] newSinks = Arrays.copyOf( sinks, sinks.length + 1 );
+        newSinks[sinks.length] = sink;
+        sinks = newSinks;
+    }
+
+    /**
+     * @return the sinks the events are forwarded to.
+     */
+    public List<Sink> getSinks()
+    {
+        return Arrays.asList( sinks.clone() );
+    }
+
+    /** {@inheritDoc} */
+    public void head()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.head();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void head( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.head( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void head_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.head_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void title()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.title();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void title( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.title( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void title_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.title_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void author()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.author();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void author( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.author( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void author_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.author_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void date()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.date();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void date( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.date( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void date_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.date_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void body()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.body();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void body( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.body( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void body_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.body_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section1()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section1();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section1_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section1_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle1()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle1();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle1_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle1_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section2()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section2();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section2_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section2_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle2()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle2();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle2_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle2_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section3()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section3();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section3_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section3_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle3()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle3();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle3_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle3_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section4()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section4();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section4_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section4_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle4()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle4();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle4_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle4_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section5()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section5();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section5_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section5_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle5()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle5();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle5_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle5_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section6()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section6();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section6_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section6_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle6()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle6();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle6_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle6_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section( int level, SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section( level, attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void section_( int level )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.section_( level );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle( int level, SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle( level, attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle_( int level )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.sectionTitle_( level );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void list()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.list();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void list( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.list( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void list_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.list_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void listItem()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.listItem();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void listItem( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.listItem( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void listItem_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.listItem_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void numberedList( int numbering )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.numberedList( numbering );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void numberedList( int numbering, SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.numberedList( numbering, attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void numberedList_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.numberedList_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void numberedListItem()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.numberedListItem();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void numberedListItem( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.numberedListItem( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void numberedListItem_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.numberedListItem_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void definitionList()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.definitionList();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void definitionList( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.definitionList( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void definitionList_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.definitionList_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void definitionListItem()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.definitionListItem();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void definitionListItem( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.definitionListItem( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void definitionListItem_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.definitionListItem_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void definition()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.definition();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void definition( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.definition( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void definition_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.definition_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void definedTerm()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.definedTerm();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void definedTerm( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.definedTerm( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void definedTerm_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.definedTerm_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void figure()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.figure();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void figure( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.figure( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void figure_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.figure_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void figureCaption()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.figureCaption();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void figureCaption( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.figureCaption( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void figureCaption_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.figureCaption_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void figureGraphics( String name )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.figureGraphics( name );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void figureGraphics( String src, SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.figureGraphics( src, attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void table()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.table();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void table( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.table( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void table_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.table_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableRows( int[] justification, boolean grid )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableRows( justification, grid );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableRows_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableRows_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableRow()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableRow();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableRow( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableRow( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableRow_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableRow_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableCell()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableCell();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @SuppressWarnings( "deprecation" )
+    public void tableCell( String width )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableCell( width );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableCell( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableCell( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableCell_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableCell_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableHeaderCell()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableHeaderCell();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @SuppressWarnings( "deprecation" )
+    public void tableHeaderCell( String width )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableHeaderCell( width );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableHeaderCell( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableHeaderCell( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableHeaderCell_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableHeaderCell_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableCaption()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableCaption();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableCaption( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableCaption( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void tableCaption_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.tableCaption_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void paragraph()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.paragraph();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void paragraph( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.paragraph( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void paragraph_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.paragraph_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @SuppressWarnings( "deprecation" )
+    public void verbatim( boolean boxed )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.verbatim( boxed );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void verbatim( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.verbatim( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void verbatim_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.verbatim_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void horizontalRule()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.horizontalRule();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void horizontalRule( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.horizontalRule( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void pageBreak()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.pageBreak();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void anchor( String name )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.anchor( name );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void anchor( String name, SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.anchor( name, attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void anchor_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.anchor_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void link( String name )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.link( name );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void link( String name, SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.link( name, attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void link_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.link_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void italic()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.italic();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void italic_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.italic_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void bold()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.bold();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void bold_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.bold_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void monospaced()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.monospaced();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void monospaced_()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.monospaced_();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void lineBreak()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.lineBreak();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void lineBreak( SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.lineBreak( attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void nonBreakingSpace()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.nonBreakingSpace();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void text( String text )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.text( text );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void text( String text, SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.text( text, attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void text( CharSequence text )
+    {
+        for ( Sink sink : sinks )
+        {
+            SinkUtils.text( sink, text );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void text( char[] text, int offset, int length )
+    {
+        for ( Sink sink : sinks )
+        {
+            SinkUtils.text( sink, text, offset, length );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void rawText( String text )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.rawText( text );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void comment( String comment )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.comment( comment );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void unknown( String name, Object[] requiredParams, SinkEventAttributes attributes )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.unknown( name, requiredParams, attributes );
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void flush()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.flush();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void close()
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.close();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void enableLogging( Log log )
+    {
+        for ( Sink sink : sinks )
+        {
+            sink.enableLogging( log );
+        }
+    }
+}
@@ -25,11 +25,13 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.apache.maven.doxia.sink.Sink;
 
 /**
  * May be used to invoke the same method on a List of Sinks.
+ * See {@link FanOutSink} for a faster alternative that does not use reflection.
  *
  * @author <a href="mailto:trygvis@inamo.no">Trygve Laugst&oslash;l</a>
  * @version $Id$
@@ -90,4 +92,32 @@ public class PipelineSink
                                               new Class<?>[]{Sink.class},
                                               new PipelineSink( pipeline ) );
     }
+
+    /**
+     * Returns a Sink that forwards its events to all Sinks of the pipeline with plain method calls, unlike
+     * {@link #newInstance(List)}. Changes to the list after this call are not reflected.
+     *
+     * @param pipeline A List of Sinks.
+     * @return a {@link FanOutSink}.
+     * @since 1.8
+     */
+    public static FanOutSink newFanOutInstance( List<Sink> pipeline )
+    {
+        return new FanOutSink( pipeline );
+    }
+
+    /**
+     * Returns a Sink that forwards its events to all Sinks of the pipeline, each Sink running in a task of the
+     * given executor. The returned Sink must be closed to wait for all Sinks to finish. Changes to the list after
+     * this call are not reflected.
+     *
+     * @param pipeline A List of Sinks.
+     * @param executor runs the tasks of the Sinks of the pipeline, it may be bounded.
+     * @return a {@link ConcurrentFanOutSink}.
+     * @since 1.8
+     */
+    public static ConcurrentFanOutSink newFanOutInstance( List<Sink> pipeline, Executor executor )
+    {
+        return new ConcurrentFanOutSink( pipeline, executor );
+    }
 }
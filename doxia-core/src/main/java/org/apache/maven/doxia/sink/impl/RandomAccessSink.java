@@ -19,7 +19,6 @@ package org.apache.maven.doxia.sink.impl;
  * under the License.
  */
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -28,6 +27,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.maven.doxia.logging.Log;
+import org.apache.maven.doxia.sink.CharacterSink;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.SinkEventAttributes;
 import org.apache.maven.doxia.sink.SinkFactory;
@@ -37,13 +37,20 @@ import org.apache.maven.doxia.sink.SinkFactory;
  * A page can be prepared by first creating its structure and specifying the positions of these hooks.
  * After specifying the structure, the page can be filled with content from one or more models.
  * These hooks can prevent you to have to loop over the model multiple times to build the page as desired. 
+ * <p>
+ * The content of the hooks is kept in pooled memory segments up to a threshold per sink, see
+ * {@link #setMemoryThreshold(long)}, and in temporary files above it, until {@link #flush()} writes it out.
+ * </p>
  * 
  * @author Robert Scholte
  * @since 1.3
  */
 public class RandomAccessSink
-    implements Sink
+    implements CharacterSink
 {
+    /** The default number of bytes of hook content kept in memory. */
+    private static final long DEFAULT_MEMORY_THRESHOLD = 16L * 1024 * 1024;
+
     private SinkFactory sinkFactory;
 
     private String encoding;
@@ -54,7 +61,9 @@ public class RandomAccessSink
 
     private List<Sink> sinks = new ArrayList<Sink>();
 
-    private List<ByteArrayOutputStream> outputStreams = new ArrayList<ByteArrayOutputStream>();
+    private List<SegmentedOutputStream> outputStreams = new ArrayList<SegmentedOutputStream>();
+
+    private final SegmentedOutputStream.Budget memory = new SegmentedOutputStream.Budget( DEFAULT_MEMORY_THRESHOLD );
 
     private Sink currentSink;
 
@@ -96,6 +105,18 @@ public class RandomAccessSink
         this.coreSink = this.currentSink;
     }
 
+    /**
+     * Sets the number of bytes of hook content kept in memory, the content of the hooks which are written after it is
+     * reached goes to temporary files. Defaults to 16 MiB.
+     *
+     * @param threshold a number of bytes, 0 to keep nothing in memory.
+     * @since 1.8
+     */
+    public void setMemoryThreshold( long threshold )
+    {
+        memory.setThreshold( threshold );
+    }
+
     /**
      * By calling this method a sink reference is added at the current position. You can write to both the new sink
      * reference and the original sink. After flushing all sinks will be flushed in the right order.
@@ -107,8 +128,8 @@ public class RandomAccessSink
         Sink subSink = null;
         try
         {
-            ByteArrayOutputStream subOut = new ByteArrayOutputStream();
-            ByteArrayOutputStream newOut = new ByteArrayOutputStream();
+            SegmentedOutputStream subOut = new SegmentedOutputStream( memory );
+            SegmentedOutputStream newOut = new SegmentedOutputStream( memory );
 
             outputStreams.add( subOut );
             outputStreams.add( newOut );
@@ -128,7 +149,7 @@ public class RandomAccessSink
         }
         catch ( IOException e )
         {
-            // IOException can only be caused by our own ByteArrayOutputStream
+            // IOException can only be caused by our own SegmentedOutputStream
         }
         return subSink;
     }
@@ -361,6 +382,9 @@ public class RandomAccessSink
      */
     public void flush()
     {
+        // the content of the core sink comes before the hooks
+        coreSink.flush();
+
         for ( int i = 0; i < sinks.size(); i++ )
         {
             // first flush to get complete buffer
@@ -368,10 +392,10 @@ public class RandomAccessSink
             Sink sink = sinks.get( i );
             sink.flush();
 
-            ByteArrayOutputStream stream = outputStreams.get( i );
+            SegmentedOutputStream stream = outputStreams.get( i );
             try
             {
-                coreOutputStream.write( stream.toByteArray() );
+                stream.writeTo( coreOutputStream );
             }
             catch ( IOException e )
             {
@@ -879,6 +903,18 @@ public class RandomAccessSink
         currentSink.text( text, attributes );
     }
 
+    @Override
+    public void text( CharSequence text )
+    {
+        SinkUtils.text( currentSink, text );
+    }
+
+    @Override
+    public void text( char[] text, int offset, int length )
+    {
+        SinkUtils.text( currentSink, text, offset, length );
+    }
+
     @Override
     public void title()
     {
@@ -0,0 +1,969 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+
+/**
+ * A sink that records all the events it receives into a compact {@link SinkEventLog}, which can then be replayed
+ * into other sinks without parsing the source document again:
+ *
+ * <pre>
+ * RecordingSink recorder = new RecordingSink();
+ * parser.parse( source, recorder );
+ * SinkEventLog log = recorder.getEventLog();
+ * log.replay( xhtmlSink );
+ * log.replay( foSink );
+ * </pre>
+ *
+ * Attributes are copied when they are recorded, so the caller may reuse or modify them afterwards.
+ * This class is not thread-safe, the event logs it returns are.
+ *
+ * @since 1.8
+ */
+public class RecordingSink
+    extends AbstractSink
+{
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int[] events = new int[INITIAL_CAPACITY];
+
+    private int length;
+
+    private int size;
+
+    private final List<Object> objects = new ArrayList<Object>();
+
+    /** The indices of the pooled Strings and attributes, to store equal values only once. */
+    private final Map<Object, Integer> indices = new HashMap<Object, Integer>();
+
+    /**
+     * Returns the number of events recorded so far.
+     *
+     * @return the number of events.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Discards the events recorded so far.
+     */
+    public void reset()
+    {
+        length = 0;
+        size = 0;
+        objects.clear();
+        indices.clear();
+    }
+
+    /**
+     * Returns the events recorded so far. Events received afterwards are not part of the returned log.
+     *
+     * @return an immutable log of the recorded events.
+     */
+    public SinkEventLog getEventLog()
+    {
+        return new SinkEventLog( Arrays.copyOf( events, length ), objects.toArray(), size );
+    }
+
+    /**
+     * Moves the events recorded so far into the given chunk and discards them, like {@link #getEventLog()} followed
+     * by {@link #reset()}, but without copying the events: this sink goes on recording into the previous event
+     * buffer of the chunk.
+     *
+     * @param chunk the chunk to fill, not null.
+     */
+    void drainTo( SinkEventLog.Chunk chunk )
+    {
+        int[] buffer = chunk.events;
+        chunk.events = events;
+        chunk.length = length;
+        chunk.setObjects( objects );
+        events = buffer;
+        reset();
+    }
+
+    /** {@inheritDoc} */
+    public void head()
+    {
+        record( SinkEventLog.HEAD );
+    }
+
+    /** {@inheritDoc} */
+    public void head( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.HEAD_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void head_()
+    {
+        record( SinkEventLog.HEAD_END );
+    }
+
+    /** {@inheritDoc} */
+    public void title()
+    {
+        record( SinkEventLog.TITLE );
+    }
+
+    /** {@inheritDoc} */
+    public void title( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.TITLE_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void title_()
+    {
+        record( SinkEventLog.TITLE_END );
+    }
+
+    /** {@inheritDoc} */
+    public void author()
+    {
+        record( SinkEventLog.AUTHOR );
+    }
+
+    /** {@inheritDoc} */
+    public void author( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.AUTHOR_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void author_()
+    {
+        record( SinkEventLog.AUTHOR_END );
+    }
+
+    /** {@inheritDoc} */
+    public void date()
+    {
+        record( SinkEventLog.DATE );
+    }
+
+    /** {@inheritDoc} */
+    public void date( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.DATE_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void date_()
+    {
+        record( SinkEventLog.DATE_END );
+    }
+
+    /** {@inheritDoc} */
+    public void body()
+    {
+        record( SinkEventLog.BODY );
+    }
+
+    /** {@inheritDoc} */
+    public void body( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.BODY_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void body_()
+    {
+        record( SinkEventLog.BODY_END );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle()
+    {
+        record( SinkEventLog.SECTION_TITLE );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle_()
+    {
+        record( SinkEventLog.SECTION_TITLE_END );
+    }
+
+    /** {@inheritDoc} */
+    public void section1()
+    {
+        record( SinkEventLog.SECTION1 );
+    }
+
+    /** {@inheritDoc} */
+    public void section1_()
+    {
+        record( SinkEventLog.SECTION1_END );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle1()
+    {
+        record( SinkEventLog.SECTION_TITLE1 );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle1_()
+    {
+        record( SinkEventLog.SECTION_TITLE1_END );
+    }
+
+    /** {@inheritDoc} */
+    public void section2()
+    {
+        record( SinkEventLog.SECTION2 );
+    }
+
+    /** {@inheritDoc} */
+    public void section2_()
+    {
+        record( SinkEventLog.SECTION2_END );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle2()
+    {
+        record( SinkEventLog.SECTION_TITLE2 );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle2_()
+    {
+        record( SinkEventLog.SECTION_TITLE2_END );
+    }
+
+    /** {@inheritDoc} */
+    public void section3()
+    {
+        record( SinkEventLog.SECTION3 );
+    }
+
+    /** {@inheritDoc} */
+    public void section3_()
+    {
+        record( SinkEventLog.SECTION3_END );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle3()
+    {
+        record( SinkEventLog.SECTION_TITLE3 );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle3_()
+    {
+        record( SinkEventLog.SECTION_TITLE3_END );
+    }
+
+    /** {@inheritDoc} */
+    public void section4()
+    {
+        record( SinkEventLog.SECTION4 );
+    }
+
+    /** {@inheritDoc} */
+    public void section4_()
+    {
+        record( SinkEventLog.SECTION4_END );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle4()
+    {
+        record( SinkEventLog.SECTION_TITLE4 );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle4_()
+    {
+        record( SinkEventLog.SECTION_TITLE4_END );
+    }
+
+    /** {@inheritDoc} */
+    public void section5()
+    {
+        record( SinkEventLog.SECTION5 );
+    }
+
+    /** {@inheritDoc} */
+    public void section5_()
+    {
+        record( SinkEventLog.SECTION5_END );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle5()
+    {
+        record( SinkEventLog.SECTION_TITLE5 );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle5_()
+    {
+        record( SinkEventLog.SECTION_TITLE5_END );
+    }
+
+    /** {@inheritDoc} */
+    public void section6()
+    {
+        record( SinkEventLog.SECTION6 );
+    }
+
+    /** {@inheritDoc} */
+    public void section6_()
+    {
+        record( SinkEventLog.SECTION6_END );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle6()
+    {
+        record( SinkEventLog.SECTION_TITLE6 );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle6_()
+    {
+        record( SinkEventLog.SECTION_TITLE6_END );
+    }
+
+    /** {@inheritDoc} */
+    public void section( int level, SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.SECTION, level, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void section_( int level )
+    {
+        record( SinkEventLog.SECTION_END, level );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle( int level, SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.SECTION_TITLE_ATTRIBUTES, level, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void sectionTitle_( int level )
+    {
+        record( SinkEventLog.SECTION_TITLE_END_LEVEL, level );
+    }
+
+    /** {@inheritDoc} */
+    public void list()
+    {
+        record( SinkEventLog.LIST );
+    }
+
+    /** {@inheritDoc} */
+    public void list( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.LIST_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void list_()
+    {
+        record( SinkEventLog.LIST_END );
+    }
+
+    /** {@inheritDoc} */
+    public void listItem()
+    {
+        record( SinkEventLog.LIST_ITEM );
+    }
+
+    /** {@inheritDoc} */
+    public void listItem( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.LIST_ITEM_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void listItem_()
+    {
+        record( SinkEventLog.LIST_ITEM_END );
+    }
+
+    /** {@inheritDoc} */
+    public void numberedList( int numbering )
+    {
+        record( SinkEventLog.NUMBERED_LIST, numbering );
+    }
+
+    /** {@inheritDoc} */
+    public void numberedList( int numbering, SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.NUMBERED_LIST_ATTRIBUTES, numbering, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void numberedList_()
+    {
+        record( SinkEventLog.NUMBERED_LIST_END );
+    }
+
+    /** {@inheritDoc} */
+    public void numberedListItem()
+    {
+        record( SinkEventLog.NUMBERED_LIST_ITEM );
+    }
+
+    /** {@inheritDoc} */
+    public void numberedListItem( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.NUMBERED_LIST_ITEM_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void numberedListItem_()
+    {
+        record( SinkEventLog.NUMBERED_LIST_ITEM_END );
+    }
+
+    /** {@inheritDoc} */
+    public void definitionList()
+    {
+        record( SinkEventLog.DEFINITION_LIST );
+    }
+
+    /** {@inheritDoc} */
+    public void definitionList( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.DEFINITION_LIST_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void definitionList_()
+    {
+        record( SinkEventLog.DEFINITION_LIST_END );
+    }
+
+    /** {@inheritDoc} */
+    public void definitionListItem()
+    {
+        record( SinkEventLog.DEFINITION_LIST_ITEM );
+    }
+
+    /** {@inheritDoc} */
+    public void definitionListItem( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.DEFINITION_LIST_ITEM_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void definitionListItem_()
+    {
+        record( SinkEventLog.DEFINITION_LIST_ITEM_END );
+    }
+
+    /** {@inheritDoc} */
+    public void definition()
+    {
+        record( SinkEventLog.DEFINITION );
+    }
+
+    /** {@inheritDoc} */
+    public void definition( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.DEFINITION_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void definition_()
+    {
+        record( SinkEventLog.DEFINITION_END );
+    }
+
+    /** {@inheritDoc} */
+    public void definedTerm()
+    {
+        record( SinkEventLog.DEFINED_TERM );
+    }
+
+    /** {@inheritDoc} */
+    public void definedTerm( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.DEFINED_TERM_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void definedTerm_()
+    {
+        record( SinkEventLog.DEFINED_TERM_END );
+    }
+
+    /** {@inheritDoc} */
+    public void figure()
+    {
+        record( SinkEventLog.FIGURE );
+    }
+
+    /** {@inheritDoc} */
+    public void figure( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.FIGURE_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void figure_()
+    {
+        record( SinkEventLog.FIGURE_END );
+    }
+
+    /** {@inheritDoc} */
+    public void figureCaption()
+    {
+        record( SinkEventLog.FIGURE_CAPTION );
+    }
+
+    /** {@inheritDoc} */
+    public void figureCaption( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.FIGURE_CAPTION_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void figureCaption_()
+    {
+        record( SinkEventLog.FIGURE_CAPTION_END );
+    }
+
+    /** {@inheritDoc} */
+    public void figureGraphics( String name )
+    {
+        record( SinkEventLog.FIGURE_GRAPHICS, string( name ) );
+    }
+
+    /** {@inheritDoc} */
+    public void figureGraphics( String src, SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.FIGURE_GRAPHICS_ATTRIBUTES, string( src ), attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void table()
+    {
+        record( SinkEventLog.TABLE );
+    }
+
+    /** {@inheritDoc} */
+    public void table( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.TABLE_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void table_()
+    {
+        record( SinkEventLog.TABLE_END );
+    }
+
+    /** {@inheritDoc} */
+    public void tableRows( int[] justification, boolean grid )
+    {
+        record( SinkEventLog.TABLE_ROWS, array( justification == null ? null : justification.clone() ), grid ? 1 : 0 );
+    }
+
+    /** {@inheritDoc} */
+    public void tableRows_()
+    {
+        record( SinkEventLog.TABLE_ROWS_END );
+    }
+
+    /** {@inheritDoc} */
+    public void tableRow()
+    {
+        record( SinkEventLog.TABLE_ROW );
+    }
+
+    /** {@inheritDoc} */
+    public void tableRow( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.TABLE_ROW_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void tableRow_()
+    {
+        record( SinkEventLog.TABLE_ROW_END );
+    }
+
+    /** {@inheritDoc} */
+    public void tableCell()
+    {
+        record( SinkEventLog.TABLE_CELL );
+    }
+
+    /** {@inheritDoc} */
+    public void tableCell( String width )
+    {
+        record( SinkEventLog.TABLE_CELL_WIDTH, string( width ) );
+    }
+
+    /** {@inheritDoc} */
+    public void tableCell( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.TABLE_CELL_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void tableCell_()
+    {
+        record( SinkEventLog.TABLE_CELL_END );
+    }
+
+    /** {@inheritDoc} */
+    public void tableHeaderCell()
+    {
+        record( SinkEventLog.TABLE_HEADER_CELL );
+    }
+
+    /** {@inheritDoc} */
+    public void tableHeaderCell( String width )
+    {
+        record( SinkEventLog.TABLE_HEADER_CELL_WIDTH, string( width ) );
+    }
+
+    /** {@inheritDoc} */
+    public void tableHeaderCell( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.TABLE_HEADER_CELL_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void tableHeaderCell_()
+    {
+        record( SinkEventLog.TABLE_HEADER_CELL_END );
+    }
+
+    /** {@inheritDoc} */
+    public void tableCaption()
+    {
+        record( SinkEventLog.TABLE_CAPTION );
+    }
+
+    /** {@inheritDoc} */
+    public void tableCaption( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.TABLE_CAPTION_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void tableCaption_()
+    {
+        record( SinkEventLog.TABLE_CAPTION_END );
+    }
+
+    /** {@inheritDoc} */
+    public void paragraph()
+    {
+        record( SinkEventLog.PARAGRAPH );
+    }
+
+    /** {@inheritDoc} */
+    public void paragraph( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.PARAGRAPH_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void paragraph_()
+    {
+        record( SinkEventLog.PARAGRAPH_END );
+    }
+
+    /** {@inheritDoc} */
+    public void verbatim( boolean boxed )
+    {
+        record( SinkEventLog.VERBATIM, boxed ? 1 : 0 );
+    }
+
+    /** {@inheritDoc} */
+    public void verbatim( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.VERBATIM_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void verbatim_()
+    {
+        record( SinkEventLog.VERBATIM_END );
+    }
+
+    /** {@inheritDoc} */
+    public void horizontalRule()
+    {
+        record( SinkEventLog.HORIZONTAL_RULE );
+    }
+
+    /** {@inheritDoc} */
+    public void horizontalRule( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.HORIZONTAL_RULE_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void pageBreak()
+    {
+        record( SinkEventLog.PAGE_BREAK );
+    }
+
+    /** {@inheritDoc} */
+    public void anchor( String name )
+    {
+        record( SinkEventLog.ANCHOR, string( name ) );
+    }
+
+    /** {@inheritDoc} */
+    public void anchor( String name, SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.ANCHOR_ATTRIBUTES, string( name ), attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void anchor_()
+    {
+        record( SinkEventLog.ANCHOR_END );
+    }
+
+    /** {@inheritDoc} */
+    public void link( String name )
+    {
+        record( SinkEventLog.LINK, string( name ) );
+    }
+
+    /** {@inheritDoc} */
+    public void link( String name, SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.LINK_ATTRIBUTES, string( name ), attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void link_()
+    {
+        record( SinkEventLog.LINK_END );
+    }
+
+    /** {@inheritDoc} */
+    public void italic()
+    {
+        record( SinkEventLog.ITALIC );
+    }
+
+    /** {@inheritDoc} */
+    public void italic_()
+    {
+        record( SinkEventLog.ITALIC_END );
+    }
+
+    /** {@inheritDoc} */
+    public void bold()
+    {
+        record( SinkEventLog.BOLD );
+    }
+
+    /** {@inheritDoc} */
+    public void bold_()
+    {
+        record( SinkEventLog.BOLD_END );
+    }
+
+    /** {@inheritDoc} */
+    public void monospaced()
+    {
+        record( SinkEventLog.MONOSPACED );
+    }
+
+    /** {@inheritDoc} */
+    public void monospaced_()
+    {
+        record( SinkEventLog.MONOSPACED_END );
+    }
+
+    /** {@inheritDoc} */
+    public void lineBreak()
+    {
+        record( SinkEventLog.LINE_BREAK );
+    }
+
+    /** {@inheritDoc} */
+    public void lineBreak( SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.LINE_BREAK_ATTRIBUTES, attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void nonBreakingSpace()
+    {
+        record( SinkEventLog.NON_BREAKING_SPACE );
+    }
+
+    /** {@inheritDoc} */
+    public void text( String text )
+    {
+        record( SinkEventLog.TEXT, string( text ) );
+    }
+
+    /** {@inheritDoc} */
+    public void text( String text, SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.TEXT_ATTRIBUTES, string( text ), attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void rawText( String text )
+    {
+        record( SinkEventLog.RAW_TEXT, string( text ) );
+    }
+
+    /** {@inheritDoc} */
+    public void comment( String comment )
+    {
+        record( SinkEventLog.COMMENT, string( comment ) );
+    }
+
+    /** {@inheritDoc} */
+    public void unknown( String name, Object[] requiredParams, SinkEventAttributes attributes )
+    {
+        record( SinkEventLog.UNKNOWN, string( name ), array( requiredParams == null ? null : requiredParams.clone() ),
+                attributes( attributes ) );
+    }
+
+    /** {@inheritDoc} */
+    public void flush()
+    {
+        record( SinkEventLog.FLUSH );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Nothing is recorded: the sinks an event log is replayed into are closed by their owners.
+     */
+    public void close()
+    {
+        // nop
+    }
+
+    private void record( int opcode )
+    {
+        ensureCapacity( 1 );
+        events[length++] = opcode;
+        size++;
+        eventRecorded();
+    }
+
+    private void record( int opcode, int operand )
+    {
+        ensureCapacity( 2 );
+        events[length++] = opcode;
+        events[length++] = operand;
+        size++;
+        eventRecorded();
+    }
+
+    private void record( int opcode, int operand1, int operand2 )
+    {
+        ensureCapacity( 3 );
+        events[length++] = opcode;
+        events[length++] = operand1;
+        events[length++] = operand2;
+        size++;
+        eventRecorded();
+    }
+
+    private void record( int opcode, int operand1, int operand2, int operand3 )
+    {
+        ensureCapacity( 4 );
+        events[length++] = opcode;
+        events[length++] = operand1;
+        events[length++] = operand2;
+        events[length++] = operand3;
+        size++;
+        eventRecorded();
+    }
+
+    /**
+     * Called after each recorded event. Does nothing by default.
+     */
+    protected void eventRecorded()
+    {
+        // nop
+    }
+
+    private void ensureCapacity( int count )
+    {
+        if ( length + count > events.length )
+        {
+            events = Arrays.copyOf( events, Math.max( events.length * 2, length + count ) );
+        }
+    }
+
+    private int string( String value )
+    {
+        return ( value == null ) ? -1 : pooled( value );
+    }
+
+    private int attributes( SinkEventAttributes attributes )
+    {
+        if ( attributes == null )
+        {
+            return -1;
+        }
+
+        return pooled( new SinkEventAttributeSet( attributes ).unmodifiable() );
+    }
+
+    private int array( Object array )
+    {
+        if ( array == null )
+        {
+            return -1;
+        }
+
+        objects.add( array );
+        return objects.size() - 1;
+    }
+
+    private int pooled( Object value )
+    {
+        Integer index = indices.get( value );
+        if ( index == null )
+        {
+            index = Integer.valueOf( objects.size() );
+            objects.add( value );
+            indices.put( value, index );
+        }
+        return index.intValue();
+    }
+}
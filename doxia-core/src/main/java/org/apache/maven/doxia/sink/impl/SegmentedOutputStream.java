@@ -0,0 +1,324 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An output stream which keeps its content in fixed-size segments taken from a pool shared by all the streams, so
+ * that it grows without copying. Once the streams sharing a {@link Budget} hold more than its threshold in memory,
+ * the further content of a stream goes to a temporary file. The content is written out with gathering writes and
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)} where the target allows it, rather than copied
+ * through an intermediate array.
+ * <p>
+ * The content stays available until the stream is closed, which gives its segments back to the pool and deletes
+ * its temporary file. This class is not thread-safe.
+ * </p>
+ *
+ * @since 1.8
+ */
+final class SegmentedOutputStream
+    extends OutputStream
+{
+    /** The size of a segment in bytes. */
+    static final int SEGMENT_SIZE = 8 * 1024;
+
+    /** The maximal number of idle segments kept for reuse. */
+    private static final int MAX_POOLED_SEGMENTS = 128;
+
+    private static final Queue<byte[]> POOL = new ConcurrentLinkedQueue<byte[]>();
+
+    private static final AtomicInteger POOL_SIZE = new AtomicInteger();
+
+    private final Budget budget;
+
+    private final List<byte[]> segments = new ArrayList<byte[]>();
+
+    /** The number of bytes in the last segment. */
+    private int position = SEGMENT_SIZE;
+
+    private File spillFile;
+
+    private FileChannel spillChannel;
+
+    private boolean closed;
+
+    /**
+     * @param budget the memory shared with other streams, not null.
+     */
+    SegmentedOutputStream( Budget budget )
+    {
+        this.budget = budget;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write( int b )
+        throws IOException
+    {
+        if ( position < SEGMENT_SIZE && spillChannel == null && !closed )
+        {
+            segments.get( segments.size() - 1 )[position++] = (byte) b;
+            return;
+        }
+
+        write( new byte[] { (byte) b }, 0, 1 );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write( byte[] b, int off, int len )
+        throws IOException
+    {
+        if ( closed )
+        {
+            throw new IOException( "Stream closed" );
+        }
+
+        int offset = off;
+        int remaining = len;
+
+        while ( remaining > 0 && spillChannel == null )
+        {
+            if ( position == SEGMENT_SIZE && !addSegment() )
+            {
+                spill();
+                break;
+            }
+
+            int count = Math.min( remaining, SEGMENT_SIZE - position );
+            System.arraycopy( b, offset, segments.get( segments.size() - 1 ), position, count );
+            position += count;
+            offset += count;
+            remaining -= count;
+        }
+
+        if ( remaining > 0 )
+        {
+            ByteBuffer buffer = ByteBuffer.wrap( b, offset, remaining );
+            while ( buffer.hasRemaining() )
+            {
+                spillChannel.write( buffer );
+            }
+        }
+    }
+
+    /**
+     * Writes the whole content of this stream.
+     *
+     * @param out the target, its channel is used if it is a {@link FileOutputStream}.
+     * @throws IOException if the content could not be written.
+     */
+    void writeTo( OutputStream out )
+        throws IOException
+    {
+        if ( out instanceof FileOutputStream )
+        {
+            writeTo( ( (FileOutputStream) out ).getChannel() );
+            return;
+        }
+
+        int last = segments.size() - 1;
+        for ( int i = 0; i <= last; i++ )
+        {
+            out.write( segments.get( i ), 0, ( i == last ) ? position : SEGMENT_SIZE );
+        }
+
+        if ( spillChannel != null )
+        {
+            transferSpill( Channels.newChannel( out ) );
+        }
+    }
+
+    private void writeTo( FileChannel channel )
+        throws IOException
+    {
+        int last = segments.size() - 1;
+        ByteBuffer[] buffers = new ByteBuffer[segments.size()];
+        long remaining = 0;
+        for ( int i = 0; i <= last; i++ )
+        {
+            buffers[i] = ByteBuffer.wrap( segments.get( i ), 0, ( i == last ) ? position : SEGMENT_SIZE );
+            remaining += buffers[i].remaining();
+        }
+
+        while ( remaining > 0 )
+        {
+            remaining -= channel.write( buffers );
+        }
+
+        if ( spillChannel != null )
+        {
+            transferSpill( channel );
+        }
+    }
+
+    private void transferSpill( WritableByteChannel channel )
+        throws IOException
+    {
+        long size = spillChannel.size();
+        long transferred = 0;
+        while ( transferred < size )
+        {
+            transferred += spillChannel.transferTo( transferred, size - transferred, channel );
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close()
+        throws IOException
+    {
+        if ( closed )
+        {
+            return;
+        }
+        closed = true;
+
+        for ( byte[] segment : segments )
+        {
+            release( segment );
+        }
+        budget.release( (long) segments.size() * SEGMENT_SIZE );
+        segments.clear();
+
+        if ( spillChannel != null )
+        {
+            try
+            {
+                spillChannel.close();
+            }
+            finally
+            {
+                if ( !spillFile.delete() )
+                {
+                    spillFile.deleteOnExit();
+                }
+            }
+        }
+    }
+
+    private boolean addSegment()
+    {
+        if ( !budget.reserve( SEGMENT_SIZE ) )
+        {
+            return false;
+        }
+
+        segments.add( acquire() );
+        position = 0;
+        return true;
+    }
+
+    private void spill()
+        throws IOException
+    {
+        // deleted by close(), deleteOnExit() is only a fallback as every registered file is kept until the exit
+        spillFile = File.createTempFile( "doxia-sink-hook", ".tmp" );
+        try
+        {
+            spillChannel = new RandomAccessFile( spillFile, "rw" ).getChannel();
+        }
+        catch ( IOException e )
+        {
+            if ( !spillFile.delete() )
+            {
+                spillFile.deleteOnExit();
+            }
+            throw e;
+        }
+    }
+
+    private static byte[] acquire()
+    {
+        byte[] segment = POOL.poll();
+        if ( segment == null )
+        {
+            return new byte[SEGMENT_SIZE];
+        }
+
+        POOL_SIZE.decrementAndGet();
+        return segment;
+    }
+
+    private static void release( byte[] segment )
+    {
+        if ( POOL_SIZE.incrementAndGet() <= MAX_POOLED_SEGMENTS )
+        {
+            POOL.offer( segment );
+        }
+        else
+        {
+            POOL_SIZE.decrementAndGet();
+        }
+    }
+
+    /**
+     * The number of bytes the streams of a sink may keep in memory.
+     */
+    static final class Budget
+    {
+        private long threshold;
+
+        private long used;
+
+        /**
+         * @param threshold the number of bytes kept in memory before spilling to temporary files.
+         */
+        Budget( long threshold )
+        {
+            this.threshold = threshold;
+        }
+
+        void setThreshold( long threshold )
+        {
+            this.threshold = threshold;
+        }
+
+        boolean reserve( long bytes )
+        {
+            if ( used + bytes > threshold )
+            {
+                return false;
+            }
+
+            used += bytes;
+            return true;
+        }
+
+        void release( long bytes )
+        {
+            used -= bytes;
+        }
+    }
+}
@@ -19,17 +19,21 @@ package org.apache.maven.doxia.sink.impl;
  * under the License.
  */
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Enumeration;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.NoSuchElementException;
 
 import javax.swing.text.AttributeSet;
 
 import org.apache.maven.doxia.sink.SinkEventAttributes;
 
 /**
- * Implementation of MutableAttributeSet using a LinkedHashMap.
+ * Implementation of MutableAttributeSet using parallel arrays of names and values.
+ * <p>
+ * Attribute sets are small, so the attributes are kept in insertion order and looked up by a linear scan, which
+ * first compares the names by identity: the interned constants of {@link SinkEventAttributes} are found without
+ * calling <code>equals()</code>. A copy shares the arrays of its source until one of them is modified.
+ * </p>
  *
  * @author ltheussl
  * @version $Id$
@@ -38,6 +42,17 @@ import org.apache.maven.doxia.sink.SinkEventAttributes;
 public class SinkEventAttributeSet
     implements SinkEventAttributes, Cloneable
 {
+    private static final String[] NO_NAMES = new String[0];
+
+    private static final Object[] NO_VALUES = new Object[0];
+
+    /**
+     * An unmodifiable attribute set without any attribute.
+     *
+     * @since 1.8
+     */
+    public static final SinkEventAttributes EMPTY = new SinkEventAttributeSet( 0 ).unmodifiable();
+
     /**
      * An unmodifiable attribute set containing only an underline attribute.
      */
@@ -111,16 +126,28 @@ public class SinkEventAttributeSet
         JUSTIFY = new SinkEventAttributeSet( new String[] {ALIGN, "justify"} ).unmodifiable();
     }
 
-    private Map<String, Object> attribs;
+    /** The initial capacity of a set which grows from empty. */
+    private static final int MIN_CAPACITY = 4;
+
+    private String[] names;
+
+    private Object[] values;
+
+    private int size;
+
+    /** True if the arrays may be referenced by another set or an enumeration, they are copied before a change. */
+    private boolean shared;
+
+    private boolean readOnly;
 
     private AttributeSet resolveParent;
 
     /**
-     * Constructs a new, empty SinkEventAttributeSet with default size 5.
+     * Constructs a new, empty SinkEventAttributeSet. Its arrays are allocated with the first attribute.
      */
     public SinkEventAttributeSet()
     {
-        this( 5 );
+        this( 0 );
     }
 
     /**
@@ -130,7 +157,13 @@ public class SinkEventAttributeSet
      */
     public SinkEventAttributeSet( int size )
     {
-        attribs = new LinkedHashMap<String, Object>( size );
+        if ( size < 0 )
+        {
+            throw new IllegalArgumentException( "Illegal size: " + size );
+        }
+
+        names = ( size == 0 ) ? NO_NAMES : new String[size];
+        values = ( size == 0 ) ? NO_VALUES : new Object[size];
     }
 
     /**
@@ -149,31 +182,42 @@ public class SinkEventAttributeSet
             throw new IllegalArgumentException( "Missing attribute!" );
         }
 
-        attribs = new LinkedHashMap<String, Object>( n / 2 );
+        names = new String[n / 2];
+        values = new Object[n / 2];
 
         for ( int i = 0; i < n; i += 2 )
         {
-            attribs.put( attributes[i], attributes[i + 1] );
+            addAttribute( attributes[i], attributes[i + 1] );
         }
     }
 
     /**
      * Constructs a new SinkEventAttributeSet with the same attribute name-value
      * mappings as in the specified AttributeSet.
+     * A SinkEventAttributeSet without resolve parent is copied lazily, ie its arrays are shared until either set
+     * is modified.
      *
      * @param attributes the specified AttributeSet.
      */
     public SinkEventAttributeSet( AttributeSet attributes )
     {
-        attribs = new LinkedHashMap<String, Object>( attributes.getAttributeCount() );
+        if ( attributes instanceof SinkEventAttributeSet && attributes.getResolveParent() == null )
+        {
+            shareAttributes( (SinkEventAttributeSet) attributes );
+            return;
+        }
 
-        Enumeration<?> names = attributes.getAttributeNames();
+        int count = attributes.getAttributeCount();
+        names = ( count == 0 ) ? NO_NAMES : new String[count];
+        values = ( count == 0 ) ? NO_VALUES : new Object[count];
 
-        while ( names.hasMoreElements() )
+        Enumeration<?> keys = attributes.getAttributeNames();
+
+        while ( keys.hasMoreElements() )
         {
-            Object name = names.nextElement();
+            Object name = keys.nextElement();
 
-            attribs.put( name.toString(), attributes.getAttribute( name ) );
+            addAttribute( name, attributes.getAttribute( name ) );
         }
     }
 
@@ -188,7 +232,7 @@ public class SinkEventAttributeSet
      */
     public SinkEventAttributeSet unmodifiable()
     {
-        this.attribs = Collections.unmodifiableMap( attribs );
+        this.readOnly = true;
 
         return this;
     }
@@ -200,19 +244,19 @@ public class SinkEventAttributeSet
      */
     public boolean isEmpty()
     {
-        return attribs.isEmpty();
+        return size == 0;
     }
 
     /** {@inheritDoc} */
     public int getAttributeCount()
     {
-        return attribs.size();
+        return size;
     }
 
     /** {@inheritDoc} */
     public boolean isDefined( Object attrName )
     {
-        return attribs.containsKey( attrName );
+        return indexOf( attrName ) >= 0;
     }
 
     /** {@inheritDoc} */
@@ -228,16 +272,28 @@ public class SinkEventAttributeSet
         return ( (AttributeSet) clone() );
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * The names are enumerated as they were when this method was called, even if the set is modified meanwhile.
+     */
     public Enumeration<String> getAttributeNames()
     {
-        return Collections.enumeration( attribs.keySet() );
+        if ( size == 0 )
+        {
+            return new NameEnumeration( NO_NAMES, 0 );
+        }
+
+        shared = true;
+
+        return new NameEnumeration( names, size );
     }
 
     /** {@inheritDoc} */
     public Object getAttribute( Object key  )
     {
-        Object value = attribs.get( key  );
+        int index = indexOf( key );
+        Object value = ( index >= 0 ) ? values[index] : null;
 
         if ( value == null )
         {
@@ -278,10 +334,27 @@ public class SinkEventAttributeSet
      * {@inheritDoc}
      *
      * Adds an attribute with the given name and value.
+     * An attribute with the same name is replaced and keeps its position.
      */
     public void addAttribute( Object name, Object value )
     {
-        attribs.put( name.toString(), value );
+        checkModifiable();
+
+        String key = name.toString();
+        int index = indexOf( key );
+
+        if ( index >= 0 )
+        {
+            ensureCapacity( size );
+            values[index] = value;
+        }
+        else
+        {
+            ensureCapacity( size + 1 );
+            names[size] = key;
+            values[size] = value;
+            size++;
+        }
     }
 
     /** {@inheritDoc} */
@@ -292,6 +365,29 @@ public class SinkEventAttributeSet
             return;
         }
 
+        if ( attributes instanceof SinkEventAttributeSet && attributes.getResolveParent() == null )
+        {
+            SinkEventAttributeSet set = (SinkEventAttributeSet) attributes;
+
+            if ( size == 0 && !readOnly && set != this )
+            {
+                // nothing to merge with
+                shareAttributes( set );
+                return;
+            }
+
+            // the arrays of the given set are stable: they are copied before any change of the set
+            String[] setNames = set.names;
+            Object[] setValues = set.values;
+            set.shared = true;
+
+            for ( int i = 0, n = set.size; i < n; i++ )
+            {
+                addAttribute( setNames[i], setValues[i] );
+            }
+            return;
+        }
+
         Enumeration<?> names = attributes.getAttributeNames();
 
         while ( names.hasMoreElements() )
@@ -305,7 +401,24 @@ public class SinkEventAttributeSet
     /** {@inheritDoc} */
     public void removeAttribute( Object name )
     {
-        attribs.remove( name );
+        checkModifiable();
+
+        int index = indexOf( name );
+
+        if ( index < 0 )
+        {
+            return;
+        }
+
+        ensureCapacity( size );
+
+        int moved = size - index - 1;
+        System.arraycopy( names, index + 1, names, index, moved );
+        System.arraycopy( values, index + 1, values, index, moved );
+
+        size--;
+        names[size] = null;
+        values[size] = null;
     }
 
     /** {@inheritDoc} */
@@ -326,7 +439,21 @@ public class SinkEventAttributeSet
         }
         else if ( attributes == this )
         {
-            attribs.clear();
+            checkModifiable();
+
+            if ( shared )
+            {
+                names = NO_NAMES;
+                values = NO_VALUES;
+                shared = false;
+            }
+            else
+            {
+                Arrays.fill( names, 0, size, null );
+                Arrays.fill( values, 0, size, null );
+            }
+
+            size = 0;
         }
         else
         {
@@ -357,12 +484,16 @@ public class SinkEventAttributeSet
         this.resolveParent = parent;
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * The clone is modifiable and shares the arrays of this set until either set is modified.
+     */
     @Override
     public Object clone()
     {
-        SinkEventAttributeSet attr = new SinkEventAttributeSet( attribs.size() );
-        attr.attribs = new LinkedHashMap<String, Object>( attribs );
+        SinkEventAttributeSet attr = new SinkEventAttributeSet( 0 );
+        attr.shareAttributes( this );
 
         if ( resolveParent != null )
         {
@@ -372,13 +503,24 @@ public class SinkEventAttributeSet
         return attr;
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * The hash code of the attributes is computed like the one of a <code>Map</code>.
+     */
     @Override
     public int hashCode()
     {
         final int parentHash = ( resolveParent == null ? 0 : resolveParent.hashCode() );
 
-        return attribs.hashCode() + parentHash;
+        int hash = 0;
+
+        for ( int i = 0; i < size; i++ )
+        {
+            hash += names[i].hashCode() ^ ( values[i] == null ? 0 : values[i].hashCode() );
+        }
+
+        return hash + parentHash;
     }
 
     /** {@inheritDoc} */
@@ -416,4 +558,154 @@ public class SinkEventAttributeSet
         return s.toString();
     }
 
+
+    /**
+     * Gives the name of an attribute without enumerating the names, for the sinks of this package.
+     *
+     * @param index the index of the attribute in insertion order, less than {@link #getAttributeCount()}.
+     * @return the name of the attribute.
+     */
+    String getAttributeName( int index )
+    {
+        return names[index];
+    }
+
+    /**
+     * Gives the value of an attribute as it was added, ie without looking at the resolve parent.
+     *
+     * @param index the index of the attribute in insertion order, less than {@link #getAttributeCount()}.
+     * @return the value of the attribute.
+     */
+    Object getAttributeValue( int index )
+    {
+        return values[index];
+    }
+
+    /**
+     * Gives the index of the attribute with the given name.
+     *
+     * @param name the name of an attribute, compared to the names of this set by identity first.
+     * @return the index of the attribute, or -1 if it is not defined in this set.
+     */
+    private int indexOf( Object name )
+    {
+        if ( name == null )
+        {
+            return -1;
+        }
+
+        for ( int i = 0; i < size; i++ )
+        {
+            if ( names[i] == name )
+            {
+                return i;
+            }
+        }
+
+        for ( int i = 0; i < size; i++ )
+        {
+            if ( name.equals( names[i] ) )
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void checkModifiable()
+    {
+        if ( readOnly )
+        {
+            throw new UnsupportedOperationException( "Unmodifiable attribute set" );
+        }
+    }
+
+    /**
+     * Makes the arrays of this set its own and able to hold the given number of attributes.
+     *
+     * @param capacity the number of attributes.
+     */
+    private void ensureCapacity( int capacity )
+    {
+        if ( !shared && capacity <= names.length )
+        {
+            return;
+        }
+
+        int length = names.length;
+        if ( capacity > length )
+        {
+            length = Math.max( capacity, Math.max( MIN_CAPACITY, 2 * length ) );
+        }
+
+        String[] newNames = new String[length];
+        Object[] newValues = new Object[length];
+        System.arraycopy( names, 0, newNames, 0, size );
+        System.arraycopy( values, 0, newValues, 0, size );
+
+        names = newNames;
+        values = newValues;
+        shared = false;
+    }
+
+    /**
+     * Replaces the attributes of this set by the ones of the given set, the arrays are copied before either set is
+     * modified.
+     *
+     * @param set a set of attributes, not null.
+     */
+    private void shareAttributes( SinkEventAttributeSet set )
+    {
+        if ( set.size == 0 )
+        {
+            names = NO_NAMES;
+            values = NO_VALUES;
+            size = 0;
+            shared = false;
+            return;
+        }
+
+        set.shared = true;
+        names = set.names;
+        values = set.values;
+        size = set.size;
+        shared = true;
+    }
+
+    /**
+     * Enumerates a snapshot of the attribute names.
+     */
+    private static class NameEnumeration
+        implements Enumeration<String>
+    {
+        private final String[] names;
+
+        private final int size;
+
+        private int index;
+
+        NameEnumeration( String[] names, int size )
+        {
+            this.names = names;
+            this.size = size;
+        }
+
+        /** {@inheritDoc} */
+        public boolean hasMoreElements()
+        {
+            return index < size;
+        }
+
+        /** {@inheritDoc} */
+        public String nextElement()
+        {
+            if ( index >= size )
+            {
+                throw new NoSuchElementException();
+            }
+
+            return names[index++];
+        }
+    }
 }
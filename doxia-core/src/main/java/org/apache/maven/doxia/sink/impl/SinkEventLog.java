@@ -0,0 +1,933 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+
+/**
+ * An immutable log of <code>Sink</code> events, as recorded by a {@link RecordingSink}.
+ * <p>
+ * The events are stored as an array of opcodes, each followed by its operands: <code>int</code> and
+ * <code>boolean</code> arguments are stored inline, Strings, attributes and arrays as indices into a pool of
+ * objects where equal Strings and equal attribute sets are only stored once.
+ * </p>
+ * <p>
+ * A log can be replayed any number of times, possibly concurrently, into any <code>Sink</code>, so the same
+ * document can be rendered into several output formats while only being parsed once. Sinks may modify the
+ * attributes and arrays they receive, so every replayed event gets its own copy of them.
+ * </p>
+ *
+ * @since 1.8
+ */
+public final class SinkEventLog
+{
+    // opcodes, one per Sink method
+
+    static final int HEAD = 0;
+
+    static final int HEAD_ATTRIBUTES = 1;
+
+    static final int HEAD_END = 2;
+
+    static final int TITLE = 3;
+
+    static final int TITLE_ATTRIBUTES = 4;
+
+    static final int TITLE_END = 5;
+
+    static final int AUTHOR = 6;
+
+    static final int AUTHOR_ATTRIBUTES = 7;
+
+    static final int AUTHOR_END = 8;
+
+    static final int DATE = 9;
+
+    static final int DATE_ATTRIBUTES = 10;
+
+    static final int DATE_END = 11;
+
+    static final int BODY = 12;
+
+    static final int BODY_ATTRIBUTES = 13;
+
+    static final int BODY_END = 14;
+
+    static final int SECTION_TITLE = 15;
+
+    static final int SECTION_TITLE_END = 16;
+
+    static final int SECTION1 = 17;
+
+    static final int SECTION1_END = 18;
+
+    static final int SECTION_TITLE1 = 19;
+
+    static final int SECTION_TITLE1_END = 20;
+
+    static final int SECTION2 = 21;
+
+    static final int SECTION2_END = 22;
+
+    static final int SECTION_TITLE2 = 23;
+
+    static final int SECTION_TITLE2_END = 24;
+
+    static final int SECTION3 = 25;
+
+    static final int SECTION3_END = 26;
+
+    static final int SECTION_TITLE3 = 27;
+
+    static final int SECTION_TITLE3_END = 28;
+
+    static final int SECTION4 = 29;
+
+    static final int SECTION4_END = 30;
+
+    static final int SECTION_TITLE4 = 31;
+
+    static final int SECTION_TITLE4_END = 32;
+
+    static final int SECTION5 = 33;
+
+    static final int SECTION5_END = 34;
+
+    static final int SECTION_TITLE5 = 35;
+
+    static final int SECTION_TITLE5_END = 36;
+
+    static final int SECTION6 = 37;
+
+    static final int SECTION6_END = 38;
+
+    static final int SECTION_TITLE6 = 39;
+
+    static final int SECTION_TITLE6_END = 40;
+
+    static final int SECTION = 41;
+
+    static final int SECTION_END = 42;
+
+    static final int SECTION_TITLE_ATTRIBUTES = 43;
+
+    static final int SECTION_TITLE_END_LEVEL = 44;
+
+    static final int LIST = 45;
+
+    static final int LIST_ATTRIBUTES = 46;
+
+    static final int LIST_END = 47;
+
+    static final int LIST_ITEM = 48;
+
+    static final int LIST_ITEM_ATTRIBUTES = 49;
+
+    static final int LIST_ITEM_END = 50;
+
+    static final int NUMBERED_LIST = 51;
+
+    static final int NUMBERED_LIST_ATTRIBUTES = 52;
+
+    static final int NUMBERED_LIST_END = 53;
+
+    static final int NUMBERED_LIST_ITEM = 54;
+
+    static final int NUMBERED_LIST_ITEM_ATTRIBUTES = 55;
+
+    static final int NUMBERED_LIST_ITEM_END = 56;
+
+    static final int DEFINITION_LIST = 57;
+
+    static final int DEFINITION_LIST_ATTRIBUTES = 58;
+
+    static final int DEFINITION_LIST_END = 59;
+
+    static final int DEFINITION_LIST_ITEM = 60;
+
+    static final int DEFINITION_LIST_ITEM_ATTRIBUTES = 61;
+
+    static final int DEFINITION_LIST_ITEM_END = 62;
+
+    static final int DEFINITION = 63;
+
+    static final int DEFINITION_ATTRIBUTES = 64;
+
+    static final int DEFINITION_END = 65;
+
+    static final int DEFINED_TERM = 66;
+
+    static final int DEFINED_TERM_ATTRIBUTES = 67;
+
+    static final int DEFINED_TERM_END = 68;
+
+    static final int FIGURE = 69;
+
+    static final int FIGURE_ATTRIBUTES = 70;
+
+    static final int FIGURE_END = 71;
+
+    static final int FIGURE_CAPTION = 72;
+
+    static final int FIGURE_CAPTION_ATTRIBUTES = 73;
+
+    static final int FIGURE_CAPTION_END = 74;
+
+    static final int FIGURE_GRAPHICS = 75;
+
+    static final int FIGURE_GRAPHICS_ATTRIBUTES = 76;
+
+    static final int TABLE = 77;
+
+    static final int TABLE_ATTRIBUTES = 78;
+
+    static final int TABLE_END = 79;
+
+    static final int TABLE_ROWS = 80;
+
+    static final int TABLE_ROWS_END = 81;
+
+    static final int TABLE_ROW = 82;
+
+    static final int TABLE_ROW_ATTRIBUTES = 83;
+
+    static final int TABLE_ROW_END = 84;
+
+    static final int TABLE_CELL = 85;
+
+    static final int TABLE_CELL_WIDTH = 86;
+
+    static final int TABLE_CELL_ATTRIBUTES = 87;
+
+    static final int TABLE_CELL_END = 88;
+
+    static final int TABLE_HEADER_CELL = 89;
+
+    static final int TABLE_HEADER_CELL_WIDTH = 90;
+
+    static final int TABLE_HEADER_CELL_ATTRIBUTES = 91;
+
+    static final int TABLE_HEADER_CELL_END = 92;
+
+    static final int TABLE_CAPTION = 93;
+
+    static final int TABLE_CAPTION_ATTRIBUTES = 94;
+
+    static final int TABLE_CAPTION_END = 95;
+
+    static final int PARAGRAPH = 96;
+
+    static final int PARAGRAPH_ATTRIBUTES = 97;
+
+    static final int PARAGRAPH_END = 98;
+
+    static final int VERBATIM = 99;
+
+    static final int VERBATIM_ATTRIBUTES = 100;
+
+    static final int VERBATIM_END = 101;
+
+    static final int HORIZONTAL_RULE = 102;
+
+    static final int HORIZONTAL_RULE_ATTRIBUTES = 103;
+
+    static final int PAGE_BREAK = 104;
+
+    static final int ANCHOR = 105;
+
+    static final int ANCHOR_ATTRIBUTES = 106;
+
+    static final int ANCHOR_END = 107;
+
+    static final int LINK = 108;
+
+    static final int LINK_ATTRIBUTES = 109;
+
+    static final int LINK_END = 110;
+
+    static final int ITALIC = 111;
+
+    static final int ITALIC_END = 112;
+
+    static final int BOLD = 113;
+
+    static final int BOLD_END = 114;
+
+    static final int MONOSPACED = 115;
+
+    static final int MONOSPACED_END = 116;
+
+    static final int LINE_BREAK = 117;
+
+    static final int LINE_BREAK_ATTRIBUTES = 118;
+
+    static final int NON_BREAKING_SPACE = 119;
+
+    static final int TEXT = 120;
+
+    static final int TEXT_ATTRIBUTES = 121;
+
+    static final int RAW_TEXT = 122;
+
+    static final int COMMENT = 123;
+
+    static final int UNKNOWN = 124;
+
+    static final int FLUSH = 125;
+
+    static final int CLOSE = 126;
+
+    private final int[] events;
+
+    private final Object[] objects;
+
+    private final int size;
+
+    /**
+     * @param events the opcodes and their operands.
+     * @param objects the pool of objects the operands refer to.
+     * @param size the number of events.
+     */
+    SinkEventLog( int[] events, Object[] objects, int size )
+    {
+        this.events = events;
+        this.objects = objects;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of recorded events.
+     *
+     * @return the number of events in this log.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Sends all recorded events, in order, to the given sink.
+     *
+     * @param sink the sink to receive the events, not null.
+     */
+    public void replay( Sink sink )
+    {
+        replay( sink, events, events.length, objects );
+    }
+
+    /**
+     * Sends the events of a buffer, in order, to the given sink.
+     *
+     * @param sink the sink to receive the events, not null.
+     * @param events the opcodes and their operands.
+     * @param length the number of used elements of <code>events</code>.
+     * @param objects the pool of objects the operands refer to.
+     */
+    @SuppressWarnings( "deprecation" )
+    static void replay( Sink sink, int[] events, int length, Object[] objects )
+    {
+        int i = 0;
+        while ( i < length )
+        {
+            int opcode = events[i++];
+            switch ( opcode )
+            {
+                case HEAD:
+                    sink.head();
+                    break;
+
+                case HEAD_ATTRIBUTES:
+                    sink.head( attributes( objects, events[i++] ) );
+                    break;
+
+                case HEAD_END:
+                    sink.head_();
+                    break;
+
+                case TITLE:
+                    sink.title();
+                    break;
+
+                case TITLE_ATTRIBUTES:
+                    sink.title( attributes( objects, events[i++] ) );
+                    break;
+
+                case TITLE_END:
+                    sink.title_();
+                    break;
+
+                case AUTHOR:
+                    sink.author();
+                    break;
+
+                case AUTHOR_ATTRIBUTES:
+                    sink.author( attributes( objects, events[i++] ) );
+                    break;
+
+                case AUTHOR_END:
+                    sink.author_();
+                    break;
+
+                case DATE:
+                    sink.date();
+                    break;
+
+                case DATE_ATTRIBUTES:
+                    sink.date( attributes( objects, events[i++] ) );
+                    break;
+
+                case DATE_END:
+                    sink.date_();
+                    break;
+
+                case BODY:
+                    sink.body();
+                    break;
+
+                case BODY_ATTRIBUTES:
+                    sink.body( attributes( objects, events[i++] ) );
+                    break;
+
+                case BODY_END:
+                    sink.body_();
+                    break;
+
+                case SECTION_TITLE:
+                    sink.sectionTitle();
+                    break;
+
+                case SECTION_TITLE_END:
+                    sink.sectionTitle_();
+                    break;
+
+                case SECTION1:
+                    sink.section1();
+                    break;
+
+                case SECTION1_END:
+                    sink.section1_();
+                    break;
+
+                case SECTION_TITLE1:
+                    sink.sectionTitle1();
+                    break;
+
+                case SECTION_TITLE1_END:
+                    sink.sectionTitle1_();
+                    break;
+
+                case SECTION2:
+                    sink.section2();
+                    break;
+
+                case SECTION2_END:
+                    sink.section2_();
+                    break;
+
+                case SECTION_TITLE2:
+                    sink.sectionTitle2();
+                    break;
+
+                case SECTION_TITLE2_END:
+                    sink.sectionTitle2_();
+                    break;
+
+                case SECTION3:
+                    sink.section3();
+                    break;
+
+                case SECTION3_END:
+                    sink.section3_();
+                    break;
+
+                case SECTION_TITLE3:
+                    sink.sectionTitle3();
+                    break;
+
+                case SECTION_TITLE3_END:
+                    sink.sectionTitle3_();
+                    break;
+
+                case SECTION4:
+                    sink.section4();
+                    break;
+
+                case SECTION4_END:
+                    sink.section4_();
+                    break;
+
+                case SECTION_TITLE4:
+                    sink.sectionTitle4();
+                    break;
+
+                case SECTION_TITLE4_END:
+                    sink.sectionTitle4_();
+                    break;
+
+                case SECTION5:
+                    sink.section5();
+                    break;
+
+                case SECTION5_END:
+                    sink.section5_();
+                    break;
+
+                case SECTION_TITLE5:
+                    sink.sectionTitle5();
+                    break;
+
+                case SECTION_TITLE5_END:
+                    sink.sectionTitle5_();
+                    break;
+
+                case SECTION6:
+                    sink.section6();
+                    break;
+
+                case SECTION6_END:
+                    sink.section6_();
+                    break;
+
+                case SECTION_TITLE6:
+                    sink.sectionTitle6();
+                    break;
+
+                case SECTION_TITLE6_END:
+                    sink.sectionTitle6_();
+                    break;
+
+                case SECTION:
+                    sink.section( events[i++], attributes( objects, events[i++] ) );
+                    break;
+
+                case SECTION_END:
+                    sink.section_( events[i++] );
+                    break;
+
+                case SECTION_TITLE_ATTRIBUTES:
+                    sink.sectionTitle( events[i++], attributes( objects, events[i++] ) );
+                    break;
+
+                case SECTION_TITLE_END_LEVEL:
+                    sink.sectionTitle_( events[i++] );
+                    break;
+
+                case LIST:
+                    sink.list();
+                    break;
+
+                case LIST_ATTRIBUTES:
+                    sink.list( attributes( objects, events[i++] ) );
+                    break;
+
+                case LIST_END:
+                    sink.list_();
+                    break;
+
+                case LIST_ITEM:
+                    sink.listItem();
+                    break;
+
+                case LIST_ITEM_ATTRIBUTES:
+                    sink.listItem( attributes( objects, events[i++] ) );
+                    break;
+
+                case LIST_ITEM_END:
+                    sink.listItem_();
+                    break;
+
+                case NUMBERED_LIST:
+                    sink.numberedList( events[i++] );
+                    break;
+
+                case NUMBERED_LIST_ATTRIBUTES:
+                    sink.numberedList( events[i++], attributes( objects, events[i++] ) );
+                    break;
+
+                case NUMBERED_LIST_END:
+                    sink.numberedList_();
+                    break;
+
+                case NUMBERED_LIST_ITEM:
+                    sink.numberedListItem();
+                    break;
+
+                case NUMBERED_LIST_ITEM_ATTRIBUTES:
+                    sink.numberedListItem( attributes( objects, events[i++] ) );
+                    break;
+
+                case NUMBERED_LIST_ITEM_END:
+                    sink.numberedListItem_();
+                    break;
+
+                case DEFINITION_LIST:
+                    sink.definitionList();
+                    break;
+
+                case DEFINITION_LIST_ATTRIBUTES:
+                    sink.definitionList( attributes( objects, events[i++] ) );
+                    break;
+
+                case DEFINITION_LIST_END:
+                    sink.definitionList_();
+                    break;
+
+                case DEFINITION_LIST_ITEM:
+                    sink.definitionListItem();
+                    break;
+
+                case DEFINITION_LIST_ITEM_ATTRIBUTES:
+                    sink.definitionListItem( attributes( objects, events[i++] ) );
+                    break;
+
+                case DEFINITION_LIST_ITEM_END:
+                    sink.definitionListItem_();
+                    break;
+
+                case DEFINITION:
+                    sink.definition();
+                    break;
+
+                case DEFINITION_ATTRIBUTES:
+                    sink.definition( attributes( objects, events[i++] ) );
+                    break;
+
+                case DEFINITION_END:
+                    sink.definition_();
+                    break;
+
+                case DEFINED_TERM:
+                    sink.definedTerm();
+                    break;
+
+                case DEFINED_TERM_ATTRIBUTES:
+                    sink.definedTerm( attributes( objects, events[i++] ) );
+                    break;
+
+                case DEFINED_TERM_END:
+                    sink.definedTerm_();
+                    break;
+
+                case FIGURE:
+                    sink.figure();
+                    break;
+
+                case FIGURE_ATTRIBUTES:
+                    sink.figure( attributes( objects, events[i++] ) );
+                    break;
+
+                case FIGURE_END:
+                    sink.figure_();
+                    break;
+
+                case FIGURE_CAPTION:
+                    sink.figureCaption();
+                    break;
+
+                case FIGURE_CAPTION_ATTRIBUTES:
+                    sink.figureCaption( attributes( objects, events[i++] ) );
+                    break;
+
+                case FIGURE_CAPTION_END:
+                    sink.figureCaption_();
+                    break;
+
+                case FIGURE_GRAPHICS:
+                    sink.figureGraphics( string( objects, events[i++] ) );
+                    break;
+
+                case FIGURE_GRAPHICS_ATTRIBUTES:
+                    sink.figureGraphics( string( objects, events[i++] ), attributes( objects, events[i++] ) );
+                    break;
+
+                case TABLE:
+                    sink.table();
+                    break;
+
+                case TABLE_ATTRIBUTES:
+                    sink.table( attributes( objects, events[i++] ) );
+                    break;
+
+                case TABLE_END:
+                    sink.table_();
+                    break;
+
+                case TABLE_ROWS:
+                    sink.tableRows( intArray( objects, events[i++] ), events[i++] != 0 );
+                    break;
+
+                case TABLE_ROWS_END:
+                    sink.tableRows_();
+                    break;
+
+                case TABLE_ROW:
+                    sink.tableRow();
+                    break;
+
+                case TABLE_ROW_ATTRIBUTES:
+                    sink.tableRow( attributes( objects, events[i++] ) );
+                    break;
+
+                case TABLE_ROW_END:
+                    sink.tableRow_();
+                    break;
+
+                case TABLE_CELL:
+                    sink.tableCell();
+                    break;
+
+                case TABLE_CELL_WIDTH:
+                    sink.tableCell( string( objects, events[i++] ) );
+                    break;
+
+                case TABLE_CELL_ATTRIBUTES:
+                    sink.tableCell( attributes( objects, events[i++] ) );
+                    break;
+
+                case TABLE_CELL_END:
+                    sink.tableCell_();
+                    break;
+
+                case TABLE_HEADER_CELL:
+                    sink.tableHeaderCell();
+                    break;
+
+                case TABLE_HEADER_CELL_WIDTH:
+                    sink.tableHeaderCell( string( objects, events[i++] ) );
+                    break;
+
+                case TABLE_HEADER_CELL_ATTRIBUTES:
+                    sink.tableHeaderCell( attributes( objects, events[i++] ) );
+                    break;
+
+                case TABLE_HEADER_CELL_END:
+                    sink.tableHeaderCell_();
+                    break;
+
+                case TABLE_CAPTION:
+                    sink.tableCaption();
+                    break;
+
+                case TABLE_CAPTION_ATTRIBUTES:
+                    sink.tableCaption( attributes( objects, events[i++] ) );
+                    break;
+
+                case TABLE_CAPTION_END:
+                    sink.tableCaption_();
+                    break;
+
+                case PARAGRAPH:
+                    sink.paragraph();
+                    break;
+
+                case PARAGRAPH_ATTRIBUTES:
+                    sink.paragraph( attributes( objects, events[i++] ) );
+                    break;
+
+                case PARAGRAPH_END:
+                    sink.paragraph_();
+                    break;
+
+                case VERBATIM:
+                    sink.verbatim( events[i++] != 0 );
+                    break;
+
+                case VERBATIM_ATTRIBUTES:
+                    sink.verbatim( attributes( objects, events[i++] ) );
+                    break;
+
+                case VERBATIM_END:
+                    sink.verbatim_();
+                    break;
+
+                case HORIZONTAL_RULE:
+                    sink.horizontalRule();
+                    break;
+
+                case HORIZONTAL_RULE_ATTRIBUTES:
+                    sink.horizontalRule( attributes( objects, events[i++] ) );
+                    break;
+
+                case PAGE_BREAK:
+                    sink.pageBreak();
+                    break;
+
+                case ANCHOR:
+                    sink.anchor( string( objects, events[i++] ) );
+                    break;
+
+                case ANCHOR_ATTRIBUTES:
+                    sink.anchor( string( objects, events[i++] ), attributes( objects, events[i++] ) );
+                    break;
+
+                case ANCHOR_END:
+                    sink.anchor_();
+                    break;
+
+                case LINK:
+                    sink.link( string( objects, events[i++] ) );
+                    break;
+
+                case LINK_ATTRIBUTES:
+                    sink.link( string( objects, events[i++] ), attributes( objects, events[i++] ) );
+                    break;
+
+                case LINK_END:
+                    sink.link_();
+                    break;
+
+                case ITALIC:
+                    sink.italic();
+                    break;
+
+                case ITALIC_END:
+                    sink.italic_();
+                    break;
+
+                case BOLD:
+                    sink.bold();
+                    break;
+
+                case BOLD_END:
+                    sink.bold_();
+                    break;
+
+                case MONOSPACED:
+                    sink.monospaced();
+                    break;
+
+                case MONOSPACED_END:
+                    sink.monospaced_();
+                    break;
+
+                case LINE_BREAK:
+                    sink.lineBreak();
+                    break;
+
+                case LINE_BREAK_ATTRIBUTES:
+                    sink.lineBreak( attributes( objects, events[i++] ) );
+                    break;
+
+                case NON_BREAKING_SPACE:
+                    sink.nonBreakingSpace();
+                    break;
+
+                case TEXT:
+                    sink.text( string( objects, events[i++] ) );
+                    break;
+
+                case TEXT_ATTRIBUTES:
+                    sink.text( string( objects, events[i++] ), attributes( objects, events[i++] ) );
+                    break;
+
+                case RAW_TEXT:
+                    sink.rawText( string( objects, events[i++] ) );
+                    break;
+
+                case COMMENT:
+                    sink.comment( string( objects, events[i++] ) );
+                    break;
+
+                case UNKNOWN:
+                    sink.unknown( string( objects, events[i++] ), objectArray( objects, events[i++] ),
+                                  attributes( objects, events[i++] ) );
+                    break;
+
+                case FLUSH:
+                    sink.flush();
+                    break;
+
+                case CLOSE:
+                    sink.close();
+                    break;
+                default:
+                    throw new IllegalStateException( "Unknown opcode: " + opcode );
+            }
+        }
+    }
+
+    private static String string( Object[] objects, int index )
+    {
+        return ( index < 0 ) ? null : (String) objects[index];
+    }
+
+    private static SinkEventAttributes attributes( Object[] objects, int index )
+    {
+        return ( index < 0 ) ? null : new SinkEventAttributeSet( (SinkEventAttributes) objects[index] );
+    }
+
+    private static int[] intArray( Object[] objects, int index )
+    {
+        return ( index < 0 ) ? null : ( (int[]) objects[index] ).clone();
+    }
+
+    private static Object[] objectArray( Object[] objects, int index )
+    {
+        return ( index < 0 ) ? null : ( (Object[]) objects[index] ).clone();
+    }
+
+    /**
+     * A reusable buffer of events, filled by {@link RecordingSink#drainTo(Chunk)}. Unlike a log, its buffers are
+     * recycled, so it is only valid until it is filled again.
+     */
+    static final class Chunk
+    {
+        int[] events;
+
+        int length;
+
+        Object[] objects = new Object[0];
+
+        int objectCount;
+
+        Chunk( int capacity )
+        {
+            events = new int[capacity];
+        }
+
+        void setObjects( List<Object> values )
+        {
+            int count = values.size();
+            if ( objects.length < count )
+            {
+                objects = new Object[Math.max( objects.length * 2, count )];
+            }
+            for ( int i = 0; i < count; i++ )
+            {
+                objects[i] = values.get( i );
+            }
+            if ( count < objectCount )
+            {
+                // do not keep the objects of the previous events alive
+                Arrays.fill( objects, count, objectCount, null );
+            }
+            objectCount = count;
+        }
+
+        void replay( Sink sink )
+        {
+            SinkEventLog.replay( sink, events, length, objects );
+        }
+    }
+}
@@ -21,11 +21,16 @@ package org.apache.maven.doxia.sink.impl;
 
 import java.util.Enumeration;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 import javax.swing.text.AttributeSet;
 import javax.swing.text.MutableAttributeSet;
 
 import org.apache.maven.doxia.markup.Markup;
+import org.apache.maven.doxia.sink.CharacterSink;
+import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.SinkEventAttributes;
 
 /**
@@ -138,6 +143,12 @@ public class SinkUtils
         SinkEventAttributes.SCOPE, SinkEventAttributes.VALIGN, SinkEventAttributes.WIDTH
     };
 
+    /** A distinct bit for each attribute name of the whitelists of this class. */
+    private static final Map<String, Long> ATTRIBUTE_BITS = new HashMap<String, Long>();
+
+    /** The whitelists of this class as sets of the bits of their attribute names. */
+    private static final Map<String[], Long> WHITELIST_MASKS = new IdentityHashMap<String[], Long>();
+
     static
     {
         SINK_IMG_ATTRIBUTES = join( SINK_BASE_ATTRIBUTES, IMG_ATTRIBUTES );
@@ -153,6 +164,37 @@ public class SinkUtils
                 join( SINK_BASE_ATTRIBUTES,
                 new String[] {SinkEventAttributes.ALIGN, SinkEventAttributes.BGCOLOR, SinkEventAttributes.VALIGN} );
         SINK_TD_ATTRIBUTES = join( SINK_BASE_ATTRIBUTES, TABLE_CELL_ATTRIBUTES );
+
+        String[][] whitelists =
+        {
+            SINK_BASE_ATTRIBUTES, SINK_BR_ATTRIBUTES, SINK_IMG_ATTRIBUTES, SINK_SECTION_ATTRIBUTES,
+            SINK_VERBATIM_ATTRIBUTES, SINK_HR_ATTRIBUTES, SINK_LINK_ATTRIBUTES, SINK_TABLE_ATTRIBUTES,
+            SINK_TD_ATTRIBUTES, SINK_TR_ATTRIBUTES
+        };
+
+        for ( String[] whitelist : whitelists )
+        {
+            long mask = 0L;
+
+            for ( String name : whitelist )
+            {
+                Long bit = ATTRIBUTE_BITS.get( name );
+                if ( bit == null )
+                {
+                    if ( ATTRIBUTE_BITS.size() == Long.SIZE )
+                    {
+                        // the shift would wrap around and give the bit of another name
+                        throw new IllegalStateException( "More than " + Long.SIZE
+                            + " attribute names in the whitelists, they do not fit in a long mask: " + name );
+                    }
+                    bit = Long.valueOf( 1L << ATTRIBUTE_BITS.size() );
+                    ATTRIBUTE_BITS.put( name, bit );
+                }
+                mask |= bit.longValue();
+            }
+
+            WHITELIST_MASKS.put( whitelist, Long.valueOf( mask ) );
+        }
     }
 
     private static String[] join( String[] a, String[] b )
@@ -166,6 +208,48 @@ public class SinkUtils
         return temp;
     }
 
+    /**
+     * Emits a text given as a character sequence into a sink, without a copy if the sink is a
+     * {@link CharacterSink}.
+     *
+     * @param sink the sink to receive the text, not null.
+     * @param text The text to write, may be <code>null</code>.
+     * @since 1.8
+     */
+    public static void text( Sink sink, CharSequence text )
+    {
+        if ( sink instanceof CharacterSink )
+        {
+            ( (CharacterSink) sink ).text( text );
+        }
+        else
+        {
+            sink.text( text == null ? null : text.toString() );
+        }
+    }
+
+    /**
+     * Emits a text given as a range of a character array into a sink, without a copy if the sink is a
+     * {@link CharacterSink}.
+     *
+     * @param sink the sink to receive the text, not null.
+     * @param text The characters of the text to write.
+     * @param offset The index of the first character of the text.
+     * @param length The number of characters of the text.
+     * @since 1.8
+     */
+    public static void text( Sink sink, char[] text, int offset, int length )
+    {
+        if ( sink instanceof CharacterSink )
+        {
+            ( (CharacterSink) sink ).text( text, offset, length );
+        }
+        else
+        {
+            sink.text( new String( text, offset, length ) );
+        }
+    }
+
     /**
      * Utility method to get an AttributeSet as a String.
      * The resulting String is in the form ' name1="value1" name2="value2" ...',
@@ -187,31 +271,64 @@ public class SinkUtils
 
         StringBuilder sb = new StringBuilder();
 
+        appendAttributeString( sb, att );
+
+        return sb.toString();
+    }
+
+    /**
+     * Appends an AttributeSet to a buffer, in the form of {@link #getAttributeString(AttributeSet)}.
+     *
+     * @param sb the buffer, not null.
+     * @param att The AttributeSet. May be null, in which case nothing is appended.
+     * @since 1.8
+     */
+    public static void appendAttributeString( StringBuilder sb, AttributeSet att )
+    {
+        if ( att == null )
+        {
+            return;
+        }
+
+        if ( att instanceof SinkEventAttributeSet && att.getResolveParent() == null )
+        {
+            SinkEventAttributeSet set = (SinkEventAttributeSet) att;
+
+            for ( int i = 0, n = set.getAttributeCount(); i < n; i++ )
+            {
+                appendAttribute( sb, set.getAttributeName( i ), set.getAttributeValue( i ) );
+            }
+
+            return;
+        }
+
         Enumeration<?> names = att.getAttributeNames();
 
         while ( names.hasMoreElements() )
         {
             Object key = names.nextElement();
-            Object value = att.getAttribute( key );
 
-            if ( value instanceof AttributeSet )
-            {
-                // Other AttributeSets are ignored
-                if ( SinkEventAttributes.STYLE.equals( key.toString() ) )
-                {
-                    sb.append( Markup.SPACE ).append( key.toString() ).append( Markup.EQUAL )
-                        .append( Markup.QUOTE ).append( asCssString( (AttributeSet) value ) )
-                        .append( Markup.QUOTE );
-                }
-            }
-            else
+            appendAttribute( sb, key, att.getAttribute( key ) );
+        }
+    }
+
+    private static void appendAttribute( StringBuilder sb, Object key, Object value )
+    {
+        if ( value instanceof AttributeSet )
+        {
+            // Other AttributeSets are ignored
+            if ( SinkEventAttributes.STYLE.equals( key.toString() ) )
             {
                 sb.append( Markup.SPACE ).append( key.toString() ).append( Markup.EQUAL )
-                    .append( Markup.QUOTE ).append( value.toString() ).append( Markup.QUOTE );
+                    .append( Markup.QUOTE ).append( asCssString( (AttributeSet) value ) )
+                    .append( Markup.QUOTE );
             }
         }
-
-        return sb.toString();
+        else
+        {
+            sb.append( Markup.SPACE ).append( key.toString() ).append( Markup.EQUAL )
+                .append( Markup.QUOTE ).append( value.toString() ).append( Markup.QUOTE );
+        }
     }
 
     private static String asCssString( AttributeSet att )
@@ -251,6 +368,8 @@ public class SinkUtils
      *      <b>Note:</b> a binary search is employed, so the array has to be sorted for correct results.
      * @return A filtered MutableAttributeSet object. Returns null if the input AttributeSet is null.
      *      If the array of valids is either null or empty, an empty AttributeSet is returned.
+     *      If no attribute is filtered out of a SinkEventAttributeSet, the result is a lazy copy of it.
+     *      The names are looked up in hashed bitsets for the whitelists of this class, which must not be modified.
      */
     public static MutableAttributeSet filterAttributes( AttributeSet attributes, String[] valids )
     {
@@ -264,6 +383,40 @@ public class SinkUtils
             return new SinkEventAttributeSet( 0 );
         }
 
+        Long mask = WHITELIST_MASKS.get( valids );
+
+        if ( attributes instanceof SinkEventAttributeSet && attributes.getResolveParent() == null )
+        {
+            SinkEventAttributeSet set = (SinkEventAttributeSet) attributes;
+            int count = set.getAttributeCount();
+
+            int valid = 0;
+            while ( valid < count && isValid( set.getAttributeName( valid ), valids, mask ) )
+            {
+                valid++;
+            }
+
+            if ( valid == count )
+            {
+                // nothing filtered out: the copy shares the arrays of the attributes until either is modified
+                return new SinkEventAttributeSet( set );
+            }
+
+            MutableAttributeSet atts = new SinkEventAttributeSet( count - 1 );
+
+            for ( int i = 0; i < count; i++ )
+            {
+                String key = set.getAttributeName( i );
+
+                if ( i < valid || ( i > valid && isValid( key, valids, mask ) ) )
+                {
+                    atts.addAttribute( key, set.getAttributeValue( i ) );
+                }
+            }
+
+            return atts;
+        }
+
         MutableAttributeSet atts = new SinkEventAttributeSet( attributes.getAttributeCount() );
 
         Enumeration<?> names = attributes.getAttributeNames();
@@ -272,7 +425,7 @@ public class SinkUtils
         {
             String key = names.nextElement().toString();
 
-            if ( Arrays.binarySearch( valids, key ) >= 0 )
+            if ( isValid( key, valids, mask ) )
             {
                 atts.addAttribute( key, attributes.getAttribute( key ) );
             }
@@ -280,4 +433,16 @@ public class SinkUtils
 
         return atts;
     }
+
+    private static boolean isValid( String name, String[] valids, Long mask )
+    {
+        if ( mask == null )
+        {
+            return Arrays.binarySearch( valids, name ) >= 0;
+        }
+
+        Long bit = ATTRIBUTE_BITS.get( name );
+
+        return bit != null && ( mask.longValue() & bit.longValue() ) != 0;
+    }
 }
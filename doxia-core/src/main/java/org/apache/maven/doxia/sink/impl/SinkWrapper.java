@@ -0,0 +1,852 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.doxia.logging.Log;
+import org.apache.maven.doxia.sink.CharacterSink;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+
+/**
+ * A {@link Sink} that forwards every event to a wrapped sink.
+ * Subclasses override the events they are interested in and call <code>super</code> to pass them on.
+ * As text may be given as a String, a {@link CharSequence} or a character range, a subclass interested in text
+ * overrides all the <code>text()</code> methods.
+ *
+ * @since 1.8
+ */
+public class SinkWrapper
+    implements CharacterSink
+{
+    private Sink sink;
+
+    /**
+     * Constructs a SinkWrapper for the given sink.
+     *
+     * @param sink the sink to forward events to, not null.
+     */
+    public SinkWrapper( Sink sink )
+    {
+        setWrappedSink( sink );
+    }
+
+    /**
+     * @return the sink events are currently forwarded to.
+     */
+    public Sink getWrappedSink()
+    {
+        return sink;
+    }
+
+    /**
+     * Changes the sink events are forwarded to.
+     *
+     * @param sink the new target sink, not null.
+     */
+    public void setWrappedSink( Sink sink )
+    {
+        if ( sink == null )
+        {
+            throw new IllegalArgumentException( "sink is required" );
+        }
+
+        this.sink = sink;
+    }
+
+    @Override
+    public void anchor( String name )
+    {
+        sink.anchor( name );
+    }
+
+    @Override
+    public void anchor( String name, SinkEventAttributes attributes )
+    {
+        sink.anchor( name, attributes );
+    }
+
+    @Override
+    public void anchor_()
+    {
+        sink.anchor_();
+    }
+
+    @Override
+    public void author()
+    {
+        sink.author();
+    }
+
+    @Override
+    public void author( SinkEventAttributes attributes )
+    {
+        sink.author( attributes );
+    }
+
+    @Override
+    public void author_()
+    {
+        sink.author_();
+    }
+
+    @Override
+    public void body()
+    {
+        sink.body();
+    }
+
+    @Override
+    public void body( SinkEventAttributes attributes )
+    {
+        sink.body( attributes );
+    }
+
+    @Override
+    public void body_()
+    {
+        sink.body_();
+    }
+
+    @Override
+    public void bold()
+    {
+        sink.bold();
+    }
+
+    @Override
+    public void bold_()
+    {
+        sink.bold_();
+    }
+
+    @Override
+    public void close()
+    {
+        sink.close();
+    }
+
+    @Override
+    public void comment( String comment )
+    {
+        sink.comment( comment );
+    }
+
+    @Override
+    public void date()
+    {
+        sink.date();
+    }
+
+    @Override
+    public void date( SinkEventAttributes attributes )
+    {
+        sink.date( attributes );
+    }
+
+    @Override
+    public void date_()
+    {
+        sink.date_();
+    }
+
+    @Override
+    public void definedTerm()
+    {
+        sink.definedTerm();
+    }
+
+    @Override
+    public void definedTerm( SinkEventAttributes attributes )
+    {
+        sink.definedTerm( attributes );
+    }
+
+    @Override
+    public void definedTerm_()
+    {
+        sink.definedTerm_();
+    }
+
+    @Override
+    public void definition()
+    {
+        sink.definition();
+    }
+
+    @Override
+    public void definition( SinkEventAttributes attributes )
+    {
+        sink.definition( attributes );
+    }
+
+    @Override
+    public void definitionList()
+    {
+        sink.definitionList();
+    }
+
+    @Override
+    public void definitionList( SinkEventAttributes attributes )
+    {
+        sink.definitionList( attributes );
+    }
+
+    @Override
+    public void definitionListItem()
+    {
+        sink.definitionListItem();
+    }
+
+    @Override
+    public void definitionListItem( SinkEventAttributes attributes )
+    {
+        sink.definitionListItem( attributes );
+    }
+
+    @Override
+    public void definitionListItem_()
+    {
+        sink.definitionListItem_();
+    }
+
+    @Override
+    public void definitionList_()
+    {
+        sink.definitionList_();
+    }
+
+    @Override
+    public void definition_()
+    {
+        sink.definition_();
+    }
+
+    @Override
+    public void figure()
+    {
+        sink.figure();
+    }
+
+    @Override
+    public void figure( SinkEventAttributes attributes )
+    {
+        sink.figure( attributes );
+    }
+
+    @Override
+    public void figureCaption()
+    {
+        sink.figureCaption();
+    }
+
+    @Override
+    public void figureCaption( SinkEventAttributes attributes )
+    {
+        sink.figureCaption( attributes );
+    }
+
+    @Override
+    public void figureCaption_()
+    {
+        sink.figureCaption_();
+    }
+
+    @Override
+    public void figureGraphics( String name )
+    {
+        sink.figureGraphics( name );
+    }
+
+    @Override
+    public void figureGraphics( String src, SinkEventAttributes attributes )
+    {
+        sink.figureGraphics( src, attributes );
+    }
+
+    @Override
+    public void figure_()
+    {
+        sink.figure_();
+    }
+
+    @Override
+    public void flush()
+    {
+        sink.flush();
+    }
+
+    @Override
+    public void head()
+    {
+        sink.head();
+    }
+
+    @Override
+    public void head( SinkEventAttributes attributes )
+    {
+        sink.head( attributes );
+    }
+
+    @Override
+    public void head_()
+    {
+        sink.head_();
+    }
+
+    @Override
+    public void horizontalRule()
+    {
+        sink.horizontalRule();
+    }
+
+    @Override
+    public void horizontalRule( SinkEventAttributes attributes )
+    {
+        sink.horizontalRule( attributes );
+    }
+
+    @Override
+    public void italic()
+    {
+        sink.italic();
+    }
+
+    @Override
+    public void italic_()
+    {
+        sink.italic_();
+    }
+
+    @Override
+    public void lineBreak()
+    {
+        sink.lineBreak();
+    }
+
+    @Override
+    public void lineBreak( SinkEventAttributes attributes )
+    {
+        sink.lineBreak( attributes );
+    }
+
+    @Override
+    public void link( String name )
+    {
+        sink.link( name );
+    }
+
+    @Override
+    public void link( String name, SinkEventAttributes attributes )
+    {
+        sink.link( name, attributes );
+    }
+
+    @Override
+    public void link_()
+    {
+        sink.link_();
+    }
+
+    @Override
+    public void list()
+    {
+        sink.list();
+    }
+
+    @Override
+    public void list( SinkEventAttributes attributes )
+    {
+        sink.list( attributes );
+    }
+
+    @Override
+    public void listItem()
+    {
+        sink.listItem();
+    }
+
+    @Override
+    public void listItem( SinkEventAttributes attributes )
+    {
+        sink.listItem( attributes );
+    }
+
+    @Override
+    public void listItem_()
+    {
+        sink.listItem_();
+    }
+
+    @Override
+    public void list_()
+    {
+        sink.list_();
+    }
+
+    @Override
+    public void monospaced()
+    {
+        sink.monospaced();
+    }
+
+    @Override
+    public void monospaced_()
+    {
+        sink.monospaced_();
+    }
+
+    @Override
+    public void nonBreakingSpace()
+    {
+        sink.nonBreakingSpace();
+    }
+
+    @Override
+    public void numberedList( int numbering )
+    {
+        sink.numberedList( numbering );
+    }
+
+    @Override
+    public void numberedList( int numbering, SinkEventAttributes attributes )
+    {
+        sink.numberedList( numbering, attributes );
+    }
+
+    @Override
+    public void numberedListItem()
+    {
+        sink.numberedListItem();
+    }
+
+    @Override
+    public void numberedListItem( SinkEventAttributes attributes )
+    {
+        sink.numberedListItem( attributes );
+    }
+
+    @Override
+    public void numberedListItem_()
+    {
+        sink.numberedListItem_();
+    }
+
+    @Override
+    public void numberedList_()
+    {
+        sink.numberedList_();
+    }
+
+    @Override
+    public void pageBreak()
+    {
+        sink.pageBreak();
+    }
+
+    @Override
+    public void paragraph()
+    {
+        sink.paragraph();
+    }
+
+    @Override
+    public void paragraph( SinkEventAttributes attributes )
+    {
+        sink.paragraph( attributes );
+    }
+
+    @Override
+    public void paragraph_()
+    {
+        sink.paragraph_();
+    }
+
+    @Override
+    public void rawText( String text )
+    {
+        sink.rawText( text );
+    }
+
+    @Override
+    public void section( int level, SinkEventAttributes attributes )
+    {
+        sink.section( level, attributes );
+    }
+
+    @Override
+    public void section1()
+    {
+        sink.section1();
+    }
+
+    @Override
+    public void section1_()
+    {
+        sink.section1_();
+    }
+
+    @Override
+    public void section2()
+    {
+        sink.section2();
+    }
+
+    @Override
+    public void section2_()
+    {
+        sink.section2_();
+    }
+
+    @Override
+    public void section3()
+    {
+        sink.section3();
+    }
+
+    @Override
+    public void section3_()
+    {
+        sink.section3_();
+    }
+
+    @Override
+    public void section4()
+    {
+        sink.section4();
+    }
+
+    @Override
+    public void section4_()
+    {
+        sink.section4_();
+    }
+
+    @Override
+    public void section5()
+    {
+        sink.section5();
+    }
+
+    @Override
+    public void section5_()
+    {
+        sink.section5_();
+    }
+
+    @Override
+    public void section6()
+    {
+        sink.section5();
+    }
+
+    @Override
+    public void section6_()
+    {
+        sink.section5_();
+    }
+
+    @Override
+    public void sectionTitle()
+    {
+        sink.sectionTitle();
+    }
+
+    @Override
+    public void sectionTitle( int level, SinkEventAttributes attributes )
+    {
+        sink.sectionTitle( level, attributes );
+    }
+
+    @Override
+    public void sectionTitle1()
+    {
+        sink.sectionTitle1();
+    }
+
+    @Override
+    public void sectionTitle1_()
+    {
+        sink.sectionTitle1_();
+    }
+
+    @Override
+    public void sectionTitle2()
+    {
+        sink.sectionTitle2();
+    }
+
+    @Override
+    public void sectionTitle2_()
+    {
+        sink.sectionTitle2_();
+    }
+
+    @Override
+    public void sectionTitle3()
+    {
+        sink.sectionTitle3();
+    }
+
+    @Override
+    public void sectionTitle3_()
+    {
+        sink.sectionTitle3_();
+    }
+
+    @Override
+    public void sectionTitle4()
+    {
+        sink.sectionTitle4();
+    }
+
+    @Override
+    public void sectionTitle4_()
+    {
+        sink.sectionTitle4_();
+    }
+
+    @Override
+    public void sectionTitle5()
+    {
+        sink.sectionTitle5();
+    }
+
+    @Override
+    public void sectionTitle5_()
+    {
+        sink.sectionTitle5_();
+    }
+
+    @Override
+    public void sectionTitle6()
+    {
+        sink.sectionTitle5();
+    }
+
+    @Override
+    public void sectionTitle6_()
+    {
+        sink.sectionTitle5_();
+    }
+
+    @Override
+    public void sectionTitle_()
+    {
+        sink.sectionTitle_();
+    }
+
+    @Override
+    public void sectionTitle_( int level )
+    {
+        sink.sectionTitle_( level );
+    }
+
+    @Override
+    public void section_( int level )
+    {
+        sink.section_( level );
+    }
+
+    @Override
+    public void table()
+    {
+        sink.table();
+    }
+
+    @Override
+    public void table( SinkEventAttributes attributes )
+    {
+        sink.table( attributes );
+    }
+
+    @Override
+    public void tableCaption()
+    {
+        sink.tableCaption();
+    }
+
+    @Override
+    public void tableCaption( SinkEventAttributes attributes )
+    {
+        sink.tableCaption( attributes );
+    }
+
+    @Override
+    public void tableCaption_()
+    {
+        sink.tableCaption_();
+    }
+
+    @Override
+    public void tableCell()
+    {
+        sink.tableCell();
+    }
+
+    @Override
+    public void tableCell( String width )
+    {
+        sink.tableCell( width );
+    }
+
+    @Override
+    public void tableCell( SinkEventAttributes attributes )
+    {
+        sink.tableCell( attributes );
+    }
+
+    @Override
+    public void tableCell_()
+    {
+        sink.tableCell_();
+    }
+
+    @Override
+    public void tableHeaderCell()
+    {
+        sink.tableHeaderCell();
+    }
+
+    @Override
+    public void tableHeaderCell( String width )
+    {
+        sink.tableHeaderCell( width );
+    }
+
+    @Override
+    public void tableHeaderCell( SinkEventAttributes attributes )
+    {
+        sink.tableHeaderCell( attributes );
+    }
+
+    @Override
+    public void tableHeaderCell_()
+    {
+        sink.tableHeaderCell_();
+    }
+
+    @Override
+    public void tableRow()
+    {
+        sink.tableRow();
+    }
+
+    @Override
+    public void tableRow( SinkEventAttributes attributes )
+    {
+        sink.tableRow( attributes );
+    }
+
+    @Override
+    public void tableRow_()
+    {
+        sink.tableRow_();
+    }
+
+    @Override
+    public void tableRows( int[] justification, boolean grid )
+    {
+        sink.tableRows( justification, grid );
+    }
+
+    @Override
+    public void tableRows_()
+    {
+        sink.tableRows_();
+    }
+
+    @Override
+    public void table_()
+    {
+        sink.table_();
+    }
+
+    @Override
+    public void text( String text )
+    {
+        sink.text( text );
+    }
+
+    @Override
+    public void text( String text, SinkEventAttributes attributes )
+    {
+        sink.text( text, attributes );
+    }
+
+    @Override
+    public void text( CharSequence text )
+    {
+        SinkUtils.text( sink, text );
+    }
+
+    @Override
+    public void text( char[] text, int offset, int length )
+    {
+        SinkUtils.text( sink, text, offset, length );
+    }
+
+    @Override
+    public void title()
+    {
+        sink.title();
+    }
+
+    @Override
+    public void title( SinkEventAttributes attributes )
+    {
+        sink.title( attributes );
+    }
+
+    @Override
+    public void title_()
+    {
+        sink.title_();
+    }
+
+    @Override
+    public void unknown( String name, Object[] requiredParams, SinkEventAttributes attributes )
+    {
+        sink.unknown( name, requiredParams, attributes );
+    }
+
+    @Override
+    public void verbatim( boolean boxed )
+    {
+        sink.verbatim( boxed );
+    }
+
+    @Override
+    public void verbatim( SinkEventAttributes attributes )
+    {
+        sink.verbatim( attributes );
+    }
+
+    @Override
+    public void verbatim_()
+    {
+        sink.verbatim_();
+    }
+
+    @Override
+    public void enableLogging( Log log )
+    {
+        sink.enableLogging( log );
+    }
+}
\ No newline at end of file
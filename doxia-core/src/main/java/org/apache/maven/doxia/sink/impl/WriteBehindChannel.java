@@ -0,0 +1,349 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A channel which copies the bytes written to it into bounded chunks, written to the underlying channel by tasks
+ * of an executor, so the writing thread does not wait for a slow file system. At most one task drains the chunks of
+ * a channel at a time, so they are written in order. Once {@link #MAX_PENDING_CHUNKS} chunks wait to be written,
+ * writes block until a chunk is written. The writing thread never waits for a task which has not started: it writes
+ * the pending chunks by itself instead, so the executor may be bounded and shared with the writing thread.
+ * <p>
+ * {@link #flush()} and {@link #close()} wait until all the bytes written before are written to the underlying
+ * channel, and throw the first error raised by a task, if any. Closing also closes the underlying channel. Writes
+ * must come from a single thread at a time.
+ * </p>
+ *
+ * @since 1.8
+ */
+final class WriteBehindChannel
+    implements WritableByteChannel, Flushable
+{
+    /** The size of the chunks. */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    /** The number of chunks which may wait to be written before writes block. */
+    static final int MAX_PENDING_CHUNKS = 4;
+
+    private final WritableByteChannel channel;
+
+    private final Executor executor;
+
+    /** No task drains the chunks. */
+    private static final int IDLE = 0;
+
+    /** A task is submitted to drain the chunks, but not started. */
+    private static final int SCHEDULED = 1;
+
+    /** The chunks are being drained, by a task or by the writing thread. */
+    private static final int RUNNING = 2;
+
+    private final Runnable drainTask = new Runnable()
+    {
+        public void run()
+        {
+            synchronized ( lock )
+            {
+                // the writing thread may have drained the chunks already
+                if ( state != SCHEDULED )
+                {
+                    return;
+                }
+                state = RUNNING;
+            }
+            drainPending();
+        }
+    };
+
+    private final Object lock = new Object();
+
+    /** The chunks waiting to be written, guarded by the lock. */
+    private final Queue<ByteBuffer> pending = new ArrayDeque<ByteBuffer>();
+
+    /** The written chunks to reuse, guarded by the lock. */
+    private final Queue<ByteBuffer> free = new ArrayDeque<ByteBuffer>();
+
+    /** The number of chunks waiting or being written, guarded by the lock. */
+    private int inFlight;
+
+    /** Whether the pending chunks are being drained, guarded by the lock. */
+    private int state = IDLE;
+
+    /** The first error raised by a task, guarded by the lock. */
+    private IOException failure;
+
+    /** The chunk being filled by the writing thread. */
+    private ByteBuffer current;
+
+    private boolean open = true;
+
+    /**
+     * Creates a channel writing behind into the given channel.
+     *
+     * @param channel the not-null channel written by the tasks.
+     * @param executor the not-null executor running the tasks.
+     */
+    WriteBehindChannel( WritableByteChannel channel, Executor executor )
+    {
+        this.channel = channel;
+        this.executor = executor;
+    }
+
+    /** {@inheritDoc} */
+    public int write( ByteBuffer src )
+        throws IOException
+    {
+        if ( !open )
+        {
+            throw new ClosedChannelException();
+        }
+
+        int count = src.remaining();
+        while ( src.hasRemaining() )
+        {
+            if ( current == null )
+            {
+                current = takeFree();
+            }
+
+            if ( src.remaining() <= current.remaining() )
+            {
+                current.put( src );
+            }
+            else
+            {
+                ByteBuffer part = src.duplicate();
+                part.limit( part.position() + current.remaining() );
+                current.put( part );
+                src.position( part.position() );
+            }
+
+            if ( !current.hasRemaining() )
+            {
+                submit();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Waits until all the bytes written before are written to the underlying channel.
+     *
+     * @throws IOException if a task failed to write, or if the thread is interrupted.
+     */
+    public void flush()
+        throws IOException
+    {
+        if ( current != null && current.position() > 0 )
+        {
+            submit();
+        }
+
+        awaitInFlight( 0 );
+    }
+
+    /** {@inheritDoc} */
+    public boolean isOpen()
+    {
+        return open;
+    }
+
+    /** {@inheritDoc} */
+    public void close()
+        throws IOException
+    {
+        if ( !open )
+        {
+            return;
+        }
+
+        open = false;
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    private ByteBuffer takeFree()
+        throws IOException
+    {
+        // back-pressure
+        awaitInFlight( MAX_PENDING_CHUNKS - 1 );
+
+        synchronized ( lock )
+        {
+            ByteBuffer chunk = free.poll();
+            return ( chunk == null ) ? ByteBuffer.allocate( CHUNK_SIZE ) : chunk;
+        }
+    }
+
+    /**
+     * Waits until at most the given number of chunks wait or are being written. If the task to write them has not
+     * started yet, the chunks are written by the current thread instead.
+     *
+     * @param max the number of chunks which may still wait.
+     * @throws IOException if a task failed to write, or if the thread is interrupted.
+     */
+    private void awaitInFlight( int max )
+        throws IOException
+    {
+        while ( true )
+        {
+            synchronized ( lock )
+            {
+                while ( inFlight > max && state != SCHEDULED )
+                {
+                    await();
+                }
+
+                if ( inFlight <= max )
+                {
+                    throwFailure();
+                    return;
+                }
+
+                state = RUNNING;
+            }
+
+            drainPending();
+        }
+    }
+
+    private void submit()
+    {
+        current.flip();
+
+        boolean schedule;
+        synchronized ( lock )
+        {
+            pending.add( current );
+            inFlight++;
+            schedule = state == IDLE;
+            if ( schedule )
+            {
+                state = SCHEDULED;
+            }
+        }
+        current = null;
+
+        if ( schedule )
+        {
+            try
+            {
+                executor.execute( drainTask );
+            }
+            catch ( RejectedExecutionException e )
+            {
+                // the executor is shut down: write on the calling thread
+                drainTask.run();
+            }
+        }
+    }
+
+    /**
+     * Writes the pending chunks until there are none, once the current thread has set the state to running.
+     */
+    private void drainPending()
+    {
+        while ( true )
+        {
+            ByteBuffer chunk;
+            boolean failed;
+            synchronized ( lock )
+            {
+                chunk = pending.poll();
+                if ( chunk == null )
+                {
+                    state = IDLE;
+                    return;
+                }
+                failed = failure != null;
+            }
+
+            IOException error = null;
+            try
+            {
+                while ( !failed && chunk.hasRemaining() )
+                {
+                    channel.write( chunk );
+                }
+            }
+            catch ( IOException e )
+            {
+                error = e;
+            }
+            catch ( RuntimeException e )
+            {
+                error = new IOException( e );
+            }
+
+            synchronized ( lock )
+            {
+                if ( failure == null )
+                {
+                    failure = error;
+                }
+                chunk.clear();
+                free.add( chunk );
+                inFlight--;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void await()
+        throws InterruptedIOException
+    {
+        try
+        {
+            lock.wait();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while writing behind" );
+        }
+    }
+
+    private void throwFailure()
+        throws IOException
+    {
+        if ( failure != null )
+        {
+            throw failure;
+        }
+    }
+}
@@ -19,13 +19,24 @@ package org.apache.maven.doxia.sink.impl;
  * under the License.
  */
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -37,8 +48,10 @@ import org.apache.maven.doxia.markup.HtmlMarkup;
 import org.apache.maven.doxia.markup.Markup;
 import org.apache.maven.doxia.sink.SinkEventAttributes;
 import org.apache.maven.doxia.util.DoxiaUtils;
+import org.apache.maven.doxia.util.EscapingWriter;
 import org.apache.maven.doxia.util.HtmlTools;
 
+import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.StringUtils;
 import org.codehaus.plexus.util.xml.PrettyPrintXMLWriter;
 
@@ -54,6 +67,31 @@ public class XhtmlBaseSink
     extends AbstractXmlSink
     implements HtmlMarkup
 {
+    /** The number of buffered characters after which a table is streamed or spilled, see {@link #tableRow_()}. */
+    private static final int TABLE_BUFFER_SIZE = 16 * 1024;
+
+    /** The attributes of the div around a boxed verbatim. */
+    private static final SinkEventAttributeSet BOXED_VERBATIM =
+        new SinkEventAttributeSet( new String[] {SinkEventAttributes.CLASS, "source"} ).unmodifiable();
+
+    /** The attributes of a table given no attributes. */
+    private static final SinkEventAttributeSet BODY_TABLE =
+        new SinkEventAttributeSet( new String[] {"border", "0", SinkEventAttributes.CLASS, "bodyTable"} )
+            .unmodifiable();
+
+    /** The attributes of a table with a grid given no attributes. */
+    private static final SinkEventAttributeSet GRID_TABLE =
+        new SinkEventAttributeSet( new String[] {"border", "1", SinkEventAttributes.CLASS, "bodyTable"} )
+            .unmodifiable();
+
+    /** The attributes of an even table row given no attributes. */
+    private static final SinkEventAttributeSet EVEN_ROW =
+        new SinkEventAttributeSet( new String[] {SinkEventAttributes.CLASS, "a"} ).unmodifiable();
+
+    /** The attributes of an odd table row given no attributes. */
+    private static final SinkEventAttributeSet ODD_ROW =
+        new SinkEventAttributeSet( new String[] {SinkEventAttributes.CLASS, "b"} ).unmodifiable();
+
     // ----------------------------------------------------------------------
     // Instance fields
     // ----------------------------------------------------------------------
@@ -61,8 +99,20 @@ public class XhtmlBaseSink
     /** The PrintWriter to write the result. */
     private final PrintWriter writer;
 
+    /** Escapes the text into {@link #writer}, or into the innermost table buffer. */
+    private final EscapingWriter escapingWriter;
+
     /** Used to collect text events mainly for the head events. */
-    private StringBuffer textBuffer = new StringBuffer();
+    private final StringBuffer textBuffer = new StringBuffer();
+
+    /** Used to copy the character sequences given to {@link #text(CharSequence)}. */
+    private char[] charBuffer = new char[64];
+
+    /** True if a subclass overrides text(String), which then has to see all the text events. */
+    private final boolean textOverridden;
+
+    /** True if a subclass overrides write(String), which then has to see all the escaped text. */
+    private final boolean writeOverridden;
 
     /** An indication on if we're inside a head. */
     private boolean headFlag;
@@ -76,27 +126,39 @@ public class XhtmlBaseSink
     /** An indication on if we're in verbatim mode. */
     private boolean verbatimFlag;
 
-    /** Stack of alignment int[] of table cells. */
-    private final LinkedList<int[]> cellJustifStack;
+    /** Stack of alignment int[] of table cells, one per nested table rows. */
+    private int[][] cellJustifStack = new int[4][];
+
+    /** The number of elements in {@link #cellJustifStack}. */
+    private int cellJustifDepth;
 
-    /** Stack of justification of table cells. */
-    private final LinkedList<Boolean> isCellJustifStack;
+    /** Stack of current table cell, one per nested table. */
+    private int[] cellCountStack = new int[4];
 
-    /** Stack of current table cell. */
-    private final LinkedList<Integer> cellCountStack;
+    /** The number of elements in {@link #cellCountStack}. */
+    private int cellCountDepth;
 
     /** Used to style successive table rows differently. */
     private boolean evenTableRow = true;
 
-    /** The stack of StringWriter to write the table result temporary, so we could play with the output DOXIA-177. */
-    private final LinkedList<StringWriter> tableContentWriterStack;
+    /** The stack of tables being written, their content is buffered so we could play with the output DOXIA-177. */
+    private final ArrayList<TableContent> tableContentStack;
 
     private final LinkedList<StringWriter> tableCaptionWriterStack;
 
     private final LinkedList<PrettyPrintXMLWriter> tableCaptionXMLWriterStack;
 
-    /** The stack of table caption */
-    private final LinkedList<String> tableCaptionStack;
+    /** The last element of {@link #tableCaptionXMLWriterStack}, or null: the current target of {@link #write}. */
+    private PrettyPrintXMLWriter captionXMLWriter;
+
+    /** The buffer of the innermost buffered or spilled table, or null: the current target of {@link #write}. */
+    private PrintWriter tableContentWriter;
+
+    /** The buffer of the last table written from memory, reused by the next table. */
+    private TableContent idleTableContent;
+
+    /** Copies the buffered tables to their target. */
+    private final char[] copyBuffer = new char[1024];
 
     /** used to store attributes passed to table(). */
     protected MutableAttributeSet tableAttributes;
@@ -141,18 +203,59 @@ public class XhtmlBaseSink
     public XhtmlBaseSink( Writer out )
     {
         this.writer = new PrintWriter( out );
+        this.escapingWriter = new EscapingWriter( new WriteTarget(), false, EOL );
 
-        this.cellJustifStack = new LinkedList<int[]>();
-        this.isCellJustifStack = new LinkedList<Boolean>();
-        this.cellCountStack = new LinkedList<Integer>();
-        this.tableContentWriterStack = new LinkedList<StringWriter>();
+        this.tableContentStack = new ArrayList<TableContent>();
         this.tableCaptionWriterStack = new LinkedList<StringWriter>();
         this.tableCaptionXMLWriterStack = new LinkedList<PrettyPrintXMLWriter>();
-        this.tableCaptionStack = new LinkedList<String>();
+
+        this.textOverridden = overridesText( getClass() );
+        this.writeOverridden = overridesWrite( getClass() );
 
         init();
     }
 
+    /**
+     * Tells if the given sink class overrides {@link #text(String)}.
+     *
+     * @param sinkClass a subclass of XhtmlBaseSink.
+     * @return true if <code>text(String)</code> is not the one of XhtmlBaseSink.
+     */
+    private static boolean overridesText( Class<?> sinkClass )
+    {
+        try
+        {
+            return sinkClass.getMethod( "text", String.class ).getDeclaringClass() != XhtmlBaseSink.class;
+        }
+        catch ( NoSuchMethodException e )
+        {
+            return true;
+        }
+    }
+
+    /**
+     * Tells if the given sink class overrides {@link #write(String)}.
+     *
+     * @param sinkClass a subclass of XhtmlBaseSink.
+     * @return true if <code>write(String)</code> is not the one of XhtmlBaseSink.
+     */
+    private static boolean overridesWrite( Class<?> sinkClass )
+    {
+        for ( Class<?> c = sinkClass; c != XhtmlBaseSink.class; c = c.getSuperclass() )
+        {
+            try
+            {
+                c.getDeclaredMethod( "write", String.class );
+                return true;
+            }
+            catch ( NoSuchMethodException e )
+            {
+                // not in this class
+            }
+        }
+        return false;
+    }
+
     // ----------------------------------------------------------------------
     // Accessor methods
     // ----------------------------------------------------------------------
@@ -214,8 +317,12 @@ public class XhtmlBaseSink
      */
     protected void setCellJustif( int[] justif )
     {
-        this.cellJustifStack.addLast( justif );
-        this.isCellJustifStack.addLast( Boolean.TRUE );
+        if ( cellJustifDepth == cellJustifStack.length )
+        {
+            cellJustifStack = Arrays.copyOf( cellJustifStack, 2 * cellJustifDepth );
+        }
+
+        cellJustifStack[cellJustifDepth++] = justif;
     }
 
     /**
@@ -225,7 +332,12 @@ public class XhtmlBaseSink
      */
     protected int[] getCellJustif()
     {
-        return this.cellJustifStack.getLast();
+        if ( cellJustifDepth == 0 )
+        {
+            throw new NoSuchElementException();
+        }
+
+        return cellJustifStack[cellJustifDepth - 1];
     }
 
     /**
@@ -235,7 +347,12 @@ public class XhtmlBaseSink
      */
     protected void setCellCount( int count )
     {
-        this.cellCountStack.addLast( count );
+        if ( cellCountDepth == cellCountStack.length )
+        {
+            cellCountStack = Arrays.copyOf( cellCountStack, 2 * cellCountDepth );
+        }
+
+        cellCountStack[cellCountDepth++] = count;
     }
 
     /**
@@ -245,7 +362,12 @@ public class XhtmlBaseSink
      */
     protected int getCellCount()
     {
-        return Integer.parseInt( this.cellCountStack.getLast().toString() );
+        if ( cellCountDepth == 0 )
+        {
+            throw new NoSuchElementException();
+        }
+
+        return cellCountStack[cellCountDepth - 1];
     }
 
     /**
@@ -266,13 +388,17 @@ public class XhtmlBaseSink
 
         resetTextBuffer();
 
-        this.cellJustifStack.clear();
-        this.isCellJustifStack.clear();
-        this.cellCountStack.clear();
-        this.tableContentWriterStack.clear();
+        Arrays.fill( this.cellJustifStack, 0, this.cellJustifDepth, null );
+        this.cellJustifDepth = 0;
+        this.cellCountDepth = 0;
+        for ( TableContent table : this.tableContentStack )
+        {
+            table.discard();
+        }
+        this.tableContentStack.clear();
         this.tableCaptionWriterStack.clear();
         this.tableCaptionXMLWriterStack.clear();
-        this.tableCaptionStack.clear();
+        updateWriteTarget();
 
         this.headFlag = false;
         this.figureCaptionFlag = false;
@@ -293,7 +419,7 @@ public class XhtmlBaseSink
      */
     protected void resetTextBuffer()
     {
-        this.textBuffer = new StringBuffer();
+        this.textBuffer.setLength( 0 );
     }
 
     // ----------------------------------------------------------------------
@@ -1110,29 +1236,17 @@ public class XhtmlBaseSink
         MutableAttributeSet atts = SinkUtils.filterAttributes(
                 attributes, SinkUtils.SINK_VERBATIM_ATTRIBUTES  );
 
-        if ( atts == null )
-        {
-            atts = new SinkEventAttributeSet();
-        }
-
         boolean boxed = false;
 
-        if ( atts.isDefined( SinkEventAttributes.DECORATION ) )
+        if ( atts != null && atts.isDefined( SinkEventAttributes.DECORATION ) )
         {
             boxed =
                 "boxed".equals( atts.getAttribute( SinkEventAttributes.DECORATION ).toString() );
-        }
-
-        SinkEventAttributes divAtts = null;
 
-        if ( boxed )
-        {
-            divAtts = new SinkEventAttributeSet( new String[] { Attribute.CLASS.toString(), "source" } );
+            atts.removeAttribute( SinkEventAttributes.DECORATION );
         }
 
-        atts.removeAttribute( SinkEventAttributes.DECORATION );
-
-        writeStartTag( HtmlMarkup.DIV, divAtts );
+        writeStartTag( HtmlMarkup.DIV, boxed ? BOXED_VERBATIM : null );
         writeStartTag( HtmlMarkup.PRE, atts );
     }
 
@@ -1186,7 +1300,15 @@ public class XhtmlBaseSink
     @Override
     public void table( SinkEventAttributes attributes )
     {
-        this.tableContentWriterStack.addLast( new StringWriter() );
+        TableContent table = this.idleTableContent;
+        if ( table == null )
+        {
+            table = new TableContent();
+        }
+        this.idleTableContent = null;
+
+        this.tableContentStack.add( table );
+        updateWriteTarget();
         this.tableRows = false;
 
         if ( paragraphFlag )
@@ -1200,7 +1322,7 @@ public class XhtmlBaseSink
         // start table with tableRows
         if ( attributes == null )
         {
-            this.tableAttributes = new SinkEventAttributeSet( 0 );
+            this.tableAttributes = null;
         }
         else
         {
@@ -1220,12 +1342,12 @@ public class XhtmlBaseSink
 
         writeEndTag( HtmlMarkup.TABLE );
 
-        if ( !this.cellCountStack.isEmpty() )
+        if ( this.cellCountDepth > 0 )
         {
-            this.cellCountStack.removeLast().toString();
+            this.cellCountDepth--;
         }
 
-        if ( this.tableContentWriterStack.isEmpty() )
+        if ( this.tableContentStack.isEmpty() )
         {
             if ( getLog().isWarnEnabled() )
             {
@@ -1234,27 +1356,185 @@ public class XhtmlBaseSink
             return;
         }
 
-        String tableContent = this.tableContentWriterStack.removeLast().toString();
+        TableContent table = this.tableContentStack.remove( this.tableContentStack.size() - 1 );
+        updateWriteTarget();
 
-        String tableCaption = null;
-        if ( !this.tableCaptionStack.isEmpty() && this.tableCaptionStack.getLast() != null )
+        if ( table.buffer != null )
         {
-            tableCaption = this.tableCaptionStack.removeLast().toString();
+            writeTableContent( table.buffer.getBuffer(), table.caption );
+
+            if ( table.recycle() )
+            {
+                this.idleTableContent = table;
+            }
+        }
+        else if ( table.spillFile != null )
+        {
+            writeSpilledTable( table, null );
         }
+    }
+
+    /**
+     * Writes the buffered content of a table to the current target, with its caption after the table start tag.
+     *
+     * @param tableContent the buffered content of a table.
+     * @param tableCaption the caption of the table, may be null.
+     */
+    private void writeTableContent( StringBuffer tableContent, String tableCaption )
+    {
+        int insertionPoint = 0;
 
         if ( tableCaption != null )
         {
             // DOXIA-177
-            StringBuilder sb = new StringBuilder();
-            sb.append( tableContent.substring( 0, tableContent.indexOf( Markup.GREATER_THAN ) + 1 ) );
-            sb.append( tableCaption );
-            sb.append( tableContent.substring( tableContent.indexOf( Markup.GREATER_THAN ) + 1 ) );
+            while ( insertionPoint < tableContent.length()
+                && tableContent.charAt( insertionPoint++ ) != Markup.GREATER_THAN )
+            {
+                // look for the end of the table start tag
+            }
 
-            write( sb.toString() );
+            copyContent( tableContent, 0, insertionPoint );
+            write( tableCaption );
         }
-        else
+
+        copyContent( tableContent, insertionPoint, tableContent.length() );
+    }
+
+    /**
+     * Copies buffered content, which already went through {@link #write(String)}, as is to the current target.
+     *
+     * @param content the buffered content.
+     * @param start the index of the first character to copy.
+     * @param end the index after the last character to copy.
+     */
+    private void copyContent( StringBuffer content, int start, int end )
+    {
+        if ( this.captionXMLWriter != null )
+        {
+            write( content.substring( start, end ) );
+            return;
+        }
+
+        Writer target = ( this.tableContentWriter != null ) ? this.tableContentWriter : this.writer;
+        for ( int i = start; i < end; i += copyBuffer.length )
+        {
+            int n = Math.min( copyBuffer.length, end - i );
+            content.getChars( i, i + n, copyBuffer, 0 );
+            try
+            {
+                target.write( copyBuffer, 0, n );
+            }
+            catch ( IOException e )
+            {
+                // PrintWriters do not throw
+                throw new IllegalStateException( e );
+            }
+        }
+    }
+
+    /**
+     * Moves the current table out of memory once its buffered content is large. If its caption already arrived, the
+     * table is written and its following content streamed. Otherwise the caption may still come after the rows,
+     * so the content after the table start tag is spilled to a temporary file until the caption or the end of the
+     * table.
+     */
+    private void streamTableContent()
+    {
+        if ( this.tableContentStack.isEmpty() || this.captionXMLWriter != null )
+        {
+            return;
+        }
+
+        TableContent table = this.tableContentStack.get( this.tableContentStack.size() - 1 );
+
+        if ( table.buffer == null || table.inMemory || table.buffer.getBuffer().length() < TABLE_BUFFER_SIZE )
+        {
+            return;
+        }
+
+        if ( table.caption != null )
         {
-            write( tableContent );
+            StringBuffer tableContent = table.buffer.getBuffer();
+            table.buffer = null;
+            table.out = null;
+            updateWriteTarget();
+
+            writeTableContent( tableContent, table.caption );
+            table.caption = null;
+            return;
+        }
+
+        String tableContent = table.buffer.toString();
+        int insertionPoint = tableContent.indexOf( Markup.GREATER_THAN ) + 1;
+        try
+        {
+            table.spillFile = File.createTempFile( "doxia-table", ".tmp" );
+            table.out = new PrintWriter( new BufferedWriter(
+                new OutputStreamWriter( new FileOutputStream( table.spillFile ), "UTF-8" ) ) );
+        }
+        catch ( IOException e )
+        {
+            getLog().debug( "Keeping the table in memory, could not spill it: " + e.getMessage() );
+            table.spillFile = null;
+            table.inMemory = true;
+            return;
+        }
+
+        table.out.write( tableContent, insertionPoint, tableContent.length() - insertionPoint );
+        table.startTag = tableContent.substring( 0, insertionPoint );
+        table.buffer = null;
+        updateWriteTarget();
+    }
+
+    /**
+     * Writes a spilled table to the current target, with its caption after the table start tag, and streams its
+     * following content. The spilled content already went through {@link #write(String)}, so it is copied as is.
+     *
+     * @param table the spilled table, not null.
+     * @param tableCaption the caption of the table, may be null.
+     * @throws IllegalStateException if the table could not be written to or read back from its temporary file.
+     */
+    private void writeSpilledTable( TableContent table, String tableCaption )
+    {
+        table.out.close();
+        boolean spillFailed = table.out.checkError();
+        table.out = null;
+        updateWriteTarget();
+
+        if ( spillFailed )
+        {
+            String spillFile = table.spillFile.getPath();
+            table.discard();
+            throw new IllegalStateException( "Could not spill the table to " + spillFile );
+        }
+
+        write( table.startTag );
+        if ( tableCaption != null )
+        {
+            write( tableCaption );
+        }
+
+        Reader reader = null;
+        try
+        {
+            reader = new InputStreamReader( new FileInputStream( table.spillFile ), "UTF-8" );
+            if ( this.captionXMLWriter != null )
+            {
+                write( IOUtil.toString( reader ) );
+            }
+            else
+            {
+                IOUtil.copy( reader, ( this.tableContentWriter != null ) ? this.tableContentWriter : this.writer );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( "Could not read back the spilled table: " + e.getMessage(), e );
+        }
+        finally
+        {
+            IOUtil.close( reader );
+            table.discard();
         }
     }
 
@@ -1272,9 +1552,12 @@ public class XhtmlBaseSink
 
         setCellJustif( justification );
 
-        if ( this.tableAttributes == null )
+        if ( this.tableAttributes == null || this.tableAttributes.getAttributeCount() == 0 )
         {
-            this.tableAttributes = new SinkEventAttributeSet( 0 );
+            writeStartTag( HtmlMarkup.TABLE, grid ? GRID_TABLE : BODY_TABLE );
+
+            setCellCount( 0 );
+            return;
         }
 
         MutableAttributeSet att = new SinkEventAttributeSet();
@@ -1293,7 +1576,7 @@ public class XhtmlBaseSink
 
         writeStartTag( HtmlMarkup.TABLE, att );
 
-        this.cellCountStack.addLast( Integer.valueOf( 0 ) );
+        setCellCount( 0 );
     }
 
     /** {@inheritDoc} */
@@ -1301,13 +1584,9 @@ public class XhtmlBaseSink
     public void tableRows_()
     {
         this.tableRows = false;
-        if ( !this.cellJustifStack.isEmpty() )
+        if ( this.cellJustifDepth > 0 )
         {
-            this.cellJustifStack.removeLast();
-        }
-        if ( !this.isCellJustifStack.isEmpty() )
-        {
-            this.isCellJustifStack.removeLast();
+            this.cellJustifStack[--this.cellJustifDepth] = null;
         }
 
         this.evenTableRow = true;
@@ -1339,32 +1618,36 @@ public class XhtmlBaseSink
     @Override
     public void tableRow( SinkEventAttributes attributes )
     {
-        MutableAttributeSet att = new SinkEventAttributeSet();
+        MutableAttributeSet att;
 
-        if ( evenTableRow )
+        if ( attributes == null )
         {
-            att.addAttribute( Attribute.CLASS, "a" );
+            att = evenTableRow ? EVEN_ROW : ODD_ROW;
         }
         else
         {
-            att.addAttribute( Attribute.CLASS, "b" );
+            att = new SinkEventAttributeSet();
+            att.addAttributes( evenTableRow ? EVEN_ROW : ODD_ROW );
+            att.addAttributes( SinkUtils.filterAttributes(
+                    attributes, SinkUtils.SINK_TR_ATTRIBUTES  ) );
         }
 
-        att.addAttributes( SinkUtils.filterAttributes(
-                attributes, SinkUtils.SINK_TR_ATTRIBUTES  ) );
-
         writeStartTag( HtmlMarkup.TR, att );
 
         evenTableRow = !evenTableRow;
 
-        if ( !this.cellCountStack.isEmpty() )
+        if ( this.cellCountDepth > 0 )
         {
-            this.cellCountStack.removeLast();
-            this.cellCountStack.addLast( Integer.valueOf( 0 ) );
+            this.cellCountStack[this.cellCountDepth - 1] = 0;
         }
     }
 
     /**
+     * A table is buffered until its caption, which may come after the rows, is inserted after the table start tag.
+     * Once the buffered content of the table reaches 16K characters, it is written and the following rows are
+     * streamed if its caption already arrived. Otherwise, the content is spilled to a temporary file until the
+     * caption or the end of the table, so that the caption is always the first child of the table.
+     *
      * {@inheritDoc}
      * @see javax.swing.text.html.HTML.Tag#TR
      */
@@ -1372,6 +1655,8 @@ public class XhtmlBaseSink
     public void tableRow_()
     {
         writeEndTag( HtmlMarkup.TR );
+
+        streamTableContent();
     }
 
     /** {@inheritDoc} */
@@ -1470,11 +1755,9 @@ public class XhtmlBaseSink
 
         writeEndTag( t );
 
-        if ( !this.isCellJustifStack.isEmpty() && this.isCellJustifStack.getLast().equals( Boolean.TRUE )
-            && !this.cellCountStack.isEmpty() )
+        if ( this.cellJustifDepth > 0 && this.cellCountDepth > 0 )
         {
-            int cellCount = Integer.parseInt( this.cellCountStack.removeLast().toString() );
-            this.cellCountStack.addLast( Integer.valueOf( ++cellCount ) );
+            this.cellCountStack[this.cellCountDepth - 1]++;
         }
     }
 
@@ -1498,6 +1781,7 @@ public class XhtmlBaseSink
         StringWriter sw = new StringWriter();
         this.tableCaptionWriterStack.addLast( sw );
         this.tableCaptionXMLWriterStack.addLast( new PrettyPrintXMLWriter( sw ) );
+        updateWriteTarget();
 
         // TODO: tableCaption should be written before tableRows (DOXIA-177)
         MutableAttributeSet atts = SinkUtils.filterAttributes(
@@ -1517,8 +1801,28 @@ public class XhtmlBaseSink
 
         if ( !this.tableCaptionXMLWriterStack.isEmpty() && this.tableCaptionXMLWriterStack.getLast() != null )
         {
-            this.tableCaptionStack.addLast( this.tableCaptionWriterStack.removeLast().toString() );
+            String caption = this.tableCaptionWriterStack.removeLast().toString();
             this.tableCaptionXMLWriterStack.removeLast();
+            updateWriteTarget();
+
+            TableContent table = this.tableContentStack.isEmpty()
+                ? null : this.tableContentStack.get( this.tableContentStack.size() - 1 );
+
+            if ( table != null && table.buffer != null )
+            {
+                // inserted after the table start tag by table_()
+                table.caption = ( table.caption == null ) ? caption : table.caption + caption;
+            }
+            else if ( table != null && table.spillFile != null )
+            {
+                // now the rest of the table can be streamed
+                writeSpilledTable( table, caption );
+            }
+            else
+            {
+                // the table is streamed after an earlier caption
+                write( caption );
+            }
         }
     }
 
@@ -1861,6 +2165,58 @@ public class XhtmlBaseSink
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Outside of table captions, the text is escaped straight from the characters into the output.
+     * If a subclass overrides {@link #text(String)}, the text is given to it as a String instead, and if it
+     * overrides {@link #write(String)}, the escaped text is given to it.
+     */
+    @Override
+    public void text( char[] text, int offset, int length )
+    {
+        if ( textOverridden )
+        {
+            text( new String( text, offset, length ) );
+        }
+        else if ( headFlag )
+        {
+            getTextBuffer().append( text, offset, length );
+        }
+        else if ( isWritingToWriter() )
+        {
+            escapingWriter.setKeepCharacterReferences( !verbatimFlag );
+            escapingWriter.write( text, offset, length );
+        }
+        else
+        {
+            text( new String( text, offset, length ) );
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void text( CharSequence text )
+    {
+        if ( text == null || textOverridden || text instanceof String )
+        {
+            text( text == null ? null : text.toString() );
+            return;
+        }
+
+        int length = text.length();
+        if ( charBuffer.length < length )
+        {
+            charBuffer = new char[Math.max( length, 2 * charBuffer.length )];
+        }
+        for ( int i = 0; i < length; i++ )
+        {
+            charBuffer[i] = text.charAt( i );
+        }
+
+        text( charBuffer, 0, length );
+    }
+
     /** {@inheritDoc} */
     @Override
     public void rawText( String text )
@@ -2006,6 +2362,11 @@ public class XhtmlBaseSink
 
     private SinkEventAttributes escapeAttributeValues( SinkEventAttributes attributes )
     {
+        if ( !needsEscaping( attributes ) )
+        {
+            return attributes;
+        }
+
         SinkEventAttributeSet set = new SinkEventAttributeSet( attributes.getAttributeCount() );
 
         Enumeration<?> names = attributes.getAttributeNames();
@@ -2020,6 +2381,39 @@ public class XhtmlBaseSink
         return set;
     }
 
+    /**
+     * Tells if some attribute value is changed by {@link #escapeHTML(String)}.
+     *
+     * @param attributes the attributes, not null.
+     * @return false if all the values are Strings without any character to escape.
+     */
+    private static boolean needsEscaping( SinkEventAttributes attributes )
+    {
+        Enumeration<?> names = attributes.getAttributeNames();
+
+        while ( names.hasMoreElements() )
+        {
+            Object value = attributes.getAttribute( names.nextElement() );
+
+            if ( !( value instanceof String ) )
+            {
+                return true;
+            }
+
+            String text = (String) value;
+            for ( int i = 0, n = text.length(); i < n; i++ )
+            {
+                char c = text.charAt( i );
+                if ( c == '<' || c == '>' || c == '&' || c == '\"' || c > '~' )
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void flush()
@@ -2054,12 +2448,23 @@ public class XhtmlBaseSink
     // ----------------------------------------------------------------------
 
     /**
-     * Write HTML escaped text to output.
+     * Write HTML escaped text to output, through {@link #write(String)} if a subclass overrides it.
      *
      * @param text The text to write.
      */
     protected void content( String text )
     {
+        if ( isWritingToWriter() )
+        {
+            if ( text != null )
+            {
+                // small hack due to DOXIA-314
+                escapingWriter.setKeepCharacterReferences( true );
+                escapingWriter.write( text );
+            }
+            return;
+        }
+
         // small hack due to DOXIA-314
         String txt = escapeHTML( text );
         txt = StringUtils.replace( txt, "&amp;#", "&#" );
@@ -2067,15 +2472,58 @@ public class XhtmlBaseSink
     }
 
     /**
-     * Write HTML escaped text to output.
+     * Write HTML escaped text to output, through {@link #write(String)} if a subclass overrides it.
      *
      * @param text The text to write.
      */
     protected void verbatimContent( String text )
     {
+        if ( isWritingToWriter() )
+        {
+            if ( text != null )
+            {
+                escapingWriter.setKeepCharacterReferences( false );
+                escapingWriter.write( text );
+            }
+            return;
+        }
+
         write( escapeHTML( text ) );
     }
 
+    /**
+     * Tells if the output currently goes to the writer of this sink or to a table buffer rather than to a table
+     * caption, see {@link #write(String)}, and if it is the <code>write(String)</code> of this class.
+     *
+     * @return true if the text can be escaped straight into the writer or the table buffer.
+     */
+    private boolean isWritingToWriter()
+    {
+        return this.captionXMLWriter == null && !writeOverridden;
+    }
+
+    /**
+     * Caches the current target of {@link #write(String)}, to be called whenever a table content or caption writer is
+     * pushed or popped.
+     */
+    private void updateWriteTarget()
+    {
+        this.captionXMLWriter =
+            this.tableCaptionXMLWriterStack.isEmpty() ? null : this.tableCaptionXMLWriterStack.getLast();
+        this.tableContentWriter = null;
+
+        for ( int i = this.tableContentStack.size() - 1; i >= 0; i-- )
+        {
+            PrintWriter out = this.tableContentStack.get( i ).out;
+
+            if ( out != null )
+            {
+                this.tableContentWriter = out;
+                break;
+            }
+        }
+    }
+
     /**
      * Forward to HtmlTools.escapeHTML( text ).
      *
@@ -2103,13 +2551,13 @@ public class XhtmlBaseSink
     /** {@inheritDoc} */
     protected void write( String text )
     {
-        if ( !this.tableCaptionXMLWriterStack.isEmpty() && this.tableCaptionXMLWriterStack.getLast() != null )
+        if ( this.captionXMLWriter != null )
         {
-            this.tableCaptionXMLWriterStack.getLast().writeText( unifyEOLs( text ) );
+            this.captionXMLWriter.writeText( unifyEOLs( text ) );
         }
-        else if ( !this.tableContentWriterStack.isEmpty() && this.tableContentWriterStack.getLast() != null )
+        else if ( this.tableContentWriter != null )
         {
-            this.tableContentWriterStack.getLast().write( unifyEOLs( text ) );
+            this.tableContentWriter.write( unifyEOLs( text ) );
         }
         else
         {
@@ -2121,14 +2569,14 @@ public class XhtmlBaseSink
     @Override
     protected void writeStartTag( Tag t, MutableAttributeSet att, boolean isSimpleTag )
     {
-        if ( this.tableCaptionXMLWriterStack.isEmpty() )
+        if ( this.captionXMLWriter == null )
         {
             super.writeStartTag ( t, att, isSimpleTag );
         }
         else
         {
             String tag = ( getNameSpace() != null ? getNameSpace() + ":" : "" ) + t.toString();
-            this.tableCaptionXMLWriterStack.getLast().startElement( tag );
+            this.captionXMLWriter.startElement( tag );
 
             if ( att != null )
             {
@@ -2138,13 +2586,13 @@ public class XhtmlBaseSink
                     Object key = names.nextElement();
                     Object value = att.getAttribute( key );
 
-                    this.tableCaptionXMLWriterStack.getLast().addAttribute( key.toString(), value.toString() );
+                    this.captionXMLWriter.addAttribute( key.toString(), value.toString() );
                 }
             }
 
             if ( isSimpleTag )
             {
-                this.tableCaptionXMLWriterStack.getLast().endElement();
+                this.captionXMLWriter.endElement();
             }
         }
     }
@@ -2153,13 +2601,13 @@ public class XhtmlBaseSink
     @Override
     protected void writeEndTag( Tag t )
     {
-        if ( this.tableCaptionXMLWriterStack.isEmpty() )
+        if ( this.captionXMLWriter == null )
         {
             super.writeEndTag( t );
         }
         else
         {
-            this.tableCaptionXMLWriterStack.getLast().endElement();
+            this.captionXMLWriter.endElement();
         }
     }
 
@@ -2194,4 +2642,102 @@ public class XhtmlBaseSink
         set.add( mesg );
         warnMessages.put( key, set );
     }
+
+    /**
+     * Forwards to the current target of {@link #write(String)}, unless it is a table caption.
+     */
+    private class WriteTarget
+        extends Writer
+    {
+        /** {@inheritDoc} */
+        @Override
+        public void write( char[] cbuf, int off, int len )
+        {
+            ( ( tableContentWriter != null ) ? tableContentWriter : writer ).write( cbuf, off, len );
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void write( String str, int off, int len )
+        {
+            ( ( tableContentWriter != null ) ? tableContentWriter : writer ).write( str, off, len );
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void flush()
+        {
+            writer.flush();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close()
+        {
+            writer.close();
+        }
+    }
+
+    /**
+     * A table being written.
+     */
+    private static class TableContent
+    {
+        /** The content of the table so far, null once the table is spilled or streamed to the enclosing target. */
+        private StringWriter buffer = new StringWriter();
+
+        /** The target of the content of the table, null once the table is streamed to the enclosing target. */
+        private PrintWriter out = new PrintWriter( buffer );
+
+        /** The caption to insert after the table start tag, null if none arrived. */
+        private String caption;
+
+        /** The temporary file holding the content after the table start tag, null if the table is not spilled. */
+        private File spillFile;
+
+        /** The table start tag, kept while the rest of the content is spilled. */
+        private String startTag;
+
+        /** Whether the table could not be spilled, and stays buffered until its end. */
+        private boolean inMemory;
+
+        /**
+         * Empties a table written from memory, to buffer the next table.
+         *
+         * @return false if the buffer grew too large to be kept.
+         */
+        boolean recycle()
+        {
+            StringBuffer content = buffer.getBuffer();
+            if ( content.capacity() > TABLE_BUFFER_SIZE )
+            {
+                return false;
+            }
+
+            content.setLength( 0 );
+            caption = null;
+            inMemory = false;
+            return true;
+        }
+
+        /**
+         * Releases the temporary file of a spilled table.
+         */
+        void discard()
+        {
+            if ( spillFile != null )
+            {
+                if ( out != null )
+                {
+                    out.close();
+                    out = null;
+                }
+                if ( !spillFile.delete() )
+                {
+                    spillFile.deleteOnExit();
+                }
+                spillFile = null;
+            }
+        }
+    }
 }
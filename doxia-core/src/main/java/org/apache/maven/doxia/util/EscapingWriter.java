@@ -0,0 +1,281 @@
+package org.apache.maven.doxia.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * A writer which escapes the text written through it like {@link HtmlTools#escapeHTML(String, boolean)}, and
+ * optionally normalizes its line terminators like a sink, in a single pass. Runs of characters which need no
+ * escaping are written as they are to the underlying writer, so a text without any special character costs a
+ * single write and no copy.
+ * <p>
+ * Each write is escaped on its own, like a text given to <code>escapeHTML()</code>: a <code>\r\n</code> or a
+ * surrogate pair split over two writes is not recognized. As with {@link PrintWriter}, errors are not thrown but
+ * reported by {@link #checkError()}. Subclasses may escape more characters, see {@link #isSpecial(char)} and
+ * {@link #escape(char[], int, int)}. This class is not thread-safe.
+ * </p>
+ *
+ * @since 1.8
+ */
+public class EscapingWriter
+    extends PrintWriter
+{
+    /** The last character which is not escaped in HTML mode. */
+    private static final int ASCII = 0x7E;
+
+    private final boolean xmlMode;
+
+    private final String eol;
+
+    private final boolean[] special = new boolean[ASCII + 1];
+
+    private boolean keepCharacterReferences;
+
+    /** Used to escape Strings. */
+    private char[] chars = new char[0];
+
+    /**
+     * Creates a writer which escapes the text like {@link HtmlTools#escapeHTML(String, boolean)}.
+     *
+     * @param out the writer of the escaped text, typically the writer of a sink.
+     * @param xmlMode true to escape for XML, ie to escape the apostrophe and to keep non ASCII characters.
+     * @param eol the line terminator which replaces <code>\r\n</code>, <code>\r</code> and <code>\n</code>,
+     * or null to keep the line terminators.
+     */
+    public EscapingWriter( Writer out, boolean xmlMode, String eol )
+    {
+        super( out );
+        this.xmlMode = xmlMode;
+        this.eol = eol;
+
+        setSpecial( '<' );
+        setSpecial( '>' );
+        setSpecial( '&' );
+        setSpecial( '\"' );
+        if ( xmlMode )
+        {
+            setSpecial( '\'' );
+        }
+        if ( eol != null )
+        {
+            setSpecial( '\r' );
+            setSpecial( '\n' );
+        }
+    }
+
+    /**
+     * Sets if <code>&amp;#</code> is written as is rather than escaped, to keep numeric character references in the
+     * text, see DOXIA-314.
+     *
+     * @param keep true to keep numeric character references.
+     */
+    public void setKeepCharacterReferences( boolean keep )
+    {
+        this.keepCharacterReferences = keep;
+    }
+
+    /**
+     * Indicates that the given ASCII character is escaped, see {@link #escape(char[], int, int)}.
+     *
+     * @param c a character up to <code>~</code>.
+     */
+    protected final void setSpecial( char c )
+    {
+        special[c] = true;
+    }
+
+    /**
+     * Tells if the given character is escaped. The others are written as they are.
+     *
+     * @param c a character.
+     * @return true if the character is given to {@link #escape(char[], int, int)}.
+     */
+    protected boolean isSpecial( char c )
+    {
+        return ( c <= ASCII ) ? special[c] : !xmlMode;
+    }
+
+    /**
+     * Writes the escaped form of a special character with {@link #writeRaw(String)}.
+     *
+     * @param text the characters being written.
+     * @param index the index of the special character.
+     * @param end the end of the characters being written.
+     * @return the number of characters consumed, at least 1.
+     */
+    protected int escape( char[] text, int index, int end )
+    {
+        char c = text[index];
+        switch ( c )
+        {
+            case '<':
+                writeRaw( "&lt;" );
+                return 1;
+            case '>':
+                writeRaw( "&gt;" );
+                return 1;
+            case '&':
+                writeRaw( ( keepCharacterReferences && index + 1 < end && text[index + 1] == '#' ) ? "&" : "&amp;" );
+                return 1;
+            case '\"':
+                writeRaw( "&quot;" );
+                return 1;
+            case '\'':
+                writeRaw( "&apos;" );
+                return 1;
+            case '\r':
+                writeRaw( eol );
+                return ( index + 1 < end && text[index + 1] == '\n' ) ? 2 : 1;
+            case '\n':
+                writeRaw( eol );
+                return 1;
+            default:
+                int codePoint = c;
+                int consumed = 1;
+                if ( Character.isHighSurrogate( c ) && index + 1 < end )
+                {
+                    codePoint = Character.toCodePoint( c, text[index + 1] );
+                    consumed = 2;
+                }
+                writeRaw( "&#x" );
+                writeRaw( Integer.toHexString( codePoint ) );
+                writeRaw( ";" );
+                return consumed;
+        }
+    }
+
+    /**
+     * Writes the given text as is.
+     *
+     * @param text the text to write, not escaped.
+     */
+    protected void writeRaw( String text )
+    {
+        try
+        {
+            out.write( text );
+        }
+        catch ( InterruptedIOException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( IOException e )
+        {
+            setError();
+        }
+    }
+
+    private void writeRaw( char[] text, int offset, int length )
+    {
+        if ( length == 0 )
+        {
+            return;
+        }
+
+        try
+        {
+            out.write( text, offset, length );
+        }
+        catch ( InterruptedIOException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( IOException e )
+        {
+            setError();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write( int c )
+    {
+        write( new char[] { (char) c }, 0, 1 );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write( char[] text, int offset, int length )
+    {
+        int end = offset + length;
+        int start = offset;
+        int i = offset;
+
+        while ( i < end )
+        {
+            if ( !isSpecial( text[i] ) )
+            {
+                i++;
+                continue;
+            }
+
+            writeRaw( text, start, i - start );
+            i += escape( text, i, end );
+            start = i;
+        }
+
+        writeRaw( text, start, end - start );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write( String text, int offset, int length )
+    {
+        int end = offset + length;
+        int first = offset;
+        while ( first < end && !isSpecial( text.charAt( first ) ) )
+        {
+            first++;
+        }
+
+        if ( first > offset )
+        {
+            // the run before the first special character
+            try
+            {
+                out.write( text, offset, first - offset );
+            }
+            catch ( InterruptedIOException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch ( IOException e )
+            {
+                setError();
+            }
+        }
+
+        if ( first < end )
+        {
+            int rest = end - first;
+            if ( chars.length < rest )
+            {
+                chars = new char[Math.max( rest, 2 * chars.length )];
+            }
+            text.getChars( first, end, chars, 0 );
+
+            write( chars, 0, rest );
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package org.apache.maven.doxia.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.maven.doxia.parser.ParseException;
+
+/**
+ * A reader which tees the content read through it to an {@link XmlValidator} running in another thread, see
+ * {@link XmlValidator#newValidatingReader(Reader, java.util.concurrent.Executor)}, or in the thread calling
+ * {@link #await()}, see {@link XmlValidator#newValidatingReader(Reader)}.
+ * The content is copied into chunks of a fixed size, which are recycled once validated. Once the validation has
+ * started, the chunks are handed over through a bounded queue, so the reader only runs ahead of the validation by
+ * a few chunks. Until then, for instance while the executor is busy, the chunks are
+ * kept, and {@link #await()} runs the validation itself if the executor has not started it by then: the reader
+ * never waits for a task which is not running, so the executor may be bounded and shared with the reading thread.
+ * Once the content has been consumed, {@link #await()} gives the result of the validation.
+ *
+ * @since 1.8
+ */
+public class ValidatingReader
+    extends FilterReader
+{
+    /** The number of chunks the reader may run ahead of a running validation. */
+    private static final int CAPACITY = 16;
+
+    /** The number of characters per chunk. */
+    private static final int CHUNK_SIZE = 8192;
+
+    /** Marks the end of the content. */
+    private static final Chunk END = new Chunk( 0 );
+
+    /** Guards the chunks and the state of the validation, not the inherited lock of the reader. */
+    private final Object handover = new Object();
+
+    /** The chunks to validate. */
+    private final Queue<Chunk> chunks = new ArrayDeque<Chunk>();
+
+    /** The validated chunks, to be filled again. */
+    private final Queue<Chunk> free = new ArrayDeque<Chunk>();
+
+    /** The chunk being filled by the reader. */
+    private Chunk current = new Chunk( CHUNK_SIZE );
+
+    private final CountDownLatch done = new CountDownLatch( 1 );
+
+    private final Runnable validation;
+
+    /** Whether the validation has been started, or cancelled before it started. */
+    private boolean started;
+
+    /** Whether the validation has ended, the chunks are then discarded. */
+    private boolean finished;
+
+    private boolean ended;
+
+    private volatile ParseException failure;
+
+    ValidatingReader( Reader in, final XmlValidator validator )
+    {
+        super( in );
+
+        this.validation = new Runnable()
+        {
+            public void run()
+            {
+                synchronized ( handover )
+                {
+                    if ( started )
+                    {
+                        return;
+                    }
+                    started = true;
+                }
+
+                try
+                {
+                    validator.validate( new ChunkReader() );
+                }
+                catch ( ParseException e )
+                {
+                    failure = e;
+                }
+                catch ( RuntimeException e )
+                {
+                    failure = new ParseException( "Error validating the model: " + e.getMessage(), e );
+                }
+                finally
+                {
+                    // never leave the reader blocked on a full queue
+                    finish();
+                }
+            }
+        };
+    }
+
+    Runnable getValidation()
+    {
+        return validation;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read()
+        throws IOException
+    {
+        int c = in.read();
+        if ( c != -1 && !ended )
+        {
+            if ( current.length == current.buffer.length )
+            {
+                publish();
+            }
+            current.buffer[current.length++] = (char) c;
+        }
+        return c;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read( char[] cbuf, int off, int len )
+        throws IOException
+    {
+        int n = in.read( cbuf, off, len );
+        if ( n > 0 && !ended )
+        {
+            int copied = 0;
+            while ( copied < n )
+            {
+                if ( current.length == current.buffer.length )
+                {
+                    publish();
+                }
+                int count = Math.min( n - copied, current.buffer.length - current.length );
+                System.arraycopy( cbuf, off + copied, current.buffer, current.length, count );
+                current.length += count;
+                copied += count;
+            }
+        }
+        return n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long skip( long n )
+        throws IOException
+    {
+        // skipped characters must be validated too
+        char[] buffer = new char[(int) Math.min( n, 8192 )];
+        long skipped = 0;
+        while ( skipped < n )
+        {
+            int read = read( buffer, 0, (int) Math.min( n - skipped, buffer.length ) );
+            if ( read == -1 )
+            {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean markSupported()
+    {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void mark( int readAheadLimit )
+        throws IOException
+    {
+        throw new IOException( "mark() not supported" );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void reset()
+        throws IOException
+    {
+        throw new IOException( "reset() not supported" );
+    }
+
+    /**
+     * Reads the rest of the content, and waits until the validation is complete. If the validation has not been
+     * started by the executor yet, it runs in the current thread.
+     *
+     * @throws ParseException if the content is not valid, or could not be read.
+     */
+    public void await()
+        throws ParseException
+    {
+        try
+        {
+            char[] buffer = new char[8192];
+            while ( read( buffer, 0, buffer.length ) != -1 )
+            {
+                // validate the trailing content too
+            }
+
+            end();
+            validation.run();
+            done.await();
+        }
+        catch ( IOException e )
+        {
+            cancel();
+            throw new ParseException( "Error reading the model: " + e.getMessage(), e );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ParseException( "Interrupted while validating the model", e );
+        }
+
+        if ( failure != null )
+        {
+            throw failure;
+        }
+    }
+
+    /**
+     * Ends the content seen by the validation without waiting for it, for instance when the consumer failed.
+     * A validation which has not started yet is dropped. Does nothing if the content has already been ended.
+     */
+    public void cancel()
+    {
+        synchronized ( handover )
+        {
+            if ( !started )
+            {
+                started = true;
+                finish();
+            }
+        }
+
+        try
+        {
+            end();
+        }
+        catch ( InterruptedIOException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void end()
+        throws InterruptedIOException
+    {
+        if ( !ended )
+        {
+            if ( current.length > 0 )
+            {
+                publish();
+            }
+            put( END );
+            ended = true;
+        }
+    }
+
+    /**
+     * Hands the current chunk over to the validation, and continues with a free one.
+     */
+    private void publish()
+        throws InterruptedIOException
+    {
+        put( current );
+
+        synchronized ( handover )
+        {
+            current = free.poll();
+        }
+        if ( current == null )
+        {
+            current = new Chunk( CHUNK_SIZE );
+        }
+        current.length = 0;
+    }
+
+    private void finish()
+    {
+        synchronized ( handover )
+        {
+            finished = true;
+            while ( !chunks.isEmpty() )
+            {
+                Chunk chunk = chunks.remove();
+                if ( chunk != END )
+                {
+                    free.add( chunk );
+                }
+            }
+            handover.notifyAll();
+        }
+        done.countDown();
+    }
+
+    private void put( Chunk chunk )
+        throws InterruptedIOException
+    {
+        synchronized ( handover )
+        {
+            try
+            {
+                // only wait for a running validation, which takes the chunks
+                while ( started && !finished && chunks.size() >= CAPACITY )
+                {
+                    handover.wait();
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException( "Interrupted while handing over the content to validate" );
+            }
+
+            if ( !finished )
+            {
+                chunks.add( chunk );
+                handover.notifyAll();
+            }
+            else if ( chunk != END )
+            {
+                free.add( chunk );
+            }
+        }
+    }
+
+    /**
+     * The content as seen by the validation.
+     */
+    private class ChunkReader
+        extends Reader
+    {
+        private Chunk chunk;
+
+        private int pos;
+
+        /** {@inheritDoc} */
+        @Override
+        public int read( char[] cbuf, int off, int len )
+            throws IOException
+        {
+            if ( len == 0 )
+            {
+                return 0;
+            }
+
+            if ( chunk == null || pos == chunk.length )
+            {
+                if ( chunk == END )
+                {
+                    return -1;
+                }
+
+                chunk = take( chunk );
+                pos = 0;
+                if ( chunk == END )
+                {
+                    return -1;
+                }
+            }
+
+            int n = Math.min( len, chunk.length - pos );
+            System.arraycopy( chunk.buffer, pos, cbuf, off, n );
+            pos += n;
+            return n;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close()
+        {
+            // the reader is ended by the producer
+        }
+
+        /**
+         * @param validated the chunk which has been read, to recycle, may be null.
+         * @return the next chunk.
+         */
+        private Chunk take( Chunk validated )
+            throws InterruptedIOException
+        {
+            synchronized ( handover )
+            {
+                if ( validated != null )
+                {
+                    free.add( validated );
+                }
+
+                try
+                {
+                    while ( chunks.isEmpty() )
+                    {
+                        handover.wait();
+                    }
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException( "Interrupted while waiting for the content to validate" );
+                }
+
+                handover.notifyAll();
+                return chunks.remove();
+            }
+        }
+    }
+
+    /**
+     * A buffer of characters, used from the start.
+     */
+    private static final class Chunk
+    {
+        final char[] buffer;
+
+        int length;
+
+        Chunk( int size )
+        {
+            buffer = new char[size];
+        }
+    }
+}
@@ -19,19 +19,38 @@ package org.apache.maven.doxia.util;
  * under the License.
  */
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.io.StringReader;
-
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.xml.XMLConstants;
+import javax.xml.transform.Source;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.ValidatorHandler;
 
 import org.apache.maven.doxia.logging.Log;
 import org.apache.maven.doxia.markup.XmlMarkup;
 import org.apache.maven.doxia.parser.AbstractXmlParser.CachedFileEntityResolver;
 import org.apache.maven.doxia.parser.ParseException;
 
+import org.codehaus.plexus.util.StringUtils;
+
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
+
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
@@ -41,24 +60,33 @@ import org.xml.sax.helpers.XMLReaderFactory;
 
 /**
  * A class to validate xml documents.
+ * <p>
+ * Only the prolog of the document is inspected to find out how to validate it: the doctype declaration and the
+ * attributes of the root element. Documents referencing XML Schemas are validated against a compiled
+ * {@link Schema}, which is thread-safe and shared by all validators, so each XSD is only parsed once.
+ * </p>
  *
  * @version $Id$
  * @since 1.1.3
  */
 public class XmlValidator
 {
-    /**
-     * Doctype pattern i.e. ".*<!DOCTYPE([^>]*)>.*"
-     * see <a href="http://www.w3.org/TR/REC-xml/#NT-doctypedecl">http://www.w3.org/TR/REC-xml/#NT-doctypedecl</a>.
-     */
-    private static final Pattern PATTERN_DOCTYPE = Pattern.compile( ".*" + XmlMarkup.DOCTYPE_START + "([^>]*)>.*" );
+    /** The maximum number of characters read to find the root element. */
+    private static final int PROLOG_LIMIT = 1024 * 1024;
 
-    /** Tag pattern as defined in http://www.w3.org/TR/REC-xml/#NT-Name */
-    private static final Pattern PATTERN_TAG = Pattern.compile( ".*<([A-Za-z][A-Za-z0-9:_.-]*)([^>]*)>.*" );
+    /** Attribute pattern, see <a href="http://www.w3.org/TR/REC-xml/#NT-Attribute">REC-xml</a>. */
+    private static final Pattern PATTERN_ATTRIBUTE =
+        Pattern.compile( "([^\\s=]+)\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')" );
+
+    /** Compiled schemas with their space separated locations as key. */
+    private static final ConcurrentMap<String, Schema> SCHEMAS = new ConcurrentHashMap<String, Schema>();
 
     /** lazy xmlReader to validate xml content*/
     private XMLReader xmlReader;
 
+    /** lazy non validating xmlReader to feed a schema validator */
+    private XMLReader schemaReader;
+
     private Log logger;
 
     /**
@@ -79,33 +107,46 @@ public class XmlValidator
      */
     public void validate( String content )
         throws ParseException
+    {
+        validate( new StringReader( content ) );
+    }
+
+    /**
+     * Validate an XML content with SAX.
+     *
+     * @param content a not null reader of the xml content, read until the end.
+     * @throws ParseException if any.
+     * @since 1.8
+     */
+    public void validate( Reader content )
+        throws ParseException
     {
         try
         {
-            // 1 if there's a doctype
-            boolean hasDoctype = false;
-            Matcher matcher = PATTERN_DOCTYPE.matcher( content );
-            if ( matcher.find() )
+            BufferedReader reader = new BufferedReader( content );
+
+            // 1 look for a doctype and an xmlns instance in the prolog
+            reader.mark( PROLOG_LIMIT );
+            Prolog prolog = Prolog.read( reader );
+            reader.reset();
+
+            // 2 validate content
+            getLog().debug( "Validating the content..." );
+
+            Schema schema = prolog.hasXsd() ? getSchema( prolog.getSchemaLocations() ) : null;
+            if ( schema != null )
             {
-                hasDoctype = true;
+                ValidatorHandler validatorHandler = schema.newValidatorHandler();
+                // a doctype is validated too, as it may still declare constraints besides the entities
+                XMLReader parser = getSchemaReader( prolog.hasDoctype() );
+                validatorHandler.setErrorHandler( parser.getErrorHandler() );
+                parser.setContentHandler( validatorHandler );
+                parser.parse( new InputSource( reader ) );
             }
-
-            // 2 check for an xmlns instance
-            boolean hasXsd = false;
-            matcher = PATTERN_TAG.matcher( content );
-            if ( matcher.find() )
+            else
             {
-                String value = matcher.group( 2 );
-
-                if ( value.contains( XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI ) )
-                {
-                    hasXsd = true;
-                }
+                getXmlReader( prolog.hasXsd() && prolog.hasDoctype() ).parse( new InputSource( reader ) );
             }
-
-            // 3 validate content
-            getLog().debug( "Validating the content..." );
-            getXmlReader( hasXsd && hasDoctype ).parse( new InputSource( new StringReader( content ) ) );
         }
         catch ( IOException e )
         {
@@ -117,6 +158,36 @@ public class XmlValidator
         }
     }
 
+    /**
+     * Creates a reader which validates the content read through it in a task of the given executor, so that
+     * validation runs concurrently with the consumer of the reader instead of buffering the whole content first.
+     *
+     * @param content a not null reader of the xml content.
+     * @param executor the executor to run the validation, not null.
+     * @return a reader of the same content, see {@link ValidatingReader#await()} to get the result.
+     * @since 1.8
+     */
+    public ValidatingReader newValidatingReader( Reader content, Executor executor )
+    {
+        ValidatingReader reader = new ValidatingReader( content, this );
+        executor.execute( reader.getValidation() );
+        return reader;
+    }
+
+    /**
+     * Creates a reader which validates the content read through it on the calling thread: the content is kept in
+     * chunks while it is read, and validated by {@link ValidatingReader#await()} once it has been consumed. Unlike
+     * {@link #validate(Reader)}, the content is not read up front, so the reader can be consumed right away.
+     *
+     * @param content a not null reader of the xml content.
+     * @return a reader of the same content, see {@link ValidatingReader#await()} to get the result.
+     * @since 1.8
+     */
+    public ValidatingReader newValidatingReader( Reader content )
+    {
+        return new ValidatingReader( content, this );
+    }
+
     /**
      * @param hasDtdAndXsd to flag the <code>ErrorHandler</code>.
      * @return an xmlReader instance.
@@ -141,11 +212,446 @@ public class XmlValidator
         return xmlReader;
     }
 
+    /**
+     * @param hasDtd whether the document has a doctype to validate, besides the schema.
+     * @return an xmlReader instance to feed a schema validator, the DTDs are always loaded to resolve the entities.
+     * @throws SAXException if any
+     */
+    private XMLReader getSchemaReader( boolean hasDtd )
+        throws SAXException
+    {
+        if ( schemaReader == null )
+        {
+            schemaReader = XMLReaderFactory.createXMLReader();
+            schemaReader.setFeature( "http://xml.org/sax/features/namespaces", true );
+            schemaReader.setErrorHandler( new MessagesErrorHandler( getLog() ) );
+            schemaReader.setEntityResolver( new CachedFileEntityResolver() );
+        }
+
+        schemaReader.setFeature( "http://xml.org/sax/features/validation", hasDtd );
+        ( (MessagesErrorHandler) schemaReader.getErrorHandler() ).setHasDtdAndXsd( hasDtd );
+
+        return schemaReader;
+    }
+
+    /**
+     * @param locations the locations of the XSDs.
+     * @return the schema compiled from the given XSDs, or null if they could not be loaded.
+     */
+    private Schema getSchema( List<String> locations )
+    {
+        if ( locations.isEmpty() )
+        {
+            return null;
+        }
+
+        String key = StringUtils.join( locations.iterator(), " " );
+        Schema schema = SCHEMAS.get( key );
+        if ( schema == null )
+        {
+            try
+            {
+                CachedFileEntityResolver resolver = new CachedFileEntityResolver();
+
+                Source[] sources = new Source[locations.size()];
+                for ( int i = 0; i < sources.length; i++ )
+                {
+                    sources[i] = new SAXSource( resolver.resolveEntity( null, locations.get( i ) ) );
+                }
+
+                // factories are not thread-safe, but the schemas they create are
+                SchemaFactory factory = SchemaFactory.newInstance( XMLConstants.W3C_XML_SCHEMA_NS_URI );
+                factory.setResourceResolver( new EntityResourceResolver( resolver ) );
+
+                schema = factory.newSchema( sources );
+            }
+            catch ( IOException e )
+            {
+                getLog().debug( "Could not load the schema " + key + ": " + e.getMessage() );
+                return null;
+            }
+            catch ( SAXException e )
+            {
+                getLog().debug( "Could not load the schema " + key + ": " + e.getMessage() );
+                return null;
+            }
+
+            Schema previous = SCHEMAS.putIfAbsent( key, schema );
+            if ( previous != null )
+            {
+                schema = previous;
+            }
+        }
+
+        return schema;
+    }
+
     private Log getLog()
     {
         return logger;
     }
 
+    /**
+     * The information found in the prolog of a document, up to the start tag of its root element.
+     */
+    static final class Prolog
+    {
+        private final boolean doctype;
+
+        /** The content of the root start tag, without the angle brackets, null if not found. */
+        private final String rootTag;
+
+        private Prolog( boolean doctype, String rootTag )
+        {
+            this.doctype = doctype;
+            this.rootTag = rootTag;
+        }
+
+        /**
+         * Reads the prolog of a document, stopping after the root start tag.
+         *
+         * @param reader the reader of the document, not null.
+         * @return the prolog, not null.
+         * @throws IOException if any.
+         */
+        static Prolog read( Reader reader )
+            throws IOException
+        {
+            StringBuilder content = new StringBuilder();
+            char[] buffer = new char[1024];
+
+            Prolog prolog = new Prolog( false, null );
+            int n;
+            while ( prolog.rootTag == null && content.length() < PROLOG_LIMIT
+                && ( n = reader.read( buffer, 0, Math.min( buffer.length, PROLOG_LIMIT - content.length() ) ) ) != -1 )
+            {
+                content.append( buffer, 0, n );
+                prolog = scan( content );
+            }
+
+            return prolog;
+        }
+
+        /**
+         * @param content the beginning of a document.
+         * @return the prolog found so far, with a null root tag if its end has not been read yet.
+         */
+        static Prolog scan( CharSequence content )
+        {
+            String s = content.toString();
+            boolean doctype = false;
+
+            int i = 0;
+            while ( true )
+            {
+                int start = s.indexOf( '<', i );
+                if ( start < 0 || start + 1 >= s.length() )
+                {
+                    return new Prolog( doctype, null );
+                }
+
+                int end;
+                char c = s.charAt( start + 1 );
+                if ( c == '?' )
+                {
+                    end = s.indexOf( "?>", start + 2 );
+                    i = end + 2;
+                }
+                else if ( c == '!' )
+                {
+                    if ( s.length() - start < XmlMarkup.DOCTYPE_START.length() )
+                    {
+                        // not enough to tell a comment from a declaration
+                        return new Prolog( doctype, null );
+                    }
+
+                    if ( s.startsWith( "<!--", start ) )
+                    {
+                        end = s.indexOf( "-->", start + 4 );
+                        i = end + 3;
+                    }
+                    else
+                    {
+                        doctype |= s.startsWith( XmlMarkup.DOCTYPE_START, start );
+                        end = indexOfClose( s, start + 2 );
+                        i = end + 1;
+                    }
+                }
+                else
+                {
+                    end = indexOfClose( s, start + 1 );
+                    return new Prolog( doctype, end < 0 ? null : s.substring( start + 1, end ) );
+                }
+
+                if ( end < 0 )
+                {
+                    return new Prolog( doctype, null );
+                }
+            }
+        }
+
+        /**
+         * @param s a string.
+         * @param from the index to start from.
+         * @return the index of the next '&gt;' which is not quoted nor in brackets, or -1.
+         */
+        private static int indexOfClose( String s, int from )
+        {
+            char quote = 0;
+            int depth = 0;
+            for ( int i = from; i < s.length(); i++ )
+            {
+                char c = s.charAt( i );
+                if ( quote != 0 )
+                {
+                    if ( c == quote )
+                    {
+                        quote = 0;
+                    }
+                }
+                else if ( c == '"' || c == '\'' )
+                {
+                    quote = c;
+                }
+                else if ( c == '[' )
+                {
+                    depth++;
+                }
+                else if ( c == ']' )
+                {
+                    depth--;
+                }
+                else if ( c == '>' && depth <= 0 )
+                {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        boolean hasDoctype()
+        {
+            return doctype;
+        }
+
+        boolean hasXsd()
+        {
+            return rootTag != null && rootTag.contains( XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI );
+        }
+
+        /**
+         * @return the locations of the XSDs given by the <code>schemaLocation</code> and
+         *         <code>noNamespaceSchemaLocation</code> attributes of the root element, not null.
+         */
+        List<String> getSchemaLocations()
+        {
+            List<String> locations = new ArrayList<String>();
+            if ( rootTag == null )
+            {
+                return locations;
+            }
+
+            String xsiPrefix = null;
+            List<String[]> attributes = new ArrayList<String[]>();
+            Matcher matcher = PATTERN_ATTRIBUTE.matcher( rootTag );
+            while ( matcher.find() )
+            {
+                String name = matcher.group( 1 );
+                String value = matcher.group( 2 ) != null ? matcher.group( 2 ) : matcher.group( 3 );
+                if ( name.startsWith( "xmlns:" ) && XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI.equals( value ) )
+                {
+                    xsiPrefix = name.substring( "xmlns:".length() );
+                }
+                attributes.add( new String[] { name, value } );
+            }
+
+            for ( String[] attribute : attributes )
+            {
+                if ( attribute[0].equals( xsiPrefix + ":schemaLocation" ) )
+                {
+                    // pairs of namespace and location
+                    String[] tokens = StringUtils.split( attribute[1] );
+                    for ( int i = 1; i < tokens.length; i += 2 )
+                    {
+                        locations.add( tokens[i] );
+                    }
+                }
+                else if ( attribute[0].equals( xsiPrefix + ":noNamespaceSchemaLocation" ) )
+                {
+                    locations.add( attribute[1].trim() );
+                }
+            }
+
+            return locations;
+        }
+    }
+
+    /**
+     * Resolves the XSDs imported or included by a schema with a <code>CachedFileEntityResolver</code>.
+     */
+    private static class EntityResourceResolver
+        implements LSResourceResolver
+    {
+        private final CachedFileEntityResolver resolver;
+
+        EntityResourceResolver( CachedFileEntityResolver resolver )
+        {
+            this.resolver = resolver;
+        }
+
+        /** {@inheritDoc} */
+        public LSInput resolveResource( String type, String namespaceURI, String publicId, String systemId,
+                                        String baseURI )
+        {
+            if ( systemId == null )
+            {
+                return null;
+            }
+
+            String location = systemId;
+            if ( baseURI != null )
+            {
+                try
+                {
+                    location = new URI( baseURI ).resolve( systemId ).toString();
+                }
+                catch ( URISyntaxException e )
+                {
+                    // use the systemId as is
+                }
+                catch ( IllegalArgumentException e )
+                {
+                    // use the systemId as is
+                }
+            }
+
+            try
+            {
+                return new EntityInput( resolver.resolveEntity( publicId, location ) );
+            }
+            catch ( IOException e )
+            {
+                return null;
+            }
+            catch ( SAXException e )
+            {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * An <code>LSInput</code> backed by an <code>InputSource</code>.
+     */
+    private static class EntityInput
+        implements LSInput
+    {
+        private final InputSource source;
+
+        private String baseURI;
+
+        EntityInput( InputSource source )
+        {
+            this.source = source;
+        }
+
+        /** {@inheritDoc} */
+        public Reader getCharacterStream()
+        {
+            return source.getCharacterStream();
+        }
+
+        /** {@inheritDoc} */
+        public void setCharacterStream( Reader characterStream )
+        {
+            source.setCharacterStream( characterStream );
+        }
+
+        /** {@inheritDoc} */
+        public InputStream getByteStream()
+        {
+            return source.getByteStream();
+        }
+
+        /** {@inheritDoc} */
+        public void setByteStream( InputStream byteStream )
+        {
+            source.setByteStream( byteStream );
+        }
+
+        /** {@inheritDoc} */
+        public String getStringData()
+        {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        public void setStringData( String stringData )
+        {
+            // nop
+        }
+
+        /** {@inheritDoc} */
+        public String getSystemId()
+        {
+            return source.getSystemId();
+        }
+
+        /** {@inheritDoc} */
+        public void setSystemId( String systemId )
+        {
+            source.setSystemId( systemId );
+        }
+
+        /** {@inheritDoc} */
+        public String getPublicId()
+        {
+            return source.getPublicId();
+        }
+
+        /** {@inheritDoc} */
+        public void setPublicId( String publicId )
+        {
+            source.setPublicId( publicId );
+        }
+
+        /** {@inheritDoc} */
+        public String getBaseURI()
+        {
+            return baseURI;
+        }
+
+        /** {@inheritDoc} */
+        public void setBaseURI( String baseURI )
+        {
+            this.baseURI = baseURI;
+        }
+
+        /** {@inheritDoc} */
+        public String getEncoding()
+        {
+            return source.getEncoding();
+        }
+
+        /** {@inheritDoc} */
+        public void setEncoding( String encoding )
+        {
+            source.setEncoding( encoding );
+        }
+
+        /** {@inheritDoc} */
+        public boolean getCertifiedText()
+        {
+            return false;
+        }
+
+        /** {@inheritDoc} */
+        public void setCertifiedText( boolean certifiedText )
+        {
+            // nop
+        }
+    }
+
     /**
      * Convenience class to beautify <code>SAXParseException</code> messages.
      */
@@ -0,0 +1,231 @@
+package org.apache.maven.doxia;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.parser.XhtmlBaseParser;
+import org.apache.maven.doxia.parser.manager.ParserNotFoundException;
+import org.apache.maven.doxia.parser.module.AbstractParserModule;
+import org.apache.maven.doxia.parser.module.ParserModule;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.AbstractTextSinkFactory;
+import org.apache.maven.doxia.sink.impl.XhtmlBaseSink;
+import org.codehaus.plexus.PlexusTestCase;
+import org.codehaus.plexus.component.repository.ComponentDescriptor;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Test the batch rendering of <code>DefaultDoxia</code>.
+ *
+ * @since 1.8
+ */
+public class DefaultDoxiaTest
+    extends PlexusTestCase
+{
+    private static final String PARSER_ID = "xhtml-test";
+
+    private File sourceDirectory;
+
+    private File outputDirectory;
+
+    private ExecutorService executor;
+
+    /** Fails with an Error for the output named <code>error.html</code>. */
+    private final AbstractTextSinkFactory sinkFactory = new AbstractTextSinkFactory()
+    {
+        protected Sink createSink( Writer writer, String encoding )
+        {
+            return new XhtmlBaseSink( writer );
+        }
+
+        @Override
+        public Sink createSink( File outputDir, String outputName, String encoding )
+            throws IOException
+        {
+            if ( "error.html".equals( outputName ) )
+            {
+                throw new AssertionError( "sink error" );
+            }
+            return super.createSink( outputDir, outputName, encoding );
+        }
+    };
+
+    /** {@inheritDoc} */
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        ComponentDescriptor<XhtmlBaseParser> descriptor = new ComponentDescriptor<XhtmlBaseParser>(
+            XhtmlBaseParser.class, getContainer().getContainerRealm() );
+        descriptor.setRole( Parser.ROLE );
+        descriptor.setRoleHint( PARSER_ID );
+        getContainer().addComponentDescriptor( descriptor );
+
+        ComponentDescriptor<TestParserModule> moduleDescriptor = new ComponentDescriptor<TestParserModule>(
+            TestParserModule.class, getContainer().getContainerRealm() );
+        moduleDescriptor.setRole( ParserModule.class.getName() );
+        moduleDescriptor.setRoleHint( PARSER_ID );
+        getContainer().addComponentDescriptor( moduleDescriptor );
+
+        sourceDirectory = getTestFile( "target/test-output/doxia-render/src" );
+        outputDirectory = getTestFile( "target/test-output/doxia-render/out" );
+        FileUtils.deleteDirectory( sourceDirectory );
+        FileUtils.deleteDirectory( outputDirectory );
+        sourceDirectory.mkdirs();
+
+        executor = Executors.newFixedThreadPool( 3 );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void tearDown()
+        throws Exception
+    {
+        executor.shutdown();
+
+        super.tearDown();
+    }
+
+    /**
+     * Several jobs rendered by a thread pool: the failing ones do not stop the others.
+     *
+     * @throws Exception if any.
+     */
+    public void testRender()
+        throws Exception
+    {
+        List<RenderingJob> jobs = new ArrayList<RenderingJob>();
+        for ( int i = 0; i < 8; i++ )
+        {
+            jobs.add( job( "doc" + i, "<div><p>doc " + i + "</p></div>", PARSER_ID ) );
+        }
+        RenderingJob malformed = job( "malformed", "<div><p>malformed</div>", PARSER_ID );
+        jobs.add( malformed );
+        RenderingJob unknown = job( "unknown", "<p>unknown</p>", "unknown" );
+        jobs.add( unknown );
+        RenderingJob error = job( "error", "<p>error</p>", PARSER_ID );
+        jobs.add( error );
+
+        BatchDoxia doxia = (BatchDoxia) lookup( Doxia.ROLE );
+        RenderingResult result = doxia.render( jobs, executor, 2 );
+
+        assertEquals( 11, result.getJobCount() );
+        assertEquals( result.getFailures().toString(), 8, result.getSuccessCount() );
+        assertEquals( 3, result.getFailureCount() );
+        assertFalse( result.isSuccessful() );
+        assertTrue( result.getFailures().get( malformed ) instanceof ParseException );
+        assertTrue( result.getFailures().get( unknown ) instanceof ParserNotFoundException );
+        assertTrue( result.getFailures().get( error ) instanceof AssertionError );
+
+        for ( int i = 0; i < 8; i++ )
+        {
+            String output = FileUtils.fileRead( new File( outputDirectory, "doc" + i + ".html" ), "UTF-8" );
+            assertTrue( output, output.contains( "<p>doc " + i + "</p>" ) );
+        }
+    }
+
+    /**
+     * The jobs of a site tree: every document of the module source directory with one of the module extensions, in
+     * the same subdirectory of the output directory.
+     *
+     * @throws Exception if any.
+     */
+    public void testCreateRenderingJobs()
+        throws Exception
+    {
+        File moduleDirectory = new File( sourceDirectory, PARSER_ID );
+        write( new File( moduleDirectory, "index.xhtml" ), "<p>index</p>" );
+        write( new File( moduleDirectory, "other.xhtm" ), "<p>other</p>" );
+        write( new File( moduleDirectory, "sub/dir/page.xhtml" ), "<p>page</p>" );
+        write( new File( moduleDirectory, "ignored.txt" ), "ignored" );
+        write( new File( sourceDirectory, "unknown/outside.xhtml" ), "<p>outside</p>" );
+
+        BatchDoxia doxia = (BatchDoxia) lookup( Doxia.ROLE );
+        List<RenderingJob> jobs =
+            doxia.createRenderingJobs( sourceDirectory, "UTF-8", sinkFactory, outputDirectory, "html" );
+
+        Map<String, RenderingJob> jobsBySource = new HashMap<String, RenderingJob>();
+        for ( RenderingJob job : jobs )
+        {
+            assertEquals( PARSER_ID, job.getParserId() );
+            assertEquals( "UTF-8", job.getInputEncoding() );
+            assertSame( sinkFactory, job.getSinkFactory() );
+            jobsBySource.put( job.getSource().getName(), job );
+        }
+        assertEquals( jobsBySource.keySet().toString(), 3, jobs.size() );
+
+        assertEquals( outputDirectory, jobsBySource.get( "index.xhtml" ).getOutputDirectory() );
+        assertEquals( "index.html", jobsBySource.get( "index.xhtml" ).getOutputName() );
+        assertEquals( outputDirectory, jobsBySource.get( "other.xhtm" ).getOutputDirectory() );
+        assertEquals( "other.html", jobsBySource.get( "other.xhtm" ).getOutputName() );
+        assertEquals( new File( outputDirectory, "sub" + File.separator + "dir" ),
+                      jobsBySource.get( "page.xhtml" ).getOutputDirectory() );
+        assertEquals( "page.html", jobsBySource.get( "page.xhtml" ).getOutputName() );
+
+        RenderingResult result = doxia.render( jobs, executor, 2 );
+        assertTrue( result.getFailures().toString(), result.isSuccessful() );
+        String output = FileUtils.fileRead( new File( outputDirectory, "sub/dir/page.html" ), "UTF-8" );
+        assertTrue( output, output.contains( "<p>page</p>" ) );
+    }
+
+    private static void write( File file, String content )
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+        FileUtils.fileWrite( file, "UTF-8", content );
+    }
+
+    private RenderingJob job( String name, String content, String parserId )
+        throws IOException
+    {
+        File source = new File( sourceDirectory, name + ".xhtml" );
+        FileUtils.fileWrite( source, "UTF-8", content );
+
+        return new RenderingJob( source, "UTF-8", parserId, sinkFactory, outputDirectory, name + ".html" );
+    }
+
+    /**
+     * The parser module of the test parser, in the <code>xhtml-test</code> source directory.
+     */
+    public static class TestParserModule
+        extends AbstractParserModule
+    {
+        /**
+         * Constructs the parser module.
+         */
+        public TestParserModule()
+        {
+            super( PARSER_ID, PARSER_ID, "xhtml", "xhtm" );
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.apache.maven.doxia.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+/**
+ * Test IndexingSink.
+ *
+ * @version $Id$
+ */
+public class IndexingSinkTest
+    extends TestCase
+{
+    /**
+     * Test that a section without title does not remove the root entry, so that the following sections are
+     * still indexed.
+     */
+    public void testSectionWithoutTitle()
+    {
+        IndexEntry index = new IndexEntry( "index" );
+        IndexingSink sink = new IndexingSink( index );
+
+        sink.section1();
+        sink.section1_();
+
+        sink.section1();
+        sink.sectionTitle1();
+        sink.text( "titled" );
+        sink.sectionTitle1_();
+        sink.section1_();
+
+        assertEquals( 1, index.getChildEntries().size() );
+        assertEquals( "titled", index.getChildEntries().get( 0 ).getTitle() );
+    }
+}
@@ -176,4 +176,99 @@ public class TocMacroTest
         assertTrue( out.toString().contains( "<a href=\"#h22\">h22</a>" ) );
         assertTrue( out.toString().contains( "<a href=\"#h3\">h3</a>" ) );
     }
+
+    /**
+     * Test that the TOC is filled from the index collected by a DeferredTocSink, without parsing the source.
+     *
+     * @throws MacroExecutionException if a macro fails during testing.
+     */
+    public void testDeferredToc()
+        throws MacroExecutionException
+    {
+        Map<String, Object> macroParameters = new HashMap<String, Object>();
+        macroParameters.put( "sourceContent", "not parsed" );
+
+        SinkEventTestingSink testingSink = new SinkEventTestingSink();
+        DeferredTocSink sink = new DeferredTocSink( testingSink );
+
+        sink.body();
+        new TocMacro().execute( sink, new MacroRequest( macroParameters, new File( "" ) ) );
+        sink.section1();
+        sink.sectionTitle1();
+        sink.text( "s1" );
+        sink.sectionTitle1_();
+        sink.section1_();
+        sink.section1();
+        sink.sectionTitle1();
+        sink.text( "s2" );
+        sink.sectionTitle1_();
+        sink.section1_();
+
+        // nothing after the TOC position is written before the end of the document
+        assertEquals( 1, testingSink.getEventList().size() );
+
+        sink.body_();
+
+        Iterator<SinkEventElement> it = testingSink.getEventList().iterator();
+        assertEquals( "body", ( it.next() ).getName() );
+        assertEquals( "list", ( it.next() ).getName() );
+        assertEquals( "listItem", ( it.next() ).getName() );
+        assertEquals( "link", ( it.next() ).getName() );
+        assertEquals( "s1", ( it.next() ).getArgs()[0] );
+        assertEquals( "link_", ( it.next() ).getName() );
+        assertEquals( "listItem_", ( it.next() ).getName() );
+        assertEquals( "listItem", ( it.next() ).getName() );
+        assertEquals( "link", ( it.next() ).getName() );
+        assertEquals( "s2", ( it.next() ).getArgs()[0] );
+        assertEquals( "link_", ( it.next() ).getName() );
+        assertEquals( "listItem_", ( it.next() ).getName() );
+        assertEquals( "list_", ( it.next() ).getName() );
+        assertEquals( "section1", ( it.next() ).getName() );
+        assertEquals( "sectionTitle1", ( it.next() ).getName() );
+        assertEquals( "s1", ( it.next() ).getArgs()[0] );
+        assertEquals( "sectionTitle1_", ( it.next() ).getName() );
+        assertEquals( "section1_", ( it.next() ).getName() );
+        assertEquals( "section1", ( it.next() ).getName() );
+        assertEquals( "sectionTitle1", ( it.next() ).getName() );
+        assertEquals( "s2", ( it.next() ).getArgs()[0] );
+        assertEquals( "sectionTitle1_", ( it.next() ).getName() );
+        assertEquals( "section1_", ( it.next() ).getName() );
+        assertEquals( "body_", ( it.next() ).getName() );
+        assertFalse( it.hasNext() );
+    }
+
+    /**
+     * Test that a flush in the middle of the document does not write a TOC with an incomplete index.
+     *
+     * @throws MacroExecutionException if a macro fails during testing.
+     */
+    public void testDeferredTocFlush()
+        throws MacroExecutionException
+    {
+        Map<String, Object> macroParameters = new HashMap<String, Object>();
+        macroParameters.put( "sourceContent", "not parsed" );
+
+        SinkEventTestingSink testingSink = new SinkEventTestingSink();
+        DeferredTocSink sink = new DeferredTocSink( testingSink );
+
+        sink.body();
+        new TocMacro().execute( sink, new MacroRequest( macroParameters, new File( "" ) ) );
+        sink.flush();
+        sink.section1();
+        sink.sectionTitle1();
+        sink.text( "late" );
+        sink.sectionTitle1_();
+        sink.section1_();
+
+        assertEquals( 1, testingSink.getEventList().size() );
+
+        sink.body_();
+
+        Iterator<SinkEventElement> it = testingSink.getEventList().iterator();
+        assertEquals( "body", ( it.next() ).getName() );
+        assertEquals( "list", ( it.next() ).getName() );
+        assertEquals( "listItem", ( it.next() ).getName() );
+        assertEquals( "link", ( it.next() ).getName() );
+        assertEquals( "late", ( it.next() ).getArgs()[0] );
+    }
 }
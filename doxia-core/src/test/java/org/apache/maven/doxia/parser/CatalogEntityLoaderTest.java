@@ -0,0 +1,93 @@
+package org.apache.maven.doxia.parser;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+/**
+ * Test the <code>CatalogEntityLoader</code>.
+ *
+ * @since 1.8
+ */
+public class CatalogEntityLoaderTest
+    extends TestCase
+{
+    private final CatalogEntityLoader loader = new CatalogEntityLoader();
+
+    /**
+     * The bundled catalog maps the XHTML DTDs by public and by system identifier.
+     *
+     * @throws Exception if any.
+     */
+    public void testDefaultCatalog()
+        throws Exception
+    {
+        byte[] bySystemId = loader.load( null, "http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd" );
+        assertNotNull( bySystemId );
+        assertTrue( new String( bySystemId, "UTF-8" ).contains( "Extensible HTML version 1.0 Transitional DTD" ) );
+
+        byte[] byPublicId = loader.load( "-//W3C//ENTITIES Latin 1 for XHTML//EN", "xhtml-lat1.ent" );
+        assertNotNull( byPublicId );
+        assertTrue( new String( byPublicId, "UTF-8" ).contains( "<!ENTITY nbsp" ) );
+
+        assertNull( loader.load( "-//Unknown//EN", "http://localhost/unknown.dtd" ) );
+    }
+
+    /**
+     * The prefer attribute of the catalog tells if public or system identifiers are looked up first.
+     *
+     * @throws Exception if any.
+     */
+    public void testPrefer()
+        throws Exception
+    {
+        String publicId = "-//Doxia//ENTITIES Test//EN";
+        String systemId = "http://localhost/test.ent";
+        ClassLoader classLoader = getClass().getClassLoader();
+
+        CatalogEntityLoader preferPublic = new CatalogEntityLoader( "catalog/prefer-public.xml", classLoader );
+        assertEntity( "public", preferPublic.load( publicId, systemId ) );
+        assertEntity( "public", preferPublic.load( publicId, "http://localhost/unknown.ent" ) );
+        assertEntity( "system", preferPublic.load( null, systemId ) );
+
+        CatalogEntityLoader preferSystem = new CatalogEntityLoader( "catalog/prefer-system.xml", classLoader );
+        assertEntity( "system", preferSystem.load( publicId, systemId ) );
+        assertNull( preferSystem.load( publicId, "http://localhost/unknown.ent" ) );
+        assertEntity( "public", preferSystem.load( publicId, null ) );
+    }
+
+    private static void assertEntity( String expected, byte[] content )
+        throws Exception
+    {
+        assertNotNull( content );
+        assertTrue( new String( content, "UTF-8" ).contains( "<!ENTITY test \"" + expected + "\">" ) );
+    }
+
+    /**
+     * Test the resolution of the catalog uris.
+     */
+    public void testResolve()
+    {
+        assertEquals( "a/b/c.dtd", CatalogEntityLoader.resolve( "a/b/", "c.dtd" ) );
+        assertEquals( "a/c.dtd", CatalogEntityLoader.resolve( "a/b/", "../c.dtd" ) );
+        assertEquals( "c.dtd", CatalogEntityLoader.resolve( "a/b/", "../../c.dtd" ) );
+        assertEquals( "a/b/d/c.dtd", CatalogEntityLoader.resolve( "a/b/", "./d/c.dtd" ) );
+    }
+}
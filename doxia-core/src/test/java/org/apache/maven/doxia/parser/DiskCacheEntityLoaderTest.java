@@ -0,0 +1,184 @@
+package org.apache.maven.doxia.parser;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.codehaus.plexus.PlexusTestCase;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Test the <code>DiskCacheEntityLoader</code>.
+ *
+ * @since 1.8
+ */
+public class DiskCacheEntityLoaderTest
+    extends PlexusTestCase
+{
+    private static final String SYSTEM_ID = "http://localhost/test.dtd";
+
+    private File directory;
+
+    private int loads;
+
+    private final EntityLoader delegate = new EntityLoader()
+    {
+        public byte[] load( String publicId, String systemId )
+        {
+            loads++;
+            return ( "<!ENTITY test \"" + systemId + "\">" ).getBytes();
+        }
+    };
+
+    /** {@inheritDoc} */
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        directory = getTestFile( "target/test-output/entity-cache" );
+        FileUtils.deleteDirectory( directory );
+    }
+
+    /**
+     * Entities are only loaded once, even by another loader on the same directory.
+     *
+     * @throws Exception if any.
+     */
+    public void testCache()
+        throws Exception
+    {
+        byte[] content = new DiskCacheEntityLoader( directory, delegate ).load( null, SYSTEM_ID );
+        assertEquals( 1, loads );
+
+        byte[] cached = new DiskCacheEntityLoader( directory, delegate ).load( null, SYSTEM_ID );
+        assertEquals( 1, loads );
+        assertEquals( new String( content ), new String( cached ) );
+
+        // one reference and one content file, no temporary files
+        assertEquals( 2, directory.list().length );
+    }
+
+    /**
+     * A corrupt entry is loaded again.
+     *
+     * @throws Exception if any.
+     */
+    public void testCorruptEntry()
+        throws Exception
+    {
+        DiskCacheEntityLoader loader = new DiskCacheEntityLoader( directory, delegate );
+        byte[] content = loader.load( null, SYSTEM_ID );
+
+        for ( File file : directory.listFiles() )
+        {
+            if ( !file.getName().endsWith( ".ref" ) )
+            {
+                write( file, "corrupt" );
+            }
+        }
+
+        byte[] reloaded = loader.load( null, SYSTEM_ID );
+        assertEquals( 2, loads );
+        assertEquals( new String( content ), new String( reloaded ) );
+    }
+
+    /**
+     * A reference file never designates a file outside the cache directory.
+     *
+     * @throws Exception if any.
+     */
+    public void testPlantedReference()
+        throws Exception
+    {
+        DiskCacheEntityLoader loader = new DiskCacheEntityLoader( directory, delegate );
+        byte[] content = loader.load( null, SYSTEM_ID );
+
+        File victim = new File( directory.getParentFile(), "entity-cache-victim" );
+        write( victim, "victim" );
+        for ( File file : directory.listFiles() )
+        {
+            if ( file.getName().endsWith( ".ref" ) )
+            {
+                write( file, "../" + victim.getName() );
+            }
+        }
+
+        byte[] reloaded = loader.load( null, SYSTEM_ID );
+        assertEquals( 2, loads );
+        assertEquals( new String( content ), new String( reloaded ) );
+        assertTrue( victim.isFile() );
+
+        // the reference is written again
+        assertEquals( new String( content ), new String( loader.load( null, SYSTEM_ID ) ) );
+        assertEquals( 2, loads );
+        victim.delete();
+    }
+
+    /**
+     * The default resolvers cache the entities in the configured directory, or not at all.
+     *
+     * @throws Exception if any.
+     */
+    public void testResolverCacheDirectory()
+        throws Exception
+    {
+        // file URLs are looked up by name at the root of the classpath
+        String systemId = getTestFile( "src/test/resources/validator-test.xsd" ).toURI().toString();
+
+        File previous = AbstractXmlParser.CachedFileEntityResolver.getCacheDirectory();
+        try
+        {
+            AbstractXmlParser.CachedFileEntityResolver.setCacheDirectory( directory );
+            new AbstractXmlParser.CachedFileEntityResolver().resolveEntity( null, systemId );
+            AbstractXmlParser.CachedFileEntityResolver.ENTITY_CACHE.remove( systemId );
+            assertEquals( 2, directory.list().length );
+
+            FileUtils.deleteDirectory( directory );
+            AbstractXmlParser.CachedFileEntityResolver.setCacheDirectory( null );
+            assertNull( AbstractXmlParser.CachedFileEntityResolver.getCacheDirectory() );
+            new AbstractXmlParser.CachedFileEntityResolver().resolveEntity( null, systemId );
+            assertFalse( directory.exists() );
+        }
+        finally
+        {
+            AbstractXmlParser.CachedFileEntityResolver.ENTITY_CACHE.remove( systemId );
+            AbstractXmlParser.CachedFileEntityResolver.setCacheDirectory( previous );
+        }
+    }
+
+    private static void write( File file, String content )
+        throws IOException
+    {
+        OutputStream out = new FileOutputStream( file );
+        try
+        {
+            out.write( content.getBytes() );
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+}
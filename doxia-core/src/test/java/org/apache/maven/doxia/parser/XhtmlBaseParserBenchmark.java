@@ -0,0 +1,109 @@
+package org.apache.maven.doxia.parser;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.SinkAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the tag dispatch of <code>XhtmlBaseParser</code> on a table-heavy document, the end tags of table cells
+ * being the last ones handled by <code>baseEndTag()</code>. Run with:
+ *
+ * <pre>
+ * mvn test-compile -Pbenchmarks
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt;
+ *     org.apache.maven.doxia.parser.XhtmlBaseParserBenchmark
+ * </pre>
+ *
+ * @since 1.8
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class XhtmlBaseParserBenchmark
+{
+    private static final String DOCUMENT = newDocument( 200, 8 );
+
+    private final XhtmlBaseParser parser = new XhtmlBaseParser();
+
+    private final Sink sink = new SinkAdapter();
+
+    private static String newDocument( int rows, int columns )
+    {
+        StringBuilder document = new StringBuilder( "<table border=\"0\"><caption>Table</caption><tr>" );
+        for ( int column = 0; column < columns; column++ )
+        {
+            document.append( "<th>Column " ).append( column ).append( "</th>" );
+        }
+        document.append( "</tr>" );
+
+        for ( int row = 0; row < rows; row++ )
+        {
+            document.append( "<tr>" );
+            for ( int column = 0; column < columns; column++ )
+            {
+                document.append( "<td><b>" ).append( row ).append( "</b> <code>" ).append( column )
+                    .append( "</code><br /><a href=\"#r" ).append( row ).append( "\">link</a></td>" );
+            }
+            document.append( "</tr>" );
+        }
+
+        return document.append( "</table>" ).toString();
+    }
+
+    /**
+     * @return the parser, to prevent dead code elimination.
+     * @throws ParseException if the document cannot be parsed.
+     */
+    @Benchmark
+    public Parser parseTable()
+        throws ParseException
+    {
+        parser.parse( DOCUMENT, sink );
+        return parser;
+    }
+
+    /**
+     * @param args not used.
+     * @throws RunnerException if the benchmark fails.
+     */
+    public static void main( String[] args )
+        throws RunnerException
+    {
+        new Runner( new OptionsBuilder().include( XhtmlBaseParserBenchmark.class.getSimpleName() ).build() ).run();
+    }
+}
@@ -19,13 +19,30 @@ package org.apache.maven.doxia.parser;
  * under the License.
  */
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.maven.doxia.logging.Log;
+import org.apache.maven.doxia.macro.MacroExecutionException;
+import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
 import org.apache.maven.doxia.sink.impl.SinkEventElement;
 import org.apache.maven.doxia.sink.impl.SinkEventTestingSink;
 
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.xml.XmlStreamReader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
 /**
  * Test for XhtmlBaseParser.
  *
@@ -437,6 +454,123 @@ public class XhtmlBaseParserTest
         assertFalse( it.hasNext() );
     }
 
+    /** @throws Exception  */
+    public void testLocalEntitiesNotShared()
+        throws Exception
+    {
+        parser.setValidate( false );
+        parser.parse( "<!DOCTYPE test [<!ENTITY flo \"&#x159;\">]><body><p>&flo;&laquo;</p></body>", sink );
+
+        // flo is only defined in the first document
+        SinkEventTestingSink otherSink = new SinkEventTestingSink();
+        new XhtmlBaseParser().parse( "<body><p>&flo;</p></body>", otherSink );
+        for ( SinkEventElement event : otherSink.getEventList() )
+        {
+            assertFalse( event.getArgs() != null && event.getArgs().length > 0
+                && "\u0159".equals( event.getArgs()[0] ) );
+        }
+
+        sink.reset();
+        parser.parse( "<body><p>&laquo;</p></body>", sink );
+
+        Iterator<SinkEventElement> it = sink.getEventList().iterator();
+        assertEquals( "paragraph", it.next().getName() );
+        assertEquals( "\u00AB", it.next().getArgs()[0] );
+    }
+
+    /** @throws Exception  */
+    public void testDTDEntities()
+        throws Exception
+    {
+        String base = "http://doxia.test/" + getName() + "/";
+        Map<String, byte[]> cache = AbstractXmlParser.CachedFileEntityResolver.ENTITY_CACHE;
+        cache.put( base + "test.dtd", ( "<!ENTITY own \"&#x160;\">\n"
+            + "<!ENTITY % set PUBLIC \"-//TEST//ENTITIES Set//EN\" \"set.ent\">\n%set;" ).getBytes( "UTF-8" ) );
+        cache.put( base + "set.ent", "<!ENTITY included \"&#x161;\"><!ENTITY alias \"&own;\">".getBytes( "UTF-8" ) );
+        cache.put( base + "other.dtd", "<!ENTITY other \"&#x162;\">".getBytes( "UTF-8" ) );
+        try
+        {
+            parser.setValidate( false );
+            parser.parse( "<!DOCTYPE body PUBLIC \"-//TEST//DTD Test//EN\" \"" + base + "test.dtd\">"
+                + "<body><p>&own;&included;&alias;&other;</p></body>", sink );
+
+            Iterator<SinkEventElement> it = sink.getEventList().iterator();
+            assertEquals( "paragraph", it.next().getName() );
+            assertEquals( "\u0160", it.next().getArgs()[0] );
+            assertEquals( "\u0161", it.next().getArgs()[0] );
+            assertEquals( "\u0160", it.next().getArgs()[0] );
+
+            // only the entities of the DTD of the document are defined
+            while ( it.hasNext() )
+            {
+                SinkEventElement event = it.next();
+                assertFalse( event.getArgs() != null && event.getArgs().length > 0
+                    && "\u0162".equals( event.getArgs()[0] ) );
+            }
+        }
+        finally
+        {
+            cache.remove( base + "test.dtd" );
+            cache.remove( base + "set.ent" );
+            cache.remove( base + "other.dtd" );
+        }
+    }
+
+    /** @throws Exception  */
+    public void testNestedParse()
+        throws Exception
+    {
+        XhtmlBaseParser outer = new XhtmlBaseParser()
+        {
+            @Override
+            protected void handleStartTag( XmlPullParser xmlParser, Sink sink )
+                throws XmlPullParserException, MacroExecutionException
+            {
+                if ( "include".equals( xmlParser.getName() ) )
+                {
+                    // the outer pull parser is still in use
+                    try
+                    {
+                        new XhtmlBaseParser().parse( "<p>inner&laquo;</p>", sink );
+                    }
+                    catch ( ParseException e )
+                    {
+                        throw new MacroExecutionException( e.getMessage(), e );
+                    }
+                }
+                else
+                {
+                    super.handleStartTag( xmlParser, sink );
+                }
+            }
+
+            @Override
+            protected void handleEndTag( XmlPullParser xmlParser, Sink sink )
+                throws XmlPullParserException, MacroExecutionException
+            {
+                if ( !"include".equals( xmlParser.getName() ) )
+                {
+                    super.handleEndTag( xmlParser, sink );
+                }
+            }
+        };
+        outer.parse( "<body><p>before</p><include/><p>after&raquo;</p></body>", sink );
+
+        Iterator<SinkEventElement> it = sink.getEventList().iterator();
+        assertEquals( "paragraph", it.next().getName() );
+        assertEquals( "before", it.next().getArgs()[0] );
+        assertEquals( "paragraph_", it.next().getName() );
+        assertEquals( "paragraph", it.next().getName() );
+        assertEquals( "inner", it.next().getArgs()[0] );
+        assertEquals( "\u00AB", it.next().getArgs()[0] );
+        assertEquals( "paragraph_", it.next().getName() );
+        assertEquals( "paragraph", it.next().getName() );
+        assertEquals( "after", it.next().getArgs()[0] );
+        assertEquals( "\u00BB", it.next().getArgs()[0] );
+        assertEquals( "paragraph_", it.next().getName() );
+        assertFalse( it.hasNext() );
+    }
+
     /** @throws Exception  */
     public void testXhtmlEntities()
         throws Exception
@@ -764,4 +898,207 @@ public class XhtmlBaseParserTest
                       "definitionListItem_", "definitionList_" );
         assertFalse( it.hasNext() );
     }
+
+    /**
+     * One parser instance used by several threads must give the same events as a sequential parse.
+     *
+     * @throws Exception if any
+     */
+    public void testConcurrentParse()
+        throws Exception
+    {
+        final String[] texts = new String[] {
+            "<div><h2>a</h2><h4>b</h4><pre>c</pre><ol><li><u>d</u></li></ol></div>",
+            "<div><h6>e</h6><h3>f</h3><ul><li><a href=\"#g\">g</a></li></ul><s>h</s></div>" };
+
+        final List<List<String>> expected = new ArrayList<List<String>>();
+        for ( String text : texts )
+        {
+            sink.reset();
+            parser.parse( text, sink );
+            expected.add( eventNames( sink ) );
+        }
+
+        final List<String> failures = Collections.synchronizedList( new ArrayList<String>() );
+        Thread[] threads = new Thread[4];
+
+        for ( int t = 0; t < threads.length; t++ )
+        {
+            final int index = t % texts.length;
+            threads[t] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        for ( int i = 0; i < 200; i++ )
+                        {
+                            SinkEventTestingSink testSink = new SinkEventTestingSink();
+                            parser.parse( texts[index], testSink );
+
+                            if ( !expected.get( index ).equals( eventNames( testSink ) ) )
+                            {
+                                failures.add( "unexpected events: " + eventNames( testSink ) );
+                                return;
+                            }
+                        }
+                    }
+                    catch ( ParseException e )
+                    {
+                        failures.add( e.getMessage() );
+                    }
+                }
+            };
+            threads[t].start();
+        }
+
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        assertTrue( failures.toString(), failures.isEmpty() );
+    }
+
+    /**
+     * Undecorated text reaches the sink without being materialized as a String, even if whitespace is ignorable.
+     *
+     * @throws Exception if any
+     */
+    public void testTextWithoutString()
+        throws Exception
+    {
+        final int[] getTextCalls = new int[1];
+        XhtmlBaseParser countingParser = new XhtmlBaseParser()
+        {
+            {
+                setIgnorableWhitespace( true );
+            }
+
+            @Override
+            protected String getText( XmlPullParser xmlParser )
+            {
+                getTextCalls[0]++;
+                return super.getText( xmlParser );
+            }
+        };
+
+        countingParser.parse( "<div>\n  <p>text</p>\n  <p>more text</p>\n</div>", sink );
+
+        assertEquals( 0, getTextCalls[0] );
+        assertEquals( "[paragraph, text, paragraph_, paragraph, text, paragraph_]",
+                      eventNames( sink ).toString() );
+    }
+
+    private static List<String> eventNames( SinkEventTestingSink testSink )
+    {
+        List<String> names = new ArrayList<String>();
+
+        for ( SinkEventElement event : testSink.getEventList() )
+        {
+            names.add( event.getName() );
+        }
+
+        return names;
+    }
+
+    /**
+     * Pipelined parsing must send the same events as synchronous parsing.
+     */
+    public void testPipelined()
+        throws Exception
+    {
+        StringBuilder text = new StringBuilder( "<div>" );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            text.append( "<h2>Section " ).append( i ).append( "</h2><p>Some <b>bold</b> text</p>" );
+        }
+        text.append( "</div>" );
+
+        parser.parse( text.toString(), sink );
+
+        SinkEventTestingSink pipelinedSink = new SinkEventTestingSink();
+        parser.setPipelineExecutor( new Executor()
+        {
+            public void execute( Runnable command )
+            {
+                new Thread( command ).start();
+            }
+        } );
+        parser.parse( text.toString(), pipelinedSink );
+
+        List<SinkEventElement> expected = sink.getEventList();
+        List<SinkEventElement> actual = pipelinedSink.getEventList();
+        assertEquals( expected.size(), actual.size() );
+        for ( int i = 0; i < expected.size(); i++ )
+        {
+            assertEquals( expected.get( i ).getName(), actual.get( i ).getName() );
+            if ( "text".equals( expected.get( i ).getName() ) )
+            {
+                assertEquals( expected.get( i ).getArgs()[0], actual.get( i ).getArgs()[0] );
+            }
+        }
+    }
+
+    /**
+     * Pipelined parsing and validation must not deadlock on a single thread executor, which also runs the parse.
+     *
+     * @throws Exception if any.
+     */
+    public void testPipelinedOnSharedExecutor()
+        throws Exception
+    {
+        final String text =
+            IOUtil.toString( new XmlStreamReader( this.getClass().getResourceAsStream( "/test.xhtml" ) ) );
+
+        parser.setValidate( true );
+        parser.parse( text, sink );
+
+        final SinkEventTestingSink pipelinedSink = new SinkEventTestingSink();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            Future<?> parse = executor.submit( new Callable<Object>()
+            {
+                public Object call()
+                    throws ParseException
+                {
+                    parser.setPipelineExecutor( executor );
+                    parser.parse( text, pipelinedSink );
+                    return null;
+                }
+            } );
+
+            parse.get( 30, TimeUnit.SECONDS );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        assertEquals( eventNames( sink ), eventNames( pipelinedSink ) );
+    }
+
+    /**
+     * An invalid content is reported once the sink has received the events of the document.
+     */
+    public void testValidateAfterEvents()
+        throws Exception
+    {
+        String text = IOUtil.toString( new XmlStreamReader( this.getClass().getResourceAsStream( "/test.xhtml" ) ) );
+
+        parser.setValidate( true );
+        try
+        {
+            parser.parse( text.replace( "p>", "unknown>" ), sink );
+            fail( "invalid content" );
+        }
+        catch ( ParseException e )
+        {
+            assertTrue( e.getMessage(), e.getMessage().contains( "unknown" ) );
+        }
+
+        assertFalse( sink.getEventList().isEmpty() );
+    }
 }
@@ -105,6 +105,31 @@ public class AbstractXmlSinkTest
         assertEquals( "<a style=\"bold\" />", instance.getText() );
     }
 
+    /**
+     * Block tags but the first one are preceded by an EOL, with or without attributes.
+     */
+    public void testWriteBlockTags()
+    {
+        final SinkEventAttributes att = new SinkEventAttributeSet( SinkEventAttributeSet.BOLD );
+        final XmlTestSink instance = new XmlTestSink();
+
+        instance.writeStartTag( Tag.P );
+        assertEquals( "<p>", instance.getText() );
+
+        instance.writeStartTag( Tag.P );
+        instance.writeSimpleTag( Tag.DIV );
+        instance.writeStartTag( Tag.P, att );
+        instance.writeSimpleTag( Tag.DIV, att );
+        instance.writeSimpleTag( Tag.BR );
+        instance.writeEndTag( Tag.P );
+        assertEquals( Markup.EOL + "<p>" + Markup.EOL + "<div />" + Markup.EOL + "<p style=\"bold\">" + Markup.EOL
+            + "<div style=\"bold\" /><br /></p>", instance.getText() );
+
+        instance.setInsertNewline( false );
+        instance.writeStartTag( Tag.P );
+        assertEquals( "<p>", instance.getText() );
+    }
+
     /**
      * Test of writeEOL method, of class AbstractXmlSink.
      */
@@ -0,0 +1,112 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Test case for <code>ChannelWriter</code>.
+ */
+public class ChannelWriterTest
+    extends TestCase
+{
+    private static final String[] CHARSETS = { "UTF-8", "ISO-8859-1", "UTF-16", "windows-1252" };
+
+    private static final String TEXT = "plain <text> \u00e4\u0159\uD835\uDFED\u007f~ \u20ac\r\n";
+
+    /**
+     * The bytes are the same as with String.getBytes(), whatever the writes.
+     */
+    public void testSameAsGetBytes()
+        throws IOException
+    {
+        StringBuilder large = new StringBuilder();
+        while ( large.length() < 3 * ChannelWriter.BUFFER_SIZE )
+        {
+            large.append( TEXT );
+        }
+
+        for ( String name : CHARSETS )
+        {
+            Charset charset = Charset.forName( name );
+            assertEncoded( TEXT, charset );
+            assertEncoded( large.toString(), charset );
+        }
+    }
+
+    /**
+     * A surrogate pair may be split over two writes.
+     */
+    public void testSplitSurrogatePair()
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Writer writer = new ChannelWriter( Channels.newChannel( out ), Charset.forName( "UTF-8" ) );
+        writer.write( "a\uD835" );
+        writer.write( '\uDFED' );
+        writer.write( "\uD835" );
+        writer.close();
+
+        assertEquals( "a\uD835\uDFED?", new String( out.toByteArray(), "UTF-8" ) );
+    }
+
+    /**
+     * A closed writer fails.
+     */
+    public void testClosed()
+        throws IOException
+    {
+        Writer writer = new ChannelWriter( Channels.newChannel( new ByteArrayOutputStream() ),
+                                           Charset.forName( "UTF-8" ) );
+        writer.close();
+        writer.close();
+
+        try
+        {
+            writer.write( "text" );
+            fail( "Writer closed" );
+        }
+        catch ( IOException e )
+        {
+            assertNotNull( e );
+        }
+    }
+
+    private static void assertEncoded( String text, Charset charset )
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Writer writer = new ChannelWriter( Channels.newChannel( out ), charset );
+        int half = text.length() / 2;
+        writer.write( text.toCharArray(), 0, half );
+        writer.flush();
+        writer.write( text, half, text.length() - half );
+        writer.close();
+
+        assertTrue( charset.name(), Arrays.equals( text.getBytes( charset.name() ), out.toByteArray() ) );
+    }
+}
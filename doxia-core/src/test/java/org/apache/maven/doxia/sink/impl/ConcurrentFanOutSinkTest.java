@@ -0,0 +1,204 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.doxia.sink.Sink;
+
+/**
+ * Test the <code>ConcurrentFanOutSink</code>.
+ *
+ * @since 1.8
+ */
+public class ConcurrentFanOutSinkTest
+    extends TestCase
+{
+    private static final Executor THREAD_PER_TASK = new Executor()
+    {
+        public void execute( Runnable command )
+        {
+            new Thread( command ).start();
+        }
+    };
+
+    /**
+     * Every sink must receive all events, in order.
+     */
+    public void testFanOut()
+    {
+        StringWriter expected = new StringWriter();
+        Sink sink = new XhtmlBaseSink( expected );
+        for ( int i = 0; i < 10; i++ )
+        {
+            SinkTestDocument.generate( sink );
+        }
+        sink.close();
+
+        List<StringWriter> writers = new ArrayList<StringWriter>();
+        List<Sink> sinks = new ArrayList<Sink>();
+        for ( int i = 0; i < 3; i++ )
+        {
+            StringWriter writer = new StringWriter();
+            writers.add( writer );
+            sinks.add( new XhtmlBaseSink( writer ) );
+        }
+
+        // a small capacity makes the producer wait for the sinks
+        sink = new ConcurrentFanOutSink( sinks, THREAD_PER_TASK, 1 );
+        for ( int i = 0; i < 10; i++ )
+        {
+            SinkTestDocument.generate( sink );
+        }
+        sink.close();
+
+        for ( StringWriter writer : writers )
+        {
+            assertEquals( expected.toString(), writer.toString() );
+        }
+    }
+
+    /**
+     * A single thread executor must not deadlock, even if it has less threads than sinks.
+     *
+     * @throws InterruptedException if interrupted.
+     */
+    public void testBoundedExecutor()
+        throws InterruptedException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( 1 );
+        try
+        {
+            assertFanOut( executor );
+        }
+        finally
+        {
+            executor.shutdown();
+            assertTrue( executor.awaitTermination( 10, TimeUnit.SECONDS ) );
+        }
+    }
+
+    /**
+     * The producer must run the sink tasks that the executor does not start.
+     */
+    public void testIdleExecutor()
+    {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        assertFanOut( new Executor()
+        {
+            public void execute( Runnable command )
+            {
+                tasks.add( command );
+            }
+        } );
+
+        assertFalse( tasks.isEmpty() );
+        for ( Runnable task : tasks )
+        {
+            // the tasks were run by the producer already, so they must do nothing
+            task.run();
+        }
+    }
+
+    private void assertFanOut( Executor executor )
+    {
+        StringWriter expected = new StringWriter();
+        Sink sink = new XhtmlBaseSink( expected );
+        for ( int i = 0; i < 10; i++ )
+        {
+            SinkTestDocument.generate( sink );
+        }
+        sink.close();
+
+        List<StringWriter> writers = new ArrayList<StringWriter>();
+        List<Sink> sinks = new ArrayList<Sink>();
+        for ( int i = 0; i < 3; i++ )
+        {
+            StringWriter writer = new StringWriter();
+            writers.add( writer );
+            sinks.add( new XhtmlBaseSink( writer ) );
+        }
+
+        sink = new ConcurrentFanOutSink( sinks, executor, 1 );
+        for ( int i = 0; i < 10; i++ )
+        {
+            SinkTestDocument.generate( sink );
+        }
+        sink.close();
+
+        for ( StringWriter writer : writers )
+        {
+            assertEquals( expected.toString(), writer.toString() );
+        }
+    }
+
+    /**
+     * A failing sink must not hold back the other sinks, and its exception is rethrown by close().
+     */
+    public void testFailure()
+    {
+        final IllegalArgumentException failure = new IllegalArgumentException();
+        StringWriter expected = new StringWriter();
+        Sink sink = new XhtmlBaseSink( expected );
+        for ( int i = 0; i < 10; i++ )
+        {
+            SinkTestDocument.generate( sink );
+        }
+        sink.close();
+
+        StringWriter writer = new StringWriter();
+        List<Sink> sinks = new ArrayList<Sink>();
+        sinks.add( new SinkAdapter()
+        {
+            @Override
+            public void text( String text )
+            {
+                throw failure;
+            }
+        } );
+        sinks.add( new XhtmlBaseSink( writer ) );
+
+        sink = new ConcurrentFanOutSink( sinks, THREAD_PER_TASK, 1 );
+        for ( int i = 0; i < 10; i++ )
+        {
+            SinkTestDocument.generate( sink );
+        }
+
+        try
+        {
+            sink.close();
+            fail( "the failure of a sink must be rethrown" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            assertSame( failure, e );
+        }
+
+        assertEquals( expected.toString(), writer.toString() );
+    }
+}
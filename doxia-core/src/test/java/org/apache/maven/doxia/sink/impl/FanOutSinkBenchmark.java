@@ -0,0 +1,101 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.doxia.index.IndexEntry;
+import org.apache.maven.doxia.index.IndexingSink;
+import org.apache.maven.doxia.sink.Sink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the reflective <code>PipelineSink</code> proxy with the <code>FanOutSink</code>, teeing a document
+ * into an <code>IndexingSink</code> and an output sink. Run with:
+ *
+ * <pre>
+ * mvn test-compile -Pbenchmarks
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt;
+ *     org.apache.maven.doxia.sink.impl.FanOutSinkBenchmark
+ * </pre>
+ *
+ * @since 1.8
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class FanOutSinkBenchmark
+{
+    private List<Sink> newPipeline()
+    {
+        List<Sink> pipeline = new ArrayList<Sink>();
+        pipeline.add( new IndexingSink( new IndexEntry( "index" ) ) );
+        pipeline.add( new SinkAdapter() );
+        return pipeline;
+    }
+
+    /**
+     * @return the pipeline, to prevent dead code elimination.
+     */
+    @Benchmark
+    public Sink proxy()
+    {
+        Sink sink = PipelineSink.newInstance( newPipeline() );
+        SinkTestDocument.generate( sink );
+        return sink;
+    }
+
+    /**
+     * @return the pipeline, to prevent dead code elimination.
+     */
+    @Benchmark
+    public Sink fanOut()
+    {
+        Sink sink = PipelineSink.newFanOutInstance( newPipeline() );
+        SinkTestDocument.generate( sink );
+        return sink;
+    }
+
+    /**
+     * @param args not used.
+     * @throws RunnerException if the benchmark fails.
+     */
+    public static void main( String[] args )
+        throws RunnerException
+    {
+        new Runner( new OptionsBuilder().include( FanOutSinkBenchmark.class.getSimpleName() ).build() ).run();
+    }
+}
@@ -0,0 +1,78 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.doxia.sink.Sink;
+
+/**
+ * Test the <code>FanOutSink</code>.
+ *
+ * @since 1.8
+ */
+public class FanOutSinkTest
+    extends TestCase
+{
+    /**
+     * Every sink must receive all events.
+     */
+    public void testFanOut()
+    {
+        StringWriter expected = new StringWriter();
+        SinkTestDocument.generate( new XhtmlBaseSink( expected ) );
+
+        StringWriter first = new StringWriter();
+        StringWriter second = new StringWriter();
+        List<Sink> pipeline = new ArrayList<Sink>();
+        pipeline.add( new XhtmlBaseSink( first ) );
+        FanOutSink sink = PipelineSink.newFanOutInstance( pipeline );
+        sink.addSink( new XhtmlBaseSink( second ) );
+
+        SinkTestDocument.generate( sink );
+
+        assertEquals( expected.toString(), first.toString() );
+        assertEquals( expected.toString(), second.toString() );
+    }
+
+    /**
+     * The PipelineSink proxy sees the sinks added to its list afterwards, a FanOutSink does not.
+     */
+    public void testPipelineListChanges()
+    {
+        StringWriter expected = new StringWriter();
+        SinkTestDocument.generate( new XhtmlBaseSink( expected ) );
+
+        StringWriter proxied = new StringWriter();
+        List<Sink> pipeline = new ArrayList<Sink>();
+        Sink proxy = PipelineSink.newInstance( pipeline );
+        Sink fanOut = PipelineSink.newFanOutInstance( pipeline );
+        pipeline.add( new XhtmlBaseSink( proxied ) );
+
+        SinkTestDocument.generate( proxy );
+        SinkTestDocument.generate( fanOut );
+
+        assertEquals( expected.toString(), proxied.toString() );
+    }
+}
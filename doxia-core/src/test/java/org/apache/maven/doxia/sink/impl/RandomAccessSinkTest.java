@@ -23,8 +23,12 @@ package org.apache.maven.doxia.sink.impl;
  * @author Robert Scholte
  */
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.Writer;
 
+import org.codehaus.plexus.util.FileUtils;
+
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.SinkFactory;
 import org.apache.maven.doxia.sink.impl.AbstractXmlSinkFactory;
@@ -106,4 +110,65 @@ public class RandomAccessSinkTest
 
         assertEquals( outFlatSink.toString( encoding ), outRandomAccessSink.toString( encoding ) );
     }
+
+    public void testSpillToDisk()
+        throws Exception
+    {
+        String encoding = "UTF-8";
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < 5000; i++ )
+        {
+            sb.append( "line " ).append( i ).append( ' ' );
+        }
+        String summaryText = sb.toString();
+        String detailText = "Detail text";
+
+        ByteArrayOutputStream outFlatSink = new ByteArrayOutputStream();
+        Sink flatSink = factory.createSink( outFlatSink, encoding );
+        buildSimple( flatSink, summaryText );
+        flatSink.horizontalRule();
+        buildSimple( flatSink, detailText );
+        flatSink.flush();
+        flatSink.close();
+        String expected = outFlatSink.toString( encoding );
+
+        // some segments in memory, the rest spilled, written to a stream and to a file channel
+        for ( int threshold = 0; threshold <= 16 * 1024; threshold += 16 * 1024 )
+        {
+            ByteArrayOutputStream outRandomAccessSink = new ByteArrayOutputStream();
+            RandomAccessSink randomAccessSink = new RandomAccessSink( factory, outRandomAccessSink, encoding );
+            randomAccessSink.setMemoryThreshold( threshold );
+            buildComplex( randomAccessSink, summaryText, detailText );
+
+            assertEquals( expected, outRandomAccessSink.toString( encoding ) );
+
+            File file = File.createTempFile( "RandomAccessSinkTest", ".txt" );
+            try
+            {
+                randomAccessSink = new RandomAccessSink( factory, new FileOutputStream( file ), encoding );
+                randomAccessSink.setMemoryThreshold( threshold );
+                buildComplex( randomAccessSink, summaryText, detailText );
+
+                assertEquals( expected, FileUtils.fileRead( file, encoding ) );
+            }
+            finally
+            {
+                file.delete();
+            }
+        }
+    }
+
+    private void buildComplex( RandomAccessSink randomAccessSink, String summaryText, String detailText )
+        throws Exception
+    {
+        Sink summarySink = randomAccessSink.addSinkHook();
+        randomAccessSink.horizontalRule();
+        Sink detailSink = randomAccessSink.addSinkHook();
+
+        buildSimple( detailSink, detailText );
+        buildSimple( summarySink, summaryText );
+
+        randomAccessSink.flush();
+        randomAccessSink.close();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+
+/**
+ * Test the <code>RecordingSink</code> and the replay of its <code>SinkEventLog</code>.
+ *
+ * @since 1.8
+ */
+public class RecordingSinkTest
+    extends TestCase
+{
+    /**
+     * Replaying a recorded document must produce the same output as rendering it directly.
+     */
+    public void testReplay()
+    {
+        StringWriter expected = new StringWriter();
+        SinkTestDocument.generate( new XhtmlBaseSink( expected ) );
+
+        RecordingSink recorder = new RecordingSink();
+        SinkTestDocument.generate( recorder );
+        SinkEventLog log = recorder.getEventLog();
+
+        StringWriter actual = new StringWriter();
+        log.replay( new XhtmlBaseSink( actual ) );
+        assertEquals( expected.toString(), actual.toString() );
+
+        // a log can be replayed more than once
+        actual = new StringWriter();
+        log.replay( new XhtmlBaseSink( actual ) );
+        assertEquals( expected.toString(), actual.toString() );
+    }
+
+    /**
+     * The recorded events and their arguments must be replayed unchanged.
+     */
+    public void testEvents()
+    {
+        RecordingSink recorder = new RecordingSink();
+        recorder.section( Sink.SECTION_LEVEL_2, null );
+        recorder.tableRows( new int[] { Sink.JUSTIFY_LEFT, Sink.JUSTIFY_RIGHT }, true );
+        recorder.verbatim( SinkEventAttributeSet.BOXED );
+        recorder.text( "text" );
+        recorder.unknown( "unknown", new Object[] { Integer.valueOf( 1 ) }, null );
+        recorder.close();
+
+        SinkEventLog log = recorder.getEventLog();
+        assertEquals( 5, log.size() );
+
+        SinkEventTestingSink testingSink = new SinkEventTestingSink();
+        log.replay( testingSink );
+
+        assertEquals( 5, testingSink.getEventList().size() );
+        SinkEventElement event = testingSink.getEventList().get( 0 );
+        assertEquals( "section2", event.getName() );
+        event = testingSink.getEventList().get( 1 );
+        assertEquals( "tableRows", event.getName() );
+        assertEquals( Sink.JUSTIFY_RIGHT, ( (int[]) event.getArgs()[0] )[1] );
+        assertEquals( Boolean.TRUE, event.getArgs()[1] );
+        event = testingSink.getEventList().get( 2 );
+        assertEquals( "verbatim", event.getName() );
+        assertEquals( SinkEventAttributeSet.BOXED, event.getArgs()[0] );
+        event = testingSink.getEventList().get( 3 );
+        assertEquals( "text", event.getName() );
+        assertEquals( "text", event.getArgs()[0] );
+        event = testingSink.getEventList().get( 4 );
+        assertEquals( "unknown", event.getName() );
+        assertEquals( Integer.valueOf( 1 ), ( (Object[]) event.getArgs()[1] )[0] );
+    }
+
+    /**
+     * Attributes are copied when recorded and when replayed.
+     */
+    public void testAttributesAreCopied()
+    {
+        SinkEventAttributeSet attributes = new SinkEventAttributeSet( SinkEventAttributes.ID, "id" );
+
+        RecordingSink recorder = new RecordingSink();
+        recorder.paragraph( attributes );
+        recorder.paragraph_();
+        recorder.paragraph( attributes );
+        recorder.paragraph_();
+        attributes.addAttribute( SinkEventAttributes.CLASS, "modified" );
+
+        SinkEventTestingSink testingSink = new SinkEventTestingSink();
+        recorder.getEventLog().replay( testingSink );
+
+        SinkEventAttributes first = (SinkEventAttributes) testingSink.getEventList().get( 0 ).getArgs()[0];
+        SinkEventAttributes second = (SinkEventAttributes) testingSink.getEventList().get( 2 ).getArgs()[0];
+        assertEquals( 1, first.getAttributeCount() );
+        assertEquals( "id", first.getAttribute( SinkEventAttributes.ID ) );
+        assertEquals( first, second );
+        assertNotSame( first, second );
+
+        first.removeAttribute( SinkEventAttributes.ID );
+        assertEquals( "id", second.getAttribute( SinkEventAttributes.ID ) );
+    }
+}
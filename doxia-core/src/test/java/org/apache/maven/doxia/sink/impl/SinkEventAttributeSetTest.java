@@ -282,4 +282,83 @@ public class SinkEventAttributeSetTest extends TestCase
         expected = " decoration=boxed align=center";
         assertEquals( expected, sinkEventAttributeSet.toString() );
     }
+
+    /**
+     * Test of the EMPTY and unmodifiable sets.
+     */
+    public void testUnmodifiable()
+    {
+        assertEquals( 0, SinkEventAttributeSet.EMPTY.getAttributeCount() );
+        assertFalse( SinkEventAttributeSet.EMPTY.getAttributeNames().hasMoreElements() );
+
+        try
+        {
+            SinkEventAttributeSet.EMPTY.addAttribute( "key", "value" );
+            fail( "EMPTY is unmodifiable!" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            assertNotNull( e );
+        }
+
+        try
+        {
+            SinkEventAttributeSet.BOLD.removeAttribute( SinkEventAttributes.STYLE );
+            fail( "BOLD is unmodifiable!" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            assertEquals( "bold", SinkEventAttributeSet.BOLD.getAttribute( SinkEventAttributes.STYLE ) );
+        }
+
+        SinkEventAttributeSet copy = (SinkEventAttributeSet) SinkEventAttributeSet.BOLD.copyAttributes();
+        copy.addAttribute( SinkEventAttributes.STYLE, "italic" );
+        assertEquals( "italic", copy.getAttribute( SinkEventAttributes.STYLE ) );
+        assertEquals( "bold", SinkEventAttributeSet.BOLD.getAttribute( SinkEventAttributes.STYLE ) );
+    }
+
+    /**
+     * Copies share the attributes until either set is modified.
+     */
+    public void testCopyOnWrite()
+    {
+        sinkEventAttributeSet.addAttribute( SinkEventAttributes.ID, "id" );
+        sinkEventAttributeSet.addAttribute( SinkEventAttributes.CLASS, "class" );
+
+        SinkEventAttributeSet copy = new SinkEventAttributeSet( sinkEventAttributeSet );
+        SinkEventAttributeSet clone = (SinkEventAttributeSet) sinkEventAttributeSet.clone();
+
+        copy.removeAttribute( SinkEventAttributes.ID );
+        clone.addAttribute( SinkEventAttributes.CLASS, "other" );
+        sinkEventAttributeSet.addAttribute( SinkEventAttributes.TITLE, "title" );
+
+        assertEquals( " id=id class=class title=title", sinkEventAttributeSet.toString() );
+        assertEquals( " class=class", copy.toString() );
+        assertEquals( " id=id class=other", clone.toString() );
+    }
+
+    /**
+     * The attribute names are enumerated in insertion order, as they were when the enumeration was created.
+     */
+    public void testEnumerationSnapshot()
+    {
+        for ( int i = 0; i < 20; i++ )
+        {
+            sinkEventAttributeSet.addAttribute( "key" + i, Integer.valueOf( i ) );
+        }
+        sinkEventAttributeSet.addAttribute( "key0", "replaced" );
+        assertEquals( "replaced", sinkEventAttributeSet.getAttribute( new String( "key0" ) ) );
+
+        int count = 0;
+        Enumeration<String> names = sinkEventAttributeSet.getAttributeNames();
+        while ( names.hasMoreElements() )
+        {
+            assertEquals( "key" + count, names.nextElement() );
+            sinkEventAttributeSet.removeAttribute( "key" + count );
+            count++;
+        }
+
+        assertEquals( 20, count );
+        assertTrue( sinkEventAttributeSet.isEmpty() );
+    }
 }
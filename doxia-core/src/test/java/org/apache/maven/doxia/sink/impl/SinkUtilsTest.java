@@ -83,7 +83,21 @@ public class SinkUtilsTest
         result = SinkUtils.filterAttributes( SinkEventAttributeSet.BOLD, SinkUtils.SINK_BASE_ATTRIBUTES );
         assertEquals( 1, result.getAttributeCount() );
 
+        // the result is modifiable and independent of the filtered attributes
+        result.addAttribute( SinkEventAttributes.ID, "id" );
+        assertEquals( 2, result.getAttributeCount() );
+        assertEquals( 1, SinkEventAttributeSet.BOLD.getAttributeCount() );
+
         result = SinkUtils.filterAttributes( SinkEventAttributeSet.CENTER, SinkUtils.SINK_BASE_ATTRIBUTES );
         assertEquals( 0, result.getAttributeCount() );
+
+        SinkEventAttributes td = new SinkEventAttributeSet( new String[] {SinkEventAttributes.ID, "id",
+            SinkEventAttributes.HREF, "href", SinkEventAttributes.COLSPAN, "2", "unknown", "value"} );
+        result = SinkUtils.filterAttributes( td, SinkUtils.SINK_TD_ATTRIBUTES );
+        assertEquals( " id=\"id\" colspan=\"2\"", SinkUtils.getAttributeString( result ) );
+
+        // a whitelist which is not one of SinkUtils is searched
+        result = SinkUtils.filterAttributes( td, new String[] {SinkEventAttributes.HREF, "unknown"} );
+        assertEquals( " href=\"href\" unknown=\"value\"", SinkUtils.getAttributeString( result ) );
     }
 }
@@ -0,0 +1,219 @@
+package org.apache.maven.doxia.sink.impl;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.doxia.sink.Sink;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Test case for <code>WriteBehindChannel</code>.
+ */
+public class WriteBehindChannelTest
+    extends TestCase
+{
+    private ExecutorService executor;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+        executor = Executors.newFixedThreadPool( 2 );
+    }
+
+    @Override
+    protected void tearDown()
+        throws Exception
+    {
+        executor.shutdown();
+        super.tearDown();
+    }
+
+    /**
+     * The bytes are written in order, and all of them once the channel is flushed or closed.
+     */
+    public void testOrder()
+        throws IOException
+    {
+        byte[] expected = new byte[10 * WriteBehindChannel.CHUNK_SIZE + 17];
+        for ( int i = 0; i < expected.length; i++ )
+        {
+            expected[i] = (byte) ( i % 251 );
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WriteBehindChannel channel = new WriteBehindChannel( Channels.newChannel( slow( out ) ), executor );
+        int half = expected.length / 2;
+        for ( int i = 0; i < half; i += 1000 )
+        {
+            channel.write( ByteBuffer.wrap( expected, i, Math.min( 1000, half - i ) ) );
+        }
+        channel.flush();
+        assertEquals( half, out.size() );
+
+        channel.write( ByteBuffer.wrap( expected, half, expected.length - half ) );
+        channel.close();
+
+        assertFalse( channel.isOpen() );
+        assertTrue( Arrays.equals( expected, out.toByteArray() ) );
+    }
+
+    /**
+     * A writer running in the only thread of the executor writes the chunks itself instead of waiting for the tasks.
+     */
+    public void testSharedSingleThreadExecutor()
+        throws Exception
+    {
+        int chunks = 2 * WriteBehindChannel.MAX_PENDING_CHUNKS + 1;
+        final byte[] expected = new byte[chunks * WriteBehindChannel.CHUNK_SIZE + 17];
+        for ( int i = 0; i < expected.length; i++ )
+        {
+            expected[i] = (byte) ( i % 251 );
+        }
+
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try
+        {
+            Future<Void> writer = single.submit( new Callable<Void>()
+            {
+                public Void call()
+                    throws IOException
+                {
+                    WriteBehindChannel channel = new WriteBehindChannel( Channels.newChannel( out ), single );
+                    for ( int i = 0; i < expected.length; i += 1000 )
+                    {
+                        channel.write( ByteBuffer.wrap( expected, i, Math.min( 1000, expected.length - i ) ) );
+                    }
+                    channel.close();
+                    return null;
+                }
+            } );
+            writer.get( 30, TimeUnit.SECONDS );
+        }
+        finally
+        {
+            single.shutdownNow();
+        }
+
+        assertTrue( Arrays.equals( expected, out.toByteArray() ) );
+    }
+
+    /**
+     * The errors of the tasks are thrown by the writing thread.
+     */
+    public void testFailure()
+        throws IOException
+    {
+        WritableByteChannel failing = new WritableByteChannel()
+        {
+            public int write( ByteBuffer src )
+                throws IOException
+            {
+                throw new IOException( "disk full" );
+            }
+
+            public boolean isOpen()
+            {
+                return true;
+            }
+
+            public void close()
+            {
+                // nop
+            }
+        };
+
+        WriteBehindChannel channel = new WriteBehindChannel( failing, executor );
+        channel.write( ByteBuffer.wrap( new byte[100] ) );
+        try
+        {
+            channel.close();
+            fail( "Task failure not reported" );
+        }
+        catch ( IOException e )
+        {
+            assertEquals( "disk full", e.getMessage() );
+        }
+    }
+
+    /**
+     * Sinks of a factory with a write-behind executor write their files completely.
+     */
+    public void testSinkFactory()
+        throws IOException
+    {
+        AbstractTextSinkFactory factory = new AbstractTextSinkFactory()
+        {
+            protected Sink createSink( Writer writer, String encoding )
+            {
+                return new XhtmlBaseSink( writer );
+            }
+        };
+        factory.setWriteBehindExecutor( executor );
+
+        File outputDir = new File( "target/test-output/write-behind" );
+        Sink sink = factory.createSink( outputDir, "test.html" );
+        sink.paragraph();
+        sink.text( "text" );
+        sink.paragraph_();
+        sink.close();
+
+        assertEquals( "<p>text</p>", FileUtils.fileRead( new File( outputDir, "test.html" ), "UTF-8" ) );
+    }
+
+    private static OutputStream slow( final OutputStream out )
+    {
+        return new OutputStream()
+        {
+            @Override
+            public void write( int b )
+                throws IOException
+            {
+                out.write( b );
+            }
+
+            @Override
+            public void write( byte[] b, int off, int len )
+                throws IOException
+            {
+                Thread.yield();
+                out.write( b, off, len );
+            }
+        };
+    }
+}
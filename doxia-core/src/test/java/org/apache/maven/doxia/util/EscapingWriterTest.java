@@ -0,0 +1,101 @@
+package org.apache.maven.doxia.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+/**
+ * Test case for <code>EscapingWriter</code>.
+ */
+public class EscapingWriterTest
+    extends TestCase
+{
+    private static final String[] TEXTS =
+    {
+        "", "plain text", "<a href=\"x\">'&'</a>", "&#160; &amp; &", "\u00e4\u0159\uD835\uDFED\u007f~",
+        "a\r\nb\rc\nd\r"
+    };
+
+    /**
+     * The escaped text is the same as with HtmlTools.
+     */
+    public void testSameAsHtmlTools()
+    {
+        for ( int xml = 0; xml < 2; xml++ )
+        {
+            for ( String text : TEXTS )
+            {
+                assertEquals( HtmlTools.escapeHTML( text, xml == 1 ), escape( text, xml == 1, null, false ) );
+            }
+        }
+    }
+
+    /**
+     * Line terminators are normalized in the same pass.
+     */
+    public void testEol()
+    {
+        assertEquals( "a||b||c||d||&lt;", escape( "a\r\nb\rc\nd\r<", false, "||", false ) );
+        assertEquals( "||", escape( "\n", true, "||", false ) );
+    }
+
+    /**
+     * Numeric character references may be kept, see DOXIA-314.
+     */
+    public void testKeepCharacterReferences()
+    {
+        assertEquals( "&#160; &amp;amp; &amp;", escape( "&#160; &amp; &", false, null, true ) );
+        assertEquals( "&amp;#160;", escape( "&#160;", false, null, false ) );
+    }
+
+    /**
+     * Characters, Strings and ranges of Strings give the same result.
+     */
+    public void testWrites()
+    {
+        StringWriter out = new StringWriter();
+        EscapingWriter writer = new EscapingWriter( out, false, null );
+        writer.write( "x<y>z", 1, 3 );
+        writer.write( "<>".toCharArray(), 1, 1 );
+        writer.write( '&' );
+        writer.print( "clean" );
+        writer.flush();
+
+        assertEquals( "&lt;y&gt;&gt;&amp;clean", out.toString() );
+        assertFalse( writer.checkError() );
+    }
+
+    private static String escape( String text, boolean xmlMode, String eol, boolean keep )
+    {
+        StringWriter out = new StringWriter();
+        EscapingWriter writer = new EscapingWriter( out, xmlMode, eol );
+        writer.setKeepCharacterReferences( keep );
+        writer.write( text );
+        String string = out.toString();
+
+        out.getBuffer().setLength( 0 );
+        writer.write( text.toCharArray() );
+        assertEquals( string, out.toString() );
+
+        return string;
+    }
+}
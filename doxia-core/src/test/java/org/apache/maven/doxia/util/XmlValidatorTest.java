@@ -19,8 +19,16 @@ package org.apache.maven.doxia.util;
  * under the License.
  */
 
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.xml.XMLConstants;
+
 import org.apache.maven.doxia.logging.Log;
 import org.apache.maven.doxia.logging.SystemStreamLog;
+import org.apache.maven.doxia.parser.ParseException;
 import org.codehaus.plexus.PlexusTestCase;
 import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.xml.XmlStreamReader;
@@ -44,4 +52,144 @@ extends PlexusTestCase
 
         validator.validate( xml );
     }
+
+    public void testValidateWithSchema()
+        throws Exception
+    {
+        XmlValidator validator = new XmlValidator( new SystemStreamLog() );
+
+        validator.validate( schemaDocument( "<item>a</item><item>b</item>" ) );
+
+        try
+        {
+            validator.validate( schemaDocument( "<item>a</item><unknown/>" ) );
+            fail( "invalid content" );
+        }
+        catch ( ParseException e )
+        {
+            assertTrue( e.getMessage(), e.getMessage().contains( "unknown" ) );
+        }
+    }
+
+    public void testValidateWithSchemaAndDtd()
+        throws Exception
+    {
+        XmlValidator validator = new XmlValidator( new SystemStreamLog() );
+
+        // the schema allows any number of items, the doctype exactly two
+        String doctype = "<!DOCTYPE document [\n<!ELEMENT document (item, item)>\n<!ELEMENT item (#PCDATA)>\n"
+            + "<!ATTLIST document xmlns:xsi CDATA #IMPLIED xsi:noNamespaceSchemaLocation CDATA #IMPLIED>\n]>\n";
+
+        validator.validate( schemaDocument( "<item>a</item><item>b</item>" ).replace( "?>\n", "?>\n" + doctype ) );
+
+        try
+        {
+            validator.validate( schemaDocument( "<item>a</item><item>b</item><item>c</item>" )
+                                    .replace( "?>\n", "?>\n" + doctype ) );
+            fail( "content not valid against the doctype" );
+        }
+        catch ( ParseException e )
+        {
+            assertTrue( e.getMessage(), e.getMessage().contains( "(item,item)" ) );
+        }
+    }
+
+    public void testProlog()
+    {
+        XmlValidator.Prolog prolog = XmlValidator.Prolog.scan( "<?xml version=\"1.0\"?>\n<!-- <!DOCTYPE a> -->\n"
+            + "<!DOCTYPE a [ <!ENTITY b \"<c>\"> ]>\n<a xmlns:x='" + XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI
+            + "' x:schemaLocation=\"urn:a a.xsd  urn:b b.xsd\" title=\"1 > 0\"><b/></a>" );
+
+        assertTrue( prolog.hasDoctype() );
+        assertTrue( prolog.hasXsd() );
+        assertEquals( Arrays.asList( "a.xsd", "b.xsd" ), prolog.getSchemaLocations() );
+
+        prolog = XmlValidator.Prolog.scan( "<!-- <!DOCTYPE a> --><a><b/></a>" );
+        assertFalse( prolog.hasDoctype() );
+        assertFalse( prolog.hasXsd() );
+        assertTrue( prolog.getSchemaLocations().isEmpty() );
+
+        // incomplete root tag
+        assertFalse( XmlValidator.Prolog.scan( "<!DOCTYPE a><a title=\">" ).hasXsd() );
+    }
+
+    public void testValidatingReader()
+        throws Exception
+    {
+        String xml = IOUtil.toString( new XmlStreamReader( this.getClass().getResourceAsStream( "/test.xhtml" ) ) );
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try
+        {
+            XmlValidator validator = new XmlValidator( new SystemStreamLog() );
+
+            ValidatingReader reader = validator.newValidatingReader( new StringReader( xml ), executor );
+            char[] buffer = new char[100];
+            int n = reader.read( buffer );
+            reader.await();
+            assertEquals( xml.substring( 0, n ), new String( buffer, 0, n ) );
+
+            reader = validator.newValidatingReader( new StringReader( xml.replace( "p>", "unknown>" ) ),
+                                                    executor );
+            try
+            {
+                reader.await();
+                fail( "invalid content" );
+            }
+            catch ( ParseException e )
+            {
+                assertTrue( e.getMessage(), e.getMessage().contains( "unknown" ) );
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    public void testValidatingReaderOnCallingThread()
+        throws Exception
+    {
+        String xml = IOUtil.toString( new XmlStreamReader( this.getClass().getResourceAsStream( "/test.xhtml" ) ) );
+        XmlValidator validator = new XmlValidator( new SystemStreamLog() );
+
+        ValidatingReader reader = validator.newValidatingReader( new StringReader( xml ) );
+        assertEquals( xml, IOUtil.toString( reader ) );
+        reader.await();
+
+        reader = validator.newValidatingReader( new StringReader( xml.replace( "p>", "unknown>" ) ) );
+        IOUtil.toString( reader );
+        try
+        {
+            reader.await();
+            fail( "invalid content" );
+        }
+        catch ( ParseException e )
+        {
+            assertTrue( e.getMessage(), e.getMessage().contains( "unknown" ) );
+        }
+    }
+
+    public void testValidatingReaderCharacters()
+        throws Exception
+    {
+        String xml = IOUtil.toString( new XmlStreamReader( this.getClass().getResourceAsStream( "/test.xhtml" ) ) );
+
+        ValidatingReader reader = new XmlValidator( new SystemStreamLog() ).newValidatingReader( new StringReader( xml ) );
+        StringBuilder content = new StringBuilder();
+        int c;
+        while ( ( c = reader.read() ) != -1 )
+        {
+            content.append( (char) c );
+        }
+        reader.await();
+
+        assertEquals( xml, content.toString() );
+    }
+
+    private static String schemaDocument( String content )
+    {
+        return "<?xml version=\"1.0\"?>\n<document xmlns:xsi=\"" + XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI
+            + "\" xsi:noNamespaceSchemaLocation=\"file:///validator-test.xsd\">" + content + "</document>";
+    }
 }
@@ -22,6 +22,7 @@ package org.apache.maven.doxia.module.apt;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
 import org.apache.maven.doxia.macro.manager.MacroNotFoundException;
+import org.apache.maven.doxia.macro.toc.DeferredTocSink;
 import org.apache.maven.doxia.parser.AbstractTextParser;
 import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.parser.Parser;
@@ -29,6 +30,7 @@ import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.SinkEventAttributes;
 import org.apache.maven.doxia.sink.impl.SinkAdapter;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
+import org.apache.maven.doxia.sink.impl.SinkUtils;
 import org.apache.maven.doxia.util.DoxiaUtils;
 
 import org.codehaus.plexus.component.annotations.Component;
@@ -195,6 +197,12 @@ public class AptParser
     public void parse( Reader source, Sink sink, String reference )
         throws ParseException
     {
+        if ( !isParseContext() )
+        {
+            parseInNewContext( source, sink, reference );
+            return;
+        }
+
         init();
 
         try
@@ -208,12 +216,14 @@ public class AptParser
             throw new AptParseException( "IOException: " + e.getMessage(), e );
         }
 
+        DeferredTocSink tocSink = newDeferredTocSink( sink, sourceContent, "%{toc" );
+
         try
         {
             this.source = new AptReaderSource( new StringReader( sourceContent ), reference );
 
-            this.sink = sink;
-            sink.enableLogging( getLog() );
+            this.sink = ( tocSink != null ) ? tocSink : sink;
+            this.sink.enableLogging( getLog() );
 
             blockFileName = null;
 
@@ -235,6 +245,11 @@ public class AptParser
             traverseHead();
 
             traverseBody();
+
+            if ( tocSink != null )
+            {
+                tocSink.resolve();
+            }
         }
         catch ( AptParseException ape )
         {
@@ -1446,7 +1461,7 @@ public class AptParser
     {
         if ( buffer.length() > 0 )
         {
-            sink.text( buffer.toString() );
+            SinkUtils.text( sink, buffer );
             buffer.setLength( 0 );
         }
     }
@@ -112,9 +112,15 @@ public class ConfluenceParser
     }
 
     @Override
-    public synchronized void parse( Reader source, Sink sink, String reference )
+    public void parse( Reader source, Sink sink, String reference )
         throws ParseException
     {
+        if ( !isParseContext() )
+        {
+            parseInNewContext( source, sink, reference );
+            return;
+        }
+
         ByLineSource src = new ByLineReaderSource( source, reference );
 
         try
@@ -20,9 +20,7 @@ package org.apache.maven.doxia.module.docbook;
  */
 
 import java.io.IOException;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Stack;
+import java.util.EmptyStackException;
 
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.markup.HtmlMarkup;
@@ -66,115 +64,22 @@ public class DocBookParser
     private char trademark;
 
     /**
-     * A selective stack of parent elements
+     * A selective stack of parent elements, as {@link DocbookElements} ids.
      */
-    private final Stack<String> parent = new Stack<String>();
+    private int[] parent = new int[16];
 
     /**
-     * The list of DocBook elements that introduce a new level of hierarchy.
+     * The number of elements in the parent stack.
      */
-    private static final Collection<String> HIER_ELEMENTS = new HashSet<String>();
-
-    /**
-     * Simplified DocBook elements that are direct children of &lt;article&gt;
-     * and that should be emitted into the Sink's head.
-     */
-    private static final Collection<String> META_ELEMENTS = new HashSet<String>();
-
-    /**
-     * Simplified DocBook elements that occur within &lt;articleinfo&gt;
-     * and that are currently recognized by the parser.
-     */
-    private static final Collection<String> ARTICLEINFO_ELEMENTS = new HashSet<String>();
-
-    /**
-     * The list of DocBook elements that will be rendered verbatim
-     */
-    private static final Collection<String> VERBATIM_ELEMENTS = new HashSet<String>();
-
-    /**
-     * The list of DocBook elements that will be rendered inline and bold
-     */
-    private static final Collection<String> BOLD_ELEMENTS = new HashSet<String>();
-
-    /**
-     * The list of DocBook elements that will be rendered inline and italic
-     */
-    private static final Collection<String> ITALIC_ELEMENTS = new HashSet<String>();
-
-    /**
-     * The list of DocBook elements that will be rendered inline and monospace
-     */
-    private static final Collection<String> MONOSPACE_ELEMENTS = new HashSet<String>();
-
-    /**
-     * The list of DocBook elements that may be ignored, either because they don't
-     * require any special processing or because they are not yet implemented.
-     */
-    private static final Collection<String> IGNORABLE_ELEMENTS = new HashSet<String>();
-    static
-    {
-        META_ELEMENTS.add( SimplifiedDocbookMarkup.ARTICLEINFO_TAG.toString() );
-        META_ELEMENTS.add( SimplifiedDocbookMarkup.AUTHORBLURB_TAG.toString() );
-        META_ELEMENTS.add( SimplifiedDocbookMarkup.SUBTITLE_TAG.toString() );
-        META_ELEMENTS.add( SimplifiedDocbookMarkup.TITLE_TAG.toString() );
-        META_ELEMENTS.add( SimplifiedDocbookMarkup.TITLEABBREV_TAG.toString() );
-
-        ARTICLEINFO_ELEMENTS.add( SimplifiedDocbookMarkup.TITLE_TAG.toString() );
-        ARTICLEINFO_ELEMENTS.add( SimplifiedDocbookMarkup.CORPAUTHOR_TAG.toString() );
-        ARTICLEINFO_ELEMENTS.add( SimplifiedDocbookMarkup.DATE_TAG.toString() );
-
-        HIER_ELEMENTS.add( SimplifiedDocbookMarkup.SECTION_TAG.toString() );
-        HIER_ELEMENTS.add( SimplifiedDocbookMarkup.APPENDIX_TAG.toString() );
-        HIER_ELEMENTS.add( SimplifiedDocbookMarkup.BIBLIOGRAPHY_TAG.toString() );
-        HIER_ELEMENTS.add( SimplifiedDocbookMarkup.BIBLIODIV_TAG.toString() );
-
-        VERBATIM_ELEMENTS.add( SimplifiedDocbookMarkup.PROGRAMLISTING_TAG.toString() );
-        VERBATIM_ELEMENTS.add( SimplifiedDocbookMarkup.LITERALLAYOUT_TAG.toString() );
-
-        BOLD_ELEMENTS.add( SimplifiedDocbookMarkup.COMMAND_TAG.toString() );
-        BOLD_ELEMENTS.add( SimplifiedDocbookMarkup.USERINPUT_TAG.toString() );
-
-        ITALIC_ELEMENTS.add( SimplifiedDocbookMarkup.REPLACEABLE_TAG.toString() );
-        ITALIC_ELEMENTS.add( SimplifiedDocbookMarkup.SYSTEMITEM_TAG.toString() );
-        ITALIC_ELEMENTS.add( SimplifiedDocbookMarkup.CITETITLE_TAG.toString() );
-        ITALIC_ELEMENTS.add( SimplifiedDocbookMarkup.EMPHASIS_TAG.toString() );
-        ITALIC_ELEMENTS.add( SimplifiedDocbookMarkup.ATTRIBUTION_TAG.toString() );
-        ITALIC_ELEMENTS.add( SimplifiedDocbookMarkup.LINEANNOTATION_TAG.toString() );
-
-        MONOSPACE_ELEMENTS.add( SimplifiedDocbookMarkup.COMPUTEROUTPUT_TAG.toString() );
-        MONOSPACE_ELEMENTS.add( SimplifiedDocbookMarkup.REPLACEABLE_TAG.toString() );
-        MONOSPACE_ELEMENTS.add( SimplifiedDocbookMarkup.LITERAL_TAG.toString() );
-        MONOSPACE_ELEMENTS.add( SimplifiedDocbookMarkup.OPTION_TAG.toString() );
-        MONOSPACE_ELEMENTS.add( SimplifiedDocbookMarkup.SYSTEMITEM_TAG.toString() );
-        MONOSPACE_ELEMENTS.add( SimplifiedDocbookMarkup.USERINPUT_TAG.toString() );
-        MONOSPACE_ELEMENTS.add( SimplifiedDocbookMarkup.FILENAME_TAG.toString() );
-
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.ABBREV_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.ABSTRACT_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.BIBLIOMIXED_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.BIBLIOMSET_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.COLSPEC_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.EPIGRAPH_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.EXAMPLE_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.FOOTNOTEREF_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.IMAGEOBJECT_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.INLINEMEDIAOBJECT_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.ISSUENUM_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.PHRASE_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.PUBDATE_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.PUBLISHERNAME_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.SPANSPEC_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.TEXTOBJECT_TAG.toString() );
-        IGNORABLE_ELEMENTS.add( SimplifiedDocbookMarkup.VOLUMENUM_TAG.toString() );
-    }
+    private int parentSize;
 
     /** {@inheritDoc} */
     protected void init()
     {
         super.init();
 
-        this.parent.clear();
+        this.parent = new int[16];
+        this.parentSize = 0;
         this.trademark = 0;
         this.level = 0;
         this.isBold = false;
@@ -191,8 +96,10 @@ public class DocBookParser
     protected void handleStartTag( XmlPullParser parser, Sink sink )
         throws XmlPullParserException, MacroExecutionException
     {
-        if ( inHead && !META_ELEMENTS.contains( parser.getName() )
-                && isParent( SimplifiedDocbookMarkup.ARTICLE_TAG.toString() ) )
+        final int id = DocbookElements.idOf( parser.getName() );
+
+        if ( inHead && !DocbookElements.is( id, DocbookElements.META )
+                && isParent( DocbookElements.ARTICLE ) )
         {
             sink.head_();
             inHead = false;
@@ -204,75 +111,75 @@ public class DocBookParser
         final SinkEventAttributeSet attribs = getAttributesFromParser( parser );
         simpleTag = parser.isEmptyElementTag();
 
-        if ( parser.getName().equals( SimplifiedDocbookMarkup.ARTICLE_TAG.toString() ) )
+        if ( id == DocbookElements.ARTICLE )
         {
             handleArticleStart( sink, attribs );
         }
-        else if ( isParent( SimplifiedDocbookMarkup.ARTICLEINFO_TAG.toString() ) )
+        else if ( isParent( DocbookElements.ARTICLEINFO ) )
         {
-            handleArticleInfoStartTags( parser.getName(), sink, attribs );
+            handleArticleInfoStartTags( id, sink, attribs );
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.ARTICLEINFO_TAG.toString() ) )
+        else if ( id == DocbookElements.ARTICLEINFO )
         {
-            parent.push( SimplifiedDocbookMarkup.ARTICLEINFO_TAG.toString() );
+            pushParent( DocbookElements.ARTICLEINFO );
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.FOOTNOTE_TAG.toString() )
-                || parser.getName().equals( SimplifiedDocbookMarkup.SECTIONINFO_TAG.toString() )
-                || parser.getName().equals( SimplifiedDocbookMarkup.VIDEOOBJECT_TAG.toString() )
-                || parser.getName().equals( SimplifiedDocbookMarkup.AUDIOOBJECT_TAG.toString() ) )
+        else if ( id == DocbookElements.FOOTNOTE
+                || id == DocbookElements.SECTIONINFO
+                || id == DocbookElements.VIDEOOBJECT
+                || id == DocbookElements.AUDIOOBJECT )
         {
-            parent.push( parser.getName() );
+            pushParent( id );
             ignore = true;
         }
-        else if ( isParent( ( SimplifiedDocbookMarkup.FOOTNOTE_TAG.toString() ) )
-                || isParent( SimplifiedDocbookMarkup.AUDIOOBJECT_TAG.toString() )
-                || isParent( SimplifiedDocbookMarkup.VIDEOOBJECT_TAG.toString() )
-                || isParent( SimplifiedDocbookMarkup.SECTIONINFO_TAG.toString() )
-                || isParent( SimplifiedDocbookMarkup.ENTRYTBL_TAG.toString() ) )
+        else if ( isParent( DocbookElements.FOOTNOTE )
+                || isParent( DocbookElements.AUDIOOBJECT )
+                || isParent( DocbookElements.VIDEOOBJECT )
+                || isParent( DocbookElements.SECTIONINFO )
+                || isParent( DocbookElements.ENTRYTBL ) )
         {
             return; // TODO: implement footnotes, entrytbl
         }
-        else if ( HIER_ELEMENTS.contains( parser.getName() ) )
+        else if ( DocbookElements.is( id, DocbookElements.HIER ) )
         {
-            handleSectionElements( sink, parser.getName(), attribs );
+            handleSectionElements( sink, id, attribs );
         }
-        else if ( listStartTags ( parser.getName(), sink, attribs ) )
+        else if ( listStartTags ( id, sink, attribs ) )
         {
             return;
         }
-        else if ( mediaStartTag( parser.getName(), sink, attribs ) )
+        else if ( mediaStartTag( id, sink, attribs ) )
         {
             return;
         }
-        else if ( tableStartTags( parser.getName(), sink, attribs ) )
+        else if ( tableStartTags( id, sink, attribs ) )
         {
             return;
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.PARA_TAG.toString() ) )
+        else if ( id == DocbookElements.PARA )
         {
             handleParaStart( sink, attribs );
         }
-        else if ( styleStartTags( parser.getName(), sink, attribs ) )
+        else if ( styleStartTags( id, sink, attribs ) )
         {
             return;
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.TITLE_TAG.toString() ) )
+        else if ( id == DocbookElements.TITLE )
         {
             handleTitleStart( sink, attribs );
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.EMAIL_TAG.toString() ) )
+        else if ( id == DocbookElements.EMAIL )
         {
             handleEmailStart( parser, sink, attribs );
         }
-        else if ( linkStartTag( parser.getName(), sink, attribs ) )
+        else if ( linkStartTag( id, sink, attribs ) )
         {
             return;
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.QUOTE_TAG.toString() ) )
+        else if ( id == DocbookElements.QUOTE )
         {
             sink.text( "\"", null );
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.TRADEMARK_TAG.toString() ) )
+        else if ( id == DocbookElements.TRADEMARK )
         {
             trademark = '\u2122';
             final Object trade = attribs.getAttribute( "class" );
@@ -284,7 +191,7 @@ public class DocBookParser
         }
         else
         {
-            if ( !ignorable( parser.getName() ) )
+            if ( !DocbookElements.is( id, DocbookElements.IGNORABLE ) )
             {
                 if ( simpleTag )
                 {
@@ -302,62 +209,64 @@ public class DocBookParser
     protected void handleEndTag( XmlPullParser parser, Sink sink )
         throws XmlPullParserException, MacroExecutionException
     {
-        if ( parser.getName().equals( SimplifiedDocbookMarkup.ARTICLE_TAG.toString() ) )
+        final int id = DocbookElements.idOf( parser.getName() );
+
+        if ( id == DocbookElements.ARTICLE )
         {
             sink.body_();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.ARTICLEINFO_TAG.toString() ) )
+        else if ( id == DocbookElements.ARTICLEINFO )
         {
-            parent.pop();
+            popParent();
         }
-        else if ( isParent( SimplifiedDocbookMarkup.ARTICLEINFO_TAG.toString() ) )
+        else if ( isParent( DocbookElements.ARTICLEINFO ) )
         {
-             handleArticleInfoEndTags( parser.getName(), sink );
+             handleArticleInfoEndTags( id, sink );
         }
-        else if ( HIER_ELEMENTS.contains( parser.getName() ) )
+        else if ( DocbookElements.is( id, DocbookElements.HIER ) )
         {
             sink.section_( level );
 
             //decrease the nesting level
             level--;
-            parent.pop();
+            popParent();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.FOOTNOTE_TAG.toString() )
-                || parser.getName().equals( SimplifiedDocbookMarkup.AUDIOOBJECT_TAG.toString() )
-                || parser.getName().equals( SimplifiedDocbookMarkup.VIDEOOBJECT_TAG.toString() )
-                || parser.getName().equals( SimplifiedDocbookMarkup.SECTIONINFO_TAG.toString() )
-                || parser.getName().equals( SimplifiedDocbookMarkup.ENTRYTBL_TAG.toString() ) )
+        else if ( id == DocbookElements.FOOTNOTE
+                || id == DocbookElements.AUDIOOBJECT
+                || id == DocbookElements.VIDEOOBJECT
+                || id == DocbookElements.SECTIONINFO
+                || id == DocbookElements.ENTRYTBL )
         {
-            parent.pop();
+            popParent();
             ignore = false;
         }
-        else if ( isParent( ( SimplifiedDocbookMarkup.FOOTNOTE_TAG.toString() ) )
-                || isParent( SimplifiedDocbookMarkup.AUDIOOBJECT_TAG.toString() )
-                || isParent( SimplifiedDocbookMarkup.VIDEOOBJECT_TAG.toString() )
-                || isParent( SimplifiedDocbookMarkup.SECTIONINFO_TAG.toString() )
-                || isParent( SimplifiedDocbookMarkup.ENTRYTBL_TAG.toString() ) )
+        else if ( isParent( DocbookElements.FOOTNOTE )
+                || isParent( DocbookElements.AUDIOOBJECT )
+                || isParent( DocbookElements.VIDEOOBJECT )
+                || isParent( DocbookElements.SECTIONINFO )
+                || isParent( DocbookElements.ENTRYTBL ) )
         {
             return;
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.ITEMIZEDLIST_TAG.toString() ) )
+        else if ( id == DocbookElements.ITEMIZEDLIST )
         {
             sink.list_();
-            parent.pop();
+            popParent();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.ORDEREDLIST_TAG.toString() ) )
+        else if ( id == DocbookElements.ORDEREDLIST )
         {
             sink.numberedList_();
-            parent.pop();
+            popParent();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.LISTITEM_TAG.toString() ) )
+        else if ( id == DocbookElements.LISTITEM )
         {
-            parent.pop();
+            popParent();
 
-            if ( isParent( SimplifiedDocbookMarkup.VARIABLELIST_TAG.toString() ) )
+            if ( isParent( DocbookElements.VARIABLELIST ) )
             {
                 sink.definition_();
             }
-            else if ( isParent( SimplifiedDocbookMarkup.ORDEREDLIST_TAG.toString() ) )
+            else if ( isParent( DocbookElements.ORDEREDLIST ) )
             {
                 sink.numberedListItem_();
             }
@@ -366,86 +275,86 @@ public class DocBookParser
                 sink.listItem_();
             }
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.VARIABLELIST_TAG.toString() ) )
+        else if ( id == DocbookElements.VARIABLELIST )
         {
             sink.definitionList_();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.VARLISTENTRY_TAG.toString() ) )
+        else if ( id == DocbookElements.VARLISTENTRY )
         {
             sink.definitionListItem_();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.TERM_TAG.toString() ) )
+        else if ( id == DocbookElements.TERM )
         {
             sink.definedTerm_();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.MEDIAOBJECT_TAG.toString() ) )
+        else if ( id == DocbookElements.MEDIAOBJECT )
         {
             sink.figure_();
-            parent.pop();
+            popParent();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.IMAGEOBJECT_TAG.toString() )
-                || parser.getName().equals( SimplifiedDocbookMarkup.FIGURE_TAG.toString() )
-                || parser.getName().equals( SimplifiedDocbookMarkup.THEAD_TAG.toString() )
-                || parser.getName().equals( SimplifiedDocbookMarkup.TFOOT_TAG.toString() )
-                || parser.getName().equals( SimplifiedDocbookMarkup.TBODY_TAG.toString() ) )
+        else if ( id == DocbookElements.IMAGEOBJECT
+                || id == DocbookElements.FIGURE
+                || id == DocbookElements.THEAD
+                || id == DocbookElements.TFOOT
+                || id == DocbookElements.TBODY )
         {
-            parent.pop();
+            popParent();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.CAPTION_TAG.toString() ) )
+        else if ( id == DocbookElements.CAPTION )
         {
             handleCaptionEnd( sink );
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.TABLE_TAG.toString() )
-            || parser.getName().equals( SimplifiedDocbookMarkup.INFORMALTABLE_TAG.toString() ) )
+        else if ( id == DocbookElements.TABLE
+            || id == DocbookElements.INFORMALTABLE )
         {
             sink.table_();
 
-            parent.pop();
+            popParent();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.TR_TAG.toString() )
-                || parser.getName().equals( SimplifiedDocbookMarkup.ROW_TAG.toString() ) )
+        else if ( id == DocbookElements.TR
+                || id == DocbookElements.ROW )
         {
             sink.tableRow_();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.TGROUP_TAG.toString() ) )
+        else if ( id == DocbookElements.TGROUP )
         {
             sink.tableRows_();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.ENTRY_TAG.toString() )
-                && isParent( SimplifiedDocbookMarkup.THEAD_TAG.toString() )
-            || parser.getName().equals( TH_TAG.toString() ) )
+        else if ( id == DocbookElements.ENTRY
+                && isParent( DocbookElements.THEAD )
+            || id == DocbookElements.TH )
         {
             sink.tableHeaderCell_();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.ENTRY_TAG.toString() ) )
+        else if ( id == DocbookElements.ENTRY )
         {
             sink.tableCell_();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.PARA_TAG.toString() ) )
+        else if ( id == DocbookElements.PARA )
         {
             handleParaEnd( sink );
         }
-        else if ( VERBATIM_ELEMENTS.contains( parser.getName() ) )
+        else if ( DocbookElements.is( id, DocbookElements.VERBATIM ) )
         {
             sink.verbatim_();
         }
-        else if ( BOLD_ELEMENTS.contains( parser.getName() )
-            && MONOSPACE_ELEMENTS.contains( parser.getName() ) )
+        else if ( DocbookElements.is( id, DocbookElements.BOLD )
+            && DocbookElements.is( id, DocbookElements.MONOSPACE ) )
         {
             sink.monospaced_();
             sink.bold_();
         }
-        else if ( ITALIC_ELEMENTS.contains( parser.getName() )
-            && MONOSPACE_ELEMENTS.contains( parser.getName() ) )
+        else if ( DocbookElements.is( id, DocbookElements.ITALIC )
+            && DocbookElements.is( id, DocbookElements.MONOSPACE ) )
         {
             sink.monospaced_();
             sink.italic_();
         }
-        else if ( BOLD_ELEMENTS.contains( parser.getName() ) )
+        else if ( DocbookElements.is( id, DocbookElements.BOLD ) )
         {
             sink.bold_();
         }
-        else if ( ITALIC_ELEMENTS.contains( parser.getName() ) )
+        else if ( DocbookElements.is( id, DocbookElements.ITALIC ) )
         {
             if ( isBold )
             {
@@ -458,32 +367,32 @@ public class DocBookParser
                 sink.italic_();
             }
         }
-        else if ( MONOSPACE_ELEMENTS.contains( parser.getName() ) )
+        else if ( DocbookElements.is( id, DocbookElements.MONOSPACE ) )
         {
             sink.monospaced_();
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.TITLE_TAG.toString() ) )
+        else if ( id == DocbookElements.TITLE )
         {
             handleTitleEnd( sink );
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.ULINK_TAG.toString() )
-                || parser.getName().equals( SimplifiedDocbookMarkup.LINK_TAG.toString() ) )
+        else if ( id == DocbookElements.ULINK
+                || id == DocbookElements.LINK )
         {
-            if ( isParent( parser.getName() ) )
+            if ( isParent( id ) )
             {
-                parent.pop();
+                popParent();
                 sink.link_();
             }
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.QUOTE_TAG.toString() ) )
+        else if ( id == DocbookElements.QUOTE )
         {
             sink.text( "\"", null );
         }
-        else if ( parser.getName().equals( SimplifiedDocbookMarkup.TRADEMARK_TAG.toString() ) )
+        else if ( id == DocbookElements.TRADEMARK )
         {
             sink.text( Character.toString( trademark ), null );
         }
-        else if ( !simpleTag && !ignorable( parser.getName() ) )
+        else if ( !simpleTag && !DocbookElements.is( id, DocbookElements.IGNORABLE ) )
         {
             handleUnknown( parser, sink, HtmlMarkup.TAG_TYPE_END );
         }
@@ -554,45 +463,45 @@ public class DocBookParser
     //
     // ----------------------------------------------------------------------
 
-    private void handleArticleInfoStartTags( String name, Sink sink, SinkEventAttributeSet attribs )
+    private void handleArticleInfoStartTags( int id, Sink sink, SinkEventAttributeSet attribs )
     {
-        if ( !ARTICLEINFO_ELEMENTS.contains( name ) )
+        if ( !DocbookElements.is( id, DocbookElements.ARTICLEINFO_CHILD ) )
         {
             ignore = true;
             return; // TODO: other meta data are ignored, implement!
         }
 
-        if ( name.equals( SimplifiedDocbookMarkup.TITLE_TAG.toString() ) )
+        if ( id == DocbookElements.TITLE )
         {
             sink.title( attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.CORPAUTHOR_TAG.toString() ) )
+        else if ( id == DocbookElements.CORPAUTHOR )
         {
             sink.author( attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.DATE_TAG.toString() ) )
+        else if ( id == DocbookElements.DATE )
         {
             sink.date( attribs );
         }
     }
 
-    private void handleArticleInfoEndTags( String name, Sink sink )
+    private void handleArticleInfoEndTags( int id, Sink sink )
     {
-        if ( !ARTICLEINFO_ELEMENTS.contains( name ) )
+        if ( !DocbookElements.is( id, DocbookElements.ARTICLEINFO_CHILD ) )
         {
             ignore = false;
             return; // TODO: other meta data are ignored, implement!
         }
 
-        if ( name.equals( SimplifiedDocbookMarkup.TITLE_TAG.toString() ) )
+        if ( id == DocbookElements.TITLE )
         {
             sink.title_();
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.CORPAUTHOR_TAG.toString() ) )
+        else if ( id == DocbookElements.CORPAUTHOR )
         {
             sink.author_();
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.DATE_TAG.toString() ) )
+        else if ( id == DocbookElements.DATE )
         {
             sink.date_();
         }
@@ -600,29 +509,29 @@ public class DocBookParser
 
     private void handleCaptionStart( Sink sink, SinkEventAttributeSet attribs )
     {
-        if ( isParent( SimplifiedDocbookMarkup.MEDIAOBJECT_TAG.toString() ) )
+        if ( isParent( DocbookElements.MEDIAOBJECT ) )
         {
             sink.figureCaption( attribs );
         }
-        else if ( isParent( SimplifiedDocbookMarkup.INFORMALTABLE_TAG.toString() )
-            || isParent( SimplifiedDocbookMarkup.TABLE_TAG.toString() ) )
+        else if ( isParent( DocbookElements.INFORMALTABLE )
+            || isParent( DocbookElements.TABLE ) )
         {
             sink.tableCaption( attribs );
         }
 
-        parent.push( SimplifiedDocbookMarkup.CAPTION_TAG.toString() );
+        pushParent( DocbookElements.CAPTION );
     }
 
     private void handleCaptionEnd( Sink sink )
     {
-        parent.pop();
+        popParent();
 
-        if ( isParent( SimplifiedDocbookMarkup.MEDIAOBJECT_TAG.toString() ) )
+        if ( isParent( DocbookElements.MEDIAOBJECT ) )
         {
             sink.figureCaption_();
         }
-        else if ( isParent( SimplifiedDocbookMarkup.INFORMALTABLE_TAG.toString() )
-            || isParent( SimplifiedDocbookMarkup.TABLE_TAG.toString() ) )
+        else if ( isParent( DocbookElements.INFORMALTABLE )
+            || isParent( DocbookElements.TABLE ) )
         {
             sink.tableCaption_();
         }
@@ -649,7 +558,7 @@ public class DocBookParser
     private void handleFigureStart( Sink sink, SinkEventAttributeSet attribs )
     {
         sink.figure( attribs );
-        parent.push( SimplifiedDocbookMarkup.MEDIAOBJECT_TAG.toString() );
+        pushParent( DocbookElements.MEDIAOBJECT );
     }
 
     private void handleArticleStart( Sink sink, SinkEventAttributeSet attribs )
@@ -657,18 +566,18 @@ public class DocBookParser
         sink.head( attribs );
         inHead = true;
 
-        parent.push( SimplifiedDocbookMarkup.ARTICLE_TAG.toString() );
+        pushParent( DocbookElements.ARTICLE );
     }
 
     //If the element introduces a new level of hierarchy, raise the stack
-    private void handleSectionElements( Sink sink, String name, SinkEventAttributeSet attribs )
+    private void handleSectionElements( Sink sink, int id, SinkEventAttributeSet attribs )
     {
         //increase the nesting level
         level++;
 
         sink.section( level, attribs );
 
-        parent.push( name );
+        pushParent( id );
     }
 
     private void handleAnchorStart( Sink sink, SinkEventAttributeSet attribs  )
@@ -698,7 +607,7 @@ public class DocBookParser
     {
         sink.list( attribs );
         //for itemizedlists in variablelists
-        parent.push( SimplifiedDocbookMarkup.ITEMIZEDLIST_TAG.toString() );
+        pushParent( DocbookElements.ITEMIZEDLIST );
     }
 
     private void handleLinkStart( Sink sink, SinkEventAttributeSet attribs )
@@ -711,17 +620,17 @@ public class DocBookParser
             throw new XmlPullParserException( "Missing linkend attribute in link!" );
         }
 
-        parent.push( SimplifiedDocbookMarkup.LINK_TAG.toString() );
+        pushParent( DocbookElements.LINK );
         sink.link( "#" + linkend.toString(), attribs );
     }
 
     private void handleListItemStart( Sink sink, SinkEventAttributeSet attribs )
     {
-        if ( isParent( SimplifiedDocbookMarkup.VARIABLELIST_TAG.toString() ) )
+        if ( isParent( DocbookElements.VARIABLELIST ) )
         {
             sink.definition( attribs );
         }
-        else if ( isParent( SimplifiedDocbookMarkup.ORDEREDLIST_TAG.toString() ) )
+        else if ( isParent( DocbookElements.ORDEREDLIST ) )
         {
             sink.numberedListItem( attribs );
         }
@@ -730,7 +639,7 @@ public class DocBookParser
             sink.listItem( attribs );
         }
 
-        parent.push( SimplifiedDocbookMarkup.LISTITEM_TAG.toString() );
+        pushParent( DocbookElements.LISTITEM );
     }
 
     private void handleOrderedListStart( Sink sink, SinkEventAttributeSet attribs )
@@ -746,13 +655,13 @@ public class DocBookParser
         }
 
         sink.numberedList( numeration, attribs );
-        parent.push( SimplifiedDocbookMarkup.ORDEREDLIST_TAG.toString() );
+        pushParent( DocbookElements.ORDEREDLIST );
     }
 
     private void handleParaEnd( Sink sink )
     {
-        if ( !isParent( SimplifiedDocbookMarkup.CAPTION_TAG.toString() )
-                && ! isParent( SimplifiedDocbookMarkup.LISTITEM_TAG.toString() ) )
+        if ( !isParent( DocbookElements.CAPTION )
+                && ! isParent( DocbookElements.LISTITEM ) )
         {
             sink.paragraph_();
         }
@@ -760,8 +669,8 @@ public class DocBookParser
 
     private void handleParaStart( Sink sink, SinkEventAttributeSet attribs )
     {
-        if ( !isParent( SimplifiedDocbookMarkup.CAPTION_TAG.toString() )
-                && ! isParent( SimplifiedDocbookMarkup.LISTITEM_TAG.toString() ) )
+        if ( !isParent( DocbookElements.CAPTION )
+                && ! isParent( DocbookElements.LISTITEM ) )
         {
             sink.paragraph( attribs );
         }
@@ -778,21 +687,21 @@ public class DocBookParser
 
         sink.table( attribs );
 
-        parent.push( SimplifiedDocbookMarkup.TABLE_TAG.toString() );
+        pushParent( DocbookElements.TABLE );
     }
 
     private void handleTitleStart( Sink sink, SinkEventAttributeSet attribs )
     {
-        if ( isParent( SimplifiedDocbookMarkup.TABLE_TAG.toString() )
-                || isParent( SimplifiedDocbookMarkup.INFORMALTABLE_TAG.toString() ) )
+        if ( isParent( DocbookElements.TABLE )
+                || isParent( DocbookElements.INFORMALTABLE ) )
         {
             sink.tableCaption( attribs );
         }
-        else if ( isParent( SimplifiedDocbookMarkup.ARTICLE_TAG.toString() ) )
+        else if ( isParent( DocbookElements.ARTICLE ) )
         {
             sink.title( attribs );
         }
-        else if ( isParent( SimplifiedDocbookMarkup.SECTION_TAG.toString() ) )
+        else if ( isParent( DocbookElements.SECTION ) )
         {
             sink.sectionTitle( level, attribs );
         }
@@ -804,16 +713,16 @@ public class DocBookParser
 
     private void handleTitleEnd( Sink sink )
     {
-        if ( isParent( SimplifiedDocbookMarkup.TABLE_TAG.toString() )
-                || isParent( SimplifiedDocbookMarkup.INFORMALTABLE_TAG.toString() ) )
+        if ( isParent( DocbookElements.TABLE )
+                || isParent( DocbookElements.INFORMALTABLE ) )
         {
             sink.tableCaption_();
         }
-        else if ( isParent( SimplifiedDocbookMarkup.SECTION_TAG.toString() ) )
+        else if ( isParent( DocbookElements.SECTION ) )
         {
             sink.sectionTitle_( level );
         }
-        else if ( isParent( SimplifiedDocbookMarkup.ARTICLE_TAG.toString() ) )
+        else if ( isParent( DocbookElements.ARTICLE ) )
         {
             sink.title_();
         }
@@ -833,14 +742,14 @@ public class DocBookParser
             throw new XmlPullParserException( "Missing url attribute in ulink!" );
         }
 
-        parent.push( SimplifiedDocbookMarkup.ULINK_TAG.toString() );
+        pushParent( DocbookElements.ULINK );
         sink.link( url.toString(), attribs );
     }
 
     private void handleVariableListStart( Sink sink, SinkEventAttributeSet attribs )
     {
         sink.definitionList( attribs );
-        parent.push( SimplifiedDocbookMarkup.VARIABLELIST_TAG.toString() );
+        pushParent( DocbookElements.VARIABLELIST );
     }
 
     private void handleXrefStart( Sink sink, SinkEventAttributeSet attribs )
@@ -858,43 +767,55 @@ public class DocBookParser
         sink.link_();
     }
 
-    private boolean ignorable( String name )
-    {
-        return IGNORABLE_ELEMENTS.contains( name );
-    }
-
     /**
      * Determines if the given element is a parent element.
      *
-     * @param element the element to determine.
+     * @param element the id of the element to determine.
      * @return true if the given element is a parent element.
      */
-    private boolean isParent( String element )
+    private boolean isParent( int element )
+    {
+        return parentSize > 0 && parent[parentSize - 1] == element;
+    }
+
+    private void pushParent( int element )
+    {
+        if ( parentSize == parent.length )
+        {
+            int[] newParent = new int[parent.length * 2];
+            System.arraycopy( parent, 0, newParent, 0, parentSize );
+            parent = newParent;
+        }
+
+        parent[parentSize++] = element;
+    }
+
+    private void popParent()
     {
-        if ( parent.size() > 0 )
+        if ( parentSize == 0 )
         {
-            return parent.peek().equals( element );
+            throw new EmptyStackException();
         }
 
-        return false;
+        parentSize--;
     }
 
-    private boolean linkStartTag( String name, Sink sink, SinkEventAttributeSet attribs )
+    private boolean linkStartTag( int id, Sink sink, SinkEventAttributeSet attribs )
             throws XmlPullParserException
     {
-        if ( name.equals( SimplifiedDocbookMarkup.ULINK_TAG.toString() ) )
+        if ( id == DocbookElements.ULINK )
         {
             handleUlinkStart( sink, attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.LINK_TAG.toString() ) )
+        else if ( id == DocbookElements.LINK )
         {
             handleLinkStart( sink, attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.XREF_TAG.toString() ) )
+        else if ( id == DocbookElements.XREF )
         {
             handleXrefStart( sink, attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.ANCHOR_TAG.toString() ) )
+        else if ( id == DocbookElements.ANCHOR )
         {
             handleAnchorStart( sink, attribs );
         }
@@ -906,29 +827,29 @@ public class DocBookParser
         return true;
     }
 
-    private boolean listStartTags( String name, Sink sink, SinkEventAttributeSet attribs )
+    private boolean listStartTags( int id, Sink sink, SinkEventAttributeSet attribs )
     {
-        if ( name.equals( SimplifiedDocbookMarkup.ITEMIZEDLIST_TAG.toString() ) )
+        if ( id == DocbookElements.ITEMIZEDLIST )
         {
             handleItemizedListStart( sink, attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.ORDEREDLIST_TAG.toString() ) )
+        else if ( id == DocbookElements.ORDEREDLIST )
         {
             handleOrderedListStart( sink, attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.LISTITEM_TAG.toString() ) )
+        else if ( id == DocbookElements.LISTITEM )
         {
             handleListItemStart( sink, attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.VARIABLELIST_TAG.toString() ) )
+        else if ( id == DocbookElements.VARIABLELIST )
         {
             handleVariableListStart( sink, attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.VARLISTENTRY_TAG.toString() ) )
+        else if ( id == DocbookElements.VARLISTENTRY )
         {
             sink.definitionListItem( attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.TERM_TAG.toString() ) )
+        else if ( id == DocbookElements.TERM )
         {
             sink.definedTerm( attribs );
         }
@@ -940,23 +861,23 @@ public class DocBookParser
         return true;
     }
 
-    private boolean mediaStartTag( String name, Sink sink, SinkEventAttributeSet attribs )
+    private boolean mediaStartTag( int id, Sink sink, SinkEventAttributeSet attribs )
             throws XmlPullParserException
     {
-        if ( name.equals( SimplifiedDocbookMarkup.MEDIAOBJECT_TAG.toString() ) )
+        if ( id == DocbookElements.MEDIAOBJECT )
         {
             handleFigureStart( sink, attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.IMAGEOBJECT_TAG.toString() )
-                || name.equals( SimplifiedDocbookMarkup.FIGURE_TAG.toString() ) )
+        else if ( id == DocbookElements.IMAGEOBJECT
+                || id == DocbookElements.FIGURE )
         {
-            parent.push( name );
+            pushParent( id );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.IMAGEDATA_TAG.toString() ) )
+        else if ( id == DocbookElements.IMAGEDATA )
         {
             handleImageDataStart( sink, attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.CAPTION_TAG.toString() ) )
+        else if ( id == DocbookElements.CAPTION )
         {
             handleCaptionStart( sink, attribs );
         }
@@ -968,36 +889,38 @@ public class DocBookParser
         return true;
     }
 
-    private boolean styleStartTags( String name, Sink sink, SinkEventAttributeSet attribs )
+    private boolean styleStartTags( int id, Sink sink, SinkEventAttributeSet attribs )
     {
-        if ( VERBATIM_ELEMENTS.contains( name ) )
+        if ( DocbookElements.is( id, DocbookElements.VERBATIM ) )
         {
             sink.verbatim( SinkEventAttributeSet.BOXED );
         }
-        else if ( BOLD_ELEMENTS.contains( name ) && MONOSPACE_ELEMENTS.contains( name ) )
+        else if ( DocbookElements.is( id, DocbookElements.BOLD )
+                && DocbookElements.is( id, DocbookElements.MONOSPACE ) )
         {
             sink.bold();
             sink.monospaced();
         }
-        else if ( ITALIC_ELEMENTS.contains( name ) && MONOSPACE_ELEMENTS.contains( name ) )
+        else if ( DocbookElements.is( id, DocbookElements.ITALIC )
+                && DocbookElements.is( id, DocbookElements.MONOSPACE ) )
         {
             sink.italic();
             sink.monospaced();
         }
-        else if ( BOLD_ELEMENTS.contains( name ) )
+        else if ( DocbookElements.is( id, DocbookElements.BOLD ) )
         {
             sink.bold();
         }
-        else if ( ITALIC_ELEMENTS.contains( name ) && "bold".equals( attribs.getAttribute( "role" ) ) )
+        else if ( DocbookElements.is( id, DocbookElements.ITALIC ) && "bold".equals( attribs.getAttribute( "role" ) ) )
         {
             sink.bold();
             isBold = true;
         }
-        else if ( ITALIC_ELEMENTS.contains( name ) )
+        else if ( DocbookElements.is( id, DocbookElements.ITALIC ) )
         {
             sink.italic();
         }
-        else if ( MONOSPACE_ELEMENTS.contains( name ) )
+        else if ( DocbookElements.is( id, DocbookElements.MONOSPACE ) )
         {
             sink.monospaced();
         }
@@ -1009,28 +932,28 @@ public class DocBookParser
         return true;
     }
 
-    private boolean tableStartTags( String name, Sink sink, SinkEventAttributeSet attribs )
+    private boolean tableStartTags( int id, Sink sink, SinkEventAttributeSet attribs )
     {
-        if ( name.equals( SimplifiedDocbookMarkup.ENTRYTBL_TAG.toString() ) )
+        if ( id == DocbookElements.ENTRYTBL )
         {
-            parent.push( name );
+            pushParent( id );
             ignore = true;
             // insert empty table cell instead
             sink.tableCell( (SinkEventAttributeSet) null );
             sink.tableCell_();
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.TABLE_TAG.toString() )
-            || name.equals( SimplifiedDocbookMarkup.INFORMALTABLE_TAG.toString() ) )
+        else if ( id == DocbookElements.TABLE
+            || id == DocbookElements.INFORMALTABLE )
         {
             handleTableStart( sink, attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.THEAD_TAG.toString() )
-                || name.equals( SimplifiedDocbookMarkup.TFOOT_TAG.toString() )
-                || name.equals( SimplifiedDocbookMarkup.TBODY_TAG.toString() ) )
+        else if ( id == DocbookElements.THEAD
+                || id == DocbookElements.TFOOT
+                || id == DocbookElements.TBODY )
         {
-            parent.push( name );
+            pushParent( id );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.TGROUP_TAG.toString() ) )
+        else if ( id == DocbookElements.TGROUP )
         {
             // this is required by the DTD
             final int cols = Integer.parseInt( (String) attribs.getAttribute( "cols" ) );
@@ -1075,18 +998,18 @@ public class DocBookParser
 
             sink.tableRows( justification, grid );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.TR_TAG.toString() )
-                || name.equals( SimplifiedDocbookMarkup.ROW_TAG.toString() ) )
+        else if ( id == DocbookElements.TR
+                || id == DocbookElements.ROW )
         {
             sink.tableRow( attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.ENTRY_TAG.toString() )
-                && isParent( SimplifiedDocbookMarkup.THEAD_TAG.toString() )
-                || name.equals( SimplifiedDocbookMarkup.TH_TAG.toString() ) )
+        else if ( id == DocbookElements.ENTRY
+                && isParent( DocbookElements.THEAD )
+                || id == DocbookElements.TH )
         {
             sink.tableHeaderCell( attribs );
         }
-        else if ( name.equals( SimplifiedDocbookMarkup.ENTRY_TAG.toString() ) )
+        else if ( id == DocbookElements.ENTRY )
         {
             sink.tableCell( attribs );
         }
@@ -36,6 +36,7 @@ import org.apache.maven.doxia.sink.SinkEventAttributes;
 import org.apache.maven.doxia.sink.impl.AbstractXmlSink;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.util.DoxiaUtils;
+import org.apache.maven.doxia.util.EscapingWriter;
 import org.apache.maven.doxia.util.HtmlTools;
 
 import org.codehaus.plexus.util.FileUtils;
@@ -72,6 +73,9 @@ public class DocBookSink
     /** The output writer. */
     private PrintWriter out;
 
+    /** Escapes the text into {@link #out}. */
+    private EscapingWriter escapingOut;
+
     /** xmlMode. */
     private boolean xmlMode = false;
 
@@ -175,6 +179,7 @@ public class DocBookSink
     protected DocBookSink( Writer writer, String encoding )
     {
         this.out = new PrintWriter( writer );
+        this.escapingOut = new EscapingWriter( out, true, null );
         this.encoding = encoding;
 
         setItalicElement( "<emphasis>" );
@@ -1249,6 +1254,7 @@ public class DocBookSink
         savedOut = out;
         tableRowsWriter = new StringWriter();
         out = new PrintWriter( tableRowsWriter );
+        escapingOut = new EscapingWriter( out, true, null );
 
         MutableAttributeSet att = new SimpleAttributeSet();
         att.addAttribute( SimplifiedDocbookMarkup.COLS_ATTRIBUTE, String.valueOf( justification.length ) );
@@ -1302,6 +1308,7 @@ public class DocBookSink
         tableRows = tableRowsWriter.toString();
         tableRowsWriter = null;
         out = savedOut;
+        escapingOut = new EscapingWriter( out, true, null );
     }
 
     /**
@@ -1629,9 +1636,9 @@ public class DocBookSink
      */
     protected void content( String text )
     {
-        if ( !skip )
+        if ( !skip && text != null )
         {
-            out.write( HtmlTools.escapeHTML( text, true ) );
+            escapingOut.write( text );
         }
     }
 
@@ -1642,9 +1649,9 @@ public class DocBookSink
      */
     protected void verbatimContent( String text )
     {
-        if ( !skip )
+        if ( !skip && text != null )
         {
-            out.write( HtmlTools.escapeHTML( text, true ) );
+            escapingOut.write( text );
         }
     }
 
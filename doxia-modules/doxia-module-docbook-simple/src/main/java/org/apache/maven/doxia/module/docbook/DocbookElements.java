@@ -0,0 +1,464 @@
+package org.apache.maven.doxia.module.docbook;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The Simplified DocBook elements known by the {@link DocBookParser}. Each element name is mapped once to a
+ * compact id, and each id has precomputed classification flags, so that the parser handles ints instead of
+ * comparing strings.
+ *
+ * @since 1.8
+ */
+final class DocbookElements
+{
+    /** The id of the elements which are not known. */
+    static final int UNKNOWN = 0;
+
+    /** Id of &lt;article&gt;. */
+    static final int ARTICLE = 1;
+
+    /** Id of &lt;articleinfo&gt;. */
+    static final int ARTICLEINFO = 2;
+
+    /** Id of &lt;authorblurb&gt;. */
+    static final int AUTHORBLURB = 3;
+
+    /** Id of &lt;subtitle&gt;. */
+    static final int SUBTITLE = 4;
+
+    /** Id of &lt;title&gt;. */
+    static final int TITLE = 5;
+
+    /** Id of &lt;titleabbrev&gt;. */
+    static final int TITLEABBREV = 6;
+
+    /** Id of &lt;corpauthor&gt;. */
+    static final int CORPAUTHOR = 7;
+
+    /** Id of &lt;date&gt;. */
+    static final int DATE = 8;
+
+    /** Id of &lt;section&gt;. */
+    static final int SECTION = 9;
+
+    /** Id of &lt;appendix&gt;. */
+    static final int APPENDIX = 10;
+
+    /** Id of &lt;bibliography&gt;. */
+    static final int BIBLIOGRAPHY = 11;
+
+    /** Id of &lt;bibliodiv&gt;. */
+    static final int BIBLIODIV = 12;
+
+    /** Id of &lt;sectioninfo&gt;. */
+    static final int SECTIONINFO = 13;
+
+    /** Id of &lt;footnote&gt;. */
+    static final int FOOTNOTE = 14;
+
+    /** Id of &lt;videoobject&gt;. */
+    static final int VIDEOOBJECT = 15;
+
+    /** Id of &lt;audioobject&gt;. */
+    static final int AUDIOOBJECT = 16;
+
+    /** Id of &lt;para&gt;. */
+    static final int PARA = 17;
+
+    /** Id of &lt;email&gt;. */
+    static final int EMAIL = 18;
+
+    /** Id of &lt;quote&gt;. */
+    static final int QUOTE = 19;
+
+    /** Id of &lt;trademark&gt;. */
+    static final int TRADEMARK = 20;
+
+    /** Id of &lt;itemizedlist&gt;. */
+    static final int ITEMIZEDLIST = 21;
+
+    /** Id of &lt;orderedlist&gt;. */
+    static final int ORDEREDLIST = 22;
+
+    /** Id of &lt;listitem&gt;. */
+    static final int LISTITEM = 23;
+
+    /** Id of &lt;variablelist&gt;. */
+    static final int VARIABLELIST = 24;
+
+    /** Id of &lt;varlistentry&gt;. */
+    static final int VARLISTENTRY = 25;
+
+    /** Id of &lt;term&gt;. */
+    static final int TERM = 26;
+
+    /** Id of &lt;mediaobject&gt;. */
+    static final int MEDIAOBJECT = 27;
+
+    /** Id of &lt;imageobject&gt;. */
+    static final int IMAGEOBJECT = 28;
+
+    /** Id of &lt;figure&gt;. */
+    static final int FIGURE = 29;
+
+    /** Id of &lt;imagedata&gt;. */
+    static final int IMAGEDATA = 30;
+
+    /** Id of &lt;caption&gt;. */
+    static final int CAPTION = 31;
+
+    /** Id of &lt;table&gt;. */
+    static final int TABLE = 32;
+
+    /** Id of &lt;informaltable&gt;. */
+    static final int INFORMALTABLE = 33;
+
+    /** Id of &lt;tgroup&gt;. */
+    static final int TGROUP = 34;
+
+    /** Id of &lt;thead&gt;. */
+    static final int THEAD = 35;
+
+    /** Id of &lt;tfoot&gt;. */
+    static final int TFOOT = 36;
+
+    /** Id of &lt;tbody&gt;. */
+    static final int TBODY = 37;
+
+    /** Id of &lt;tr&gt;. */
+    static final int TR = 38;
+
+    /** Id of &lt;row&gt;. */
+    static final int ROW = 39;
+
+    /** Id of &lt;th&gt;. */
+    static final int TH = 40;
+
+    /** Id of &lt;entry&gt;. */
+    static final int ENTRY = 41;
+
+    /** Id of &lt;entrytbl&gt;. */
+    static final int ENTRYTBL = 42;
+
+    /** Id of &lt;ulink&gt;. */
+    static final int ULINK = 43;
+
+    /** Id of &lt;link&gt;. */
+    static final int LINK = 44;
+
+    /** Id of &lt;xref&gt;. */
+    static final int XREF = 45;
+
+    /** Id of &lt;anchor&gt;. */
+    static final int ANCHOR = 46;
+
+    /** Id of &lt;programlisting&gt;. */
+    static final int PROGRAMLISTING = 47;
+
+    /** Id of &lt;literallayout&gt;. */
+    static final int LITERALLAYOUT = 48;
+
+    /** Id of &lt;command&gt;. */
+    static final int COMMAND = 49;
+
+    /** Id of &lt;userinput&gt;. */
+    static final int USERINPUT = 50;
+
+    /** Id of &lt;replaceable&gt;. */
+    static final int REPLACEABLE = 51;
+
+    /** Id of &lt;systemitem&gt;. */
+    static final int SYSTEMITEM = 52;
+
+    /** Id of &lt;citetitle&gt;. */
+    static final int CITETITLE = 53;
+
+    /** Id of &lt;emphasis&gt;. */
+    static final int EMPHASIS = 54;
+
+    /** Id of &lt;attribution&gt;. */
+    static final int ATTRIBUTION = 55;
+
+    /** Id of &lt;lineannotation&gt;. */
+    static final int LINEANNOTATION = 56;
+
+    /** Id of &lt;computeroutput&gt;. */
+    static final int COMPUTEROUTPUT = 57;
+
+    /** Id of &lt;literal&gt;. */
+    static final int LITERAL = 58;
+
+    /** Id of &lt;option&gt;. */
+    static final int OPTION = 59;
+
+    /** Id of &lt;filename&gt;. */
+    static final int FILENAME = 60;
+
+    /** Id of &lt;abbrev&gt;. */
+    static final int ABBREV = 61;
+
+    /** Id of &lt;abstract&gt;. */
+    static final int ABSTRACT = 62;
+
+    /** Id of &lt;bibliomixed&gt;. */
+    static final int BIBLIOMIXED = 63;
+
+    /** Id of &lt;bibliomset&gt;. */
+    static final int BIBLIOMSET = 64;
+
+    /** Id of &lt;colspec&gt;. */
+    static final int COLSPEC = 65;
+
+    /** Id of &lt;epigraph&gt;. */
+    static final int EPIGRAPH = 66;
+
+    /** Id of &lt;example&gt;. */
+    static final int EXAMPLE = 67;
+
+    /** Id of &lt;footnoteref&gt;. */
+    static final int FOOTNOTEREF = 68;
+
+    /** Id of &lt;inlinemediaobject&gt;. */
+    static final int INLINEMEDIAOBJECT = 69;
+
+    /** Id of &lt;issuenum&gt;. */
+    static final int ISSUENUM = 70;
+
+    /** Id of &lt;phrase&gt;. */
+    static final int PHRASE = 71;
+
+    /** Id of &lt;pubdate&gt;. */
+    static final int PUBDATE = 72;
+
+    /** Id of &lt;publishername&gt;. */
+    static final int PUBLISHERNAME = 73;
+
+    /** Id of &lt;spanspec&gt;. */
+    static final int SPANSPEC = 74;
+
+    /** Id of &lt;textobject&gt;. */
+    static final int TEXTOBJECT = 75;
+
+    /** Id of &lt;volumenum&gt;. */
+    static final int VOLUMENUM = 76;
+
+    /** The number of ids. */
+    static final int COUNT = 77;
+
+    /** Elements that introduce a new level of hierarchy. */
+    static final int HIER = 1 << 0;
+
+    /** Elements that are direct children of &lt;article&gt; and that should be emitted into the Sink's head. */
+    static final int META = 1 << 1;
+
+    /** Elements that occur within &lt;articleinfo&gt; and that are currently recognized by the parser. */
+    static final int ARTICLEINFO_CHILD = 1 << 2;
+
+    /** Elements that will be rendered verbatim. */
+    static final int VERBATIM = 1 << 3;
+
+    /** Elements that will be rendered inline and bold. */
+    static final int BOLD = 1 << 4;
+
+    /** Elements that will be rendered inline and italic. */
+    static final int ITALIC = 1 << 5;
+
+    /** Elements that will be rendered inline and monospace. */
+    static final int MONOSPACE = 1 << 6;
+
+    /**
+     * Elements that may be ignored, either because they don't require any special processing or because they are
+     * not yet implemented.
+     */
+    static final int IGNORABLE = 1 << 7;
+
+    /** Element names as keys, ids as values. */
+    private static final Map<String, Integer> IDS = new HashMap<String, Integer>();
+
+    /** The flags of each id. */
+    private static final int[] FLAGS = new int[COUNT];
+
+    static
+    {
+        add( SimplifiedDocbookMarkup.ARTICLE_TAG.toString(), ARTICLE );
+        add( SimplifiedDocbookMarkup.ARTICLEINFO_TAG.toString(), ARTICLEINFO );
+        add( SimplifiedDocbookMarkup.AUTHORBLURB_TAG.toString(), AUTHORBLURB );
+        add( SimplifiedDocbookMarkup.SUBTITLE_TAG.toString(), SUBTITLE );
+        add( SimplifiedDocbookMarkup.TITLE_TAG.toString(), TITLE );
+        add( SimplifiedDocbookMarkup.TITLEABBREV_TAG.toString(), TITLEABBREV );
+        add( SimplifiedDocbookMarkup.CORPAUTHOR_TAG.toString(), CORPAUTHOR );
+        add( SimplifiedDocbookMarkup.DATE_TAG.toString(), DATE );
+        add( SimplifiedDocbookMarkup.SECTION_TAG.toString(), SECTION );
+        add( SimplifiedDocbookMarkup.APPENDIX_TAG.toString(), APPENDIX );
+        add( SimplifiedDocbookMarkup.BIBLIOGRAPHY_TAG.toString(), BIBLIOGRAPHY );
+        add( SimplifiedDocbookMarkup.BIBLIODIV_TAG.toString(), BIBLIODIV );
+        add( SimplifiedDocbookMarkup.SECTIONINFO_TAG.toString(), SECTIONINFO );
+        add( SimplifiedDocbookMarkup.FOOTNOTE_TAG.toString(), FOOTNOTE );
+        add( SimplifiedDocbookMarkup.VIDEOOBJECT_TAG.toString(), VIDEOOBJECT );
+        add( SimplifiedDocbookMarkup.AUDIOOBJECT_TAG.toString(), AUDIOOBJECT );
+        add( SimplifiedDocbookMarkup.PARA_TAG.toString(), PARA );
+        add( SimplifiedDocbookMarkup.EMAIL_TAG.toString(), EMAIL );
+        add( SimplifiedDocbookMarkup.QUOTE_TAG.toString(), QUOTE );
+        add( SimplifiedDocbookMarkup.TRADEMARK_TAG.toString(), TRADEMARK );
+        add( SimplifiedDocbookMarkup.ITEMIZEDLIST_TAG.toString(), ITEMIZEDLIST );
+        add( SimplifiedDocbookMarkup.ORDEREDLIST_TAG.toString(), ORDEREDLIST );
+        add( SimplifiedDocbookMarkup.LISTITEM_TAG.toString(), LISTITEM );
+        add( SimplifiedDocbookMarkup.VARIABLELIST_TAG.toString(), VARIABLELIST );
+        add( SimplifiedDocbookMarkup.VARLISTENTRY_TAG.toString(), VARLISTENTRY );
+        add( SimplifiedDocbookMarkup.TERM_TAG.toString(), TERM );
+        add( SimplifiedDocbookMarkup.MEDIAOBJECT_TAG.toString(), MEDIAOBJECT );
+        add( SimplifiedDocbookMarkup.IMAGEOBJECT_TAG.toString(), IMAGEOBJECT );
+        add( SimplifiedDocbookMarkup.FIGURE_TAG.toString(), FIGURE );
+        add( SimplifiedDocbookMarkup.IMAGEDATA_TAG.toString(), IMAGEDATA );
+        add( SimplifiedDocbookMarkup.CAPTION_TAG.toString(), CAPTION );
+        add( SimplifiedDocbookMarkup.TABLE_TAG.toString(), TABLE );
+        add( SimplifiedDocbookMarkup.INFORMALTABLE_TAG.toString(), INFORMALTABLE );
+        add( SimplifiedDocbookMarkup.TGROUP_TAG.toString(), TGROUP );
+        add( SimplifiedDocbookMarkup.THEAD_TAG.toString(), THEAD );
+        add( SimplifiedDocbookMarkup.TFOOT_TAG.toString(), TFOOT );
+        add( SimplifiedDocbookMarkup.TBODY_TAG.toString(), TBODY );
+        add( SimplifiedDocbookMarkup.TR_TAG.toString(), TR );
+        add( SimplifiedDocbookMarkup.ROW_TAG.toString(), ROW );
+        add( SimplifiedDocbookMarkup.TH_TAG.toString(), TH );
+        add( SimplifiedDocbookMarkup.ENTRY_TAG.toString(), ENTRY );
+        add( SimplifiedDocbookMarkup.ENTRYTBL_TAG.toString(), ENTRYTBL );
+        add( SimplifiedDocbookMarkup.ULINK_TAG.toString(), ULINK );
+        add( SimplifiedDocbookMarkup.LINK_TAG.toString(), LINK );
+        add( SimplifiedDocbookMarkup.XREF_TAG.toString(), XREF );
+        add( SimplifiedDocbookMarkup.ANCHOR_TAG.toString(), ANCHOR );
+        add( SimplifiedDocbookMarkup.PROGRAMLISTING_TAG.toString(), PROGRAMLISTING );
+        add( SimplifiedDocbookMarkup.LITERALLAYOUT_TAG.toString(), LITERALLAYOUT );
+        add( SimplifiedDocbookMarkup.COMMAND_TAG.toString(), COMMAND );
+        add( SimplifiedDocbookMarkup.USERINPUT_TAG.toString(), USERINPUT );
+        add( SimplifiedDocbookMarkup.REPLACEABLE_TAG.toString(), REPLACEABLE );
+        add( SimplifiedDocbookMarkup.SYSTEMITEM_TAG.toString(), SYSTEMITEM );
+        add( SimplifiedDocbookMarkup.CITETITLE_TAG.toString(), CITETITLE );
+        add( SimplifiedDocbookMarkup.EMPHASIS_TAG.toString(), EMPHASIS );
+        add( SimplifiedDocbookMarkup.ATTRIBUTION_TAG.toString(), ATTRIBUTION );
+        add( SimplifiedDocbookMarkup.LINEANNOTATION_TAG.toString(), LINEANNOTATION );
+        add( SimplifiedDocbookMarkup.COMPUTEROUTPUT_TAG.toString(), COMPUTEROUTPUT );
+        add( SimplifiedDocbookMarkup.LITERAL_TAG.toString(), LITERAL );
+        add( SimplifiedDocbookMarkup.OPTION_TAG.toString(), OPTION );
+        add( SimplifiedDocbookMarkup.FILENAME_TAG.toString(), FILENAME );
+        add( SimplifiedDocbookMarkup.ABBREV_TAG.toString(), ABBREV );
+        add( SimplifiedDocbookMarkup.ABSTRACT_TAG.toString(), ABSTRACT );
+        add( SimplifiedDocbookMarkup.BIBLIOMIXED_TAG.toString(), BIBLIOMIXED );
+        add( SimplifiedDocbookMarkup.BIBLIOMSET_TAG.toString(), BIBLIOMSET );
+        add( SimplifiedDocbookMarkup.COLSPEC_TAG.toString(), COLSPEC );
+        add( SimplifiedDocbookMarkup.EPIGRAPH_TAG.toString(), EPIGRAPH );
+        add( SimplifiedDocbookMarkup.EXAMPLE_TAG.toString(), EXAMPLE );
+        add( SimplifiedDocbookMarkup.FOOTNOTEREF_TAG.toString(), FOOTNOTEREF );
+        add( SimplifiedDocbookMarkup.INLINEMEDIAOBJECT_TAG.toString(), INLINEMEDIAOBJECT );
+        add( SimplifiedDocbookMarkup.ISSUENUM_TAG.toString(), ISSUENUM );
+        add( SimplifiedDocbookMarkup.PHRASE_TAG.toString(), PHRASE );
+        add( SimplifiedDocbookMarkup.PUBDATE_TAG.toString(), PUBDATE );
+        add( SimplifiedDocbookMarkup.PUBLISHERNAME_TAG.toString(), PUBLISHERNAME );
+        add( SimplifiedDocbookMarkup.SPANSPEC_TAG.toString(), SPANSPEC );
+        add( SimplifiedDocbookMarkup.TEXTOBJECT_TAG.toString(), TEXTOBJECT );
+        add( SimplifiedDocbookMarkup.VOLUMENUM_TAG.toString(), VOLUMENUM );
+
+        FLAGS[SECTION] |= HIER;
+        FLAGS[APPENDIX] |= HIER;
+        FLAGS[BIBLIOGRAPHY] |= HIER;
+        FLAGS[BIBLIODIV] |= HIER;
+
+        FLAGS[ARTICLEINFO] |= META;
+        FLAGS[AUTHORBLURB] |= META;
+        FLAGS[SUBTITLE] |= META;
+        FLAGS[TITLE] |= META;
+        FLAGS[TITLEABBREV] |= META;
+
+        FLAGS[TITLE] |= ARTICLEINFO_CHILD;
+        FLAGS[CORPAUTHOR] |= ARTICLEINFO_CHILD;
+        FLAGS[DATE] |= ARTICLEINFO_CHILD;
+
+        FLAGS[PROGRAMLISTING] |= VERBATIM;
+        FLAGS[LITERALLAYOUT] |= VERBATIM;
+
+        FLAGS[COMMAND] |= BOLD;
+        FLAGS[USERINPUT] |= BOLD;
+
+        FLAGS[REPLACEABLE] |= ITALIC;
+        FLAGS[SYSTEMITEM] |= ITALIC;
+        FLAGS[CITETITLE] |= ITALIC;
+        FLAGS[EMPHASIS] |= ITALIC;
+        FLAGS[ATTRIBUTION] |= ITALIC;
+        FLAGS[LINEANNOTATION] |= ITALIC;
+
+        FLAGS[COMPUTEROUTPUT] |= MONOSPACE;
+        FLAGS[REPLACEABLE] |= MONOSPACE;
+        FLAGS[LITERAL] |= MONOSPACE;
+        FLAGS[OPTION] |= MONOSPACE;
+        FLAGS[SYSTEMITEM] |= MONOSPACE;
+        FLAGS[USERINPUT] |= MONOSPACE;
+        FLAGS[FILENAME] |= MONOSPACE;
+
+        FLAGS[ABBREV] |= IGNORABLE;
+        FLAGS[ABSTRACT] |= IGNORABLE;
+        FLAGS[BIBLIOMIXED] |= IGNORABLE;
+        FLAGS[BIBLIOMSET] |= IGNORABLE;
+        FLAGS[COLSPEC] |= IGNORABLE;
+        FLAGS[EPIGRAPH] |= IGNORABLE;
+        FLAGS[EXAMPLE] |= IGNORABLE;
+        FLAGS[FOOTNOTEREF] |= IGNORABLE;
+        FLAGS[IMAGEOBJECT] |= IGNORABLE;
+        FLAGS[INLINEMEDIAOBJECT] |= IGNORABLE;
+        FLAGS[ISSUENUM] |= IGNORABLE;
+        FLAGS[PHRASE] |= IGNORABLE;
+        FLAGS[PUBDATE] |= IGNORABLE;
+        FLAGS[PUBLISHERNAME] |= IGNORABLE;
+        FLAGS[SPANSPEC] |= IGNORABLE;
+        FLAGS[TEXTOBJECT] |= IGNORABLE;
+        FLAGS[VOLUMENUM] |= IGNORABLE;
+    }
+
+    private DocbookElements()
+    {
+        // utility class
+    }
+
+    private static void add( String name, int id )
+    {
+        IDS.put( name, Integer.valueOf( id ) );
+    }
+
+    /**
+     * @param name an element name.
+     * @return the id of the element, or {@link #UNKNOWN}.
+     */
+    static int idOf( String name )
+    {
+        Integer id = IDS.get( name );
+        return ( id == null ) ? UNKNOWN : id.intValue();
+    }
+
+    /**
+     * @param id an element id.
+     * @param flag one or more flags.
+     * @return true if the element has one of the given flags.
+     */
+    static boolean is( int id, int flag )
+    {
+        return ( FLAGS[id] & flag ) != 0;
+    }
+}
@@ -23,7 +23,10 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.maven.doxia.parser.AbstractParserTest;
 import org.apache.maven.doxia.parser.Parser;
@@ -403,4 +406,81 @@ public class DocBookParserTest extends AbstractParserTest
         assertEquals( "body_", ( it.next() ).getName() );
         assertFalse( it.hasNext() );
     }
+
+    /**
+     * One parser instance used by several threads must give the same events as a sequential parse,
+     * the parent stack being part of the state of each parse.
+     *
+     * @throws Exception if any
+     */
+    public void testConcurrentParse()
+        throws Exception
+    {
+        final String[] texts = new String[] {
+            "<article><articleinfo><title>T</title><date>D</date></articleinfo>"
+                + "<para>a<footnote><para>x</para></footnote>b</para></article>",
+            "<article><para>c</para><itemizedlist><listitem><para>d</para></listitem></itemizedlist>"
+                + "<sectioninfo><title>s</title></sectioninfo><para>e</para></article>" };
+
+        final List<List<String>> expected = new ArrayList<List<String>>();
+        for ( String text : texts )
+        {
+            SinkEventTestingSink sink = new SinkEventTestingSink();
+            parser.parse( text, sink );
+            expected.add( eventNames( sink ) );
+        }
+
+        final List<String> failures = Collections.synchronizedList( new ArrayList<String>() );
+        Thread[] threads = new Thread[4];
+
+        for ( int t = 0; t < threads.length; t++ )
+        {
+            final int index = t % texts.length;
+            threads[t] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        for ( int i = 0; i < 200; i++ )
+                        {
+                            SinkEventTestingSink testSink = new SinkEventTestingSink();
+                            parser.parse( texts[index], testSink );
+
+                            if ( !expected.get( index ).equals( eventNames( testSink ) ) )
+                            {
+                                failures.add( "unexpected events: " + eventNames( testSink ) );
+                                return;
+                            }
+                        }
+                    }
+                    catch ( ParseException e )
+                    {
+                        failures.add( e.getMessage() );
+                    }
+                }
+            };
+            threads[t].start();
+        }
+
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        assertTrue( failures.toString(), failures.isEmpty() );
+    }
+
+    private static List<String> eventNames( SinkEventTestingSink testSink )
+    {
+        List<String> names = new ArrayList<String>();
+
+        for ( SinkEventElement event : testSink.getEventList() )
+        {
+            names.add( event.getName() );
+        }
+
+        return names;
+    }
 }
@@ -95,6 +95,12 @@ public class FmlParser
     public void parse( Reader source, Sink sink )
         throws ParseException
     {
+        if ( !isParseContext() )
+        {
+            parseInNewContext( source, sink, null );
+            return;
+        }
+
         this.faqs = null;
         this.sourceContent = null;
         init();
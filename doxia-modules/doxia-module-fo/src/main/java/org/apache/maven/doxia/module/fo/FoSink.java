@@ -41,6 +41,7 @@ import org.apache.maven.doxia.sink.impl.AbstractXmlSink;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
 import org.apache.maven.doxia.sink.impl.SinkUtils;
 import org.apache.maven.doxia.util.DoxiaUtils;
+import org.apache.maven.doxia.util.EscapingWriter;
 import org.apache.maven.doxia.util.HtmlTools;
 
 import org.codehaus.plexus.util.xml.PrettyPrintXMLWriter;
@@ -66,6 +67,12 @@ public class FoSink
     /** For writing the result. */
     private final PrintWriter out;
 
+    /** Escapes the content into {@link #out}. */
+    private final EscapingWriter escapingOut;
+
+    /** True if a subclass overrides write(String), which then has to see all the escaped content. */
+    private final boolean writeOverridden;
+
     /** Used to get the current position in numbered lists. */
     private final Stack<NumberedListItem> listStack;
 
@@ -158,6 +165,8 @@ public class FoSink
         }
 
         this.out = new PrintWriter( writer );
+        this.escapingOut = new FoEscapingWriter( out );
+        this.writeOverridden = overridesWrite( getClass() );
         this.encoding = encoding;
         this.languageId = languageId;
         this.config = new FoConfiguration();
@@ -175,6 +184,29 @@ public class FoSink
         setNameSpace( "fo" );
     }
 
+    /**
+     * Tells if the given sink class overrides {@link #write(String)}.
+     *
+     * @param sinkClass a subclass of FoSink.
+     * @return true if <code>write(String)</code> is not the one of FoSink.
+     */
+    private static boolean overridesWrite( Class<?> sinkClass )
+    {
+        for ( Class<?> c = sinkClass; c != FoSink.class; c = c.getSuperclass() )
+        {
+            try
+            {
+                c.getDeclaredMethod( "write", String.class );
+                return true;
+            }
+            catch ( NoSuchMethodException e )
+            {
+                // not in this class
+            }
+        }
+        return false;
+    }
+
     // TODO add FOP compliance mode?
 
     /**
@@ -1586,12 +1618,20 @@ public class FoSink
     }
 
     /**
-     * Writes content, escaping special characters.
+     * Writes content, escaping special characters, through {@link #write(String)} if a subclass overrides it.
      *
      * @param text The text to write.
      */
     protected void content( String text )
     {
+        if ( text != null && !writeOverridden && this.tableCaptionXMLWriterStack.isEmpty()
+            && this.tableContentWriterStack.isEmpty() )
+        {
+            // same as below, straight into the writer
+            escapingOut.write( text );
+            return;
+        }
+
         write( escaped( text, verbatim ) );
     }
 
@@ -1827,4 +1867,72 @@ public class FoSink
         this.inFigure = false;
         this.warnMessages = null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Escapes special characters like {@link FoSink#escaped(String, boolean)}, and normalizes EOLs.
+     */
+    private class FoEscapingWriter
+        extends EscapingWriter
+    {
+        FoEscapingWriter( Writer out )
+        {
+            super( out, true, EOL );
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected boolean isSpecial( char c )
+        {
+            switch ( c )
+            {
+                case '<':
+                case '>':
+                case '&':
+                case '\r':
+                case '\n':
+                    return true;
+                case ' ':
+                    return verbatim;
+                default:
+                    return c > '~' && needsSymbolFont( c );
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected int escape( char[] text, int index, int end )
+        {
+            char c = text[index];
+            switch ( c )
+            {
+                case '<':
+                case '>':
+                case '&':
+                    return super.escape( text, index, end );
+                case ' ':
+                    writeRaw( "&#160;" );
+                    return 1;
+                case '\r':
+                    if ( index + 1 < end && text[index + 1] == '\n' )
+                    {
+                        return 1 + escape( text, index + 1, end );
+                    }
+                    writeRaw( EOL );
+                    return 1;
+                case '\n':
+                    writeRaw( EOL );
+                    if ( verbatim )
+                    {
+                        writeRaw( "<fo:block/>" + EOL );
+                    }
+                    return 1;
+                default:
+                    // TODO: make font configurable?
+                    writeRaw( "<fo:inline font-family=\"Symbol\">" );
+                    writeRaw( String.valueOf( c ) );
+                    writeRaw( "</fo:inline>" );
+                    return 1;
+            }
+        }
+    }
+}
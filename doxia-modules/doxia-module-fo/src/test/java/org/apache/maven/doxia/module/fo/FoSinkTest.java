@@ -21,6 +21,7 @@ package org.apache.maven.doxia.module.fo;
 
 import java.io.File;
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.io.Writer;
 
 import org.apache.maven.doxia.document.DocumentMeta;
@@ -539,4 +540,30 @@ public class FoSinkTest
         // then generate PDF
         fo2pdf( fileName );
     }
+
+    /**
+     * A subclass overriding write(String) still sees the escaped content.
+     */
+    public void testContentWithOverriddenWrite()
+    {
+        final StringBuilder seen = new StringBuilder();
+        StringWriter out = new StringWriter();
+        FoSink fosink = new FoSink( out )
+        {
+            @Override
+            protected void write( String text )
+            {
+                seen.append( text );
+                super.write( text );
+            }
+        };
+
+        fosink.paragraph();
+        fosink.text( "a < b & c" );
+        fosink.paragraph_();
+        fosink.close();
+
+        assertEquals( out.toString(), seen.toString() );
+        assertTrue( seen.toString().contains( "a &lt; b &amp; c" ) );
+    }
 }
@@ -21,6 +21,7 @@ package org.apache.maven.doxia.module.markdown;
 
 import com.vladsch.flexmark.ast.FencedCodeBlock;
 import com.vladsch.flexmark.ast.IndentedCodeBlock;
+import com.vladsch.flexmark.ast.Node;
 import com.vladsch.flexmark.html.CustomNodeRenderer;
 import com.vladsch.flexmark.html.HtmlWriter;
 import com.vladsch.flexmark.html.renderer.NodeRenderer;
@@ -82,7 +83,7 @@ class FlexmarkDoxiaNodeRenderer implements NodeRenderer
         }
 
         //html.srcPosWithEOL(node.getContentChars()).withAttr(CoreNodeRenderer.CODE_CONTENT).tag("code");
-        String s = node.getContentChars().trimTailBlankLines().normalizeEndWithEOL();
+        String s = getCodeBlockText( node );
         while ( !s.isEmpty() && s.charAt( 0 ) == '\n' )
         {
             html.raw( "<br/>" );
@@ -120,7 +121,7 @@ class FlexmarkDoxiaNodeRenderer implements NodeRenderer
         //}
 
         //html.srcPosWithEOL(node.getContentChars()).withAttr(CoreNodeRenderer.CODE_CONTENT).tag("code");
-        String s = node.getContentChars().normalizeEOL();
+        String s = getCodeBlockText( node );
         while ( !s.isEmpty() && s.charAt( 0 ) == '\n' )
         {
             html.raw( "<br/>" );
@@ -134,6 +135,21 @@ class FlexmarkDoxiaNodeRenderer implements NodeRenderer
         html.line();
     }
 
+    /**
+     * Returns the content of a code block as it is rendered, shared with {@link FlexmarkDoxiaSinkRenderer}.
+     *
+     * @param node a {@link FencedCodeBlock} or an {@link IndentedCodeBlock}
+     * @return the code, with normalized EOLs
+     */
+    static String getCodeBlockText( Node node )
+    {
+        if ( node instanceof IndentedCodeBlock )
+        {
+            return ( (IndentedCodeBlock) node ).getContentChars().trimTailBlankLines().normalizeEndWithEOL();
+        }
+        return ( (FencedCodeBlock) node ).getContentChars().normalizeEOL();
+    }
+
     /**
      * Factory for doxia node renderer
      */
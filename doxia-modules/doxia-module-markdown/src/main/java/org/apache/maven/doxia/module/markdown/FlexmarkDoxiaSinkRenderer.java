@@ -0,0 +1,627 @@
+package org.apache.maven.doxia.module.markdown;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import com.vladsch.flexmark.ast.AutoLink;
+import com.vladsch.flexmark.ast.BlockQuote;
+import com.vladsch.flexmark.ast.BulletList;
+import com.vladsch.flexmark.ast.BulletListItem;
+import com.vladsch.flexmark.ast.Code;
+import com.vladsch.flexmark.ast.Document;
+import com.vladsch.flexmark.ast.Emphasis;
+import com.vladsch.flexmark.ast.FencedCodeBlock;
+import com.vladsch.flexmark.ast.HardLineBreak;
+import com.vladsch.flexmark.ast.Heading;
+import com.vladsch.flexmark.ast.HtmlCommentBlock;
+import com.vladsch.flexmark.ast.HtmlEntity;
+import com.vladsch.flexmark.ast.Image;
+import com.vladsch.flexmark.ast.IndentedCodeBlock;
+import com.vladsch.flexmark.ast.Link;
+import com.vladsch.flexmark.ast.ListItem;
+import com.vladsch.flexmark.ast.Node;
+import com.vladsch.flexmark.ast.OrderedList;
+import com.vladsch.flexmark.ast.OrderedListItem;
+import com.vladsch.flexmark.ast.Paragraph;
+import com.vladsch.flexmark.ast.ParagraphItemContainer;
+import com.vladsch.flexmark.ast.Reference;
+import com.vladsch.flexmark.ast.SoftLineBreak;
+import com.vladsch.flexmark.ast.StrongEmphasis;
+import com.vladsch.flexmark.ast.Text;
+import com.vladsch.flexmark.ast.TextBase;
+import com.vladsch.flexmark.ast.ThematicBreak;
+import com.vladsch.flexmark.ast.util.TextCollectingVisitor;
+import com.vladsch.flexmark.ext.escaped.character.EscapedCharacter;
+import com.vladsch.flexmark.ext.typographic.TypographicQuotes;
+import com.vladsch.flexmark.ext.typographic.TypographicSmarts;
+import com.vladsch.flexmark.parser.ListOptions;
+import com.vladsch.flexmark.util.html.Escaping;
+import org.apache.maven.doxia.markup.HtmlMarkup;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
+import org.apache.maven.doxia.sink.impl.SinkUtils;
+import org.apache.maven.doxia.util.DoxiaUtils;
+import org.apache.maven.doxia.util.HtmlTools;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Renders a flexmark-java document directly as Doxia sink events, without generating HTML first.
+ * <p/>
+ * The events are the ones {@link MarkdownParser.MarkdownHtmlParser} emits for the HTML that flexmark-java renders
+ * for the same nodes (including the code block layout of {@link FlexmarkDoxiaNodeRenderer}), down to the EOLs that
+ * flexmark-java writes between the tags, which the XHTML parser gives as text events. Only the nodes listed in
+ * {@link #SUPPORTED_NODES} are handled: documents containing anything else (raw HTML, tables, macros, ...) have to
+ * go through HTML, see {@link #isSupported(Node)}.
+ */
+class FlexmarkDoxiaSinkRenderer
+{
+    /**
+     * The nodes that can be rendered directly.
+     */
+    private static final Set<Class<?>> SUPPORTED_NODES = new HashSet<Class<?>>( Arrays.<Class<?>>asList(
+            Document.class, Paragraph.class, Heading.class, BlockQuote.class, ThematicBreak.class,
+            BulletList.class, BulletListItem.class, OrderedList.class, OrderedListItem.class,
+            FencedCodeBlock.class, IndentedCodeBlock.class, HtmlCommentBlock.class, Reference.class,
+            Text.class, TextBase.class, SoftLineBreak.class, HardLineBreak.class, HtmlEntity.class, Emphasis.class,
+            StrongEmphasis.class, Code.class, Link.class, Image.class, AutoLink.class,
+            EscapedCharacter.class, TypographicQuotes.class, TypographicSmarts.class ) );
+
+    private static final Object[] TAG_START = new Object[] { Integer.valueOf( HtmlMarkup.TAG_TYPE_START ) };
+
+    private static final Object[] TAG_END = new Object[] { Integer.valueOf( HtmlMarkup.TAG_TYPE_END ) };
+
+    private final Sink sink;
+
+    private final boolean emitComments;
+
+    /**
+     * Text of consecutive inline nodes, emitted as one text event like the HTML parser does.
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    private int sectionLevel;
+
+    /** The list options of the document, which tell how flexmark-java renders list items and their paragraphs. */
+    private ListOptions listOptions;
+
+    /** Whether the HTML would be at the start of a line. */
+    private boolean lineStart = true;
+
+    /** Whether the HTML would have an EOL before the next output, dropped at the end of the document. */
+    private boolean eol;
+
+    /** The number of EOLs the HTML would have so far. */
+    private int eolCount;
+
+    FlexmarkDoxiaSinkRenderer( Sink sink, boolean emitComments )
+    {
+        this.sink = sink;
+        this.emitComments = emitComments;
+    }
+
+    /**
+     * Checks if all the nodes of a document can be rendered directly.
+     *
+     * @param node the root of the document
+     * @return <code>true</code> if the document can be rendered with {@link #render(Node)}
+     */
+    static boolean isSupported( Node node )
+    {
+        if ( !SUPPORTED_NODES.contains( node.getClass() ) )
+        {
+            return false;
+        }
+
+        if ( node instanceof HtmlCommentBlock && getCommentText( node ).trim().startsWith( "MACRO" ) )
+        {
+            // macros are executed by the XHTML parser
+            return false;
+        }
+
+        for ( Node child = node.getFirstChild(); child != null; child = child.getNext() )
+        {
+            if ( !isSupported( child ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Emits the body content of a document, closing the sections that are still open at the end.
+     *
+     * @param document the root of the document
+     */
+    void render( Node document )
+    {
+        listOptions = ListOptions.getFrom( document.getDocument() );
+
+        renderChildren( document );
+        flushText();
+        consecutiveSections( 0 );
+    }
+
+    /**
+     * Ends the current line of the HTML if it is not empty, like the <code>line()</code> of the flexmark-java
+     * <code>HtmlWriter</code>.
+     */
+    private void line()
+    {
+        if ( !lineStart )
+        {
+            eol = true;
+            lineStart = true;
+        }
+    }
+
+    /**
+     * Called before the HTML of a text: the pending EOL is part of it.
+     */
+    private void output()
+    {
+        if ( eol )
+        {
+            text.append( '\n' );
+            eol = false;
+            eolCount++;
+        }
+        lineStart = false;
+    }
+
+    /**
+     * Called before the HTML tag of an event: the pending EOL and the text before are emitted first.
+     */
+    private void tag()
+    {
+        output();
+        flushText();
+    }
+
+    private void renderChildren( Node node )
+    {
+        for ( Node child = node.getFirstChild(); child != null; child = child.getNext() )
+        {
+            renderNode( child );
+        }
+    }
+
+    private void renderNode( Node node )
+    {
+        if ( node instanceof Text )
+        {
+            appendText( node.getChars().unescape() );
+        }
+        else if ( node instanceof TextBase )
+        {
+            // the text around backslash escapes
+            renderChildren( node );
+        }
+        else if ( node instanceof SoftLineBreak )
+        {
+            // the XHTML parser collapses the line break with the surrounding whitespace
+            output();
+            text.append( ' ' );
+        }
+        else if ( node instanceof HtmlEntity || node instanceof EscapedCharacter )
+        {
+            appendText( node.getChars().unescape() );
+        }
+        else if ( node instanceof TypographicSmarts )
+        {
+            appendEntities( ( (TypographicSmarts) node ).getTypographicText() );
+        }
+        else if ( node instanceof TypographicQuotes )
+        {
+            TypographicQuotes quotes = (TypographicQuotes) node;
+            appendEntities( quotes.getTypographicOpening() );
+            renderChildren( node );
+            appendEntities( quotes.getTypographicClosing() );
+        }
+        else
+        {
+            renderElement( node );
+        }
+    }
+
+    private void renderElement( Node node )
+    {
+        if ( node instanceof Paragraph )
+        {
+            renderParagraph( (Paragraph) node );
+        }
+        else if ( node instanceof Heading )
+        {
+            renderHeading( (Heading) node );
+        }
+        else if ( node instanceof BulletList )
+        {
+            tag();
+            sink.list();
+            renderBlock( node );
+            sink.list_();
+        }
+        else if ( node instanceof OrderedList )
+        {
+            int start = ( (OrderedList) node ).getStartNumber();
+            SinkEventAttributes attributes = SinkEventAttributeSet.EMPTY;
+            if ( listOptions.isOrderedListManualStart() && start != 1 )
+            {
+                attributes = new SinkEventAttributeSet( "start", String.valueOf( start ) );
+            }
+
+            tag();
+            sink.numberedList( Sink.NUMBERING_DECIMAL, attributes );
+            renderBlock( node );
+            sink.numberedList_();
+        }
+        else if ( node instanceof BulletListItem )
+        {
+            tag();
+            sink.listItem();
+            renderListItem( (ListItem) node );
+            sink.listItem_();
+        }
+        else if ( node instanceof OrderedListItem )
+        {
+            tag();
+            sink.numberedListItem();
+            renderListItem( (ListItem) node );
+            sink.numberedListItem_();
+        }
+        else if ( node instanceof BlockQuote )
+        {
+            tag();
+            sink.unknown( "blockquote", TAG_START, SinkEventAttributeSet.EMPTY );
+            renderBlock( node );
+            sink.unknown( "blockquote", TAG_END, null );
+        }
+        else if ( node instanceof ThematicBreak )
+        {
+            tag();
+            sink.horizontalRule();
+        }
+        else if ( node instanceof FencedCodeBlock || node instanceof IndentedCodeBlock )
+        {
+            renderCodeBlock( node );
+        }
+        else if ( node instanceof HtmlCommentBlock )
+        {
+            tag();
+            if ( emitComments )
+            {
+                sink.comment( getCommentText( node ) );
+            }
+            // the HTML block keeps its EOL
+            lineStart = true;
+            eol = true;
+        }
+        else if ( node instanceof HardLineBreak )
+        {
+            tag();
+            sink.lineBreak();
+            line();
+        }
+        else if ( node instanceof Emphasis )
+        {
+            tag();
+            sink.italic();
+            renderChildren( node );
+            tag();
+            sink.italic_();
+        }
+        else if ( node instanceof StrongEmphasis )
+        {
+            tag();
+            sink.bold();
+            renderChildren( node );
+            tag();
+            sink.bold_();
+        }
+        else if ( node instanceof Code )
+        {
+            tag();
+            sink.monospaced();
+            appendText( Escaping.collapseWhitespace( ( (Code) node ).getText(), true ) );
+            tag();
+            sink.monospaced_();
+        }
+        else if ( node instanceof Link )
+        {
+            Link link = (Link) node;
+            tag();
+            String url = link.getUrl().unescape();
+            sink.link( getHref( url ), getLinkAttributes( url, link.getTitle().unescape() ) );
+            renderChildren( node );
+            tag();
+            sink.link_();
+        }
+        else if ( node instanceof Image )
+        {
+            tag();
+            renderImage( (Image) node );
+        }
+        else if ( node instanceof AutoLink )
+        {
+            String url = ( (AutoLink) node ).getText().toString();
+            tag();
+            sink.link( getHref( url ), getLinkAttributes( url, "" ) );
+            appendText( url );
+            tag();
+            sink.link_();
+        }
+        // Reference: link definitions are not rendered
+    }
+
+    /**
+     * Renders the children of a block element whose tags flexmark-java writes on their own lines.
+     */
+    private void renderBlock( Node node )
+    {
+        line();
+        renderChildren( node );
+        line();
+        tag();
+    }
+
+    private void renderListItem( ListItem node )
+    {
+        if ( !listOptions.isTightListItem( node ) )
+        {
+            renderBlock( node );
+            return;
+        }
+
+        // a tight item is written on one line, unless its content spans several lines
+        int eols = eolCount;
+        renderChildren( node );
+        if ( eolCount != eols )
+        {
+            line();
+        }
+        tag();
+    }
+
+    private void renderParagraph( Paragraph node )
+    {
+        // flexmark-java doesn't wrap the paragraphs of tight list items in <p>
+        boolean wrap = !( node.getParent() instanceof ParagraphItemContainer
+            && ( (ParagraphItemContainer) node.getParent() ).isParagraphWrappingDisabled( node, listOptions,
+                                                                                          node.getDocument() ) );
+
+        if ( wrap )
+        {
+            tag();
+            sink.paragraph();
+        }
+
+        renderChildren( node );
+
+        if ( wrap )
+        {
+            tag();
+            sink.paragraph_();
+        }
+    }
+
+    private void renderHeading( Heading node )
+    {
+        int level = node.getLevel();
+
+        tag();
+
+        if ( level == 1 )
+        {
+            // h1 is not a section, see DOXIA-203
+            sink.unknown( "h1", TAG_START, SinkEventAttributeSet.EMPTY );
+            renderChildren( node );
+            tag();
+            sink.unknown( "h1", TAG_END, null );
+            return;
+        }
+
+        int section = level - 1;
+
+        consecutiveSections( section );
+        sink.section( section, SinkEventAttributeSet.EMPTY );
+        sink.sectionTitle( section, SinkEventAttributeSet.EMPTY );
+        renderChildren( node );
+        tag();
+        sink.sectionTitle_( section );
+    }
+
+    private void renderCodeBlock( Node node )
+    {
+        line();
+        tag();
+
+        // flexmark-java moves the class of the div to the pre element
+        sink.unknown( "div", TAG_START, SinkEventAttributeSet.EMPTY );
+        sink.verbatim( new SinkEventAttributeSet( SinkEventAttributes.CLASS, "source" ) );
+
+        String s = FlexmarkDoxiaNodeRenderer.getCodeBlockText( node );
+        while ( !s.isEmpty() && s.charAt( 0 ) == '\n' )
+        {
+            sink.lineBreak();
+            s = s.substring( 1 );
+        }
+        appendText( s );
+        tag();
+
+        sink.verbatim_();
+        sink.unknown( "div", TAG_END, null );
+
+        line();
+    }
+
+    private void renderImage( Image node )
+    {
+        String src = node.getUrl().unescape();
+
+        SinkEventAttributeSet attributes = new SinkEventAttributeSet( SinkEventAttributes.SRC, src );
+        attributes.addAttribute( SinkEventAttributes.ALT, new TextCollectingVisitor().collectAndGetText( node ) );
+
+        String title = node.getTitle().unescape();
+        if ( !title.isEmpty() )
+        {
+            attributes.addAttribute( SinkEventAttributes.TITLE, title );
+        }
+
+        sink.figureGraphics( src, attributes );
+    }
+
+    /**
+     * Make sure sections are nested consecutively, like {@code XhtmlBaseParser#consecutiveSections(int, Sink)}.
+     *
+     * @param newLevel the new section level, all upper levels have to be closed.
+     */
+    private void consecutiveSections( int newLevel )
+    {
+        while ( sectionLevel >= newLevel && sectionLevel > 0 )
+        {
+            sink.section_( sectionLevel );
+            sectionLevel--;
+        }
+
+        while ( sectionLevel < newLevel - 1 )
+        {
+            sectionLevel++;
+            sink.section( sectionLevel, null );
+        }
+
+        sectionLevel = newLevel;
+    }
+
+    private void flushText()
+    {
+        if ( text.length() > 0 )
+        {
+            SinkUtils.text( sink, text );
+            text.setLength( 0 );
+        }
+    }
+
+    /**
+     * Appends a text as flexmark-java escapes it: the XHTML parser gives every entity as a text event of its own.
+     */
+    private void appendText( CharSequence s )
+    {
+        output();
+        for ( int i = 0; i < s.length(); i++ )
+        {
+            char c = s.charAt( i );
+            if ( c == '&' || c == '<' || c == '>' || c == '"' )
+            {
+                entity( String.valueOf( c ) );
+            }
+            else
+            {
+                text.append( c );
+            }
+        }
+    }
+
+    /**
+     * Appends the raw HTML of a typographic node, made of entities and plain characters.
+     */
+    private void appendEntities( String html )
+    {
+        if ( html == null )
+        {
+            return;
+        }
+
+        output();
+        int i = 0;
+        while ( i < html.length() )
+        {
+            int end = html.indexOf( ';', i );
+            if ( html.charAt( i ) == '&' && end != -1 )
+            {
+                String name = html.substring( i + 1, end );
+                if ( "#160".equals( name ) || "nbsp".equals( name ) || "#x00A0".equals( name ) )
+                {
+                    // like AbstractXmlParser#handleEntity
+                    tag();
+                    sink.nonBreakingSpace();
+                }
+                else
+                {
+                    entity( HtmlTools.unescapeHTML( html.substring( i, end + 1 ), false ) );
+                }
+                i = end + 1;
+            }
+            else
+            {
+                text.append( html.charAt( i ) );
+                i++;
+            }
+        }
+    }
+
+    private void entity( String s )
+    {
+        flushText();
+        sink.text( s );
+    }
+
+    /**
+     * Encodes an invalid anchor in a local link, as the XHTML parser does.
+     */
+    private static String getHref( String href )
+    {
+        int hashIndex = href.indexOf( '#' );
+        if ( hashIndex != -1 && !DoxiaUtils.isExternalLink( href ) )
+        {
+            String hash = href.substring( hashIndex + 1 );
+
+            if ( !DoxiaUtils.isValidId( hash ) )
+            {
+                return href.substring( 0, hashIndex ) + "#" + DoxiaUtils.encodeId( hash, true );
+            }
+        }
+        return href;
+    }
+
+    /**
+     * The attributes of the <code>a</code> element, as the XHTML parser passes them along with the href.
+     */
+    private static SinkEventAttributes getLinkAttributes( String url, String title )
+    {
+        SinkEventAttributeSet attributes = new SinkEventAttributeSet( SinkEventAttributes.HREF, url );
+        if ( !title.isEmpty() )
+        {
+            attributes.addAttribute( SinkEventAttributes.TITLE, title );
+        }
+        return attributes;
+    }
+
+    private static String getCommentText( Node node )
+    {
+        String comment = node.getChars().toString().trim();
+        int start = comment.startsWith( "<!--" ) ? 4 : 0;
+        int end = comment.endsWith( "-->" ) ? comment.length() - 3 : comment.length();
+        return start <= end ? comment.substring( start, end ) : "";
+    }
+}
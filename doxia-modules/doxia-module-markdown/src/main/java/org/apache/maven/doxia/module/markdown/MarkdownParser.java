@@ -36,6 +36,7 @@ import org.apache.maven.doxia.parser.AbstractParser;
 import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.parser.Parser;
 import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 import org.codehaus.plexus.util.IOUtil;
@@ -45,14 +46,20 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * Implementation of {@link org.apache.maven.doxia.parser.Parser} for Markdown documents.
  * <p/>
- * Defers effective parsing to the <a href="https://github.com/vsch/flexmark-java">flexmark-java library</a>,
- * which generates HTML content then delegates parsing of this content to a slightly modified Doxia Xhtml parser.
+ * Defers effective parsing to the <a href="https://github.com/vsch/flexmark-java">flexmark-java library</a>.
+ * The resulting document is rendered directly as Sink events when it only contains plain Markdown nodes,
+ * otherwise flexmark-java generates HTML content then parsing of this content is delegated to a slightly
+ * modified Doxia Xhtml parser.
  * (before 1.8, the <a href="http://pegdown.org">PegDown library</a> was used)
  *
  * @author Vladimir Schneider <vladimir@vladsch.com>
@@ -72,14 +79,14 @@ public class MarkdownParser
     /**
      * Regex that identifies a multimarkdown-style metadata section at the start of the document
      */
-    private static final String MULTI_MARKDOWN_METADATA_SECTION =
-        "^(((?:[^\\s:][^:]*):(?:.*(?:\r?\n\\p{Blank}+[^\\s].*)*\r?\n))+)(?:\\s*\r?\n)";
+    private static final Pattern MULTI_MARKDOWN_METADATA_SECTION = Pattern.compile(
+        "^(((?:[^\\s:][^:]*):(?:.*(?:\r?\n\\p{Blank}+[^\\s].*)*\r?\n))+)(?:\\s*\r?\n)", Pattern.MULTILINE );
 
     /**
      * Regex that captures the key and value of a multimarkdown-style metadata entry.
      */
-    private static final String MULTI_MARKDOWN_METADATA_ENTRY =
-        "([^\\s:][^:]*):(.*(?:\r?\n\\p{Blank}+[^\\s].*)*)\r?\n";
+    private static final Pattern MULTI_MARKDOWN_METADATA_ENTRY = Pattern.compile(
+        "([^\\s:][^:]*):(.*(?:\r?\n\\p{Blank}+[^\\s].*)*)\r?\n", Pattern.MULTILINE );
 
     /**
      * In order to ensure that we have minimal risk of false positives when slurping metadata sections, the
@@ -90,6 +97,17 @@ public class MarkdownParser
         { "title", "author", "date", "address", "affiliation", "copyright", "email", "keywords", "language", "phone",
             "subtitle" };
 
+    /**
+     * The flexmark-java extensions used by Doxia, as pegdown flags.
+     */
+    private static final int FLEXMARK_EXTENSIONS = Extensions.ALL & ~( Extensions.HARDWRAPS | Extensions.ANCHORLINKS );
+
+    /**
+     * The flexmark-java parsers and renderers are immutable and thread-safe once built: they are shared by all
+     * documents, keyed by the pegdown flags they were configured with.
+     */
+    private static final ConcurrentMap<Integer, Flexmark> FLEXMARK_CACHE = new ConcurrentHashMap<Integer, Flexmark>();
+
     public int getType()
     {
         return TXT_TYPE;
@@ -100,13 +118,46 @@ public class MarkdownParser
 
     public void parse( Reader source, Sink sink )
         throws ParseException
+    {
+        parse( source, sink, true );
+    }
+
+    /**
+     * Parses a Markdown document, rendered directly as sink events if possible.
+     *
+     * @param source the Markdown source
+     * @param sink the sink to receive the events
+     * @param direct <code>false</code> to always go through HTML, for instance to compare both ways
+     * @throws ParseException if the source cannot be read
+     */
+    void parse( Reader source, Sink sink, boolean direct )
+        throws ParseException
     {
         try
         {
-            // Markdown to HTML (using flexmark-java library)
-            String html = toHtml( source );
-            // then HTML to Sink API
-            parser.parse( new StringReader( html ), sink );
+            String text = IOUtil.toString( source );
+
+            Map<String, String> metadata = new LinkedHashMap<String, String>();
+            int contentStart = parseMetadata( text, metadata );
+
+            Flexmark flexmark = getFlexmark( FLEXMARK_EXTENSIONS );
+            Node rootNode = flexmark.parser.parse( text.substring( contentStart ) );
+
+            String headingTitle = hasTitle( metadata ) ? null : getFirstHeadingText( rootNode );
+
+            if ( direct && FlexmarkDoxiaSinkRenderer.isSupported( rootNode ) )
+            {
+                // Markdown AST to Sink API
+                render( metadata, headingTitle, rootNode, sink );
+            }
+            else
+            {
+                // Markdown to HTML (using flexmark-java library)
+                String markdownHtml = flexmark.renderer.render( rootNode );
+                String html = toHtml( metadata, headingTitle, markdownHtml );
+                // then HTML to Sink API
+                parser.parse( new StringReader( html ), sink );
+            }
         }
         catch ( IOException e )
         {
@@ -115,18 +166,32 @@ public class MarkdownParser
     }
 
     /**
-     * uses flexmark-java library to parse content and generate HTML output.
-     *
-     * @param source the Markdown source
-     * @return HTML content generated by flexmark-java
-     * @throws IOException passed through
+     * @param extensions the pegdown flags of the extensions to enable
+     * @return the cached flexmark-java parser and renderer for this configuration
+     */
+    private static Flexmark getFlexmark( int extensions )
+    {
+        Integer key = Integer.valueOf( extensions );
+        Flexmark flexmark = FLEXMARK_CACHE.get( key );
+        if ( flexmark == null )
+        {
+            flexmark = new Flexmark( getFlexmarkOptions( extensions ) );
+            Flexmark cached = FLEXMARK_CACHE.putIfAbsent( key, flexmark );
+            if ( cached != null )
+            {
+                flexmark = cached;
+            }
+        }
+        return flexmark;
+    }
+
+    /**
+     * @param pegdownExtensions the pegdown flags of the extensions to enable
+     * @return the flexmark-java options used by Doxia
      */
-    private String toHtml( Reader source )
-        throws IOException
+    private static MutableDataHolder getFlexmarkOptions( int pegdownExtensions )
     {
-        String text = IOUtil.toString( source );
-        MutableDataHolder flexmarkOptions = PegdownOptionsAdapter.flexmarkOptions(
-                Extensions.ALL & ~( Extensions.HARDWRAPS | Extensions.ANCHORLINKS ) ).toMutable();
+        MutableDataHolder flexmarkOptions = PegdownOptionsAdapter.flexmarkOptions( pegdownExtensions ).toMutable();
         ArrayList<Extension> extensions = new ArrayList<Extension>();
         for ( Extension extension : flexmarkOptions.get( com.vladsch.flexmark.parser.Parser.EXTENSIONS ) )
         {
@@ -139,100 +204,275 @@ public class MarkdownParser
         flexmarkOptions.set( HtmlRenderer.HTML_BLOCK_CLOSE_TAG_EOL, false );
         flexmarkOptions.set( HtmlRenderer.MAX_TRAILING_BLANK_LINES, -1 );
 
-        com.vladsch.flexmark.parser.Parser parser = com.vladsch.flexmark.parser.Parser.builder( flexmarkOptions )
-                .build();
-        HtmlRenderer renderer = HtmlRenderer.builder( flexmarkOptions ).build();
+        return flexmarkOptions;
+    }
 
-        StringBuilder html = new StringBuilder( 1000 );
-        html.append( "<html>" );
-        html.append( "<head>" );
-        Pattern metadataPattern = Pattern.compile( MULTI_MARKDOWN_METADATA_SECTION, Pattern.MULTILINE );
-        Matcher metadataMatcher = metadataPattern.matcher( text );
-        boolean haveTitle = false;
-        if ( metadataMatcher.find() )
+    /**
+     * Reads the multimarkdown-style metadata section at the start of the document, if any.
+     *
+     * @param text the Markdown source
+     * @param metadata the map to put the metadata entries to, in document order
+     * @return the index of the Markdown content after the metadata section, <code>0</code> if there is none
+     */
+    private static int parseMetadata( String text, Map<String, String> metadata )
+    {
+        int start = skipBlankLines( text, 0 );
+        int end = findMetadataSectionEnd( text, start );
+        if ( end < 0 )
+        {
+            return 0;
+        }
+
+        // the regex only sees the candidate section, not the whole document
+        Matcher metadataMatcher = MULTI_MARKDOWN_METADATA_SECTION.matcher( text ).region( start, end );
+        if ( !metadataMatcher.lookingAt() )
+        {
+            return 0;
+        }
+
+        Matcher lineMatcher = MULTI_MARKDOWN_METADATA_ENTRY.matcher( metadataMatcher.group( 1 ) );
+        boolean first = true;
+        while ( lineMatcher.find() )
         {
-            metadataPattern = Pattern.compile( MULTI_MARKDOWN_METADATA_ENTRY, Pattern.MULTILINE );
-            Matcher lineMatcher = metadataPattern.matcher( metadataMatcher.group( 1 ) );
-            boolean first = true;
-            while ( lineMatcher.find() )
+            String key = StringUtils.trimToEmpty( lineMatcher.group( 1 ) );
+            if ( first )
             {
-                String key = StringUtils.trimToEmpty( lineMatcher.group( 1 ) );
-                if ( first )
+                boolean found = false;
+                for ( String k : STANDARD_METADATA_KEYS )
                 {
-                    boolean found = false;
-                    for ( String k : STANDARD_METADATA_KEYS )
-                    {
-                        if ( k.equalsIgnoreCase( key ) )
-                        {
-                            found = true;
-                            break;
-                        }
-                    }
-                    if ( !found )
+                    if ( k.equalsIgnoreCase( key ) )
                     {
+                        found = true;
                         break;
                     }
-                    first = false;
                 }
-                String value = StringUtils.trimToEmpty( lineMatcher.group( 2 ) );
-                if ( "title".equalsIgnoreCase( key ) )
+                if ( !found )
                 {
-                    haveTitle = true;
-                    html.append( "<title>" );
-                    html.append( StringEscapeUtils.escapeXml( value ) );
-                    html.append( "</title>" );
-                }
-                else if ( "author".equalsIgnoreCase( key ) )
-                {
-                    html.append( "<meta name=\'author\' content=\'" );
-                    html.append( StringEscapeUtils.escapeXml( value ) );
-                    html.append( "\' />" );
+                    break;
                 }
-                else if ( "date".equalsIgnoreCase( key ) )
+                first = false;
+            }
+            String value = StringUtils.trimToEmpty( lineMatcher.group( 2 ) );
+            metadata.put( key, value );
+        }
+
+        return first ? 0 : metadataMatcher.end();
+    }
+
+    /**
+     * Finds the end of a candidate metadata section by looking at the first characters of its lines only:
+     * the section is made of <code>key: value</code> lines, possibly continued by indented lines, and ends with
+     * a blank line. Documents without metadata are rejected after their first line.
+     *
+     * @param text the Markdown source
+     * @param start the index of the first line of the section
+     * @return the index after the blank line ending the section, or <code>-1</code> if there is no such section
+     */
+    private static int findMetadataSectionEnd( String text, int start )
+    {
+        int length = text.length();
+        int lineStart = start;
+        boolean first = true;
+
+        while ( lineStart < length )
+        {
+            int lineEnd = text.indexOf( '\n', lineStart );
+            if ( lineEnd < 0 )
+            {
+                // no blank line after the section
+                return -1;
+            }
+
+            char c = text.charAt( lineStart );
+            if ( c == '\n' || c == '\r' )
+            {
+                return first ? -1 : lineEnd + 1;
+            }
+            if ( c == ' ' || c == '\t' )
+            {
+                if ( first )
                 {
-                    html.append( "<meta name=\'date\' content=\'" );
-                    html.append( StringEscapeUtils.escapeXml( value ) );
-                    html.append( "\' />" );
+                    return -1;
                 }
-                else
+                if ( text.substring( lineStart, lineEnd ).trim().length() == 0 )
                 {
-                    html.append( "<meta name=\'" );
-                    html.append( StringEscapeUtils.escapeXml( key ) );
-                    html.append( "\' content=\'" );
-                    html.append( StringEscapeUtils.escapeXml( value ) );
-                    html.append( "\' />" );
+                    return lineEnd + 1;
                 }
+                // continuation of the previous value
             }
-            if ( !first )
+            else if ( c == ':' || text.lastIndexOf( ':', lineEnd ) < lineStart )
             {
-                text = text.substring( metadataMatcher.end() );
+                // not a key: value line
+                return -1;
             }
+
+            first = false;
+            lineStart = lineEnd + 1;
         }
 
-        Node rootNode = parser.parse( text );
-        String markdownHtml = renderer.render( rootNode );
+        return -1;
+    }
 
-        if ( !haveTitle && rootNode.hasChildren() )
+    /**
+     * @param text the Markdown source
+     * @param start an index at the start of a line
+     * @return the index of the first line after <code>start</code> that is not blank
+     */
+    private static int skipBlankLines( String text, int start )
+    {
+        int lineStart = start;
+        int i = start;
+        while ( i < text.length() && Character.isWhitespace( text.charAt( i ) ) )
         {
-            // use the first (non-comment) node only if it is a heading
-            Node firstNode = rootNode.getFirstChild();
-            while ( firstNode != null && !( firstNode instanceof Heading ) )
+            if ( text.charAt( i ) == '\n' )
             {
-                if ( !( firstNode instanceof HtmlCommentBlock ) )
-                {
-                    break;
-                }
-                firstNode = firstNode.getNext();
+                lineStart = i + 1;
+            }
+            i++;
+        }
+        return lineStart;
+    }
+
+    private static boolean hasTitle( Map<String, String> metadata )
+    {
+        for ( String key : metadata.keySet() )
+        {
+            if ( "title".equalsIgnoreCase( key ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param rootNode the Markdown document
+     * @return the text of the first heading if it is the first (non-comment) node, or <code>null</code>
+     */
+    private static String getFirstHeadingText( Node rootNode )
+    {
+        // use the first (non-comment) node only if it is a heading
+        Node firstNode = rootNode.getFirstChild();
+        while ( firstNode != null && !( firstNode instanceof Heading ) )
+        {
+            if ( !( firstNode instanceof HtmlCommentBlock ) )
+            {
+                break;
             }
+            firstNode = firstNode.getNext();
+        }
+
+        if ( firstNode instanceof Heading )
+        {
+            TextCollectingVisitor collectingVisitor = new TextCollectingVisitor();
+            return collectingVisitor.collectAndGetText( firstNode );
+        }
+        return null;
+    }
 
-            if ( firstNode instanceof Heading )
+    /**
+     * Emits the Sink events of a document without going through HTML.
+     *
+     * @param metadata the metadata entries
+     * @param headingTitle the title taken from the first heading, or <code>null</code>
+     * @param rootNode the Markdown document
+     * @param sink the sink to receive the events
+     */
+    private void render( Map<String, String> metadata, String headingTitle, Node rootNode, Sink sink )
+    {
+        sink.enableLogging( getLog() );
+
+        sink.head();
+        for ( Map.Entry<String, String> entry : metadata.entrySet() )
+        {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            if ( "title".equalsIgnoreCase( key ) )
+            {
+                sink.title();
+                sink.text( value );
+                sink.title_();
+            }
+            else if ( "author".equalsIgnoreCase( key ) )
+            {
+                sink.author( null );
+                sink.text( value );
+                sink.author_();
+            }
+            else if ( "date".equalsIgnoreCase( key ) )
+            {
+                sink.date( null );
+                sink.text( value );
+                sink.date_();
+            }
+            else
+            {
+                sink.unknown( "meta", new Object[] { Integer.valueOf( HtmlMarkup.TAG_TYPE_SIMPLE ) },
+                              new SinkEventAttributeSet( "name", key, "content", value ) );
+            }
+        }
+        if ( headingTitle != null )
+        {
+            sink.title();
+            sink.text( headingTitle );
+            sink.title_();
+        }
+        sink.head_();
+
+        sink.body();
+        new FlexmarkDoxiaSinkRenderer( sink, isEmitComments() ).render( rootNode );
+        sink.body_();
+    }
+
+    /**
+     * Wraps the HTML generated by flexmark-java into a complete HTML document.
+     *
+     * @param metadata the metadata entries
+     * @param headingTitle the title taken from the first heading, or <code>null</code>
+     * @param markdownHtml the HTML content generated by flexmark-java
+     * @return HTML document
+     */
+    private static String toHtml( Map<String, String> metadata, String headingTitle, String markdownHtml )
+    {
+        StringBuilder html = new StringBuilder( markdownHtml.length() + 1000 );
+        html.append( "<html>" );
+        html.append( "<head>" );
+        for ( Map.Entry<String, String> entry : metadata.entrySet() )
+        {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            if ( "title".equalsIgnoreCase( key ) )
             {
                 html.append( "<title>" );
-                TextCollectingVisitor collectingVisitor = new TextCollectingVisitor();
-                String headingText = collectingVisitor.collectAndGetText( firstNode );
-                html.append( StringEscapeUtils.escapeXml( headingText ) );
+                html.append( StringEscapeUtils.escapeXml( value ) );
                 html.append( "</title>" );
             }
+            else if ( "author".equalsIgnoreCase( key ) )
+            {
+                html.append( "<meta name=\'author\' content=\'" );
+                html.append( StringEscapeUtils.escapeXml( value ) );
+                html.append( "\' />" );
+            }
+            else if ( "date".equalsIgnoreCase( key ) )
+            {
+                html.append( "<meta name=\'date\' content=\'" );
+                html.append( StringEscapeUtils.escapeXml( value ) );
+                html.append( "\' />" );
+            }
+            else
+            {
+                html.append( "<meta name=\'" );
+                html.append( StringEscapeUtils.escapeXml( key ) );
+                html.append( "\' content=\'" );
+                html.append( StringEscapeUtils.escapeXml( value ) );
+                html.append( "\' />" );
+            }
+        }
+        if ( headingTitle != null )
+        {
+            html.append( "<title>" );
+            html.append( StringEscapeUtils.escapeXml( headingTitle ) );
+            html.append( "</title>" );
         }
         html.append( "</head>" );
         html.append( "<body>" );
@@ -243,6 +483,22 @@ public class MarkdownParser
         return html.toString();
     }
 
+    /**
+     * A flexmark-java parser and the matching HTML renderer.
+     */
+    private static class Flexmark
+    {
+        private final com.vladsch.flexmark.parser.Parser parser;
+
+        private final HtmlRenderer renderer;
+
+        Flexmark( MutableDataHolder options )
+        {
+            this.parser = com.vladsch.flexmark.parser.Parser.builder( options ).build();
+            this.renderer = HtmlRenderer.builder( options ).build();
+        }
+    }
+
     /**
      * Internal parser for HTML generated by the Markdown library.
      */
@@ -261,7 +517,7 @@ public class MarkdownParser
             boolean visited = super.baseEndTag( parser, sink );
             if ( !visited )
             {
-                if ( parser.getName().equals( HtmlMarkup.DIV.toString() ) )
+                if ( getTagId( parser ) == ID_DIV )
                 {
                     handleUnknown( parser, sink, TAG_TYPE_END );
                     visited = true;
@@ -276,7 +532,7 @@ public class MarkdownParser
             boolean visited = super.baseStartTag( parser, sink );
             if ( !visited )
             {
-                if ( parser.getName().equals( HtmlMarkup.DIV.toString() ) )
+                if ( getTagId( parser ) == ID_DIV )
                 {
                     handleUnknown( parser, sink, TAG_TYPE_START );
                     visited = true;
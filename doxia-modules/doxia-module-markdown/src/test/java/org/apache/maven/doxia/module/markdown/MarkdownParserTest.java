@@ -27,6 +27,7 @@ import org.apache.maven.doxia.sink.impl.SinkEventTestingSink;
 import org.codehaus.plexus.util.IOUtil;
 
 import java.io.Reader;
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
@@ -213,6 +214,24 @@ public class MarkdownParserTest
         assertFalse( it.hasNext() );
     }
 
+    /**
+     * Assert metadata entries are only recognized at the start of the document when parsing
+     * "metadata-not-at-start.md".
+     *
+     * @throws Exception if the event list is not correct when parsing the document.
+     */
+    public void testMetadataNotAtStartSinkEvent()
+        throws Exception
+    {
+        Iterator<SinkEventElement> it =
+            parseFileToEventTestingSink( "metadata-not-at-start" ).getEventList().iterator();
+
+        assertEquals( it, "head", "head_", "body", "paragraph", "text", "paragraph_", "paragraph", "text",
+                      "paragraph_", "paragraph", "text", "paragraph_", "body_" );
+
+        assertFalse( it.hasNext() );
+    }
+
     /**
      * Assert the first header is passed as title event when parsing "first-heading.md".
      *
@@ -268,6 +287,47 @@ public class MarkdownParserTest
         assertFalse( it.hasNext() );
     }
 
+    /**
+     * Assert the documents rendered directly as sink events give the same events as through HTML.
+     *
+     * @throws Exception if the events differ.
+     */
+    public void testDirectRenderingSinkEvents()
+        throws Exception
+    {
+        String[] files = { "bold", "code", "comment-before-heading", "first-heading", "image", "italic", "link",
+            "list", "metadata", "metadata-not-at-start", "numbered-list", "paragraph", "direct-rendering" };
+
+        for ( String file : files )
+        {
+            assertEquals( file, getEvents( file, false ), getEvents( file, true ) );
+        }
+    }
+
+    private String getEvents( String file, boolean direct )
+        throws Exception
+    {
+        Reader reader = getTestReader( file );
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        try
+        {
+            parser.parse( reader, sink, direct );
+        }
+        finally
+        {
+            IOUtil.close( reader );
+        }
+
+        // an event without arguments is the same as with empty arguments
+        StringBuilder events = new StringBuilder();
+        for ( SinkEventElement event : sink.getEventList() )
+        {
+            Object[] args = event.getArgs() == null ? new Object[0] : event.getArgs();
+            events.append( event.getName() ).append( Arrays.deepToString( args ) ).append( '\n' );
+        }
+        return events.toString();
+    }
+
     /**
      * Parse the file and return a {@link SinkEventTestingSink}.
      *
@@ -58,32 +58,32 @@ public class TWikiParser
     private static final int EXTENSION_LENGTH = 6;
 
     /** paragraph parser. */
-    private final ParagraphBlockParser paraParser = new ParagraphBlockParser();
+    private ParagraphBlockParser paraParser;
 
     /** section parser. */
-    private final SectionBlockParser sectionParser = new SectionBlockParser();
+    private SectionBlockParser sectionParser;
 
     /** enumeration parser. */
-    private final GenericListBlockParser listParser = new GenericListBlockParser();
+    private GenericListBlockParser listParser;
 
     /** Text parser. */
-    private final FormatedTextParser formatTextParser = new FormatedTextParser();
+    private FormatedTextParser formatTextParser;
 
     /**
      * text parser.
      * This only works for xhtml output, but there is no way
      * of transforming a wikiWord in another context.
      */
-    private final TextParser textParser = new TextParser( new XHTMLWikiWordLinkResolver() );
+    private TextParser textParser;
 
     /** hruler parser. */
-    private final HRuleBlockParser hrulerParser = new HRuleBlockParser();
+    private HRuleBlockParser hrulerParser;
 
     /** table parser. */
-    private final TableBlockParser tableParser = new TableBlockParser();
+    private TableBlockParser tableParser;
 
     /** verbatim parser. */
-    private final VerbatimBlockParser verbatimParser = new VerbatimBlockParser();
+    private VerbatimBlockParser verbatimParser;
 
     /** list of parsers to try to apply to the toplevel */
     private BlockParser[] parsers;
@@ -139,9 +139,15 @@ public class TWikiParser
     }
     
     @Override
-    public final synchronized void parse( final Reader source, final Sink sink, String reference )
+    public final void parse( final Reader source, final Sink sink, String reference )
         throws ParseException
     {
+        if ( !isParseContext() )
+        {
+            parseInNewContext( source, sink, reference );
+            return;
+        }
+
         init();
 
         List<Block> blocks;
@@ -234,6 +240,16 @@ public class TWikiParser
     {
         super.init();
 
+        // the block parsers keep state, so every parse context gets its own set
+        paraParser = new ParagraphBlockParser();
+        sectionParser = new SectionBlockParser();
+        listParser = new GenericListBlockParser();
+        formatTextParser = new FormatedTextParser();
+        textParser = new TextParser( new XHTMLWikiWordLinkResolver() );
+        hrulerParser = new HRuleBlockParser();
+        tableParser = new TableBlockParser();
+        verbatimParser = new VerbatimBlockParser();
+
         paraParser.setSectionParser( sectionParser );
         paraParser.setListParser( listParser );
         paraParser.setTextParser( formatTextParser );
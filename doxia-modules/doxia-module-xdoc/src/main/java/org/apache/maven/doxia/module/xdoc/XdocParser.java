@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,6 +32,7 @@ import javax.swing.text.html.HTML.Attribute;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.manager.MacroNotFoundException;
 import org.apache.maven.doxia.macro.MacroRequest;
+import org.apache.maven.doxia.macro.toc.DeferredTocSink;
 import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.parser.Parser;
 import org.apache.maven.doxia.parser.XhtmlBaseParser;
@@ -56,6 +58,54 @@ public class XdocParser
     extends XhtmlBaseParser
     implements XdocMarkup
 {
+    private static final int ID_DOCUMENT = ID_COUNT;
+
+    private static final int ID_HEAD = ID_COUNT + 1;
+
+    private static final int ID_TITLE = ID_COUNT + 2;
+
+    private static final int ID_AUTHOR = ID_COUNT + 3;
+
+    private static final int ID_DATE = ID_COUNT + 4;
+
+    private static final int ID_META = ID_COUNT + 5;
+
+    private static final int ID_BODY = ID_COUNT + 6;
+
+    private static final int ID_SECTION = ID_COUNT + 7;
+
+    private static final int ID_SUBSECTION = ID_COUNT + 8;
+
+    private static final int ID_SOURCE = ID_COUNT + 9;
+
+    private static final int ID_PROPERTIES = ID_COUNT + 10;
+
+    private static final int ID_MACRO = ID_COUNT + 11;
+
+    private static final int ID_PARAM = ID_COUNT + 12;
+
+    /** The tags handled by this parser. */
+    private static final Map<String, Integer> TAGS;
+
+    static
+    {
+        Map<String, Integer> tags = newTagTable();
+        tags.put( DOCUMENT_TAG.toString(), ID_DOCUMENT );
+        tags.put( HEAD.toString(), ID_HEAD );
+        tags.put( TITLE.toString(), ID_TITLE );
+        tags.put( AUTHOR_TAG.toString(), ID_AUTHOR );
+        tags.put( DATE_TAG.toString(), ID_DATE );
+        tags.put( META.toString(), ID_META );
+        tags.put( BODY.toString(), ID_BODY );
+        tags.put( SECTION_TAG.toString(), ID_SECTION );
+        tags.put( SUBSECTION_TAG.toString(), ID_SUBSECTION );
+        tags.put( SOURCE_TAG.toString(), ID_SOURCE );
+        tags.put( PROPERTIES_TAG.toString(), ID_PROPERTIES );
+        tags.put( MACRO_TAG.toString(), ID_MACRO );
+        tags.put( PARAM.toString(), ID_PARAM );
+        TAGS = Collections.unmodifiableMap( tags );
+    }
+
     /**
      * The source content of the input reader. Used to pass into macros.
      */
@@ -92,6 +142,12 @@ public class XdocParser
     public void parse( Reader source, Sink sink )
         throws ParseException
     {
+        if ( !isParseContext() )
+        {
+            parseInNewContext( source, sink, null );
+            return;
+        }
+
         this.sourceContent = null;
 
         try
@@ -112,9 +168,16 @@ public class XdocParser
         // leave this at default (false) until everything is properly implemented, see DOXIA-226
         //setIgnorableWhitespace( true );
 
+        DeferredTocSink tocSink = newDeferredTocSink( sink, sourceContent, "name=\"toc\"", "name='toc'" );
+
         try
         {
-            super.parse( new StringReader( sourceContent ), sink );
+            super.parse( new StringReader( sourceContent ), ( tocSink != null ) ? tocSink : sink );
+
+            if ( tocSink != null )
+            {
+                tocSink.resolve();
+            }
         }
         finally
         {
@@ -122,6 +185,13 @@ public class XdocParser
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected Map<String, Integer> getTagTable()
+    {
+        return TAGS;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -132,118 +202,109 @@ public class XdocParser
 
         SinkEventAttributeSet attribs = getAttributesFromParser( parser );
 
-        if ( parser.getName().equals( DOCUMENT_TAG.toString() ) )
-        {
-            //Do nothing
-            return;
-        }
-        else if ( parser.getName().equals( HEAD.toString() ) )
-        {
-            if ( !inHead ) // we might be in head from a <properties> already
-            {
-                this.inHead = true;
-
-                sink.head( attribs );
-            }
-        }
-        else if ( parser.getName().equals( TITLE.toString() ) )
+        switch ( getTagId( parser ) )
         {
-            if ( hasTitle )
-            {
-                getLog().warn( "<title> was already defined in <properties>, ignored <title> in <head>." );
+            case ID_DOCUMENT:
+                //Do nothing
+                return;
+            case ID_HEAD:
+                if ( !inHead ) // we might be in head from a <properties> already
+                {
+                    this.inHead = true;
 
-                try
+                    sink.head( attribs );
+                }
+                break;
+            case ID_TITLE:
+                if ( hasTitle )
                 {
-                    parser.nextText(); // ignore next text event
+                    getLog().warn( "<title> was already defined in <properties>, ignored <title> in <head>." );
+
+                    try
+                    {
+                        parser.nextText(); // ignore next text event
+                    }
+                    catch ( IOException ex )
+                    {
+                        throw new XmlPullParserException( "Failed to parse text", parser, ex );
+                    }
                 }
-                catch ( IOException ex )
+                else
                 {
-                    throw new XmlPullParserException( "Failed to parse text", parser, ex );
+                    sink.title( attribs );
+                }
+                break;
+            case ID_AUTHOR:
+                sink.author( attribs );
+                break;
+            case ID_DATE:
+                sink.date( attribs );
+                break;
+            case ID_META:
+                handleMetaStart( parser, sink, attribs );
+                break;
+            case ID_BODY:
+                if ( inHead )
+                {
+                    sink.head_();
+                    this.inHead = false;
                 }
-            }
-            else
-            {
-                sink.title( attribs );
-            }
-        }
-        else if ( parser.getName().equals( AUTHOR_TAG.toString() ) )
-        {
-            sink.author( attribs );
-        }
-        else if ( parser.getName().equals( DATE_TAG.toString() ) )
-        {
-            sink.date( attribs );
-        }
-        else if ( parser.getName().equals( META.toString() ) )
-        {
-            handleMetaStart( parser, sink, attribs );
-        }
-        else if ( parser.getName().equals( BODY.toString() ) )
-        {
-            if ( inHead )
-            {
-                sink.head_();
-                this.inHead = false;
-            }
-
-            sink.body( attribs );
-        }
-        else if ( parser.getName().equals( SECTION_TAG.toString() ) )
-        {
-            handleSectionStart( Sink.SECTION_LEVEL_1, sink, attribs, parser );
-        }
-        else if ( parser.getName().equals( SUBSECTION_TAG.toString() ) )
-        {
-            handleSectionStart( Sink.SECTION_LEVEL_2, sink, attribs, parser );
-        }
-        else if ( parser.getName().equals( SOURCE_TAG.toString() ) )
-        {
-            verbatim();
-
-            attribs.addAttributes( SinkEventAttributeSet.BOXED );
-
-            sink.verbatim( attribs );
-        }
-        else if ( parser.getName().equals( PROPERTIES_TAG.toString() ) )
-        {
-            if ( !inHead ) // we might be in head from a <head> already
-            {
-                this.inHead = true;
-
-                sink.head( attribs );
-            }
-        }
-
-        // ----------------------------------------------------------------------
-        // Macro
-        // ----------------------------------------------------------------------
-
-        else if ( parser.getName().equals( MACRO_TAG.toString() ) )
-        {
-            handleMacroStart( parser );
-        }
-        else if ( parser.getName().equals( PARAM.toString() ) )
-        {
-            handleParamStart( parser, sink );
-        }
-        else if ( !baseStartTag( parser, sink ) )
-        {
-            if ( isEmptyElement )
-            {
-                handleUnknown( parser, sink, TAG_TYPE_SIMPLE );
-            }
-            else
-            {
-                handleUnknown( parser, sink, TAG_TYPE_START );
-            }
 
-            if ( getLog().isDebugEnabled() )
-            {
-                String position = "[" + parser.getLineNumber() + ":" + parser.getColumnNumber() + "]";
-                String tag = "<" + parser.getName() + ">";
+                sink.body( attribs );
+                break;
+            case ID_SECTION:
+                handleSectionStart( Sink.SECTION_LEVEL_1, sink, attribs, parser );
+                break;
+            case ID_SUBSECTION:
+                handleSectionStart( Sink.SECTION_LEVEL_2, sink, attribs, parser );
+                break;
+            case ID_SOURCE:
+                verbatim();
+
+                attribs.addAttributes( SinkEventAttributeSet.BOXED );
+
+                sink.verbatim( attribs );
+                break;
+            case ID_PROPERTIES:
+                if ( !inHead ) // we might be in head from a <head> already
+                {
+                    this.inHead = true;
 
-                getLog().debug( "Unrecognized xdoc tag: " + tag + " at " + position );
-            }
+                    sink.head( attribs );
+                }
+                break;
+
+            // ----------------------------------------------------------------------
+            // Macro
+            // ----------------------------------------------------------------------
+
+            case ID_MACRO:
+                handleMacroStart( parser );
+                break;
+            case ID_PARAM:
+                handleParamStart( parser, sink );
+                break;
+            default:
+                if ( !baseStartTag( parser, sink ) )
+                {
+                    if ( isEmptyElement )
+                    {
+                        handleUnknown( parser, sink, TAG_TYPE_SIMPLE );
+                    }
+                    else
+                    {
+                        handleUnknown( parser, sink, TAG_TYPE_START );
+                    }
+
+                    if ( getLog().isDebugEnabled() )
+                    {
+                        String position = "[" + parser.getLineNumber() + ":" + parser.getColumnNumber() + "]";
+                        String tag = "<" + parser.getName() + ">";
+
+                        getLog().debug( "Unrecognized xdoc tag: " + tag + " at " + position );
+                    }
+                }
+                break;
         }
     }
 
@@ -253,74 +314,66 @@ public class XdocParser
     protected void handleEndTag( XmlPullParser parser, Sink sink )
         throws XmlPullParserException, MacroExecutionException
     {
-        if ( parser.getName().equals( DOCUMENT_TAG.toString() ) )
-        {
-            //Do nothing
-            return;
-        }
-        else if ( parser.getName().equals( HEAD.toString() ) )
-        {
-            //Do nothing, head is closed with BODY start.
-        }
-        else if ( parser.getName().equals( BODY.toString() ) )
-        {
-            consecutiveSections( 0, sink );
-
-            sink.body_();
-        }
-        else if ( parser.getName().equals( TITLE.toString() ) )
-        {
-            if ( !hasTitle )
-            {
-                sink.title_();
-                this.hasTitle = true;
-            }
-        }
-        else if ( parser.getName().equals( AUTHOR_TAG.toString() ) )
-        {
-            sink.author_();
-        }
-        else if ( parser.getName().equals( DATE_TAG.toString() ) )
-        {
-            sink.date_();
-        }
-        else if ( parser.getName().equals( SOURCE_TAG.toString() ) )
-        {
-            verbatim_();
-
-            sink.verbatim_();
-        }
-        else if ( parser.getName().equals( PROPERTIES_TAG.toString() ) )
-        {
-            //Do nothing, head is closed with BODY start.
-        }
-        else if ( parser.getName().equals( MACRO_TAG.toString() ) )
-        {
-            handleMacroEnd( sink );
-        }
-        else if ( parser.getName().equals( PARAM.toString() ) )
-        {
-            if ( !StringUtils.isNotEmpty( macroName ) )
-            {
-                handleUnknown( parser, sink, TAG_TYPE_END );
-            }
-        }
-        else if ( parser.getName().equals( SECTION_TAG.toString() ) )
-        {
-            consecutiveSections( 0, sink );
-
-            sink.section1_();
-        }
-        else if ( parser.getName().equals( SUBSECTION_TAG.toString() ) )
-        {
-            consecutiveSections( Sink.SECTION_LEVEL_1, sink );
-        }
-        else if ( !baseEndTag( parser, sink ) )
-        {
-            if ( !isEmptyElement )
-            {
-                handleUnknown( parser, sink, TAG_TYPE_END );
-            }
+        switch ( getTagId( parser ) )
+        {
+            case ID_DOCUMENT:
+                //Do nothing
+                return;
+            case ID_HEAD:
+                //Do nothing, head is closed with BODY start.
+                break;
+            case ID_BODY:
+                consecutiveSections( 0, sink );
+
+                sink.body_();
+                break;
+            case ID_TITLE:
+                if ( !hasTitle )
+                {
+                    sink.title_();
+                    this.hasTitle = true;
+                }
+                break;
+            case ID_AUTHOR:
+                sink.author_();
+                break;
+            case ID_DATE:
+                sink.date_();
+                break;
+            case ID_SOURCE:
+                verbatim_();
+
+                sink.verbatim_();
+                break;
+            case ID_PROPERTIES:
+                //Do nothing, head is closed with BODY start.
+                break;
+            case ID_MACRO:
+                handleMacroEnd( sink );
+                break;
+            case ID_PARAM:
+                if ( !StringUtils.isNotEmpty( macroName ) )
+                {
+                    handleUnknown( parser, sink, TAG_TYPE_END );
+                }
+                break;
+            case ID_SECTION:
+                consecutiveSections( 0, sink );
+
+                sink.section1_();
+                break;
+            case ID_SUBSECTION:
+                consecutiveSections( Sink.SECTION_LEVEL_1, sink );
+                break;
+            default:
+                if ( !baseEndTag( parser, sink ) )
+                {
+                    if ( !isEmptyElement )
+                    {
+                        handleUnknown( parser, sink, TAG_TYPE_END );
+                    }
+                }
+                break;
         }
 
         isEmptyElement = false;
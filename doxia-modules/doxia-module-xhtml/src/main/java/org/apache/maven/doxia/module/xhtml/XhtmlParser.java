@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import javax.swing.text.html.HTML.Attribute;
@@ -30,6 +31,7 @@ import javax.swing.text.html.HTML.Attribute;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.manager.MacroNotFoundException;
 import org.apache.maven.doxia.macro.MacroRequest;
+import org.apache.maven.doxia.macro.toc.DeferredTocSink;
 import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.parser.Parser;
 import org.apache.maven.doxia.parser.XhtmlBaseParser;
@@ -53,6 +55,33 @@ public class XhtmlParser
     extends XhtmlBaseParser
     implements XhtmlMarkup
 {
+    private static final int ID_HTML = ID_COUNT;
+
+    private static final int ID_HEAD = ID_COUNT + 1;
+
+    private static final int ID_TITLE = ID_COUNT + 2;
+
+    private static final int ID_META = ID_COUNT + 3;
+
+    private static final int ID_ADDRESS = ID_COUNT + 4;
+
+    private static final int ID_BODY = ID_COUNT + 5;
+
+    /** The tags handled by this parser. */
+    private static final Map<String, Integer> TAGS;
+
+    static
+    {
+        Map<String, Integer> tags = newTagTable();
+        tags.put( HTML.toString(), ID_HTML );
+        tags.put( HEAD.toString(), ID_HEAD );
+        tags.put( TITLE.toString(), ID_TITLE );
+        tags.put( META.toString(), ID_META );
+        tags.put( ADDRESS.toString(), ID_ADDRESS );
+        tags.put( BODY.toString(), ID_BODY );
+        TAGS = Collections.unmodifiableMap( tags );
+    }
+
     /** For boxed verbatim. */
     private boolean boxed;
 
@@ -64,6 +93,13 @@ public class XhtmlParser
      */
     private String sourceContent;
 
+    /** {@inheritDoc} */
+    @Override
+    protected Map<String, Integer> getTagTable()
+    {
+        return TAGS;
+    }
+
     /** {@inheritDoc} */
     protected void handleStartTag( XmlPullParser parser, Sink sink )
         throws XmlPullParserException, MacroExecutionException
@@ -72,109 +108,105 @@ public class XhtmlParser
 
         SinkEventAttributeSet attribs = getAttributesFromParser( parser );
 
-        if ( parser.getName().equals( HTML.toString() ) )
+        switch ( getTagId( parser ) )
         {
-            //Do nothing
-            return;
-        }
-        else if ( parser.getName().equals( HEAD.toString() ) )
-        {
-            sink.head( attribs );
-        }
-        else if ( parser.getName().equals( TITLE.toString() ) )
-        {
-            sink.title( attribs );
-        }
-        else if ( parser.getName().equals( META.toString() ) )
-        {
-            String name = parser.getAttributeValue( null, Attribute.NAME.toString() );
-            String content = parser.getAttributeValue( null, Attribute.CONTENT.toString() );
-
-            if ( "author".equals( name ) )
-            {
-                sink.author( null );
-
-                sink.text( content );
-
-                sink.author_();
-            }
-            else if ( "date".equals( name ) )
-            {
-                sink.date( null );
-
-                sink.text( content );
-
-                sink.date_();
-            }
-            else
-            {
-                sink.unknown( "meta", new Object[] { Integer.valueOf( TAG_TYPE_SIMPLE ) }, attribs );
-            }
-        }
-        /*
-         * The ADDRESS element may be used by authors to supply contact information
-         * for a model or a major part of a model such as a form. This element
-         *  often appears at the beginning or end of a model.
-         */
-        else if ( parser.getName().equals( ADDRESS.toString() ) )
-        {
-            sink.author( attribs );
-        }
-        else if ( parser.getName().equals( BODY.toString() ) )
-        {
-            sink.body( attribs );
-        }
-        else if ( parser.getName().equals( DIV.toString() ) )
-        {
-            String divclass = parser.getAttributeValue( null, Attribute.CLASS.toString() );
-
-            if ( "source".equals( divclass ) )
-            {
-                this.boxed = true;
-            }
-
-            baseStartTag( parser, sink ); // pick up other divs
-        }
-        /*
-         * The PRE element tells visual user agents that the enclosed text is
-         * "preformatted". When handling preformatted text, visual user agents:
-         * - May leave white space intact.
-         * - May render text with a fixed-pitch font.
-         * - May disable automatic word wrap.
-         * - Must not disable bidirectional processing.
-         * Non-visual user agents are not required to respect extra white space
-         * in the content of a PRE element.
-         */
-        else if ( parser.getName().equals( PRE.toString() ) )
-        {
-            if ( boxed )
-            {
-                attribs.addAttributes( SinkEventAttributeSet.BOXED );
-            }
-
-            verbatim();
-
-            sink.verbatim( attribs );
-        }
-        else if ( !baseStartTag( parser, sink ) )
-        {
-            if ( isEmptyElement )
-            {
-                handleUnknown( parser, sink, TAG_TYPE_SIMPLE );
-            }
-            else
-            {
-                handleUnknown( parser, sink, TAG_TYPE_START );
-            }
-
-            if ( getLog().isDebugEnabled() )
-            {
-                String position = "[" + parser.getLineNumber() + ":"
-                    + parser.getColumnNumber() + "]";
-                String tag = "<" + parser.getName() + ">";
-
-                getLog().debug( "Unrecognized xhtml tag: " + tag + " at " + position );
-            }
+            case ID_HTML:
+                //Do nothing
+                return;
+            case ID_HEAD:
+                sink.head( attribs );
+                break;
+            case ID_TITLE:
+                sink.title( attribs );
+                break;
+            case ID_META:
+                String name = parser.getAttributeValue( null, Attribute.NAME.toString() );
+                String content = parser.getAttributeValue( null, Attribute.CONTENT.toString() );
+
+                if ( "author".equals( name ) )
+                {
+                    sink.author( null );
+
+                    sink.text( content );
+
+                    sink.author_();
+                }
+                else if ( "date".equals( name ) )
+                {
+                    sink.date( null );
+
+                    sink.text( content );
+
+                    sink.date_();
+                }
+                else
+                {
+                    sink.unknown( "meta", new Object[] { Integer.valueOf( TAG_TYPE_SIMPLE ) }, attribs );
+                }
+                break;
+            /*
+             * The ADDRESS element may be used by authors to supply contact information
+             * for a model or a major part of a model such as a form. This element
+             *  often appears at the beginning or end of a model.
+             */
+            case ID_ADDRESS:
+                sink.author( attribs );
+                break;
+            case ID_BODY:
+                sink.body( attribs );
+                break;
+            case ID_DIV:
+                String divclass = parser.getAttributeValue( null, Attribute.CLASS.toString() );
+
+                if ( "source".equals( divclass ) )
+                {
+                    this.boxed = true;
+                }
+
+                baseStartTag( parser, sink ); // pick up other divs
+                break;
+            /*
+             * The PRE element tells visual user agents that the enclosed text is
+             * "preformatted". When handling preformatted text, visual user agents:
+             * - May leave white space intact.
+             * - May render text with a fixed-pitch font.
+             * - May disable automatic word wrap.
+             * - Must not disable bidirectional processing.
+             * Non-visual user agents are not required to respect extra white space
+             * in the content of a PRE element.
+             */
+            case ID_PRE:
+                if ( boxed )
+                {
+                    attribs.addAttributes( SinkEventAttributeSet.BOXED );
+                }
+
+                verbatim();
+
+                sink.verbatim( attribs );
+                break;
+            default:
+                if ( !baseStartTag( parser, sink ) )
+                {
+                    if ( isEmptyElement )
+                    {
+                        handleUnknown( parser, sink, TAG_TYPE_SIMPLE );
+                    }
+                    else
+                    {
+                        handleUnknown( parser, sink, TAG_TYPE_START );
+                    }
+
+                    if ( getLog().isDebugEnabled() )
+                    {
+                        String position = "[" + parser.getLineNumber() + ":"
+                            + parser.getColumnNumber() + "]";
+                        String tag = "<" + parser.getName() + ">";
+
+                        getLog().debug( "Unrecognized xhtml tag: " + tag + " at " + position );
+                    }
+                }
+                break;
         }
     }
 
@@ -182,40 +214,38 @@ public class XhtmlParser
     protected void handleEndTag( XmlPullParser parser, Sink sink )
         throws XmlPullParserException, MacroExecutionException
     {
-        if ( parser.getName().equals( HTML.toString() ) )
-        {
-            //Do nothing
-            return;
-        }
-        else if ( parser.getName().equals( HEAD.toString() ) )
-        {
-            sink.head_();
-        }
-        else if ( parser.getName().equals( TITLE.toString() ) )
-        {
-            sink.title_();
-        }
-        else if ( parser.getName().equals( BODY.toString() ) )
-        {
-            consecutiveSections( 0, sink );
-
-            sink.body_();
-        }
-        else if ( parser.getName().equals( ADDRESS.toString() ) )
+        switch ( getTagId( parser ) )
         {
-            sink.author_();
-        }
-        else if ( parser.getName().equals( DIV.toString() ) )
-        {
-            this.boxed = false;
-            baseEndTag( parser, sink );
-        }
-        else if ( !baseEndTag( parser, sink ) )
-        {
-            if ( !isEmptyElement )
-            {
-                handleUnknown( parser, sink, TAG_TYPE_END );
-            }
+            case ID_HTML:
+                //Do nothing
+                return;
+            case ID_HEAD:
+                sink.head_();
+                break;
+            case ID_TITLE:
+                sink.title_();
+                break;
+            case ID_BODY:
+                consecutiveSections( 0, sink );
+
+                sink.body_();
+                break;
+            case ID_ADDRESS:
+                sink.author_();
+                break;
+            case ID_DIV:
+                this.boxed = false;
+                baseEndTag( parser, sink );
+                break;
+            default:
+                if ( !baseEndTag( parser, sink ) )
+                {
+                    if ( !isEmptyElement )
+                    {
+                        handleUnknown( parser, sink, TAG_TYPE_END );
+                    }
+                }
+                break;
         }
 
         isEmptyElement = false;
@@ -334,6 +364,12 @@ public class XhtmlParser
     public void parse( Reader source, Sink sink )
         throws ParseException
     {
+        if ( !isParseContext() )
+        {
+            parseInNewContext( source, sink, null );
+            return;
+        }
+
         this.sourceContent = null;
 
         try
@@ -351,9 +387,16 @@ public class XhtmlParser
             IOUtil.close( source );
         }
 
+        DeferredTocSink tocSink = newDeferredTocSink( sink, sourceContent, "{toc" );
+
         try
         {
-            super.parse( new StringReader( sourceContent ), sink );
+            super.parse( new StringReader( sourceContent ), ( tocSink != null ) ? tocSink : sink );
+
+            if ( tocSink != null )
+            {
+                tocSink.resolve();
+            }
         }
         finally
         {
@@ -0,0 +1,49 @@
+package org.apache.maven.doxia.sink;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * A {@link SinkFactory} which also creates sinks into a channel.
+ * <p>
+ *   This interface is optional so that existing factories keep working: callers check for it with
+ *   <code>instanceof</code>, and fall back to {@link SinkFactory#createSink(java.io.OutputStream, String)} otherwise.
+ * </p>
+ *
+ * @since 1.8
+ */
+public interface ChannelSinkFactory
+    extends SinkFactory
+{
+    /**
+     * Create a <code>Sink</code> into a channel using a specified charset.
+     *
+     * @param channel not null channel to write the result, closed with the sink.
+     * @param charset not null output charset.
+     * @return a <code>Sink</code> instance using specified charset.
+     * @throws java.io.IOException if any
+     * @since 1.8
+     */
+    Sink createSink( WritableByteChannel channel, Charset charset )
+        throws IOException;
+}
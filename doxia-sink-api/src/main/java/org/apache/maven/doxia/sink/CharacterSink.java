@@ -0,0 +1,64 @@
+package org.apache.maven.doxia.sink;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * A {@link Sink} which also accepts text without a String, from a reusable buffer of the caller.
+ * <p>
+ *   This interface is optional so that existing sinks keep working: callers check for it with
+ *   <code>instanceof</code>, and fall back to {@link Sink#text(String)} with a copy of the text otherwise.
+ * </p>
+ *
+ * @since 1.8
+ */
+public interface CharacterSink
+    extends Sink
+{
+    /**
+     * Adds a text given as a character sequence, which may be a reusable buffer of the caller.
+     *
+     * <p>
+     *   The sequence is only valid for the duration of the call: a Sink which keeps the text has to copy it.
+     *   Apart from that, this is the same as {@link Sink#text(String)}.
+     * </p>
+     *
+     * @param text The text to write, may be <code>null</code>.
+     * @see Sink#text(String)
+     * @since 1.8
+     */
+    void text( CharSequence text );
+
+    /**
+     * Adds a text given as a range of a character array, which may be a reusable buffer of the caller,
+     * <i>eg</i> the text characters of an XML pull parser.
+     *
+     * <p>
+     *   The characters are only valid for the duration of the call: a Sink which keeps the text has to copy them.
+     *   Apart from that, this is the same as {@link Sink#text(String)}.
+     * </p>
+     *
+     * @param text The characters of the text to write.
+     * @param offset The index of the first character of the text.
+     * @param length The number of characters of the text.
+     * @see Sink#text(String)
+     * @since 1.8
+     */
+    void text( char[] text, int offset, int length );
+}